@@ -0,0 +1,151 @@
+package com.mx.path.core.common.compression;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Base for the built-in compression services. See {@link CompressionServiceSettings}.
+ *
+ * <p>A compressed value is a marker character identifying the service, followed by the unpadded base64 of the
+ * compressed UTF-8 bytes. Values smaller than the minimum size, and values that do not get smaller, are stored as they
+ * are behind the {@link #STORED} marker. Values without a marker were stored before compression was enabled, and are
+ * decompressed as they are.
+ */
+public abstract class CompressionServiceBase implements CompressionService {
+
+  /**
+   * Marks a value stored without compression.
+   */
+  protected static final char STORED = '\u0001';
+
+  /**
+   * Marks a value compressed by {@link DeflateCompressionService}.
+   */
+  protected static final char DEFLATE = '\u0002';
+
+  /**
+   * Marks a value compressed by {@link LzCompressionService}.
+   */
+  protected static final char LZ = '\u0003';
+
+  private final char marker;
+  private final CompressionServiceSettings settings;
+  private final int minSize;
+  private final byte[] dictionary;
+
+  /**
+   * Build new {@link CompressionServiceBase}.
+   *
+   * @param marker marks values compressed by this service
+   * @param settings compression settings
+   */
+  protected CompressionServiceBase(char marker, CompressionServiceSettings settings) {
+    this.marker = marker;
+    this.settings = settings;
+    this.minSize = settings.minSizeOrDefault();
+    this.dictionary = settings.dictionaryBytes();
+  }
+
+  /**
+   * Check if data was compressed, or stored, by this service.
+   *
+   * @param data data to check
+   * @return true if data has this service's marker
+   */
+  @Override
+  public final boolean isCompressed(String data) {
+    if (data == null || data.isEmpty()) {
+      return false;
+    }
+
+    char first = data.charAt(0);
+    return first == STORED || first == marker;
+  }
+
+  /**
+   * Compress data, unless it is smaller than the minimum size or does not get smaller.
+   *
+   * @param data data to compress
+   * @return marked data
+   */
+  @Override
+  public final String compress(String data) {
+    if (data == null) {
+      return null;
+    }
+
+    byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < minSize) {
+      return STORED + data;
+    }
+
+    String compressed = marker + Base64.getEncoder().withoutPadding().encodeToString(compressBytes(bytes, dictionary));
+    if (compressed.length() > data.length()) {
+      return STORED + data;
+    }
+
+    return compressed;
+  }
+
+  /**
+   * Decompress data. Data without a marker is returned as it is.
+   *
+   * @param data data to decompress
+   * @return data decompressed
+   */
+  @Override
+  public final String decompress(String data) {
+    if (data == null || data.isEmpty()) {
+      return data;
+    }
+
+    char first = data.charAt(0);
+    if (first == STORED) {
+      return data.substring(1);
+    }
+    if (first == marker) {
+      byte[] bytes;
+      try {
+        bytes = Base64.getDecoder().decode(data.substring(1));
+      } catch (IllegalArgumentException e) {
+        throw new CompressionServiceException("Unable to decompress, invalid encoding", e);
+      }
+      return new String(decompressBytes(bytes, dictionary), StandardCharsets.UTF_8);
+    }
+    if (first == DEFLATE || first == LZ) {
+      throw new CompressionServiceException("Unable to decompress, value was compressed by a different compression service");
+    }
+
+    return data;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("class", getClass().getCanonicalName());
+    settings.describe(description);
+  }
+
+  /**
+   * Compress bytes.
+   *
+   * @param data bytes to compress
+   * @param dict dictionary, or null
+   * @return compressed bytes
+   */
+  protected abstract byte[] compressBytes(byte[] data, byte[] dict);
+
+  /**
+   * Decompress bytes. Throws {@link CompressionServiceException} if they are not valid.
+   *
+   * @param data bytes to decompress
+   * @param dict dictionary, or null
+   * @return decompressed bytes
+   */
+  protected abstract byte[] decompressBytes(byte[] data, byte[] dict);
+}
@@ -7,6 +7,15 @@ import com.mx.path.core.common.exception.PathSystemException;
  */
 public class CompressionServiceException extends PathSystemException {
 
+  /**
+   * Build new {@link CompressionServiceException} with description message.
+   *
+   * @param message message
+   */
+  public CompressionServiceException(String message) {
+    super(message);
+  }
+
   /**
    * Build new {@link CompressionServiceException} with description message and cause.
    *
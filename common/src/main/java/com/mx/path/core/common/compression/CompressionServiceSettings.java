@@ -0,0 +1,113 @@
+package com.mx.path.core.common.compression;
+
+import java.nio.charset.StandardCharsets;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+
+/**
+ * Settings for the built-in compression services, {@link DeflateCompressionService} and {@link LzCompressionService}.
+ *
+ * <p>Values smaller than {@code minSize} bytes are stored as they are, behind a marker, since compressing them costs
+ * more than it saves. A {@code dictionary} of text typical of the compressed values, such as a representative session
+ * JSON payload, improves compression of small and medium values. Values can only be decompressed with the dictionary
+ * they were compressed with, so it must not be changed while they are stored.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * CompressionServiceSettings settings = new CompressionServiceSettings();
+ * settings.setMinSize(512);
+ * settings.setDictionary(sampleSessionJson);
+ * CompressionService compressionService = new LzCompressionService(settings);
+ *
+ * Session.setCompressionServiceSupplier(() -> compressionService);
+ * }</pre>
+ */
+@Data
+public class CompressionServiceSettings {
+
+  public static final int DEFAULT_MIN_SIZE = 256;
+  public static final int DEFAULT_LEVEL = 6;
+
+  /**
+   * Smallest value, in bytes, that is compressed.
+   *
+   * -- GETTER --
+   * Return min size.
+   *
+   * @return min size
+   * -- SETTER --
+   * Set min size.
+   *
+   * @param minSize min size to set
+   */
+  @ConfigurationField
+  private Integer minSize;
+
+  /**
+   * Text that compressed values are likely to share. Null for no dictionary.
+   *
+   * -- GETTER --
+   * Return dictionary.
+   *
+   * @return dictionary
+   * -- SETTER --
+   * Set dictionary.
+   *
+   * @param dictionary dictionary to set
+   */
+  @ConfigurationField
+  private String dictionary;
+
+  /**
+   * Deflate compression level, 1 (fastest) to 9 (smallest). Ignored by {@link LzCompressionService}.
+   *
+   * -- GETTER --
+   * Return level.
+   *
+   * @return level
+   * -- SETTER --
+   * Set level.
+   *
+   * @param level level to set
+   */
+  @ConfigurationField
+  private Integer level;
+
+  /**
+   * @return configured min size, or default
+   */
+  public final int minSizeOrDefault() {
+    return minSize != null ? minSize : DEFAULT_MIN_SIZE;
+  }
+
+  /**
+   * @return configured level, or default
+   */
+  public final int levelOrDefault() {
+    return level != null ? level : DEFAULT_LEVEL;
+  }
+
+  /**
+   * @return dictionary as UTF-8 bytes, or null if there is none
+   */
+  public final byte[] dictionaryBytes() {
+    return dictionary != null && !dictionary.isEmpty() ? dictionary.getBytes(StandardCharsets.UTF_8) : null;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("minSize", minSizeOrDefault());
+    description.put("level", levelOrDefault());
+    if (dictionary != null) {
+      description.put("dictionarySize", dictionary.length());
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.mx.path.core.common.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses values with the JDK's deflate (zlib format), for a good ratio at moderate cost. See
+ * {@link CompressionServiceSettings}.
+ *
+ * <p>Each thread reuses its own {@link Deflater} and {@link Inflater}, instead of allocating one, and its native
+ * memory, for every value. A service is meant to be shared, so they are kept for the life of the thread.
+ */
+public class DeflateCompressionService extends CompressionServiceBase {
+  private static final int BUFFER_SIZE = 4096;
+
+  private final ThreadLocal<Deflater> deflaters;
+  private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+  private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+  /**
+   * Build new {@link DeflateCompressionService} with default settings.
+   */
+  public DeflateCompressionService() {
+    this(new CompressionServiceSettings());
+  }
+
+  /**
+   * Build new {@link DeflateCompressionService}.
+   *
+   * @param settings compression settings
+   */
+  public DeflateCompressionService(CompressionServiceSettings settings) {
+    super(DEFLATE, settings);
+    int level = settings.levelOrDefault();
+    this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+  }
+
+  @Override
+  protected final byte[] compressBytes(byte[] data, byte[] dict) {
+    Deflater deflater = deflaters.get();
+    byte[] buffer = buffers.get();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+
+    deflater.reset();
+    if (dict != null) {
+      deflater.setDictionary(dict);
+    }
+    deflater.setInput(data);
+    deflater.finish();
+    while (!deflater.finished()) {
+      out.write(buffer, 0, deflater.deflate(buffer));
+    }
+
+    return out.toByteArray();
+  }
+
+  @Override
+  protected final byte[] decompressBytes(byte[] data, byte[] dict) {
+    Inflater inflater = inflaters.get();
+    byte[] buffer = buffers.get();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+
+    inflater.reset();
+    inflater.setInput(data);
+    try {
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && inflater.needsDictionary()) {
+          if (dict == null) {
+            throw new CompressionServiceException("Unable to decompress, value was compressed with a dictionary");
+          }
+          inflater.setDictionary(dict);
+        } else if (count == 0 && inflater.needsInput()) {
+          throw new CompressionServiceException("Unable to decompress, value is truncated");
+        }
+        out.write(buffer, 0, count);
+      }
+    } catch (DataFormatException | IllegalArgumentException e) {
+      // IllegalArgumentException if the dictionary is not the one the value was compressed with
+      throw new CompressionServiceException("Unable to decompress", e);
+    }
+
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,307 @@
+package com.mx.path.core.common.compression;
+
+import java.util.Arrays;
+
+/**
+ * Compresses values with a fast LZ77 codec, in the style of LZ4. Compresses less than {@link DeflateCompressionService},
+ * but costs much less CPU, in particular to decompress. See {@link CompressionServiceSettings}.
+ *
+ * <p>Compressed bytes are the value's length as a varint, followed by sequences of literal bytes and back references.
+ * Each sequence is a token byte holding the literal count in its high nibble and the match length, less 4, in its low
+ * nibble. Then come the rest of the literal count if the nibble is 15, the literals, the 2 byte little-endian offset of
+ * the match, and the rest of the match length if its nibble is 15. The last sequence has literals only. Counts past 15
+ * are continued in bytes of 255 and a final byte under 255.
+ *
+ * <p>A dictionary is treated as input preceding every value, so matches can refer into it. Each thread reuses its own
+ * match table.
+ */
+@SuppressWarnings("PMD.CyclomaticComplexity")
+public class LzCompressionService extends CompressionServiceBase {
+  private static final int MIN_MATCH = 4;
+  private static final int HASH_BITS = 12;
+  private static final int HASH_MULTIPLIER = 0x9E3779B1;
+  private static final int MAX_OFFSET = 0xFFFF;
+  private static final int SKIP_SHIFT = 6;
+  private static final int NIBBLE_MASK = 0xF;
+  private static final int NIBBLE_BITS = 4;
+  private static final int LENGTH_CONTINUE = 0xFF;
+  private static final int BYTE_BITS = 8;
+  private static final int BYTE_MASK = 0xFF;
+  private static final int VARINT_BITS = 7;
+  private static final int VARINT_MASK = 0x7F;
+  private static final int VARINT_CONTINUE = 0x80;
+
+  private final ThreadLocal<int[]> tables = ThreadLocal.withInitial(() -> new int[1 << HASH_BITS]);
+
+  /**
+   * Match table with the dictionary's positions, copied into the thread's table for each value.
+   */
+  private final int[] dictionaryTable;
+
+  /**
+   * Build new {@link LzCompressionService} with default settings.
+   */
+  public LzCompressionService() {
+    this(new CompressionServiceSettings());
+  }
+
+  /**
+   * Build new {@link LzCompressionService}.
+   *
+   * @param settings compression settings
+   */
+  public LzCompressionService(CompressionServiceSettings settings) {
+    super(LZ, settings);
+    this.dictionaryTable = new int[1 << HASH_BITS];
+
+    byte[] dict = settings.dictionaryBytes();
+    if (dict != null) {
+      for (int position = 0; position + MIN_MATCH <= dict.length; position++) {
+        dictionaryTable[hash(dict, position)] = position + 1;
+      }
+    }
+  }
+
+  @Override
+  protected final byte[] compressBytes(byte[] data, byte[] dict) {
+    int start = dict != null ? dict.length : 0;
+    byte[] window = data;
+    if (dict != null) {
+      window = new byte[start + data.length];
+      System.arraycopy(dict, 0, window, 0, start);
+      System.arraycopy(data, 0, window, start, data.length);
+    }
+    int end = window.length;
+
+    // Table holds position + 1 of the last occurrence of each hash, 0 if none
+    int[] table = tables.get();
+    System.arraycopy(dictionaryTable, 0, table, 0, table.length);
+
+    Output out = new Output(data.length / 2 + MIN_MATCH);
+    out.writeVarint(data.length);
+
+    int anchor = start;
+    int position = start;
+    while (position + MIN_MATCH <= end) {
+      int hash = hash(window, position);
+      int candidate = table[hash] - 1;
+      table[hash] = position + 1;
+      if (candidate < 0 || position - candidate > MAX_OFFSET || readInt(window, candidate) != readInt(window, position)) {
+        // Step further the longer no match is found, so incompressible input is passed over quickly
+        position += 1 + ((position - anchor) >>> SKIP_SHIFT);
+        continue;
+      }
+
+      int length = MIN_MATCH;
+      while (position + length < end && window[candidate + length] == window[position + length]) {
+        length++;
+      }
+
+      int literals = position - anchor;
+      int matchCode = length - MIN_MATCH;
+      out.write(Math.min(literals, NIBBLE_MASK) << NIBBLE_BITS | Math.min(matchCode, NIBBLE_MASK));
+      out.writeCount(literals);
+      out.write(window, anchor, literals);
+      int offset = position - candidate;
+      out.write(offset & BYTE_MASK);
+      out.write(offset >>> BYTE_BITS);
+      out.writeCount(matchCode);
+
+      position += length;
+      anchor = position;
+    }
+
+    int literals = end - anchor;
+    out.write(Math.min(literals, NIBBLE_MASK) << NIBBLE_BITS);
+    out.writeCount(literals);
+    out.write(window, anchor, literals);
+
+    return out.toByteArray();
+  }
+
+  @Override
+  protected final byte[] decompressBytes(byte[] data, byte[] dict) {
+    Input in = new Input(data);
+    int start = dict != null ? dict.length : 0;
+    long length = in.readVarint();
+    if (length > Integer.MAX_VALUE - start) {
+      throw corrupt();
+    }
+
+    byte[] out = new byte[start + (int) length];
+    if (dict != null) {
+      System.arraycopy(dict, 0, out, 0, start);
+    }
+
+    int position = start;
+    while (true) {
+      int token = in.readByte();
+
+      int literals = in.readCount(token >>> NIBBLE_BITS);
+      if (literals > out.length - position) {
+        throw corrupt();
+      }
+      in.read(out, position, literals);
+      position += literals;
+      if (!in.hasMore()) {
+        break;
+      }
+
+      int offset = in.readByte() | in.readByte() << BYTE_BITS;
+      int matchLength = in.readCount(token & NIBBLE_MASK) + MIN_MATCH;
+      if (offset == 0 || offset > position || matchLength > out.length - position) {
+        throw corrupt();
+      }
+      // Byte by byte, since a match can overlap the bytes it produces
+      int reference = position - offset;
+      for (int i = 0; i < matchLength; i++) {
+        out[position + i] = out[reference + i];
+      }
+      position += matchLength;
+    }
+
+    if (position != out.length) {
+      throw corrupt();
+    }
+
+    return dict != null ? Arrays.copyOfRange(out, start, out.length) : out;
+  }
+
+  private static int hash(byte[] bytes, int position) {
+    return (readInt(bytes, position) * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_BITS);
+  }
+
+  private static int readInt(byte[] bytes, int position) {
+    return (bytes[position] & BYTE_MASK)
+        | (bytes[position + 1] & BYTE_MASK) << BYTE_BITS
+        | (bytes[position + 2] & BYTE_MASK) << (2 * BYTE_BITS)
+        | (bytes[position + 3] & BYTE_MASK) << (3 * BYTE_BITS);
+  }
+
+  private static CompressionServiceException corrupt() {
+    return new CompressionServiceException("Unable to decompress, value is corrupt");
+  }
+
+  /**
+   * Growable buffer of compressed bytes. Unlike {@link java.io.ByteArrayOutputStream}, it is not synchronized.
+   */
+  private static final class Output {
+    private byte[] bytes;
+    private int size;
+
+    Output(int capacity) {
+      this.bytes = new byte[capacity];
+    }
+
+    void write(int value) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) value;
+    }
+
+    void write(byte[] source, int offset, int count) {
+      ensureCapacity(count);
+      System.arraycopy(source, offset, bytes, size, count);
+      size += count;
+    }
+
+    /**
+     * Write the rest of a count whose nibble is 15.
+     */
+    void writeCount(int count) {
+      if (count < NIBBLE_MASK) {
+        return;
+      }
+
+      int remaining = count - NIBBLE_MASK;
+      while (remaining >= LENGTH_CONTINUE) {
+        write(LENGTH_CONTINUE);
+        remaining -= LENGTH_CONTINUE;
+      }
+      write(remaining);
+    }
+
+    void writeVarint(int value) {
+      int remaining = value;
+      while ((remaining & ~VARINT_MASK) != 0) {
+        write(remaining & VARINT_MASK | VARINT_CONTINUE);
+        remaining >>>= VARINT_BITS;
+      }
+      write(remaining);
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int count) {
+      if (count > bytes.length - size) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+      }
+    }
+  }
+
+  /**
+   * Reads compressed bytes. Fails with {@link CompressionServiceException} if they end early.
+   */
+  private static final class Input {
+    private final byte[] bytes;
+    private int position;
+
+    Input(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    boolean hasMore() {
+      return position < bytes.length;
+    }
+
+    int readByte() {
+      if (position >= bytes.length) {
+        throw corrupt();
+      }
+
+      return bytes[position++] & BYTE_MASK;
+    }
+
+    void read(byte[] destination, int offset, int count) {
+      if (count > bytes.length - position) {
+        throw corrupt();
+      }
+
+      System.arraycopy(bytes, position, destination, offset, count);
+      position += count;
+    }
+
+    /**
+     * Read a count, given its nibble.
+     */
+    int readCount(int nibble) {
+      int count = nibble;
+      if (nibble == NIBBLE_MASK) {
+        int next;
+        do {
+          next = readByte();
+          count += next;
+        } while (next == LENGTH_CONTINUE && count >= 0);
+      }
+      if (count < 0) {
+        throw corrupt();
+      }
+
+      return count;
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+        int next = readByte();
+        value |= (long) (next & VARINT_MASK) << shift;
+        if ((next & VARINT_CONTINUE) == 0) {
+          return value;
+        }
+      }
+
+      throw corrupt();
+    }
+  }
+}
@@ -49,6 +49,20 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private String baseUrl;
 
+  /**
+   * Response cache settings.
+   *
+   * -- GETTER --
+   * Return response cache settings.
+   *
+   * @return response cache settings
+   * -- SETTER --
+   * Set response cache settings.
+   *
+   * @param cache response cache settings to set
+   */
+  private HttpCacheSettings cache;
+
   /**
    * Request certificate alias.
    *
@@ -63,6 +77,20 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private String certificateAlias;
 
+  /**
+   * Request coalescing settings.
+   *
+   * -- GETTER --
+   * Return request coalescing settings.
+   *
+   * @return request coalescing settings
+   * -- SETTER --
+   * Set request coalescing settings.
+   *
+   * @param coalescing request coalescing settings to set
+   */
+  private RequestCoalescingSettings coalescing;
+
   /**
    * Request configurations.
    *
@@ -77,6 +105,34 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private ObjectMap configurations;
 
+  /**
+   * Request and response body compression settings.
+   *
+   * -- GETTER --
+   * Return compression settings.
+   *
+   * @return compression settings
+   * -- SETTER --
+   * Set compression settings.
+   *
+   * @param compression compression settings to set
+   */
+  private CompressionSettings compression;
+
+  /**
+   * Adaptive concurrency limit settings.
+   *
+   * -- GETTER --
+   * Return concurrency limit settings.
+   *
+   * @return concurrency limit settings
+   * -- SETTER --
+   * Set concurrency limit settings.
+   *
+   * @param concurrencyLimit concurrency limit settings to set
+   */
+  private ConcurrencyLimitSettings concurrencyLimit;
+
   /**
    * Connect timeout limit.
    *
@@ -91,6 +147,34 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private Duration connectTimeout;
 
+  /**
+   * Upstream connection pool settings.
+   *
+   * -- GETTER --
+   * Return connection pool settings.
+   *
+   * @return connection pool settings
+   * -- SETTER --
+   * Set connection pool settings.
+   *
+   * @param connectionPool connection pool settings to set
+   */
+  private ConnectionPoolSettings connectionPool;
+
+  /**
+   * Hedged request settings.
+   *
+   * -- GETTER --
+   * Return hedged request settings.
+   *
+   * @return hedged request settings
+   * -- SETTER --
+   * Set hedged request settings.
+   *
+   * @param hedging hedged request settings to set
+   */
+  private HedgingSettings hedging;
+
   /**
    * Request keystore passwords.
    *
@@ -119,6 +203,34 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private String keystorePath;
 
+  /**
+   * Load balancer settings.
+   *
+   * -- GETTER --
+   * Return load balancer settings.
+   *
+   * @return load balancer settings
+   * -- SETTER --
+   * Set load balancer settings.
+   *
+   * @param loadBalancer load balancer settings to set
+   */
+  private LoadBalancerSettings loadBalancer;
+
+  /**
+   * Rate limit settings.
+   *
+   * -- GETTER --
+   * Return rate limit settings.
+   *
+   * @return rate limit settings
+   * -- SETTER --
+   * Set rate limit settings.
+   *
+   * @param rateLimit rate limit settings to set
+   */
+  private RateLimitSettings rateLimit;
+
   /**
    * Request timeout limit.
    *
@@ -133,6 +245,20 @@ public class AccessorConnectionSettings implements ConnectionSettings {
    */
   private Duration requestTimeout;
 
+  /**
+   * Retry budget settings.
+   *
+   * -- GETTER --
+   * Return retry budget settings.
+   *
+   * @return retry budget settings
+   * -- SETTER --
+   * Set retry budget settings.
+   *
+   * @param retryBudget retry budget settings to set
+   */
+  private RetryBudgetSettings retryBudget;
+
   /**
    * Should skip host name verification.
    *
@@ -239,6 +365,42 @@ public class AccessorConnectionSettings implements ConnectionSettings {
       description.put("skipHostNameVerify", true);
     }
 
+    if (connectionPool != null) {
+      connectionPool.describe(description.createMap("connectionPool"));
+    }
+
+    if (cache != null) {
+      cache.describe(description.createMap("cache"));
+    }
+
+    if (coalescing != null) {
+      coalescing.describe(description.createMap("coalescing"));
+    }
+
+    if (compression != null) {
+      compression.describe(description.createMap("compression"));
+    }
+
+    if (concurrencyLimit != null) {
+      concurrencyLimit.describe(description.createMap("concurrencyLimit"));
+    }
+
+    if (hedging != null) {
+      hedging.describe(description.createMap("hedging"));
+    }
+
+    if (loadBalancer != null) {
+      loadBalancer.describe(description.createMap("loadBalancer"));
+    }
+
+    if (rateLimit != null) {
+      rateLimit.describe(description.createMap("rateLimit"));
+    }
+
+    if (retryBudget != null) {
+      retryBudget.describe(description.createMap("retryBudget"));
+    }
+
     if (!configurations.isEmpty()) {
       ObjectMap configs = description.createMap("configurations");
       configurations.forEach(configs::put);
@@ -0,0 +1,73 @@
+package com.mx.path.core.common.connect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Cancels the work started for one request, wherever it is in the filter chain.
+ *
+ * <p>Cancelling the future returned by {@link RequestFilter#executeAsync(Request, Response)} only cancels that future.
+ * Filters that start work of their own (e.g. the upstream call, or a delayed send) register its {@link Future} with the
+ * request's cancellation instead, so {@link #cancel()} reaches it through any number of derived futures.
+ *
+ * <p>A future registered after cancellation is cancelled immediately.
+ */
+public final class Cancellation {
+  private final List<Future<?>> futures = new ArrayList<>();
+  private boolean cancelled;
+
+  /**
+   * Cancel every registered future, and any registered later.
+   */
+  public void cancel() {
+    List<Future<?>> registered;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+      registered = new ArrayList<>(futures);
+      futures.clear();
+    }
+
+    registered.forEach(future -> future.cancel(true));
+  }
+
+  /**
+   * @return true if {@link #cancel()} has been called
+   */
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Register future to be cancelled with the request.
+   *
+   * @param future future
+   */
+  public void register(Future<?> future) {
+    synchronized (this) {
+      if (!cancelled) {
+        futures.removeIf(Future::isDone);
+        futures.add(future);
+        return;
+      }
+    }
+
+    future.cancel(true);
+  }
+
+  /**
+   * Register future, if request has a cancellation.
+   *
+   * @param request request
+   * @param future future
+   */
+  public static void register(Request<?, ?> request, Future<?> future) {
+    Cancellation cancellation = request.getCancellation();
+    if (cancellation != null) {
+      cancellation.register(future);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.mx.path.core.common.connect;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+
+/**
+ * Settings for compression of upstream request and response bodies.
+ *
+ * <p>All fields are optional. Missing values fall back to the defaults below.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       compression:
+ *         decompressResponses: true
+ *         compressRequests: true
+ *         requestThreshold: 4096
+ * }</pre>
+ */
+@Data
+public class CompressionSettings {
+
+  public static final boolean DEFAULT_DECOMPRESS_RESPONSES = true;
+  public static final boolean DEFAULT_COMPRESS_REQUESTS = false;
+  public static final int DEFAULT_REQUEST_THRESHOLD = 2048;
+
+  /**
+   * Advertise gzip and deflate support with {@code Accept-Encoding} and decode compressed responses.
+   *
+   * -- GETTER --
+   * Return decompress responses.
+   *
+   * @return decompress responses
+   * -- SETTER --
+   * Set decompress responses.
+   *
+   * @param decompressResponses decompress responses to set
+   */
+  @ConfigurationField
+  private Boolean decompressResponses;
+
+  /**
+   * Gzip request bodies larger than the request threshold. Only enable for upstreams that accept
+   * {@code Content-Encoding: gzip} requests.
+   *
+   * -- GETTER --
+   * Return compress requests.
+   *
+   * @return compress requests
+   * -- SETTER --
+   * Set compress requests.
+   *
+   * @param compressRequests compress requests to set
+   */
+  @ConfigurationField
+  private Boolean compressRequests;
+
+  /**
+   * Smallest request body, in bytes, that is compressed. Bodies of unknown length are always compressed.
+   *
+   * -- GETTER --
+   * Return request threshold.
+   *
+   * @return request threshold
+   * -- SETTER --
+   * Set request threshold.
+   *
+   * @param requestThreshold request threshold to set
+   */
+  @ConfigurationField
+  private Integer requestThreshold;
+
+  /**
+   * @return configured decompress responses, or default
+   */
+  public final boolean decompressResponsesOrDefault() {
+    return decompressResponses != null ? decompressResponses : DEFAULT_DECOMPRESS_RESPONSES;
+  }
+
+  /**
+   * @return configured compress requests, or default
+   */
+  public final boolean compressRequestsOrDefault() {
+    return compressRequests != null ? compressRequests : DEFAULT_COMPRESS_REQUESTS;
+  }
+
+  /**
+   * @return configured request threshold, or default
+   */
+  public final int requestThresholdOrDefault() {
+    return requestThreshold != null ? requestThreshold : DEFAULT_REQUEST_THRESHOLD;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("decompressResponses", decompressResponsesOrDefault());
+    description.put("compressRequests", compressRequestsOrDefault());
+    description.put("requestThreshold", requestThresholdOrDefault());
+  }
+}
@@ -0,0 +1,266 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for an adaptive concurrency limit.
+ *
+ * <p>Instead of a fixed number of concurrent calls, the limit is adjusted from the latency and errors observed, so it
+ * follows the upstream's capacity as it changes. Calls beyond the current limit are rejected immediately with
+ * {@link ServiceUnavailableException}, which keeps queueing latency bounded when the upstream slows down.
+ *
+ * <p>Two algorithms are available:
+ *
+ * <ul>
+ *   <li>{@code aimd} - additive increase, multiplicative decrease. The limit grows by one while calls succeed and the
+ *   limit is in use, and is multiplied by {@code backoffRatio} when a call fails or is slower than
+ *   {@code latencyThreshold}.</li>
+ *   <li>{@code gradient} - the limit follows the ratio between the long-term and the recent latency, so it shrinks as
+ *   soon as latency rises above its usual level, before calls start failing. Failures are handled as with aimd.</li>
+ * </ul>
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       concurrencyLimit:
+ *         algorithm: gradient
+ *         initialLimit: 20
+ *         maxLimit: 100
+ * }</pre>
+ */
+@Data
+public class ConcurrencyLimitSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final Algorithm DEFAULT_ALGORITHM = Algorithm.AIMD;
+  public static final int DEFAULT_INITIAL_LIMIT = 20;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 200;
+  public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+  public static final double DEFAULT_TOLERANCE = 1.5;
+  public static final double DEFAULT_SMOOTHING = 0.2;
+
+  /**
+   * Algorithm used to adjust the limit.
+   */
+  public enum Algorithm {
+    AIMD,
+    GRADIENT
+  }
+
+  /**
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * -- GETTER --
+   * Return algorithm.
+   *
+   * @return algorithm
+   * -- SETTER --
+   * Set algorithm.
+   *
+   * @param algorithm algorithm to set
+   */
+  @ConfigurationField
+  private Algorithm algorithm;
+
+  /**
+   * Limit used before any calls have been observed.
+   *
+   * -- GETTER --
+   * Return initial limit.
+   *
+   * @return initial limit
+   * -- SETTER --
+   * Set initial limit.
+   *
+   * @param initialLimit initial limit to set
+   */
+  @ConfigurationField
+  private Integer initialLimit;
+
+  /**
+   * -- GETTER --
+   * Return min limit.
+   *
+   * @return min limit
+   * -- SETTER --
+   * Set min limit.
+   *
+   * @param minLimit min limit to set
+   */
+  @ConfigurationField
+  private Integer minLimit;
+
+  /**
+   * -- GETTER --
+   * Return max limit.
+   *
+   * @return max limit
+   * -- SETTER --
+   * Set max limit.
+   *
+   * @param maxLimit max limit to set
+   */
+  @ConfigurationField
+  private Integer maxLimit;
+
+  /**
+   * Factor applied to the limit when a call fails.
+   *
+   * -- GETTER --
+   * Return backoff ratio.
+   *
+   * @return backoff ratio
+   * -- SETTER --
+   * Set backoff ratio.
+   *
+   * @param backoffRatio backoff ratio to set
+   */
+  @ConfigurationField
+  private Double backoffRatio;
+
+  /**
+   * Calls slower than this are handled as failures by aimd. Null to only back off on errors.
+   *
+   * -- GETTER --
+   * Return latency threshold.
+   *
+   * @return latency threshold
+   * -- SETTER --
+   * Set latency threshold.
+   *
+   * @param latencyThreshold latency threshold to set
+   */
+  @ConfigurationField
+  private Duration latencyThreshold;
+
+  /**
+   * How much the recent latency may exceed the long-term latency before gradient reduces the limit.
+   *
+   * -- GETTER --
+   * Return tolerance.
+   *
+   * @return tolerance
+   * -- SETTER --
+   * Set tolerance.
+   *
+   * @param tolerance tolerance to set
+   */
+  @ConfigurationField
+  private Double tolerance;
+
+  /**
+   * Weight of each new gradient limit, between 0 and 1. Lower values change the limit more slowly.
+   *
+   * -- GETTER --
+   * Return smoothing.
+   *
+   * @return smoothing
+   * -- SETTER --
+   * Set smoothing.
+   *
+   * @param smoothing smoothing to set
+   */
+  @ConfigurationField
+  private Double smoothing;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured algorithm, or default
+   */
+  public final Algorithm algorithmOrDefault() {
+    return algorithm != null ? algorithm : DEFAULT_ALGORITHM;
+  }
+
+  /**
+   * @return configured initial limit, or default. Kept within the min and max limits.
+   */
+  public final int initialLimitOrDefault() {
+    int limit = initialLimit != null ? initialLimit : DEFAULT_INITIAL_LIMIT;
+    return Math.max(minLimitOrDefault(), Math.min(maxLimitOrDefault(), limit));
+  }
+
+  /**
+   * @return configured min limit, or default
+   */
+  public final int minLimitOrDefault() {
+    return minLimit != null ? Math.max(1, minLimit) : DEFAULT_MIN_LIMIT;
+  }
+
+  /**
+   * @return configured max limit, or default
+   */
+  public final int maxLimitOrDefault() {
+    return Math.max(minLimitOrDefault(), maxLimit != null ? maxLimit : DEFAULT_MAX_LIMIT);
+  }
+
+  /**
+   * @return configured backoff ratio, or default
+   */
+  public final double backoffRatioOrDefault() {
+    return backoffRatio != null ? backoffRatio : DEFAULT_BACKOFF_RATIO;
+  }
+
+  /**
+   * @return configured tolerance, or default
+   */
+  public final double toleranceOrDefault() {
+    return tolerance != null ? tolerance : DEFAULT_TOLERANCE;
+  }
+
+  /**
+   * @return configured smoothing, or default
+   */
+  public final double smoothingOrDefault() {
+    return smoothing != null ? smoothing : DEFAULT_SMOOTHING;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("algorithm", algorithmOrDefault().name().toLowerCase(Locale.ROOT));
+    description.put("initialLimit", initialLimitOrDefault());
+    description.put("minLimit", minLimitOrDefault());
+    description.put("maxLimit", maxLimitOrDefault());
+    description.put("backoffRatio", backoffRatioOrDefault());
+    if (algorithmOrDefault() == Algorithm.GRADIENT) {
+      description.put("tolerance", toleranceOrDefault());
+      description.put("smoothing", smoothingOrDefault());
+    } else if (latencyThreshold != null) {
+      description.put("latencyThreshold", Durations.toCompactString(latencyThreshold));
+    }
+  }
+}
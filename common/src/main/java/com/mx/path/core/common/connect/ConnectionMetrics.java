@@ -0,0 +1,85 @@
+package com.mx.path.core.common.connect;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Registry of upstream connection metrics sources and sinks.
+ *
+ * <p>Sources describe the current state of connection resources and are included in {@code Gateway.describe()}.
+ * Sinks receive every completed upstream request.
+ *
+ * <p>Metrics must never fail a request. Exceptions raised by sinks are swallowed.
+ */
+public final class ConnectionMetrics {
+  private static final Map<String, ConnectionMetricsSource> SOURCES = new ConcurrentSkipListMap<>();
+  private static final List<ConnectionMetricsSink> SINKS = new CopyOnWriteArrayList<>();
+
+  private ConnectionMetrics() {
+  }
+
+  /**
+   * Register a metrics source. Replaces any source registered with the same name.
+   *
+   * @param name source name, used as the description key
+   * @param source source
+   */
+  public static void addSource(String name, ConnectionMetricsSource source) {
+    SOURCES.put(name, source);
+  }
+
+  /**
+   * Register a metrics sink.
+   *
+   * @param sink sink
+   */
+  public static void addSink(ConnectionMetricsSink sink) {
+    SINKS.add(sink);
+  }
+
+  /**
+   * Remove a metrics sink.
+   *
+   * @param sink sink
+   */
+  public static void removeSink(ConnectionMetricsSink sink) {
+    SINKS.remove(sink);
+  }
+
+  /**
+   * Pass completed request to all sinks.
+   *
+   * @param request request
+   * @param response response
+   */
+  public static void record(Request<?, ?> request, Response<?, ?> response) {
+    for (ConnectionMetricsSink sink : SINKS) {
+      try {
+        sink.record(request, response);
+      } catch (RuntimeException ignored) {
+        // Metrics must not fail the request
+      }
+    }
+  }
+
+  /**
+   * Fill description with statistics from all sources.
+   *
+   * @param description description
+   */
+  public static void describe(ObjectMap description) {
+    SOURCES.forEach((name, source) -> source.describe(description.createMap(name)));
+  }
+
+  /**
+   * Remove all sources and sinks.
+   */
+  static void reset() {
+    SOURCES.clear();
+    SINKS.clear();
+  }
+}
@@ -0,0 +1,20 @@
+package com.mx.path.core.common.connect;
+
+/**
+ * Receives metrics for completed upstream requests.
+ *
+ * <p>Register with {@link ConnectionMetrics#addSink(ConnectionMetricsSink)}. Sinks are called on the thread that
+ * completed the request and should hand off any slow work (e.g. publishing to a metrics backend).
+ *
+ * <p>Connections may attach protocol-specific detail to the response. See {@code HttpResponse#getTimings()}.
+ */
+public interface ConnectionMetricsSink {
+
+  /**
+   * Record a completed upstream request. Called whether or not the request succeeded.
+   *
+   * @param request request
+   * @param response response
+   */
+  void record(Request<?, ?> request, Response<?, ?> response);
+}
@@ -0,0 +1,18 @@
+package com.mx.path.core.common.connect;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Provides point-in-time statistics for upstream connection resources (e.g. connection pools).
+ *
+ * <p>Register with {@link ConnectionMetrics#addSource(String, ConnectionMetricsSource)}.
+ */
+public interface ConnectionMetricsSource {
+
+  /**
+   * Fill description with current statistics.
+   *
+   * @param description description
+   */
+  void describe(ObjectMap description);
+}
@@ -0,0 +1,164 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for the pool of upstream connections held open by a connection.
+ *
+ * <p>All fields are optional. Missing values fall back to the defaults below.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       connectionPool:
+ *         maxTotal: 200
+ *         maxPerRoute: 50
+ *         keepAlive: 30s
+ *         idleTimeout: 60s
+ *         validateAfterInactivity: 2s
+ * }</pre>
+ */
+@Data
+public class ConnectionPoolSettings {
+
+  public static final int DEFAULT_MAX_TOTAL = 200;
+  public static final int DEFAULT_MAX_PER_ROUTE = 100;
+  public static final Duration DEFAULT_KEEP_ALIVE = Duration.ofSeconds(30);
+  public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
+  public static final Duration DEFAULT_VALIDATE_AFTER_INACTIVITY = Duration.ofSeconds(2);
+
+  /**
+   * Maximum number of open connections, across all routes.
+   *
+   * -- GETTER --
+   * Return maximum total connections.
+   *
+   * @return maximum total connections
+   * -- SETTER --
+   * Set maximum total connections.
+   *
+   * @param maxTotal maximum total connections to set
+   */
+  @ConfigurationField
+  private Integer maxTotal;
+
+  /**
+   * Maximum number of open connections to a single route (scheme, host and port).
+   *
+   * -- GETTER --
+   * Return maximum connections per route.
+   *
+   * @return maximum connections per route
+   * -- SETTER --
+   * Set maximum connections per route.
+   *
+   * @param maxPerRoute maximum connections per route to set
+   */
+  @ConfigurationField
+  private Integer maxPerRoute;
+
+  /**
+   * How long an idle connection may be kept alive when the upstream does not send a {@code Keep-Alive} timeout.
+   * Upstream-provided timeouts are capped at this value.
+   *
+   * -- GETTER --
+   * Return keep alive duration.
+   *
+   * @return keep alive duration
+   * -- SETTER --
+   * Set keep alive duration.
+   *
+   * @param keepAlive keep alive duration to set
+   */
+  @ConfigurationField
+  private Duration keepAlive;
+
+  /**
+   * Connections idle longer than this are evicted from the pool by a background thread.
+   *
+   * -- GETTER --
+   * Return idle timeout.
+   *
+   * @return idle timeout
+   * -- SETTER --
+   * Set idle timeout.
+   *
+   * @param idleTimeout idle timeout to set
+   */
+  @ConfigurationField
+  private Duration idleTimeout;
+
+  /**
+   * Pooled connections idle longer than this are checked for staleness before they are reused.
+   *
+   * -- GETTER --
+   * Return validate after inactivity duration.
+   *
+   * @return validate after inactivity duration
+   * -- SETTER --
+   * Set validate after inactivity duration.
+   *
+   * @param validateAfterInactivity validate after inactivity duration to set
+   */
+  @ConfigurationField
+  private Duration validateAfterInactivity;
+
+  /**
+   * @return configured max total, or default
+   */
+  public final int maxTotalOrDefault() {
+    return maxTotal != null ? maxTotal : DEFAULT_MAX_TOTAL;
+  }
+
+  /**
+   * @return configured max per route, or default
+   */
+  public final int maxPerRouteOrDefault() {
+    return maxPerRoute != null ? maxPerRoute : DEFAULT_MAX_PER_ROUTE;
+  }
+
+  /**
+   * @return configured keep alive, or default
+   */
+  public final Duration keepAliveOrDefault() {
+    return keepAlive != null ? keepAlive : DEFAULT_KEEP_ALIVE;
+  }
+
+  /**
+   * @return configured idle timeout, or default
+   */
+  public final Duration idleTimeoutOrDefault() {
+    return idleTimeout != null ? idleTimeout : DEFAULT_IDLE_TIMEOUT;
+  }
+
+  /**
+   * @return configured validate after inactivity, or default
+   */
+  public final Duration validateAfterInactivityOrDefault() {
+    return validateAfterInactivity != null ? validateAfterInactivity : DEFAULT_VALIDATE_AFTER_INACTIVITY;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("maxTotal", maxTotalOrDefault());
+    description.put("maxPerRoute", maxPerRouteOrDefault());
+    description.put("keepAlive", Durations.toCompactString(keepAliveOrDefault()));
+    description.put("idleTimeout", Durations.toCompactString(idleTimeoutOrDefault()));
+    description.put("validateAfterInactivity", Durations.toCompactString(validateAfterInactivityOrDefault()));
+  }
+}
@@ -28,16 +28,79 @@ public interface ConnectionSettings {
    */
   String getBaseUrl();
 
+  /**
+   * @return response cache settings, null to use defaults
+   */
+  default HttpCacheSettings getCache() {
+    return null;
+  }
+
   /**
    * @return alias for client certificate to be used by connection
    */
   String getCertificateAlias();
 
+  /**
+   * @return request coalescing settings, null to use defaults
+   */
+  default RequestCoalescingSettings getCoalescing() {
+    return null;
+  }
+
+  /**
+   * @return request and response body compression settings, null to use defaults
+   */
+  default CompressionSettings getCompression() {
+    return null;
+  }
+
+  /**
+   * @return adaptive concurrency limit settings, null to send requests without limit
+   */
+  default ConcurrencyLimitSettings getConcurrencyLimit() {
+    return null;
+  }
+
   /**
    * @return connect timeout
    */
   Duration getConnectTimeout();
 
+  /**
+   * @return upstream connection pool settings, null to use defaults
+   */
+  default ConnectionPoolSettings getConnectionPool() {
+    return null;
+  }
+
+  /**
+   * @return hedged request settings, null to disable hedging
+   */
+  default HedgingSettings getHedging() {
+    return null;
+  }
+
+  /**
+   * @return load balancer settings, null to send all requests to the base url
+   */
+  default LoadBalancerSettings getLoadBalancer() {
+    return null;
+  }
+
+  /**
+   * @return rate limit settings, null to send requests without limit
+   */
+  default RateLimitSettings getRateLimit() {
+    return null;
+  }
+
+  /**
+   * @return retry budget settings, null to not limit retries
+   */
+  default RetryBudgetSettings getRetryBudget() {
+    return null;
+  }
+
   /**
    * @return path to keystore used to store certificates
    */
@@ -0,0 +1,142 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for hedging slow upstream requests.
+ *
+ * <p>When enabled, an idempotent request that has not completed within the hedge delay is sent a second time. The
+ * first attempt to complete is used and the other is cancelled. Only GET and HEAD requests, and requests marked with
+ * {@link Request#withIdempotent(boolean)}, are hedged.
+ *
+ * <p>The hedge delay is either fixed, or the given percentile of recent upstream latencies. The budget limits hedged
+ * requests to a fraction of all eligible requests, so hedging cannot double the load on a struggling upstream.
+ *
+ * <p>Can also be supplied per fault-tolerant scope with {@code FaultTolerantScopeConfiguration#setHedging}, or per
+ * request with {@link Request#withHedging(HedgingSettings)}.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       hedging:
+ *         enabled: true
+ *         delay: 200ms
+ *         percentile: 95
+ *         budget: 0.05
+ * }</pre>
+ */
+@Data
+public class HedgingSettings {
+
+  public static final boolean DEFAULT_ENABLED = false;
+  public static final Duration DEFAULT_DELAY = Duration.ofMillis(500);
+  public static final double DEFAULT_BUDGET = 0.1;
+
+  /**
+   * Hedge requests made with this connection.
+   *
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Time to wait for a response before hedging. When a percentile is set, used until enough latencies have been
+   * observed and, if configured, as a lower bound afterwards.
+   *
+   * -- GETTER --
+   * Return delay.
+   *
+   * @return delay
+   * -- SETTER --
+   * Set delay.
+   *
+   * @param delay delay to set
+   */
+  @ConfigurationField
+  private Duration delay;
+
+  /**
+   * Percentile (0-100, exclusive) of recent upstream latencies to use as the hedge delay. If not set, the fixed delay
+   * is used.
+   *
+   * -- GETTER --
+   * Return percentile.
+   *
+   * @return percentile
+   * -- SETTER --
+   * Set percentile.
+   *
+   * @param percentile percentile to set
+   */
+  @ConfigurationField
+  private Double percentile;
+
+  /**
+   * Largest fraction of eligible requests that may be hedged.
+   *
+   * -- GETTER --
+   * Return budget.
+   *
+   * @return budget
+   * -- SETTER --
+   * Set budget.
+   *
+   * @param budget budget to set
+   */
+  @ConfigurationField
+  private Double budget;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured delay, or default
+   */
+  public final Duration delayOrDefault() {
+    return delay != null ? delay : DEFAULT_DELAY;
+  }
+
+  /**
+   * @return configured budget, or default
+   */
+  public final double budgetOrDefault() {
+    return budget != null ? budget : DEFAULT_BUDGET;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("delay", Durations.toCompactString(delayOrDefault()));
+    if (percentile != null) {
+      description.put("percentile", percentile);
+    }
+    description.put("budget", budgetOrDefault());
+  }
+}
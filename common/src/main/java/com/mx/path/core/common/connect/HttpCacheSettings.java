@@ -0,0 +1,168 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for caching upstream GET responses.
+ *
+ * <p>Responses are cached according to their {@code Cache-Control}, {@code Expires}, {@code ETag} and
+ * {@code Last-Modified} headers, in a local in-memory tier and in the client's cache store facility.
+ *
+ * <p>Entries are scoped with the same scopes as {@code ScopedStore}: {@code global}, {@code client}, {@code user} or
+ * {@code session}. Responses marked {@code private} are only cached in the {@code user} and {@code session} scopes.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       cache:
+ *         enabled: true
+ *         scope: user
+ *         defaultTtl: 60s
+ * }</pre>
+ */
+@Data
+public class HttpCacheSettings {
+
+  public static final boolean DEFAULT_ENABLED = false;
+  public static final String DEFAULT_SCOPE = "session";
+  public static final int DEFAULT_LOCAL_MAX_ENTRIES = 1000;
+  public static final Duration DEFAULT_STALE_RETENTION = Duration.ofMinutes(10);
+
+  /**
+   * Cache responses of this connection.
+   *
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Scope of cached entries. One of {@code global}, {@code client}, {@code user} or {@code session}.
+   *
+   * -- GETTER --
+   * Return scope.
+   *
+   * @return scope
+   * -- SETTER --
+   * Set scope.
+   *
+   * @param scope scope to set
+   */
+  @ConfigurationField
+  private String scope;
+
+  /**
+   * Freshness lifetime for responses that carry no {@code Cache-Control} max-age or {@code Expires} header. If not
+   * set, such responses are not cached.
+   *
+   * -- GETTER --
+   * Return default ttl.
+   *
+   * @return default ttl
+   * -- SETTER --
+   * Set default ttl.
+   *
+   * @param defaultTtl default ttl to set
+   */
+  @ConfigurationField
+  private Duration defaultTtl;
+
+  /**
+   * Maximum number of entries held in the local in-memory tier.
+   *
+   * -- GETTER --
+   * Return local max entries.
+   *
+   * @return local max entries
+   * -- SETTER --
+   * Set local max entries.
+   *
+   * @param localMaxEntries local max entries to set
+   */
+  @ConfigurationField
+  private Integer localMaxEntries;
+
+  /**
+   * How long stale entries with an {@code ETag} or {@code Last-Modified} validator are kept for revalidation.
+   *
+   * -- GETTER --
+   * Return stale retention.
+   *
+   * @return stale retention
+   * -- SETTER --
+   * Set stale retention.
+   *
+   * @param staleRetention stale retention to set
+   */
+  @ConfigurationField
+  private Duration staleRetention;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured scope, or default
+   */
+  public final String scopeOrDefault() {
+    return scope != null ? scope : DEFAULT_SCOPE;
+  }
+
+  /**
+   * @return configured local max entries, or default
+   */
+  public final int localMaxEntriesOrDefault() {
+    return localMaxEntries != null ? localMaxEntries : DEFAULT_LOCAL_MAX_ENTRIES;
+  }
+
+  /**
+   * @return configured stale retention, or default
+   */
+  public final Duration staleRetentionOrDefault() {
+    return staleRetention != null ? staleRetention : DEFAULT_STALE_RETENTION;
+  }
+
+  /**
+   * @return true, if scope is shared by multiple users
+   */
+  public final boolean isSharedScope() {
+    String effectiveScope = scopeOrDefault();
+    return "global".equals(effectiveScope) || "client".equals(effectiveScope);
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("scope", scopeOrDefault());
+    if (defaultTtl != null) {
+      description.put("defaultTtl", Durations.toCompactString(defaultTtl));
+    }
+    description.put("localMaxEntries", localMaxEntriesOrDefault());
+    description.put("staleRetention", Durations.toCompactString(staleRetentionOrDefault()));
+  }
+}
@@ -0,0 +1,232 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for client-side load balancing across several upstream endpoints.
+ *
+ * <p>Each request is sent to one of the {@code endpoints}, which replace the connection's base url. The endpoint is
+ * chosen by {@code strategy}: {@code power_of_two_choices} picks two healthy endpoints at random and uses the one with
+ * fewer outstanding requests, {@code least_outstanding} uses the healthy endpoint with the fewest outstanding
+ * requests.
+ *
+ * <p>An endpoint that fails {@code consecutiveFailures} requests in a row (errors, 429 and 5xx responses, and
+ * responses slower than {@code latencyThreshold}) is ejected for {@code ejectionDuration}, doubled with each
+ * consecutive ejection up to {@code maxEjectionDuration}. It is then re-probed with a single request, and returns to
+ * service if that request succeeds. At most {@code maxEjectedPercent} of the endpoints are ejected at once.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       loadBalancer:
+ *         endpoints:
+ *           - https://node1.fakebank.com/api
+ *           - https://node2.fakebank.com/api
+ *         consecutiveFailures: 3
+ *         latencyThreshold: 2s
+ * }</pre>
+ */
+@Data
+public class LoadBalancerSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final Strategy DEFAULT_STRATEGY = Strategy.POWER_OF_TWO_CHOICES;
+  public static final int DEFAULT_CONSECUTIVE_FAILURES = 5;
+  public static final Duration DEFAULT_EJECTION_DURATION = Duration.ofSeconds(10);
+  public static final Duration DEFAULT_MAX_EJECTION_DURATION = Duration.ofMinutes(5);
+  public static final int DEFAULT_MAX_EJECTED_PERCENT = 50;
+
+  /**
+   * Endpoint selection strategy.
+   */
+  public enum Strategy {
+    LEAST_OUTSTANDING,
+    POWER_OF_TWO_CHOICES
+  }
+
+  /**
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Base urls of the upstream's endpoints.
+   *
+   * -- GETTER --
+   * Return endpoints.
+   *
+   * @return endpoints
+   * -- SETTER --
+   * Set endpoints.
+   *
+   * @param endpoints endpoints to set
+   */
+  @ConfigurationField(elementType = String.class)
+  private List<String> endpoints;
+
+  /**
+   * -- GETTER --
+   * Return strategy.
+   *
+   * @return strategy
+   * -- SETTER --
+   * Set strategy.
+   *
+   * @param strategy strategy to set
+   */
+  @ConfigurationField
+  private Strategy strategy;
+
+  /**
+   * Failed requests in a row that eject an endpoint.
+   *
+   * -- GETTER --
+   * Return consecutive failures.
+   *
+   * @return consecutive failures
+   * -- SETTER --
+   * Set consecutive failures.
+   *
+   * @param consecutiveFailures consecutive failures to set
+   */
+  @ConfigurationField
+  private Integer consecutiveFailures;
+
+  /**
+   * Requests slower than this count as failures. Null to only count errors.
+   *
+   * -- GETTER --
+   * Return latency threshold.
+   *
+   * @return latency threshold
+   * -- SETTER --
+   * Set latency threshold.
+   *
+   * @param latencyThreshold latency threshold to set
+   */
+  @ConfigurationField
+  private Duration latencyThreshold;
+
+  /**
+   * How long an endpoint is ejected the first time.
+   *
+   * -- GETTER --
+   * Return ejection duration.
+   *
+   * @return ejection duration
+   * -- SETTER --
+   * Set ejection duration.
+   *
+   * @param ejectionDuration ejection duration to set
+   */
+  @ConfigurationField
+  private Duration ejectionDuration;
+
+  /**
+   * -- GETTER --
+   * Return max ejection duration.
+   *
+   * @return max ejection duration
+   * -- SETTER --
+   * Set max ejection duration.
+   *
+   * @param maxEjectionDuration max ejection duration to set
+   */
+  @ConfigurationField
+  private Duration maxEjectionDuration;
+
+  /**
+   * -- GETTER --
+   * Return max ejected percent.
+   *
+   * @return max ejected percent
+   * -- SETTER --
+   * Set max ejected percent.
+   *
+   * @param maxEjectedPercent max ejected percent to set
+   */
+  @ConfigurationField
+  private Integer maxEjectedPercent;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured strategy, or default
+   */
+  public final Strategy strategyOrDefault() {
+    return strategy != null ? strategy : DEFAULT_STRATEGY;
+  }
+
+  /**
+   * @return configured consecutive failures, or default
+   */
+  public final int consecutiveFailuresOrDefault() {
+    return consecutiveFailures != null ? consecutiveFailures : DEFAULT_CONSECUTIVE_FAILURES;
+  }
+
+  /**
+   * @return configured ejection duration, or default
+   */
+  public final Duration ejectionDurationOrDefault() {
+    return ejectionDuration != null ? ejectionDuration : DEFAULT_EJECTION_DURATION;
+  }
+
+  /**
+   * @return configured max ejection duration, or default
+   */
+  public final Duration maxEjectionDurationOrDefault() {
+    return maxEjectionDuration != null ? maxEjectionDuration : DEFAULT_MAX_EJECTION_DURATION;
+  }
+
+  /**
+   * @return configured max ejected percent, or default
+   */
+  public final int maxEjectedPercentOrDefault() {
+    return maxEjectedPercent != null ? maxEjectedPercent : DEFAULT_MAX_EJECTED_PERCENT;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    if (endpoints != null) {
+      description.put("endpoints", String.join(", ", endpoints));
+    }
+    description.put("strategy", strategyOrDefault().name().toLowerCase(Locale.ROOT));
+    description.put("consecutiveFailures", consecutiveFailuresOrDefault());
+    if (latencyThreshold != null) {
+      description.put("latencyThreshold", Durations.toCompactString(latencyThreshold));
+    }
+    description.put("ejectionDuration", Durations.toCompactString(ejectionDurationOrDefault()));
+    description.put("maxEjectionDuration", Durations.toCompactString(maxEjectionDurationOrDefault()));
+    description.put("maxEjectedPercent", maxEjectedPercentOrDefault());
+  }
+}
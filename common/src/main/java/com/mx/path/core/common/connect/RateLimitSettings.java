@@ -0,0 +1,256 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+import java.util.List;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for limiting the rate of requests sent to an upstream.
+ *
+ * <p>Requests are spaced out to the configured rate, allowing short bursts. A request that would exceed the rate
+ * waits for up to {@link #maxWait}, and fails with {@link TooManyRequestsException} if it cannot be sent by then
+ * (immediately, by default).
+ *
+ * <p>Limits can be set for the whole connection, and for fault-tolerant scopes (e.g. {@code http.accounts}) with
+ * {@link #scopes}. A request is limited by the most specific scope that matches it, or by the connection's limit.
+ *
+ * <p>By default, limits are enforced by each node. When {@link #distributed} is set, the whole cluster shares one
+ * limit. Nodes lease batches of {@link #leaseSize} permits for each {@link #window} from the client's cache store, so
+ * the store is not called for every request.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       rateLimit:
+ *         rate: 50
+ *         burst: 10
+ *         maxWait: 250ms
+ *         scopes:
+ *           - scope: http.transfers
+ *             rate: 5
+ *             distributed: true
+ * }</pre>
+ */
+@Data
+public class RateLimitSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final Duration DEFAULT_MAX_WAIT = Duration.ZERO;
+  public static final boolean DEFAULT_DISTRIBUTED = false;
+  public static final int DEFAULT_LEASE_SIZE = 10;
+  public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(1);
+
+  /**
+   * Limit requests made with this connection.
+   *
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Fault-tolerant scope limited by these settings. Only used for entries of {@link #scopes}.
+   *
+   * -- GETTER --
+   * Return scope.
+   *
+   * @return scope
+   * -- SETTER --
+   * Set scope.
+   *
+   * @param scope scope to set
+   */
+  @ConfigurationField
+  private String scope;
+
+  /**
+   * Requests per second. If not set, requests are not limited.
+   *
+   * -- GETTER --
+   * Return rate.
+   *
+   * @return rate
+   * -- SETTER --
+   * Set rate.
+   *
+   * @param rate rate to set
+   */
+  @ConfigurationField
+  private Double rate;
+
+  /**
+   * Requests that may be sent back-to-back before spacing applies. Defaults to one second of requests.
+   *
+   * -- GETTER --
+   * Return burst.
+   *
+   * @return burst
+   * -- SETTER --
+   * Set burst.
+   *
+   * @param burst burst to set
+   */
+  @ConfigurationField
+  private Integer burst;
+
+  /**
+   * Longest time a request may wait for a permit before failing.
+   *
+   * -- GETTER --
+   * Return max wait.
+   *
+   * @return max wait
+   * -- SETTER --
+   * Set max wait.
+   *
+   * @param maxWait max wait to set
+   */
+  @ConfigurationField
+  private Duration maxWait;
+
+  /**
+   * Share the limit across the cluster, using the client's cache store.
+   *
+   * -- GETTER --
+   * Return distributed.
+   *
+   * @return distributed
+   * -- SETTER --
+   * Set distributed.
+   *
+   * @param distributed distributed to set
+   */
+  @ConfigurationField
+  private Boolean distributed;
+
+  /**
+   * Permits leased from the store at a time (distributed only).
+   *
+   * -- GETTER --
+   * Return lease size.
+   *
+   * @return lease size
+   * -- SETTER --
+   * Set lease size.
+   *
+   * @param leaseSize lease size to set
+   */
+  @ConfigurationField
+  private Integer leaseSize;
+
+  /**
+   * Period of the shared limit (distributed only). The cluster may send {@code rate * window} requests per window.
+   *
+   * -- GETTER --
+   * Return window.
+   *
+   * @return window
+   * -- SETTER --
+   * Set window.
+   *
+   * @param window window to set
+   */
+  @ConfigurationField
+  private Duration window;
+
+  /**
+   * Limits for fault-tolerant scopes.
+   *
+   * -- GETTER --
+   * Return scope limits.
+   *
+   * @return scope limits
+   * -- SETTER --
+   * Set scope limits.
+   *
+   * @param scopes scope limits to set
+   */
+  @ConfigurationField(elementType = RateLimitSettings.class)
+  private List<RateLimitSettings> scopes;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured burst, or one second of requests (at least 1)
+   */
+  public final int burstOrDefault() {
+    if (burst != null) {
+      return Math.max(1, burst);
+    }
+
+    return rate != null ? (int) Math.max(1, Math.ceil(rate)) : 1;
+  }
+
+  /**
+   * @return configured max wait, or default
+   */
+  public final Duration maxWaitOrDefault() {
+    return maxWait != null ? maxWait : DEFAULT_MAX_WAIT;
+  }
+
+  /**
+   * @return configured distributed, or default
+   */
+  public final boolean distributedOrDefault() {
+    return distributed != null ? distributed : DEFAULT_DISTRIBUTED;
+  }
+
+  /**
+   * @return configured lease size, or default
+   */
+  public final int leaseSizeOrDefault() {
+    return leaseSize != null ? Math.max(1, leaseSize) : DEFAULT_LEASE_SIZE;
+  }
+
+  /**
+   * @return configured window, or default
+   */
+  public final Duration windowOrDefault() {
+    return window != null ? window : DEFAULT_WINDOW;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    if (rate != null) {
+      description.put("rate", rate);
+      description.put("burst", burstOrDefault());
+      description.put("maxWait", Durations.toCompactString(maxWaitOrDefault()));
+      description.put("distributed", distributedOrDefault());
+      if (distributedOrDefault()) {
+        description.put("leaseSize", leaseSizeOrDefault());
+        description.put("window", Durations.toCompactString(windowOrDefault()));
+      }
+    }
+    if (scopes != null && !scopes.isEmpty()) {
+      ObjectMap scopeDescriptions = description.createMap("scopes");
+      scopes.forEach(settings -> settings.describe(scopeDescriptions.createMap(String.valueOf(settings.getScope()))));
+    }
+  }
+}
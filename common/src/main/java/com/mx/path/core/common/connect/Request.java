@@ -2,6 +2,10 @@ package com.mx.path.core.common.connect;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -11,10 +15,14 @@ import lombok.Getter;
 import lombok.Setter;
 
 import com.github.rholder.retry.Retryer;
+import com.google.common.collect.MapMaker;
 import com.mx.path.core.common.collection.MultiValueMap;
 import com.mx.path.core.common.collection.MultiValueMappable;
 import com.mx.path.core.common.collection.SingleValueMap;
+import com.mx.path.core.common.lang.Futures;
 import com.mx.path.core.common.process.RetriesFailedException;
+import com.mx.path.core.common.process.RetryBudget;
+import com.mx.path.core.common.process.RetryConfiguration;
 import com.mx.path.core.common.request.Feature;
 
 /**
@@ -46,7 +54,7 @@ import com.mx.path.core.common.request.Feature;
  * @param <RESP> Type of the associated response
  */
 @EqualsAndHashCode
-public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?, ?>> {
+public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?, ?>> implements Cloneable {
 
   public enum PreferredResponseBodyType {
     /**
@@ -64,11 +72,19 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     /**
      * Converts the response body to a String and adds the raw response body before returning the response.
      */
-    STRING_AND_RAW
+    STRING_AND_RAW,
+    /**
+     * Does not read the response body. The body is made available as a stream (see {@link Response#getBodyStream()}),
+     * which must be closed by the caller to release the upstream connection.
+     */
+    STREAM
   }
 
   private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofMillis(10000);
   private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofMillis(30000);
+  // Keyed by identity. Each client's connection is bound to its own settings, so a budget is shared by the requests one
+  // client makes with one connection, and never across clients.
+  private static final ConcurrentMap<ConnectionSettings, RetryBudget> RETRY_BUDGETS = new MapMaker().weakKeys().makeMap();
 
   // Fields
 
@@ -123,6 +139,38 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
   @Setter
   private String bodyJson;
 
+  /**
+   * Cancels the work started for this request by the filter chain. See {@link Cancellation}.
+   *
+   * -- GETTER --
+   * Return cancellation.
+   *
+   * @return cancellation, null if request cannot be cancelled
+   * -- SETTER --
+   * Set cancellation.
+   *
+   * @param cancellation cancellation to set
+   */
+  @Getter
+  @Setter
+  private Cancellation cancellation;
+
+  /**
+   * Overrides the connection's request coalescing setting. See {@link RequestCoalescingSettings}.
+   *
+   * -- GETTER --
+   * Return coalesce.
+   *
+   * @return coalesce, null to use connection setting
+   * -- SETTER --
+   * Set coalesce.
+   *
+   * @param coalesce coalesce to set
+   */
+  @Getter
+  @Setter
+  private Boolean coalesce;
+
   /**
    * -- GETTER --
    * Return connection settings.
@@ -211,6 +259,38 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
   @Getter
   private SingleValueMap<String, String> headers = new SingleValueMap<>();
 
+  /**
+   * Overrides the connection's hedging settings. See {@link HedgingSettings}.
+   *
+   * -- GETTER --
+   * Return hedging.
+   *
+   * @return hedging, null to use connection setting
+   * -- SETTER --
+   * Set hedging.
+   *
+   * @param hedging hedging to set
+   */
+  @Getter
+  @Setter
+  private HedgingSettings hedging;
+
+  /**
+   * Marks a request that is safe to send more than once, regardless of its method.
+   *
+   * -- GETTER --
+   * Return idempotent.
+   *
+   * @return idempotent, null to infer from method
+   * -- SETTER --
+   * Set idempotent.
+   *
+   * @param idempotent idempotent to set
+   */
+  @Getter
+  @Setter
+  private Boolean idempotent;
+
   /**
    * -- GETTER --
    * Return method.
@@ -409,12 +489,42 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     }
   }
 
+  /**
+   * Build a copy of this request that can be sent separately from it, e.g. as one attempt of a hedged request. The
+   * copy has its own headers and query string parameters, its own start time, and no cancellation. Other fields
+   * (body, settings, callbacks) are shared.
+   *
+   * <p>Override and call super to copy mutable fields of a concrete request type.
+   *
+   * @return copy of this request
+   */
+  @SuppressWarnings("unchecked")
+  public REQ copy() {
+    Request<REQ, RESP> copy;
+    try {
+      copy = (Request<REQ, RESP>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new IllegalStateException("Request is not cloneable", e);
+    }
+    copy.headers = copyOf(headers);
+    copy.queryStringParams = copyOf(queryStringParams);
+    copy.startNano = 0;
+    copy.cancellation = null;
+
+    return (REQ) copy;
+  }
+
   /**
    * Execute this request.
    *
    * @return Response
    */
   public RESP execute() {
+    RetryBudget retryBudget = retryBudget();
+    if (retryBudget != null) {
+      retryBudget.recordRequest();
+    }
+
     if (responseRetryConfiguration != null) {
       return executeWithRetryConfiguration();
     }
@@ -425,6 +535,41 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     return response;
   }
 
+  /**
+   * Execute this request asynchronously.
+   *
+   * <p>Runs the filter chain through {@link RequestFilter#executeAsync(Request, Response)}. With a non-blocking
+   * terminal filter, the calling thread is released once the upstream call is sent; the remainder of the chain
+   * (callbacks, events, error handling) runs when the upstream responds.
+   *
+   * <p>Retries of requests with a retry configuration are scheduled, and do not hold a thread while pausing. Requests
+   * that wrap an existing {@link Retryer} ({@link #withRetryer(Retryer)}) are executed synchronously and return a
+   * completed future.
+   *
+   * @return future of Response
+   */
+  public CompletableFuture<RESP> executeAsync() {
+    RetryBudget retryBudget = retryBudget();
+    if (retryBudget != null) {
+      retryBudget.recordRequest();
+    }
+
+    if (responseRetryConfiguration != null) {
+      if (responseRetryConfiguration.getStopStrategy() != null) {
+        return executeAsyncWithRetryConfiguration(retryBudget);
+      }
+
+      try {
+        return CompletableFuture.completedFuture(executeWithRetryConfiguration());
+      } catch (RuntimeException e) {
+        return Futures.failed(e);
+      }
+    }
+
+    RESP response = newResponse();
+    return getFilterChain().executeAsync(this, response).thenApply(ignored -> response);
+  }
+
   /**
    * Get accept header.
    *
@@ -476,7 +621,7 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
    * @return Request timeout in milliseconds
    */
   public final Duration getRequestTimeout() {
-    requestTimeout = (requestTimeout == null) ? connectionSettings.getRequestTimeout() : requestTimeout;
+    requestTimeout = (requestTimeout == null && connectionSettings != null) ? connectionSettings.getRequestTimeout() : requestTimeout;
     requestTimeout = (requestTimeout == null) ? DEFAULT_REQUEST_TIMEOUT : requestTimeout;
     return requestTimeout;
   }
@@ -634,6 +779,31 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     return (REQ) this;
   }
 
+  /**
+   * Set the cancellation that filters register the request's work with. See {@link Cancellation}.
+   *
+   * @param newCancellation cancellation to set
+   * @return self
+   */
+  @SuppressWarnings("unchecked")
+  public final REQ withCancellation(Cancellation newCancellation) {
+    setCancellation(newCancellation);
+    return (REQ) this;
+  }
+
+  /**
+   * Allow, or prevent, this request to share an upstream call with identical in-flight requests. Only applies to GET
+   * and HEAD requests.
+   *
+   * @param newCoalesce true to coalesce
+   * @return self
+   */
+  @SuppressWarnings("unchecked")
+  public final REQ withCoalescing(boolean newCoalesce) {
+    setCoalesce(newCoalesce);
+    return (REQ) this;
+  }
+
   /**
    * Set connection settings.
    *
@@ -736,6 +906,31 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     return (REQ) this;
   }
 
+  /**
+   * Override the connection's hedging settings for this request. Only applies to idempotent requests.
+   *
+   * @param newHedging hedging settings to set
+   * @return self
+   */
+  @SuppressWarnings("unchecked")
+  public final REQ withHedging(HedgingSettings newHedging) {
+    setHedging(newHedging);
+    return (REQ) this;
+  }
+
+  /**
+   * Mark this request as safe, or unsafe, to send more than once. GET and HEAD requests are idempotent unless marked
+   * otherwise.
+   *
+   * @param newIdempotent true if idempotent
+   * @return self
+   */
+  @SuppressWarnings("unchecked")
+  public final REQ withIdempotent(boolean newIdempotent) {
+    setIdempotent(newIdempotent);
+    return (REQ) this;
+  }
+
   /**
    * Set method.
    *
@@ -945,25 +1140,16 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
   protected RESP executeWithRetryConfiguration() {
     AtomicReference<RESP> response = new AtomicReference<>();
     try {
-      if (responseRetryExceptionSupplier != null) { // Call with exceptionSupplier override
-        return responseRetryConfiguration.call(() -> {
-          if (attemptCount > 0) { // This is a retry. Setup for next attempt
-            startRetry();
-          }
-          response.set(newResponse());
-          getFilterChain().execute(this, response.get());
-          return response.get();
-        }, responseRetryExceptionSupplier);
-      } else {
-        return responseRetryConfiguration.call(() -> {
-          if (attemptCount > 0) { // This is a retry. Setup for next attempt
-            startRetry();
-          }
-          response.set(newResponse());
-          getFilterChain().execute(this, response.get());
-          return response.get();
-        });
-      }
+      return responseRetryConfiguration.call(() -> {
+        if (attemptCount > 0) { // This is a retry. Setup for next attempt
+          startRetry();
+        }
+        response.set(newResponse());
+        getFilterChain().execute(this, response.get());
+        return response.get();
+      }, retryBudget(), responseRetryExceptionSupplier != null
+          ? responseRetryExceptionSupplier
+          : responseRetryConfiguration.getExceptionSupplier());
     } catch (RetriesFailedException e) {
       response.get().setException(new UpstreamSystemUnavailableAfterRetries("Upstream call failed after retries", e));
     }
@@ -971,4 +1157,86 @@ public abstract class Request<REQ extends Request<?, ?>, RESP extends Response<?
     return response.get();
   }
 
+  /**
+   * Execute this request using configured retry configuration, without blocking between attempts.
+   *
+   * @param retryBudget connection's retry budget (nullable)
+   * @return future of response
+   */
+  protected CompletableFuture<RESP> executeAsyncWithRetryConfiguration(RetryBudget retryBudget) {
+    AtomicReference<RESP> response = new AtomicReference<>();
+    CompletableFuture<RESP> result;
+    try {
+      result = responseRetryConfiguration.callAsync(() -> {
+        if (attemptCount > 0) { // This is a retry. Setup for next attempt
+          startRetry();
+        }
+        RESP attemptResponse = newResponse();
+        response.set(attemptResponse);
+        return getFilterChain().executeAsync(this, attemptResponse).thenApply(ignored -> attemptResponse);
+      }, retryExecutor(), retryBudget, responseRetryExceptionSupplier != null
+          ? responseRetryExceptionSupplier
+          : responseRetryConfiguration.getExceptionSupplier());
+    } catch (RuntimeException e) {
+      return Futures.failed(e);
+    }
+
+    return result.handle((attemptResponse, throwable) -> {
+      if (throwable == null) {
+        return attemptResponse;
+      }
+
+      Throwable cause = Futures.unwrap(throwable);
+      if (cause instanceof RetriesFailedException && response.get() != null) {
+        response.get().setException(new UpstreamSystemUnavailableAfterRetries("Upstream call failed after retries", cause));
+        return response.get();
+      }
+
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    });
+  }
+
+  /**
+   * Executor used to start asynchronous retries. Called on the thread that executes the request. Override to carry
+   * thread-bound context to the retries.
+   *
+   * @return executor
+   */
+  protected Executor retryExecutor() {
+    return RetryConfiguration.retryExecutor();
+  }
+
+  /**
+   * Retry budget shared by all requests made with this request's connection settings. Only used when enabled in the
+   * connection's {@link RetryBudgetSettings}.
+   *
+   * @return budget, or null if retries are not limited
+   */
+  private RetryBudget retryBudget() {
+    ConnectionSettings settings = getConnectionSettings();
+    if (settings == null) {
+      return null;
+    }
+
+    RetryBudgetSettings budgetSettings = settings.getRetryBudget();
+    if (budgetSettings == null || !budgetSettings.enabledOrDefault()) {
+      return null;
+    }
+
+    return RETRY_BUDGETS.computeIfAbsent(settings, key -> new RetryBudget(
+        budgetSettings.ratioOrDefault(),
+        budgetSettings.minRetriesPerSecondOrDefault(),
+        budgetSettings.windowOrDefault()));
+  }
+
+  /**
+   * Copy map and its value lists. The map's copy constructor shares the backing collection.
+   */
+  private static SingleValueMap<String, String> copyOf(SingleValueMap<String, String> source) {
+    MultiValueMap<String, String> copy = new MultiValueMap<>();
+    source.getRawMap().forEach(copy::addAll);
+
+    return copy.toSingleValueMap();
+  }
+
 }
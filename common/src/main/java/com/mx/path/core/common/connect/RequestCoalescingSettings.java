@@ -0,0 +1,86 @@
+package com.mx.path.core.common.connect;
+
+import java.util.List;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+
+/**
+ * Settings for coalescing identical in-flight requests.
+ *
+ * <p>When enabled, concurrent identical GET and HEAD requests made with a connection share a single upstream call.
+ * Requests are identical when they have the same client, method, URI, query parameters and key headers.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       coalescing:
+ *         enabled: true
+ *         headers:
+ *           - Accept
+ *           - Authorization
+ * }</pre>
+ */
+@Data
+public class RequestCoalescingSettings {
+
+  public static final boolean DEFAULT_ENABLED = false;
+
+  /**
+   * Coalesce requests made with this connection. Can be overridden per request with
+   * {@link Request#withCoalescing(boolean)}.
+   *
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Headers that distinguish requests. Requests that differ only in other headers are coalesced. If not set, all
+   * headers must match. Always include headers carrying user identity (e.g. {@code Authorization}).
+   *
+   * -- GETTER --
+   * Return key headers.
+   *
+   * @return key headers, null if all headers are significant
+   * -- SETTER --
+   * Set key headers.
+   *
+   * @param headers key headers to set
+   */
+  @ConfigurationField
+  private List<String> headers;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    if (headers != null) {
+      description.put("headers", headers);
+    }
+  }
+}
@@ -1,5 +1,9 @@
 package com.mx.path.core.common.connect;
 
+import java.util.concurrent.CompletableFuture;
+
+import com.mx.path.core.common.lang.Futures;
+
 /**
  * Notation for request filters.
  */
@@ -34,6 +38,44 @@ public interface RequestFilter {
     }
   }
 
+  /**
+   * Execute asynchronously.
+   *
+   * <p>The returned future completes when this filter, and all filters after it, are done with the request. Failures
+   * are reported through the future. Work after {@code nextAsync} should be chained onto its future rather than
+   * blocking on it.
+   *
+   * <p>The default implementation runs {@link #execute(Request, Response)} on the calling thread, which also runs the
+   * rest of the chain synchronously. Filters that should not block an asynchronous chain must override this.
+   *
+   * @param request request
+   * @param response response
+   * @return future completed when the request is done
+   */
+  default CompletableFuture<Void> executeAsync(Request request, Response response) {
+    try {
+      execute(request, response);
+      return CompletableFuture.completedFuture(null);
+    } catch (RuntimeException e) {
+      return Futures.failed(e);
+    }
+  }
+
+  /**
+   * Get and execute next request filter asynchronously.
+   *
+   * @param request request
+   * @param response response
+   * @return future completed when the next filter is done
+   */
+  default CompletableFuture<Void> nextAsync(Request request, Response response) {
+    if (getNext() != null) {
+      return getNext().executeAsync(request, response);
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
   /**
    * Set next request filter.
    *
@@ -1,5 +1,7 @@
 package com.mx.path.core.common.connect;
 
+import java.util.concurrent.CompletableFuture;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -41,6 +43,22 @@ public abstract class RequestFilterBase implements RequestFilter {
     }
   }
 
+  /**
+   * Execute next executor in chain asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when next executor is done
+   */
+  @Override
+  public final CompletableFuture<Void> nextAsync(Request request, Response response) {
+    if (getNext() != null) {
+      return getNext().executeAsync(request, response);
+    }
+
+    return CompletableFuture.completedFuture(null);
+  }
+
   /**
    * Does the work of the executor.
    *
@@ -1,5 +1,8 @@
 package com.mx.path.core.common.connect;
 
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.function.Function;
@@ -62,6 +65,38 @@ public abstract class Response<REQ extends Request<?, ?>, RESP extends Response<
   @Setter
   private String body = "";
 
+  /**
+   * Live response body. Only set when the request prefers {@link Request.PreferredResponseBodyType#STREAM}.
+   *
+   * -- GETTER --
+   * Return body stream. The caller is responsible for closing the stream, which releases the upstream connection.
+   *
+   * @return body stream, null if body was not streamed
+   * -- SETTER --
+   * Set body stream.
+   *
+   * @param bodyStream body stream to set
+   */
+  @Getter
+  @Setter
+  private InputStream bodyStream;
+
+  /**
+   * Size, in bytes, of the response body after content decoding (e.g. gzip).
+   *
+   * -- GETTER --
+   * Return decoded body size.
+   *
+   * @return decoded body size, null if unknown
+   * -- SETTER --
+   * Set decoded body size.
+   *
+   * @param bodySize decoded body size to set
+   */
+  @Getter
+  @Setter
+  private Long bodySize;
+
   private MultiValueMap<String, String> cookies = new MultiValueMap<>();
 
   /**
@@ -121,6 +156,41 @@ public abstract class Response<REQ extends Request<?, ?>, RESP extends Response<
   @Setter
   private HttpStatus status;
 
+  /**
+   * Size, in bytes, of the response body as received from the upstream, before content decoding.
+   *
+   * -- GETTER --
+   * Return wire body size.
+   *
+   * @return wire body size, null if unknown
+   * -- SETTER --
+   * Set wire body size.
+   *
+   * @param wireBodySize wire body size to set
+   */
+  @Getter
+  @Setter
+  private Long wireBodySize;
+
+  /**
+   * Copy the upstream result of another response (status, headers, cookies, body and body sizes) into this response.
+   * Collections and raw body are copied, so neither response can modify the other. Request, duration, processed
+   * object and body stream are not copied.
+   *
+   * <p>Override and call super to copy additional fields.
+   *
+   * @param source response to copy
+   */
+  public void copyFrom(Response<?, ?> source) {
+    this.status = source.status;
+    this.headers = copyOf(source.headers);
+    this.cookies = copyOf(source.cookies);
+    this.body = source.body;
+    this.rawBody = source.rawBody != null ? source.rawBody.clone() : null;
+    this.bodySize = source.bodySize;
+    this.wireBodySize = source.wireBodySize;
+  }
+
   /**
    * Attempt to finish request.
    */
@@ -219,6 +289,19 @@ public abstract class Response<REQ extends Request<?, ?>, RESP extends Response<
     return (R) this.request;
   }
 
+  /**
+   * Return body stream as a channel. Closing the channel closes the underlying stream.
+   *
+   * @return body channel, null if body was not streamed
+   */
+  public final ReadableByteChannel getBodyChannel() {
+    if (bodyStream == null) {
+      return null;
+    }
+
+    return Channels.newChannel(bodyStream);
+  }
+
   /**
    * Return body.
    *
@@ -287,6 +370,18 @@ public abstract class Response<REQ extends Request<?, ?>, RESP extends Response<
     return (RESP) this;
   }
 
+  /**
+   * Set body stream.
+   *
+   * @param newBodyStream body stream to set
+   * @return self
+   */
+  @SuppressWarnings("unchecked")
+  public final RESP withBodyStream(InputStream newBodyStream) {
+    setBodyStream(newBodyStream);
+    return (RESP) this;
+  }
+
   /**
    * Set cookies.
    *
@@ -382,4 +477,14 @@ public abstract class Response<REQ extends Request<?, ?>, RESP extends Response<
     this.status = newStatus;
     return (RESP) this;
   }
+
+  /**
+   * Copy map and its value lists. The map's copy constructor shares the backing collection.
+   */
+  private static MultiValueMap<String, String> copyOf(MultiValueMap<String, String> source) {
+    MultiValueMap<String, String> copy = new MultiValueMap<>();
+    source.getRawMap().forEach(copy::addAll);
+
+    return copy;
+  }
 }
@@ -1,6 +1,7 @@
 package com.mx.path.core.common.connect;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import lombok.Data;
 import lombok.Getter;
@@ -124,4 +125,21 @@ public class ResponseRetryConfiguration<RESP extends Response<?, ?>> extends Ret
 
     return super.instanceBuilder();
   }
+
+  /**
+   * Combines {@link #getRejectOn()} with {@link #onResponse} matchers.
+   *
+   * @return predicate, or null if responses are never retried
+   */
+  @Override
+  protected final Predicate<RESP> buildRejectOn() {
+    Predicate<RESP> predicate = getRejectOn();
+    if (onResponse != null) {
+      for (ResponseMatcher<Response<?, ?>> matcher : onResponse) {
+        predicate = predicate == null ? matcher::test : predicate.or(matcher::test);
+      }
+    }
+
+    return predicate;
+  }
 }
@@ -0,0 +1,144 @@
+package com.mx.path.core.common.connect;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for the retry budget of a connection.
+ *
+ * <p>Retries made by requests with a {@link ResponseRetryConfiguration} are limited to a fraction of all requests made
+ * with the connection over a sliding window, plus a small allowance so that low-traffic connections can still retry.
+ * Once the budget is spent, failed attempts are not retried, so retries cannot turn an upstream outage into a retry
+ * storm.
+ *
+ * <p>Disabled unless {@code enabled} is set. A budget is kept for each connection of each client, so one client's
+ * retries never spend another client's budget.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * accessor:
+ *   class: FakeAccessor
+ *   connections:
+ *     fakeBank:
+ *       baseUrl: https://fakebank.com/api
+ *       retryBudget:
+ *         enabled: true
+ *         ratio: 0.2
+ *         minRetriesPerSecond: 5
+ *         window: 30s
+ * }</pre>
+ */
+@Data
+public class RetryBudgetSettings {
+
+  public static final boolean DEFAULT_ENABLED = false;
+  public static final double DEFAULT_RATIO = 0.1;
+  public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+  public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(10);
+
+  /**
+   * Limit retries made with this connection.
+   *
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Largest number of retries, as a fraction of the requests made within the window.
+   *
+   * -- GETTER --
+   * Return ratio.
+   *
+   * @return ratio
+   * -- SETTER --
+   * Set ratio.
+   *
+   * @param ratio ratio to set
+   */
+  @ConfigurationField
+  private Double ratio;
+
+  /**
+   * Retries per second that are always allowed, regardless of the ratio.
+   *
+   * -- GETTER --
+   * Return minimum retries per second.
+   *
+   * @return minimum retries per second
+   * -- SETTER --
+   * Set minimum retries per second.
+   *
+   * @param minRetriesPerSecond minimum retries per second to set
+   */
+  @ConfigurationField
+  private Integer minRetriesPerSecond;
+
+  /**
+   * Sliding window over which requests and retries are counted.
+   *
+   * -- GETTER --
+   * Return window.
+   *
+   * @return window
+   * -- SETTER --
+   * Set window.
+   *
+   * @param window window to set
+   */
+  @ConfigurationField
+  private Duration window;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured ratio, or default
+   */
+  public final double ratioOrDefault() {
+    return ratio != null ? ratio : DEFAULT_RATIO;
+  }
+
+  /**
+   * @return configured minimum retries per second, or default
+   */
+  public final int minRetriesPerSecondOrDefault() {
+    return minRetriesPerSecond != null ? minRetriesPerSecond : DEFAULT_MIN_RETRIES_PER_SECOND;
+  }
+
+  /**
+   * @return configured window, or default
+   */
+  public final Duration windowOrDefault() {
+    return window != null ? window : DEFAULT_WINDOW;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("ratio", ratioOrDefault());
+    description.put("minRetriesPerSecond", minRetriesPerSecondOrDefault());
+    description.put("window", Durations.toCompactString(windowOrDefault()));
+  }
+}
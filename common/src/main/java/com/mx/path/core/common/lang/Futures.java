@@ -0,0 +1,64 @@
+package com.mx.path.core.common.lang;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utility class for {@link CompletableFuture}.
+ */
+public class Futures {
+
+  /**
+   * Build a future that is already completed with given exception.
+   *
+   * @param throwable exception
+   * @param <T> future type
+   * @return failed future
+   */
+  public static <T> CompletableFuture<T> failed(Throwable throwable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+
+    return future;
+  }
+
+  /**
+   * Strip {@link CompletionException} and {@link ExecutionException} wrappers from given exception.
+   *
+   * @param throwable exception
+   * @return the original exception
+   */
+  public static Throwable unwrap(Throwable throwable) {
+    Throwable result = throwable;
+    while ((result instanceof CompletionException || result instanceof ExecutionException) && result.getCause() != null) {
+      result = result.getCause();
+    }
+
+    return result;
+  }
+
+  /**
+   * Wait for future and return its value. Unchecked exceptions are rethrown as-is, rather than wrapped in
+   * a {@link CompletionException}.
+   *
+   * @param future future
+   * @param <T> future type
+   * @return future value
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw e;
+    }
+  }
+}
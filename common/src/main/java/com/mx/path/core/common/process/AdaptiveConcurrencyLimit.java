@@ -0,0 +1,156 @@
+package com.mx.path.core.common.process;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings;
+
+/**
+ * Concurrency limit adjusted from the latency and outcome of the calls it admits. See {@link ConcurrencyLimitSettings}.
+ *
+ * <p>Each call must be admitted with {@link #tryAcquire()}. An admitted call must be released with
+ * {@link #release(long, boolean)} once it completes, or with {@link #releaseIgnored()} if it was never made, so that
+ * it does not affect the limit.
+ *
+ * <p>Admission is lock-free. Limit updates are synchronized.
+ */
+public class AdaptiveConcurrencyLimit {
+  private static final double LONG_LATENCY_WEIGHT = 0.01;
+  private static final double SHORT_LATENCY_WEIGHT = 0.2;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final ConcurrencyLimitSettings.Algorithm algorithm;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+  private final double tolerance;
+  private final double smoothing;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private volatile int limit;
+  private double estimatedLimit;
+  private double longLatency;
+  private double shortLatency;
+
+  /**
+   * Build new {@link AdaptiveConcurrencyLimit}.
+   *
+   * @param settings settings
+   */
+  public AdaptiveConcurrencyLimit(ConcurrencyLimitSettings settings) {
+    this.algorithm = settings.algorithmOrDefault();
+    this.minLimit = settings.minLimitOrDefault();
+    this.maxLimit = settings.maxLimitOrDefault();
+    this.backoffRatio = settings.backoffRatioOrDefault();
+    this.latencyThresholdNanos = settings.getLatencyThreshold() != null ? settings.getLatencyThreshold().toNanos() : Long.MAX_VALUE;
+    this.tolerance = settings.toleranceOrDefault();
+    this.smoothing = settings.smoothingOrDefault();
+    this.estimatedLimit = settings.initialLimitOrDefault();
+    this.limit = settings.initialLimitOrDefault();
+  }
+
+  /**
+   * Admit a call, if fewer calls than the current limit are in flight.
+   *
+   * @return true if admitted. Caller must release it.
+   */
+  public final boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        rejectedCount.incrementAndGet();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Release an admitted call and adjust the limit from its outcome.
+   *
+   * @param latencyNanos how long the call took
+   * @param failed true if the call failed in a way that indicates the upstream is overloaded
+   */
+  public final void release(long latencyNanos, boolean failed) {
+    int inFlightAtCompletion = inFlight.getAndDecrement();
+    update(latencyNanos, failed, inFlightAtCompletion);
+  }
+
+  /**
+   * Release an admitted call that was not made. The limit is not adjusted.
+   */
+  public final void releaseIgnored() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * @return current limit
+   */
+  public final int getLimit() {
+    return limit;
+  }
+
+  /**
+   * @return calls currently in flight
+   */
+  public final int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Fill description with current limit and usage.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("algorithm", algorithm.name().toLowerCase(Locale.ROOT));
+    description.put("limit", limit);
+    description.put("inFlight", inFlight.get());
+    description.put("rejected", rejectedCount.get());
+  }
+
+  private synchronized void update(long latencyNanos, boolean failed, int inFlightAtCompletion) {
+    // The limit is only raised while it is being used, so it does not grow without bound while traffic is light
+    boolean limitInUse = inFlightAtCompletion * 2 >= estimatedLimit;
+
+    if (failed || (algorithm == ConcurrencyLimitSettings.Algorithm.AIMD && latencyNanos > latencyThresholdNanos)) {
+      estimatedLimit = estimatedLimit * backoffRatio;
+    } else if (algorithm == ConcurrencyLimitSettings.Algorithm.AIMD) {
+      if (limitInUse) {
+        estimatedLimit = estimatedLimit + 1;
+      }
+    } else {
+      estimatedLimit = gradientLimit(latencyNanos, limitInUse);
+    }
+
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+    limit = (int) estimatedLimit;
+  }
+
+  /**
+   * Scale the limit by the ratio of long-term to recent latency, allowing a small queue ({@code sqrt(limit)}) so the
+   * limit can probe upwards while latency is steady.
+   */
+  private double gradientLimit(long latencyNanos, boolean limitInUse) {
+    if (longLatency == 0) {
+      longLatency = latencyNanos;
+      shortLatency = latencyNanos;
+      return estimatedLimit;
+    }
+    shortLatency = shortLatency * (1 - SHORT_LATENCY_WEIGHT) + latencyNanos * SHORT_LATENCY_WEIGHT;
+    longLatency = longLatency * (1 - LONG_LATENCY_WEIGHT) + latencyNanos * LONG_LATENCY_WEIGHT;
+
+    double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longLatency / Math.max(1, shortLatency)));
+    double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    if (newLimit > estimatedLimit && !limitInUse) {
+      return estimatedLimit;
+    }
+
+    return estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+  }
+}
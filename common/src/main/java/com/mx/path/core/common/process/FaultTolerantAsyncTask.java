@@ -0,0 +1,12 @@
+package com.mx.path.core.common.process;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Asynchronous variant of {@link FaultTolerantTask}. Takes in a {@link FaultTolerantScopeConfiguration} and produces
+ * a future that completes when the task is done.
+ */
+public interface FaultTolerantAsyncTask extends Function<FaultTolerantScopeConfiguration, CompletableFuture<Void>> {
+
+}
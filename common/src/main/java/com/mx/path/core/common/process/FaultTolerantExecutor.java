@@ -1,5 +1,9 @@
 package com.mx.path.core.common.process;
 
+import java.util.concurrent.CompletableFuture;
+
+import com.mx.path.core.common.lang.Futures;
+
 /**
  * Task executor with fault-tolerant protections.
  */
@@ -30,4 +34,51 @@ public interface FaultTolerantExecutor {
    * @param task task
    */
   void submit(String scope, FaultTolerantTask task);
+
+  /**
+   * Submits a task with a precomputed scope. See {@link #submit(String, FaultTolerantTask)}.
+   *
+   * <p>The default implementation submits the scope's name. Executors that cache per-scope state should override
+   * this and key the cache on the interned scope.
+   *
+   * @param scope scope
+   * @param task task
+   */
+  default void submit(FaultTolerantScope scope, FaultTolerantTask task) {
+    submit(scope.getName(), task);
+  }
+
+  /**
+   * Submits an asynchronous task to be executed with configurable fault-tolerant protections. Scope selection
+   * follows the same rules as {@link #submit(String, FaultTolerantTask)}.
+   *
+   * <p>The default implementation runs the task through {@link #submit(String, FaultTolerantTask)} and waits for it,
+   * so the protections still apply but the calling thread is blocked until the task completes. Executors that can
+   * apply their protections without blocking should override this.
+   *
+   * @param scope scope
+   * @param task task
+   * @return future completed when task is done
+   */
+  default CompletableFuture<Void> submitAsync(String scope, FaultTolerantAsyncTask task) {
+    try {
+      submit(scope, scopeConfiguration -> Futures.join(task.apply(scopeConfiguration)));
+      return CompletableFuture.completedFuture(null);
+    } catch (RuntimeException e) {
+      return Futures.failed(e);
+    }
+  }
+
+  /**
+   * Submits an asynchronous task with a precomputed scope. See {@link #submitAsync(String, FaultTolerantAsyncTask)}.
+   *
+   * <p>The default implementation submits the scope's name.
+   *
+   * @param scope scope
+   * @param task task
+   * @return future completed when task is done
+   */
+  default CompletableFuture<Void> submitAsync(FaultTolerantScope scope, FaultTolerantAsyncTask task) {
+    return submitAsync(scope.getName(), task);
+  }
 }
@@ -0,0 +1,91 @@
+package com.mx.path.core.common.process;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned, dot-delimited fault-tolerant scope (e.g. {@code http.accounts.list}).
+ *
+ * <p>There is exactly one instance per scope name, so scopes can be compared by identity and used as cheap map keys.
+ * Each scope holds its parent ({@code http.accounts}, then {@code http}), so executors can walk the fallback chain
+ * described by {@link FaultTolerantExecutor} without splitting strings. Child scopes are cached on their parent, so
+ * building a scope one segment at a time, as {@code FaultTolerantRequestFilter} does for every request, does not
+ * allocate once the scope has been seen.
+ */
+public final class FaultTolerantScope {
+  private static final Map<String, FaultTolerantScope> INTERNED = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final FaultTolerantScope parent;
+  private final Map<String, FaultTolerantScope> children = new ConcurrentHashMap<>();
+
+  private FaultTolerantScope(String name, FaultTolerantScope parent) {
+    this.name = name;
+    this.parent = parent;
+  }
+
+  /**
+   * Get interned scope with given name.
+   *
+   * @param name dot-delimited scope name
+   * @return scope
+   */
+  public static FaultTolerantScope of(String name) {
+    FaultTolerantScope scope = INTERNED.get(name);
+    if (scope != null) {
+      return scope;
+    }
+
+    int dot = name.lastIndexOf('.');
+    if (dot > 0) {
+      return of(name.substring(0, dot)).child(name.substring(dot + 1));
+    }
+
+    return INTERNED.computeIfAbsent(name, key -> new FaultTolerantScope(key, null));
+  }
+
+  /**
+   * Get interned child of this scope.
+   *
+   * @param segment child name, without dots
+   * @return child scope, or this scope if segment is empty
+   */
+  public FaultTolerantScope child(String segment) {
+    if (segment == null || segment.isEmpty()) {
+      return this;
+    }
+
+    FaultTolerantScope child = children.get(segment);
+    if (child != null) {
+      return child;
+    }
+
+    if (segment.indexOf('.') >= 0) {
+      child = of(name + "." + segment);
+    } else {
+      child = INTERNED.computeIfAbsent(name + "." + segment, key -> new FaultTolerantScope(key, this));
+    }
+    children.putIfAbsent(segment, child);
+
+    return child;
+  }
+
+  /**
+   * @return full, dot-delimited name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return next scope in the fallback chain, or null if this is a top-level scope
+   */
+  public FaultTolerantScope getParent() {
+    return parent;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
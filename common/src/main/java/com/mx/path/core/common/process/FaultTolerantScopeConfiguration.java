@@ -4,6 +4,8 @@ import java.time.Duration;
 
 import lombok.Data;
 
+import com.mx.path.core.common.connect.HedgingSettings;
+
 /**
  * Contains useful data about the conditions that a {@link FaultTolerantTask} is being run with.
  */
@@ -21,4 +23,18 @@ public class FaultTolerantScopeConfiguration {
    * @param timeout tolerance limit to set
    */
   private Duration timeout;
+
+  /**
+   * Hedging applied to upstream requests made in this scope. Overrides the connection's hedging settings.
+   *
+   * -- GETTER --
+   * Return hedging settings.
+   *
+   * @return hedging settings, null to use connection settings
+   * -- SETTER --
+   * Set hedging settings.
+   *
+   * @param hedging hedging settings to set
+   */
+  private HedgingSettings hedging;
 }
@@ -0,0 +1,95 @@
+package com.mx.path.core.common.process;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits retries to a fraction of requests over a sliding window.
+ *
+ * <p>Every request is recorded with {@link #recordRequest()}, and every retry must be allowed by
+ * {@link #tryAcquireRetry()}. Retries are allowed while the retries made within the window are fewer than
+ * {@code ratio} times the requests made within the window, plus {@code minRetriesPerSecond} for each second of the
+ * window. The window is divided into buckets that expire one at a time.
+ *
+ * <p>Thread-safe.
+ */
+public class RetryBudget {
+  private static final int BUCKETS = 10;
+
+  private final double ratio;
+  private final long minRetries;
+  private final long bucketNanos;
+  private final LongSupplier nanoClock;
+  private final long[] requests = new long[BUCKETS];
+  private final long[] retries = new long[BUCKETS];
+  private long currentBucket;
+
+  /**
+   * Build new {@link RetryBudget}.
+   *
+   * @param ratio largest number of retries, as a fraction of requests
+   * @param minRetriesPerSecond retries per second always allowed
+   * @param window sliding window
+   */
+  public RetryBudget(double ratio, int minRetriesPerSecond, Duration window) {
+    this(ratio, minRetriesPerSecond, window, System::nanoTime);
+  }
+
+  RetryBudget(double ratio, int minRetriesPerSecond, Duration window, LongSupplier nanoClock) {
+    this.ratio = ratio;
+    this.minRetries = (long) minRetriesPerSecond * Math.max(1, window.getSeconds());
+    this.bucketNanos = Math.max(1, window.toNanos() / BUCKETS);
+    this.nanoClock = nanoClock;
+    this.currentBucket = nanoClock.getAsLong() / bucketNanos;
+  }
+
+  /**
+   * Record a request (first attempt).
+   */
+  public final synchronized void recordRequest() {
+    roll();
+    requests[index(currentBucket)]++;
+  }
+
+  /**
+   * Spend one retry, if the budget allows.
+   *
+   * @return true if the retry may be made
+   */
+  public final synchronized boolean tryAcquireRetry() {
+    roll();
+
+    long totalRequests = 0;
+    long totalRetries = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      totalRequests += requests[i];
+      totalRetries += retries[i];
+    }
+
+    if (totalRetries >= ratio * totalRequests + minRetries) {
+      return false;
+    }
+    retries[index(currentBucket)]++;
+
+    return true;
+  }
+
+  /**
+   * Clear buckets that have left the window since the last call.
+   */
+  private void roll() {
+    long bucket = nanoClock.getAsLong() / bucketNanos;
+    long expired = Math.min(bucket - currentBucket, BUCKETS);
+    for (long i = 1; i <= expired; i++) {
+      requests[index(currentBucket + i)] = 0;
+      retries[index(currentBucket + i)] = 0;
+    }
+    if (bucket > currentBucket) {
+      currentBucket = bucket;
+    }
+  }
+
+  private static int index(long bucket) {
+    return (int) Math.floorMod(bucket, (long) BUCKETS);
+  }
+}
@@ -4,10 +4,14 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import lombok.AccessLevel;
 import lombok.Data;
@@ -20,6 +24,7 @@ import com.github.rholder.retry.RetryerBuilder;
 import com.github.rholder.retry.StopStrategies;
 import com.github.rholder.retry.WaitStrategies;
 import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Futures;
 import com.mx.path.gateway.configuration.Configurable;
 import com.mx.path.gateway.configuration.ConfigurationError;
 import com.mx.path.gateway.configuration.ConfigurationState;
@@ -44,20 +49,29 @@ import com.mx.path.gateway.configuration.ConfigurationState;
  *       <li>{@link PauseStrategy#FIXED} - pause the same duration between attempts
  *       <li>{@link PauseStrategy#INCREMENTING} - increase the duration the same duration with every attempt
  *       <li>{@link PauseStrategy#FIBONACCI} - increase the duration using the fibonacci sequence as a multiplier with every attempt
+ *       <li>{@link PauseStrategy#FULL_JITTER} - random pause up to an exponentially increasing duration
+ *       <li>{@link PauseStrategy#DECORRELATED_JITTER} - random pause up to three times the previous pause
  *     </ul>
  *   <li>{@link #pause} - how long to pause (used with {@link PauseStrategy#FIXED})
- *   <li>{@link #initialPause} - how long to pause (used with {@link PauseStrategy#INCREMENTING})
+ *   <li>{@link #initialPause} - how long to pause (used with {@link PauseStrategy#INCREMENTING},
+ *     {@link PauseStrategy#FULL_JITTER} and {@link PauseStrategy#DECORRELATED_JITTER})
  *   <li>{@link #increment} - amount to increase between failed attempts (used with {@link PauseStrategy#INCREMENTING})
  *   <li>{@link #multiplier} - multiplied by fibonacci number to get pause (used with {@link PauseStrategy#FIBONACCI})
- *   <li>{@link #maxPause} - maximum duration to pause (used with {@link PauseStrategy#FIBONACCI})
+ *   <li>{@link #maxPause} - maximum duration to pause (used with {@link PauseStrategy#FIBONACCI},
+ *     {@link PauseStrategy#FULL_JITTER} and {@link PauseStrategy#DECORRELATED_JITTER})
  * </ul>
  *
+ * <p>{@link #call(Callable)} pauses on the calling thread. {@link #callAsync(Supplier, Executor, RetryBudget)} schedules
+ * attempts on a shared timer and does not block.
+ *
  * <p>See {@link BlockRetryConfiguration}
  * <p>See {@link com.mx.path.core.common.connect.ResponseRetryConfiguration}
  */
 @Data
 @SuperBuilder
 public abstract class RetryConfiguration<T> implements Configurable {
+  private static final int DECORRELATED_JITTER_GROWTH = 3;
+  private static final int MAX_FIBONACCI_INDEX = 60;
 
   /**
    * Strategy for determining when to stop retrying failed attempts.
@@ -88,7 +102,15 @@ public abstract class RetryConfiguration<T> implements Configurable {
     /**
      * Fibonacci.
      */
-    FIBONACCI
+    FIBONACCI,
+    /**
+     * Random pause between zero and {@code initialPause * 2^(failedAttempts - 1)}, capped at {@code maxPause}.
+     */
+    FULL_JITTER,
+    /**
+     * Random pause between {@code initialPause} and three times the previous pause, capped at {@code maxPause}.
+     */
+    DECORRELATED_JITTER
   }
 
   /**
@@ -147,7 +169,8 @@ public abstract class RetryConfiguration<T> implements Configurable {
   /**
    * The first pause duration. Incremented by {@link #increment} between all subsequent failures.
    *
-   * <p>Used by {@link PauseStrategy#INCREMENTING}
+   * <p>Used by {@link PauseStrategy#INCREMENTING}. The base pause of {@link PauseStrategy#FULL_JITTER} and
+   * {@link PauseStrategy#DECORRELATED_JITTER}.
    *
    * -- GETTER --
    * Return first pause duration.
@@ -181,7 +204,8 @@ public abstract class RetryConfiguration<T> implements Configurable {
   /**
    * The maximum pause duration.
    *
-   * <p>Used by {@link PauseStrategy#FIBONACCI}
+   * <p>Used by {@link PauseStrategy#FIBONACCI}, {@link PauseStrategy#FULL_JITTER} and
+   * {@link PauseStrategy#DECORRELATED_JITTER}
    *
    * -- GETTER --
    * Return max pause duration.
@@ -354,6 +378,139 @@ public abstract class RetryConfiguration<T> implements Configurable {
     }
   }
 
+  /**
+   * Execute callable block, pausing on the calling thread, with retries limited by a budget. The budget is checked
+   * after a rejected attempt and before pausing, so a spent budget gives up immediately. Giving up fails like any other
+   * stop: with the exception from the supplier, or with {@link RetriesFailedException}.
+   *
+   * <p>Without a budget, or when wrapping an existing {@link Retryer}, this is the same as
+   * {@link #call(Callable, Function)}.
+   *
+   * @param callable block to call
+   * @param budget limits retries (nullable)
+   * @param exceptionSupplierOverride supplier
+   * @return result of first successful attempt
+   */
+  public final T call(Callable<T> callable, RetryBudget budget, Function<Throwable, RuntimeException> exceptionSupplierOverride) {
+    if (budget == null || stopStrategy == null) {
+      return call(callable, exceptionSupplierOverride);
+    }
+
+    Predicate<T> reject = buildRejectOn();
+    long startNanos = System.nanoTime();
+    int failedAttempts = 0;
+    Duration previousPause = Duration.ZERO;
+    while (true) {
+      T value = attempt(callable);
+      if (reject == null || !reject.test(value)) {
+        return value;
+      }
+
+      failedAttempts++;
+      if (shouldStop(failedAttempts, Duration.ofNanos(System.nanoTime() - startNanos))) {
+        throw retriesFailed("Retrying failed to complete successfully after " + failedAttempts + " attempts.", failedAttempts, exceptionSupplierOverride);
+      }
+
+      if (!budget.tryAcquireRetry()) {
+        throw retriesFailed("Retry budget exhausted after " + failedAttempts + " attempts.", failedAttempts, exceptionSupplierOverride);
+      }
+
+      previousPause = pauseAfter(failedAttempts, previousPause);
+      try {
+        TimeUnit.NANOSECONDS.sleep(previousPause.toNanos());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw retriesFailed("Interrupted while pausing after " + failedAttempts + " attempts.", failedAttempts, exceptionSupplierOverride);
+      }
+    }
+  }
+
+  /**
+   * Execute attempts without blocking, using configured stop and pause strategies. Pauses are scheduled on a shared
+   * timer and retries are started on a shared pool. If all attempts are rejected, the future fails with the exception
+   * from {@link #exceptionSupplier}, or with {@link RetriesFailedException}. An attempt that fails is not retried.
+   *
+   * <p>Not supported when wrapping an existing {@link Retryer}.
+   *
+   * @param attempt starts one attempt. The first attempt is started on the calling thread
+   * @return future completed with the result of first successful attempt
+   */
+  public final CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> attempt) {
+    return callAsync(attempt, ScheduledRetry.DEFAULT_EXECUTOR, null);
+  }
+
+  /**
+   * Execute attempts without blocking. See {@link #callAsync(Supplier)}.
+   *
+   * @param attempt starts one attempt
+   * @param executor used to start retries. Wrap {@link #retryExecutor()} to carry thread-bound context to retries
+   * @param budget limits retries (nullable)
+   * @return future completed with the result of first successful attempt
+   */
+  public final CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> attempt, Executor executor, RetryBudget budget) {
+    return callAsync(attempt, executor, budget, this.exceptionSupplier);
+  }
+
+  /**
+   * Execute attempts without blocking. See {@link #callAsync(Supplier)}.
+   *
+   * @param attempt starts one attempt
+   * @param executor used to start retries
+   * @param budget limits retries (nullable)
+   * @param exceptionSupplierOverride supplier
+   * @return future completed with the result of first successful attempt
+   */
+  public final CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> attempt, Executor executor, RetryBudget budget,
+      Function<Throwable, RuntimeException> exceptionSupplierOverride) {
+    if (stopStrategy == null) {
+      return Futures.failed(new UnsupportedOperationException("Asynchronous retries require a configured stopStrategy"));
+    }
+
+    return new ScheduledRetry<>(this, attempt, executor, budget, exceptionSupplierOverride).start();
+  }
+
+  /**
+   * Shared pool used to start asynchronous retries.
+   *
+   * @return executor
+   */
+  public static Executor retryExecutor() {
+    return ScheduledRetry.DEFAULT_EXECUTOR;
+  }
+
+  /**
+   * Pause before the next attempt.
+   *
+   * @param failedAttempts number of failed attempts so far (1 after the first failure)
+   * @param previousPause previous pause, used by {@link PauseStrategy#DECORRELATED_JITTER}. {@link Duration#ZERO} before the first
+   * @return pause
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  public final Duration pauseAfter(int failedAttempts, Duration previousPause) {
+    if (pauseStrategy == null) {
+      return Duration.ZERO;
+    }
+
+    switch (pauseStrategy) {
+      case FIXED:
+        return pause;
+      case INCREMENTING:
+        return initialPause.plus(increment.multipliedBy(failedAttempts - 1L));
+      case FIBONACCI:
+        return min(multiplier.multipliedBy(fibonacci(Math.min(failedAttempts, MAX_FIBONACCI_INDEX))), maxPause);
+      case FULL_JITTER:
+        double ceiling = Math.min(maxPause.toNanos(), initialPause.toNanos() * Math.pow(2, failedAttempts - 1));
+        return Duration.ofNanos((long) (ThreadLocalRandom.current().nextDouble() * ceiling));
+      case DECORRELATED_JITTER:
+        long base = initialPause.toNanos();
+        long previous = Math.max(base, previousPause.toNanos());
+        long upper = Math.max(base + 1, Math.min(maxPause.toNanos(), previous * DECORRELATED_JITTER_GROWTH));
+        return min(Duration.ofNanos(ThreadLocalRandom.current().nextLong(base, upper)), maxPause);
+      default:
+        return Duration.ZERO;
+    }
+  }
+
   /**
    * Get instance of {@link Retryer}.
    *
@@ -428,6 +585,15 @@ public abstract class RetryConfiguration<T> implements Configurable {
             missingFields.add("maxPause");
           }
           break;
+        case FULL_JITTER:
+        case DECORRELATED_JITTER:
+          if (initialPause == null) {
+            missingFields.add("initialPause");
+          }
+          if (maxPause == null) {
+            missingFields.add("maxPause");
+          }
+          break;
         default:
           throw new ConfigurationError("Unsupported pauseStrategy: " + pauseStrategy, state);
       }
@@ -470,6 +636,9 @@ public abstract class RetryConfiguration<T> implements Configurable {
     if (pauseStrategy == PauseStrategy.FIBONACCI) {
       builder.withWaitStrategy(WaitStrategies.fibonacciWait(multiplier.toMillis(), maxPause.toMillis(), TimeUnit.MILLISECONDS));
     }
+    if (pauseStrategy == PauseStrategy.FULL_JITTER || pauseStrategy == PauseStrategy.DECORRELATED_JITTER) {
+      builder.withWaitStrategy(failedAttempt -> sampledPause((int) failedAttempt.getAttemptNumber()).toMillis());
+    }
 
     if (rejectOn != null) {
       builder.retryIfResult(rejectOn::test);
@@ -477,4 +646,77 @@ public abstract class RetryConfiguration<T> implements Configurable {
 
     return builder;
   }
+
+  /**
+   * Predicate matching results that must be retried. Override to add rules, without changing {@link #rejectOn}.
+   *
+   * @return predicate, or null if results are never retried
+   */
+  protected Predicate<T> buildRejectOn() {
+    return rejectOn;
+  }
+
+  /**
+   * Whether to give up after a failed attempt.
+   *
+   * @param failedAttempts number of failed attempts so far
+   * @param sinceFirstAttempt time since the first attempt started
+   * @return true to stop
+   */
+  final boolean shouldStop(int failedAttempts, Duration sinceFirstAttempt) {
+    if (stopStrategy == StopStrategy.DURATION) {
+      return sinceFirstAttempt.compareTo(duration) >= 0;
+    }
+
+    return failedAttempts >= count;
+  }
+
+  /**
+   * Pause after given number of failed attempts, when the previous pause is not known (shared {@link Retryer}). Each
+   * pause is drawn from the same distribution as in an asynchronous call.
+   */
+  private Duration sampledPause(int failedAttempts) {
+    Duration previous = Duration.ZERO;
+    for (int i = 1; i <= failedAttempts; i++) {
+      previous = pauseAfter(i, previous);
+    }
+
+    return previous;
+  }
+
+  /**
+   * Make one attempt. Exceptions are not retried, and are thrown as {@link #call(Callable, Function)} throws them.
+   */
+  private T attempt(Callable<T> callable) {
+    try {
+      return callable.call();
+    } catch (Exception e) {
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static RuntimeException retriesFailed(String message, int failedAttempts, Function<Throwable, RuntimeException> exceptionSupplier) {
+    RetriesFailedException failure = new RetriesFailedException(message).withNumberOfFailedAttempts(failedAttempts);
+    return exceptionSupplier != null ? exceptionSupplier.apply(failure) : failure;
+  }
+
+  private static Duration min(Duration left, Duration right) {
+    return left.compareTo(right) <= 0 ? left : right;
+  }
+
+  private static long fibonacci(int n) {
+    long previous = 0;
+    long current = 1;
+    for (int i = 1; i < n; i++) {
+      long next = previous + current;
+      previous = current;
+      current = next;
+    }
+
+    return current;
+  }
 }
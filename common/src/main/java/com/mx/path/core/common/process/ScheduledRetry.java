@@ -0,0 +1,129 @@
+package com.mx.path.core.common.process;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.lang.Futures;
+
+/**
+ * One non-blocking retried call. See {@link RetryConfiguration#callAsync(Supplier, Executor, RetryBudget)}.
+ *
+ * <p>Pauses between attempts are scheduled on a shared timer, and each retry is started with the given executor, so no
+ * thread is held while waiting for the next attempt.
+ *
+ * @param <T> result of attempt
+ */
+final class ScheduledRetry<T> {
+  // Also completes asynchronous upstream calls, so tasks queue rather than being rejected once all threads are busy
+  private static final int MAX_THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+  static final Executor DEFAULT_EXECUTOR = buildDefaultExecutor();
+  private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-retry-timer").build());
+
+  private final RetryConfiguration<T> configuration;
+  private final Supplier<CompletableFuture<T>> attempt;
+  private final Executor executor;
+  private final RetryBudget budget;
+  private final Function<Throwable, RuntimeException> exceptionSupplier;
+  private final Predicate<T> rejectOn;
+  private final CompletableFuture<T> result = new CompletableFuture<>();
+  private final long startNanos = System.nanoTime();
+  private int failedAttempts;
+  private Duration previousPause = Duration.ZERO;
+
+  ScheduledRetry(RetryConfiguration<T> configuration, Supplier<CompletableFuture<T>> attempt, Executor executor,
+      RetryBudget budget, Function<Throwable, RuntimeException> exceptionSupplier) {
+    this.configuration = configuration;
+    this.attempt = attempt;
+    this.executor = executor;
+    this.budget = budget;
+    this.exceptionSupplier = exceptionSupplier;
+    this.rejectOn = configuration.buildRejectOn();
+  }
+
+  /**
+   * Make the first attempt on the calling thread.
+   *
+   * @return future completed with the first accepted result
+   */
+  CompletableFuture<T> start() {
+    run();
+
+    return result;
+  }
+
+  private void run() {
+    CompletableFuture<T> future;
+    try {
+      future = attempt.get();
+    } catch (RuntimeException e) {
+      future = Futures.failed(e);
+    }
+    future.whenComplete(this::completed);
+  }
+
+  /**
+   * Accept the result, fail, or schedule the next attempt. Exceptions thrown by an attempt are not retried.
+   */
+  private void completed(T value, Throwable throwable) {
+    if (throwable != null) {
+      result.completeExceptionally(Futures.unwrap(throwable));
+      return;
+    }
+
+    if (rejectOn == null || !rejectOn.test(value)) {
+      result.complete(value);
+      return;
+    }
+
+    failedAttempts++;
+    if (configuration.shouldStop(failedAttempts, Duration.ofNanos(System.nanoTime() - startNanos))) {
+      fail("Retrying failed to complete successfully after " + failedAttempts + " attempts.");
+      return;
+    }
+
+    if (budget != null && !budget.tryAcquireRetry()) {
+      fail("Retry budget exhausted after " + failedAttempts + " attempts.");
+      return;
+    }
+
+    previousPause = configuration.pauseAfter(failedAttempts, previousPause);
+    try {
+      TIMER.schedule(this::retry, previousPause.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private void retry() {
+    try {
+      executor.execute(this::run);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private static Executor buildDefaultExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-retry-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+
+    return executor;
+  }
+
+  private void fail(String message) {
+    RetriesFailedException failure = new RetriesFailedException(message).withNumberOfFailedAttempts(failedAttempts);
+    result.completeExceptionally(exceptionSupplier != null ? exceptionSupplier.apply(failure) : failure);
+  }
+}
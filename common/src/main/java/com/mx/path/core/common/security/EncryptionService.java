@@ -1,5 +1,8 @@
 package com.mx.path.core.common.security;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Interface for encryption service provider.
  */
@@ -21,6 +24,38 @@ public interface EncryptionService {
    */
   String decrypt(String cypher);
 
+  /**
+   * Encrypt several strings.
+   *
+   * <p>Defaults to {@link #encrypt} for each value. Implementations should share the work of encrypting them, such as
+   * key lookups.
+   *
+   * @param values values
+   * @return encrypted strings, in the order of values
+   */
+  default List<String> encryptAll(List<String> values) {
+    List<String> result = new ArrayList<>(values.size());
+    values.forEach(value -> result.add(encrypt(value)));
+
+    return result;
+  }
+
+  /**
+   * Decrypt several strings.
+   *
+   * <p>Defaults to {@link #decrypt} for each cypher. Implementations should share the work of decrypting them, such as
+   * key lookups.
+   *
+   * @param cyphers cyphers
+   * @return decrypted strings, in the order of cyphers
+   */
+  default List<String> decryptAll(List<String> cyphers) {
+    List<String> result = new ArrayList<>(cyphers.size());
+    cyphers.forEach(cypher -> result.add(decrypt(cypher)));
+
+    return result;
+  }
+
   /**
    * Determine whether a given string has already been encrypted.
    *
@@ -0,0 +1,28 @@
+package com.mx.path.core.common.security;
+
+import com.mx.path.core.common.exception.PathSystemException;
+
+/**
+ * Throw on encryption problems.
+ */
+public class EncryptionServiceException extends PathSystemException {
+
+  /**
+   * Build new {@link EncryptionServiceException} with description message.
+   *
+   * @param message message
+   */
+  public EncryptionServiceException(String message) {
+    super(message);
+  }
+
+  /**
+   * Build new {@link EncryptionServiceException} with description message and cause.
+   *
+   * @param message message
+   * @param cause cause
+   */
+  public EncryptionServiceException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,42 @@
+package com.mx.path.core.common.store;
+
+/**
+ * Batch that applies each operation to its store as soon as it is added. Used by stores that cannot pipeline.
+ */
+final class DirectStoreBatch implements StoreBatch {
+  private final Store store;
+
+  DirectStoreBatch(Store store) {
+    this.store = store;
+  }
+
+  @Override
+  public void delete(String key) {
+    store.delete(key);
+  }
+
+  @Override
+  public void deleteSet(String key, String value) {
+    store.deleteSet(key, value);
+  }
+
+  @Override
+  public void put(String key, String value, long expirySeconds) {
+    store.put(key, value, expirySeconds);
+  }
+
+  @Override
+  public void put(String key, String value) {
+    store.put(key, value);
+  }
+
+  @Override
+  public void putSet(String key, String value, long expirySeconds) {
+    store.putSet(key, value, expirySeconds);
+  }
+
+  @Override
+  public void putSet(String key, String value) {
+    store.putSet(key, value);
+  }
+}
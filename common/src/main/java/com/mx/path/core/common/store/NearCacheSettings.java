@@ -0,0 +1,158 @@
+package com.mx.path.core.common.store;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for a {@link NearCacheStore}, an in-process cache in front of a remote store.
+ *
+ * <p>Values read from the store are kept for {@code ttl}, and values written through this node are kept for
+ * {@code ttl} or their expiry, whichever is shorter. The cache holds at most {@code maxEntries} values and about
+ * {@code maxSize} bytes. The least recently used values are evicted first.
+ *
+ * <p>Writes made by other nodes are only seen once the cached value expires, unless an {@code invalidationChannel}
+ * is set. Each node then publishes the keys it writes on that channel of the {@code messageBroker} facility, and
+ * evicts the keys published by other nodes. A near cache on the {@code sessionStore} requires an
+ * {@code invalidationChannel}, so a session logged out on one node is not still readable on another.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * facilities:
+ *   sessionStore:
+ *     class: com.mx.path.redis.RedisStore
+ *     configurations:
+ *       host: localhost
+ *     nearCache:
+ *       maxEntries: 5000
+ *       ttl: 10s
+ *       invalidationChannel: path.nearCache.sessionStore
+ * }</pre>
+ */
+@Data
+public class NearCacheSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_MAX_SIZE = 32L * 1024 * 1024;
+  public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+  /**
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * -- GETTER --
+   * Return max entries.
+   *
+   * @return max entries
+   * -- SETTER --
+   * Set max entries.
+   *
+   * @param maxEntries max entries to set
+   */
+  @ConfigurationField
+  private Integer maxEntries;
+
+  /**
+   * Approximate memory held by cached keys and values, in bytes.
+   *
+   * -- GETTER --
+   * Return max size.
+   *
+   * @return max size
+   * -- SETTER --
+   * Set max size.
+   *
+   * @param maxSize max size to set
+   */
+  @ConfigurationField
+  private Long maxSize;
+
+  /**
+   * Longest time a value is cached.
+   *
+   * -- GETTER --
+   * Return ttl.
+   *
+   * @return ttl
+   * -- SETTER --
+   * Set ttl.
+   *
+   * @param ttl ttl to set
+   */
+  @ConfigurationField
+  private Duration ttl;
+
+  /**
+   * Message broker channel used to evict keys written by other nodes. Null to rely on ttl alone.
+   *
+   * -- GETTER --
+   * Return invalidation channel.
+   *
+   * @return invalidation channel
+   * -- SETTER --
+   * Set invalidation channel.
+   *
+   * @param invalidationChannel invalidation channel to set
+   */
+  @ConfigurationField
+  private String invalidationChannel;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured max entries, or default
+   */
+  public final int maxEntriesOrDefault() {
+    return maxEntries != null ? maxEntries : DEFAULT_MAX_ENTRIES;
+  }
+
+  /**
+   * @return configured max size, or default
+   */
+  public final long maxSizeOrDefault() {
+    return maxSize != null ? maxSize : DEFAULT_MAX_SIZE;
+  }
+
+  /**
+   * @return configured ttl, or default
+   */
+  public final Duration ttlOrDefault() {
+    return ttl != null ? ttl : DEFAULT_TTL;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("maxEntries", maxEntriesOrDefault());
+    description.put("maxSize", maxSizeOrDefault());
+    description.put("ttl", Durations.toCompactString(ttlOrDefault()));
+    if (invalidationChannel != null) {
+      description.put("invalidationChannel", invalidationChannel);
+    }
+  }
+}
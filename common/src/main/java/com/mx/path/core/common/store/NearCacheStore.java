@@ -0,0 +1,443 @@
+package com.mx.path.core.common.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.messaging.MessageBroker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Store decorator that keeps recently used values in process, in front of a remote store. See
+ * {@link NearCacheSettings}.
+ *
+ * <p>Writes go to the remote store first, then to the local cache. Reads are served from the local cache until the
+ * value expires, and otherwise read from the remote store and cached. A value read from the remote store is cached for
+ * the configured ttl, since its remaining expiry is not known, so the ttl should be short compared to the expiry of the
+ * keys it caches. Sets are not cached. Lock keys (containing {@value #LOCK_KEY_MARKER}, as written by
+ * {@code StoreLock}) are never cached, since a lock must not be seen as held after it is released or expires, and are
+ * always read from the remote store, however the store is wrapped.
+ *
+ * <p>A value deleted or changed by another node is only seen once its cached copy expires, unless an invalidation
+ * channel is configured. A session store must therefore have an invalidation channel.
+ *
+ * <p>Hits, misses, and evictions are included in {@link #getConfigurations()}, and so in the facility description.
+ */
+public class NearCacheStore implements Store {
+  /**
+   * Marks the keys of locks, which are never cached.
+   */
+  public static final String LOCK_KEY_MARKER = "lock_token:";
+  private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheStore.class);
+  private static final int BYTES_PER_CHAR = 2;
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+  private static final char SENDER_SEPARATOR = ':';
+  private static final String KEY_SEPARATOR = "\n";
+
+  private final Store delegate;
+  private final NearCacheSettings settings;
+  private final MessageBroker messageBroker;
+  private final LongSupplier nanoClock;
+  private final String senderPrefix = UUID.randomUUID().toString() + SENDER_SEPARATOR;
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final int maxEntries;
+  private final long maxSize;
+  private final long ttlNanos;
+  private long size;
+  private long generation;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long expirations;
+  private long invalidations;
+
+  /**
+   * Build new {@link NearCacheStore}.
+   *
+   * @param delegate remote store
+   * @param settings near cache settings
+   * @param messageBroker broker used for invalidation, required if an invalidation channel is set
+   */
+  public NearCacheStore(Store delegate, NearCacheSettings settings, MessageBroker messageBroker) {
+    this(delegate, settings, messageBroker, System::nanoTime);
+  }
+
+  NearCacheStore(Store delegate, NearCacheSettings settings, MessageBroker messageBroker, LongSupplier nanoClock) {
+    this.delegate = delegate;
+    this.settings = settings;
+    this.messageBroker = settings.getInvalidationChannel() != null ? messageBroker : null;
+    this.nanoClock = nanoClock;
+    this.maxEntries = settings.maxEntriesOrDefault();
+    this.maxSize = settings.maxSizeOrDefault();
+    this.ttlNanos = settings.ttlOrDefault().toNanos();
+
+    if (this.messageBroker != null) {
+      this.messageBroker.registerListener(settings.getInvalidationChannel(), (channel, payload) -> receiveInvalidation(payload));
+    }
+  }
+
+  /**
+   * @return remote store
+   */
+  public final Store getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public final void delete(String key) {
+    delegate.delete(key);
+    evict(key);
+    publishInvalidation(Collections.singletonList(key));
+  }
+
+  @Override
+  public final void deleteSet(String key, String value) {
+    delegate.deleteSet(key, value);
+  }
+
+  @Override
+  public final String get(String key) {
+    if (isLockKey(key)) {
+      return delegate.get(key);
+    }
+
+    long readGeneration;
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && nanoClock.getAsLong() - entry.expiresAtNanos < 0) {
+        hits++;
+        return entry.value;
+      }
+      if (entry != null) {
+        remove(key);
+        expirations++;
+      }
+      misses++;
+      readGeneration = generation;
+    }
+
+    String value = delegate.get(key);
+    if (value != null) {
+      synchronized (this) {
+        // Skip the value if a key was written or invalidated while it was read, it may already be stale
+        if (generation == readGeneration) {
+          cache(key, value, ttlNanos);
+        }
+      }
+    }
+
+    return value;
+  }
+
+  @Override
+  public final Set<String> getSet(String key) {
+    return delegate.getSet(key);
+  }
+
+  @Override
+  public final boolean inSet(String key, String value) {
+    return delegate.inSet(key, value);
+  }
+
+  @Override
+  public final void put(String key, String value, long expirySeconds) {
+    delegate.put(key, value, expirySeconds);
+    written(key, value, expirySeconds);
+  }
+
+  @Override
+  public final void put(String key, String value) {
+    delegate.put(key, value);
+    written(key, value, Long.MAX_VALUE);
+  }
+
+  @Override
+  public final void putSet(String key, String value, long expirySeconds) {
+    delegate.putSet(key, value, expirySeconds);
+  }
+
+  @Override
+  public final void putSet(String key, String value) {
+    delegate.putSet(key, value);
+  }
+
+  @Override
+  public final boolean putIfNotExist(String key, String value, long expirySeconds) {
+    boolean result = delegate.putIfNotExist(key, value, expirySeconds);
+    if (result) {
+      written(key, value, expirySeconds);
+    }
+
+    return result;
+  }
+
+  @Override
+  public final boolean putIfNotExist(String key, String value) {
+    boolean result = delegate.putIfNotExist(key, value);
+    if (result) {
+      written(key, value, Long.MAX_VALUE);
+    }
+
+    return result;
+  }
+
+  @Override
+  public final Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new LinkedHashMap<>();
+    List<String> missing = new ArrayList<>();
+    long readGeneration;
+    synchronized (this) {
+      long now = nanoClock.getAsLong();
+      for (String key : keys) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+          hits++;
+          values.put(key, entry.value);
+          continue;
+        }
+        if (entry != null) {
+          remove(key);
+          expirations++;
+        }
+        misses++;
+        missing.add(key);
+      }
+      readGeneration = generation;
+    }
+
+    if (missing.isEmpty()) {
+      return values;
+    }
+
+    Map<String, String> read = delegate.getAll(missing);
+    synchronized (this) {
+      if (generation == readGeneration) {
+        read.forEach((key, value) -> cache(key, value, ttlNanos));
+      }
+    }
+
+    // Keep the order of the keys
+    Map<String, String> result = new LinkedHashMap<>();
+    for (String key : keys) {
+      String value = values.containsKey(key) ? values.get(key) : read.get(key);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public final void putAll(Map<String, String> values, long expirySeconds) {
+    delegate.putAll(values, expirySeconds);
+    synchronized (this) {
+      values.forEach((key, value) -> cacheWritten(key, value, expirySeconds));
+    }
+    publishInvalidation(values.keySet());
+  }
+
+  @Override
+  public final void deleteAll(Collection<String> keys) {
+    delegate.deleteAll(keys);
+    synchronized (this) {
+      keys.forEach(this::evict);
+    }
+    publishInvalidation(keys);
+  }
+
+  @Override
+  public final void pipeline(Consumer<StoreBatch> operations) {
+    List<Runnable> cacheUpdates = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    delegate.pipeline(batch -> operations.accept(new StoreBatch() {
+      @Override
+      public void delete(String key) {
+        batch.delete(key);
+        keys.add(key);
+        cacheUpdates.add(() -> evict(key));
+      }
+
+      @Override
+      public void deleteSet(String key, String value) {
+        batch.deleteSet(key, value);
+      }
+
+      @Override
+      public void put(String key, String value, long expirySeconds) {
+        batch.put(key, value, expirySeconds);
+        keys.add(key);
+        cacheUpdates.add(() -> cacheWritten(key, value, expirySeconds));
+      }
+
+      @Override
+      public void put(String key, String value) {
+        batch.put(key, value);
+        keys.add(key);
+        cacheUpdates.add(() -> cacheWritten(key, value, Long.MAX_VALUE));
+      }
+
+      @Override
+      public void putSet(String key, String value, long expirySeconds) {
+        batch.putSet(key, value, expirySeconds);
+      }
+
+      @Override
+      public void putSet(String key, String value) {
+        batch.putSet(key, value);
+      }
+    }));
+
+    if (keys.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      cacheUpdates.forEach(Runnable::run);
+    }
+    publishInvalidation(keys);
+  }
+
+  @Override
+  public final String status() {
+    return delegate.status();
+  }
+
+  /**
+   * Describe this store's settings, and the hits, misses, and evictions of its cache.
+   *
+   * @return description
+   */
+  public final ObjectMap getConfigurations() {
+    ObjectMap description = new ObjectMap();
+    description.put("store", delegate.getClass().getCanonicalName());
+    settings.describe(description.createMap("nearCache"));
+
+    ObjectMap stats = description.createMap("stats");
+    synchronized (this) {
+      stats.put("entries", entries.size());
+      stats.put("size", size);
+      stats.put("hits", hits);
+      stats.put("misses", misses);
+      stats.put("evictions", evictions);
+      stats.put("expirations", expirations);
+      stats.put("invalidations", invalidations);
+    }
+
+    return description;
+  }
+
+  private void written(String key, String value, long expirySeconds) {
+    cacheWritten(key, value, expirySeconds);
+    publishInvalidation(Collections.singletonList(key));
+  }
+
+  private synchronized void cacheWritten(String key, String value, long expirySeconds) {
+    generation++;
+    if (expirySeconds > 0) {
+      // toNanos saturates, so values without expiry are cached for the ttl
+      cache(key, value, Math.min(ttlNanos, TimeUnit.SECONDS.toNanos(expirySeconds)));
+    } else {
+      remove(key);
+    }
+  }
+
+  private synchronized void evict(String key) {
+    generation++;
+    remove(key);
+  }
+
+  /**
+   * Must be called while holding this store's lock.
+   */
+  private void cache(String key, String value, long forNanos) {
+    if (isLockKey(key)) {
+      remove(key);
+      return;
+    }
+
+    Entry entry = new Entry(value, nanoClock.getAsLong() + forNanos, weigh(key, value));
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      size -= previous.size;
+    }
+    size += entry.size;
+
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || size > maxSize) && eldest.hasNext()) {
+      size -= eldest.next().getValue().size;
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Must be called while holding this store's lock.
+   */
+  private void remove(String key) {
+    Entry entry = entries.remove(key);
+    if (entry != null) {
+      size -= entry.size;
+    }
+  }
+
+  private void publishInvalidation(Collection<String> keys) {
+    if (messageBroker == null) {
+      return;
+    }
+
+    String joinedKeys = String.join(KEY_SEPARATOR, keys);
+    try {
+      messageBroker.publish(settings.getInvalidationChannel(), senderPrefix + joinedKeys);
+    } catch (RuntimeException e) {
+      // The write succeeded. Other nodes see it once their cached value expires.
+      LOGGER.warn("Unable to publish near cache invalidation for keys " + joinedKeys, e);
+    }
+  }
+
+  private void receiveInvalidation(String payload) {
+    // Payload is the sender's id and the keys, one per line. This node's own writes are already cached.
+    int separator = payload.indexOf(SENDER_SEPARATOR);
+    if (separator < 0 || payload.startsWith(senderPrefix)) {
+      return;
+    }
+
+    synchronized (this) {
+      for (String key : payload.substring(separator + 1).split(KEY_SEPARATOR)) {
+        invalidations++;
+        evict(key);
+      }
+    }
+  }
+
+  private static boolean isLockKey(String key) {
+    return key.contains(LOCK_KEY_MARKER);
+  }
+
+  private static long weigh(String key, String value) {
+    return (long) (key.length() + value.length()) * BYTES_PER_CHAR + ENTRY_OVERHEAD_BYTES;
+  }
+
+  private static final class Entry {
+    private final String value;
+    private final long expiresAtNanos;
+    private final long size;
+
+    Entry(String value, long expiresAtNanos, long size) {
+      this.value = value;
+      this.expiresAtNanos = expiresAtNanos;
+      this.size = size;
+    }
+  }
+}
@@ -1,9 +1,16 @@
 package com.mx.path.core.common.store;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Key-Value Store
+ *
+ * <p>The multi-key operations ({@link #getAll}, {@link #putAll}, {@link #deleteAll}, and {@link #pipeline}) default to
+ * one call per key. Stores that can send several commands in one round trip should override them.
  */
 public interface Store {
 
@@ -99,6 +106,59 @@ public interface Store {
    */
   boolean putIfNotExist(String key, String value);
 
+  /**
+   * Get values of several keys.
+   *
+   * @param keys keys
+   * @return values by key, in the order of the keys. Keys without a value are omitted.
+   */
+  default Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> values = new LinkedHashMap<>();
+    for (String key : keys) {
+      String value = get(key);
+      if (value != null) {
+        values.put(key, value);
+      }
+    }
+
+    return values;
+  }
+
+  /**
+   * Create/Update several key/value pairs with the same expiry.
+   *
+   * @param values values by key
+   * @param expirySeconds seconds to expiry
+   */
+  default void putAll(Map<String, String> values, long expirySeconds) {
+    pipeline(batch -> values.forEach((key, value) -> batch.put(key, value, expirySeconds)));
+  }
+
+  /**
+   * Delete several keys.
+   *
+   * @param keys keys
+   */
+  default void deleteAll(Collection<String> keys) {
+    pipeline(batch -> keys.forEach(batch::delete));
+  }
+
+  /**
+   * Send several write operations together.
+   *
+   * <pre>{@code
+   * store.pipeline(batch -> {
+   *   batch.putSet("session_keys", "key", 60);
+   *   batch.put("key", "value", 60);
+   * });
+   * }</pre>
+   *
+   * @param operations adds the operations to the batch
+   */
+  default void pipeline(Consumer<StoreBatch> operations) {
+    operations.accept(new DirectStoreBatch(this));
+  }
+
   /**
    * @return OK if the store is available
    */
@@ -0,0 +1,59 @@
+package com.mx.path.core.common.store;
+
+/**
+ * Write operations collected by {@link Store#pipeline}, to be sent to the store together.
+ *
+ * <p>Operations are applied in the order they are added. Stores that cannot pipeline apply each operation as it is
+ * added, so a batch is not atomic.
+ */
+public interface StoreBatch {
+
+  /**
+   * Delete key.
+   *
+   * @param key key
+   */
+  void delete(String key);
+
+  /**
+   * Delete a value from a set.
+   *
+   * @param key key
+   * @param value value
+   */
+  void deleteSet(String key, String value);
+
+  /**
+   * Create/Update a key/value pair.
+   *
+   * @param key key
+   * @param value value
+   * @param expirySeconds seconds to expiry
+   */
+  void put(String key, String value, long expirySeconds);
+
+  /**
+   * Create/Update a key/value pair on implementations that do not support TTL.
+   *
+   * @param key key
+   * @param value value
+   */
+  void put(String key, String value);
+
+  /**
+   * Add value to a set.
+   *
+   * @param key key
+   * @param value value
+   * @param expirySeconds seconds to expiry
+   */
+  void putSet(String key, String value, long expirySeconds);
+
+  /**
+   * Add value to a set on implementations that do not support TTL.
+   *
+   * @param key key
+   * @param value value
+   */
+  void putSet(String key, String value);
+}
@@ -0,0 +1,85 @@
+package com.mx.path.core.common.compression
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+import spock.lang.Specification
+
+class DeflateCompressionServiceTest extends Specification {
+  static final String ACCOUNTS = (1..200).collect { i ->
+    "{\"id\":\"account-${i}\",\"name\":\"Checking ${i % 7}\",\"type\":\"CHECKING\",\"balance\":${i * 13}.25}"
+  }.join(",")
+
+  DeflateCompressionService subject
+
+  def setup() {
+    subject = new DeflateCompressionService()
+  }
+
+  def "compresses and decompresses"() {
+    when:
+    def compressed = subject.compress(ACCOUNTS)
+
+    then:
+    subject.isCompressed(compressed)
+    compressed.length() < ACCOUNTS.length() / 4
+    subject.decompress(compressed) == ACCOUNTS
+  }
+
+  def "stores small values with a marker"() {
+    expect:
+    subject.compress("small") == "\u0001small"
+    subject.decompress("\u0001small") == "small"
+  }
+
+  def "uses dictionary"() {
+    given:
+    def settings = new CompressionServiceSettings().tap {
+      setMinSize(0)
+      setDictionary("{\"id\":\"account-\",\"name\":\"Checking \",\"type\":\"CHECKING\",\"balance\":}")
+    }
+    def withDictionary = new DeflateCompressionService(settings)
+    def value = "{\"id\":\"account-1\",\"name\":\"Checking 1\",\"type\":\"CHECKING\",\"balance\":13.25}"
+
+    when:
+    def compressed = withDictionary.compress(value)
+
+    then:
+    compressed.length() < new DeflateCompressionService(new CompressionServiceSettings().tap { setMinSize(0) }).compress(value).length()
+    withDictionary.decompress(compressed) == value
+
+    when:
+    subject.decompress(compressed)
+
+    then:
+    thrown(CompressionServiceException)
+  }
+
+  def "fails on truncated value"() {
+    given:
+    def compressed = subject.compress(ACCOUNTS)
+
+    when:
+    subject.decompress(compressed.substring(0, compressed.length() - 10))
+
+    then:
+    thrown(CompressionServiceException)
+  }
+
+  def "reuses deflaters across threads safely"() {
+    given:
+    def executor = Executors.newFixedThreadPool(4)
+    def values = (1..50).collect { ACCOUNTS + it }
+
+    when:
+    def results = executor.invokeAll(values.collect { value ->
+      { -> subject.decompress(subject.compress(value)) } as Callable<String>
+    }).collect { it.get() }
+
+    then:
+    results == values
+
+    cleanup:
+    executor.shutdown()
+  }
+}
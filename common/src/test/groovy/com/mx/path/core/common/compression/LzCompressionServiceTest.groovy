@@ -0,0 +1,119 @@
+package com.mx.path.core.common.compression
+
+import com.mx.path.core.common.collection.ObjectMap
+
+import spock.lang.Specification
+
+class LzCompressionServiceTest extends Specification {
+  static final String ACCOUNTS = (1..200).collect { i ->
+    "{\"id\":\"account-${i}\",\"name\":\"Checking ${i % 7}\",\"type\":\"CHECKING\",\"balance\":${i * 13}.25}"
+  }.join(",")
+
+  LzCompressionService subject
+
+  def setup() {
+    subject = new LzCompressionService()
+  }
+
+  def "compresses and decompresses"() {
+    when:
+    def compressed = subject.compress(ACCOUNTS)
+
+    then:
+    subject.isCompressed(compressed)
+    compressed.length() < ACCOUNTS.length() / 2
+    subject.decompress(compressed) == ACCOUNTS
+  }
+
+  def "round trips"() {
+    expect:
+    subject.decompress(subject.compress(value)) == value
+
+    where:
+    value << [
+      "",
+      "a" * 300,
+      "abc" * 1000 + "ünïcødé 😀" * 50,
+      (1..5000).collect { (it * 7919 % 251) as String }.join(","),
+      "x" * 70_000 + "y" * 300 + "x" * 70_000,
+    ]
+  }
+
+  def "stores small values with a marker"() {
+    when:
+    def stored = subject.compress("small")
+
+    then:
+    stored == "\u0001small"
+    subject.isCompressed(stored)
+    subject.decompress(stored) == "small"
+  }
+
+  def "stores values that do not get smaller"() {
+    given:
+    def settings = new CompressionServiceSettings().tap { setMinSize(0) }
+    subject = new LzCompressionService(settings)
+    def random = new Random(1)
+    def value = (1..300).collect { (char) (33 + random.nextInt(90)) }.join()
+
+    expect:
+    subject.compress(value) == "\u0001" + value
+  }
+
+  def "returns unmarked values as they are"() {
+    expect:
+    !subject.isCompressed("uncompressed")
+    subject.decompress("uncompressed") == "uncompressed"
+    subject.decompress(null) == null
+    subject.compress(null) == null
+  }
+
+  def "uses dictionary"() {
+    given:
+    def settings = new CompressionServiceSettings().tap {
+      setMinSize(0)
+      setDictionary("{\"id\":\"account-\",\"name\":\"Checking \",\"type\":\"CHECKING\",\"balance\":}")
+    }
+    def withDictionary = new LzCompressionService(settings)
+    def value = "{\"id\":\"account-1\",\"name\":\"Checking 1\",\"type\":\"CHECKING\",\"balance\":13.25}"
+
+    when:
+    def compressed = withDictionary.compress(value)
+
+    then:
+    compressed.length() < new LzCompressionService(new CompressionServiceSettings().tap { setMinSize(0) }).compress(value).length()
+    withDictionary.decompress(compressed) == value
+  }
+
+  def "fails on corrupt value"() {
+    given:
+    def compressed = subject.compress(ACCOUNTS)
+
+    when:
+    subject.decompress(compressed.substring(0, compressed.length() - 10))
+
+    then:
+    thrown(CompressionServiceException)
+  }
+
+  def "fails on value compressed by another service"() {
+    when:
+    subject.decompress(new DeflateCompressionService().compress(ACCOUNTS))
+
+    then:
+    thrown(CompressionServiceException)
+  }
+
+  def "describes its settings"() {
+    given:
+    def description = new ObjectMap()
+
+    when:
+    new LzCompressionService(new CompressionServiceSettings().tap { setDictionary("abcd") }).describe(description)
+
+    then:
+    description.get("class") == LzCompressionService.getCanonicalName()
+    description.get("minSize") == CompressionServiceSettings.DEFAULT_MIN_SIZE
+    description.get("dictionarySize") == 4
+  }
+}
@@ -0,0 +1,43 @@
+package com.mx.path.core.common.connect
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.testing.connect.TestFilterA
+import com.mx.testing.connect.TestRequest
+import com.mx.testing.connect.TestResponse
+
+import spock.lang.Specification
+
+class ConnectionMetricsTest extends Specification {
+
+  def cleanup() {
+    ConnectionMetrics.reset()
+  }
+
+  def "passes completed requests to all sinks"() {
+    given:
+    def request = new TestRequest(new TestFilterA())
+    def response = new TestResponse()
+    def recorded = []
+    ConnectionMetrics.addSink({ req, resp -> throw new RuntimeException("broken sink") } as ConnectionMetricsSink)
+    ConnectionMetrics.addSink({ req, resp -> recorded.add([req, resp]) } as ConnectionMetricsSink)
+
+    when:
+    ConnectionMetrics.record(request, response)
+
+    then:
+    noExceptionThrown()
+    recorded == [[request, response]]
+  }
+
+  def "describes all sources"() {
+    given:
+    ConnectionMetrics.addSource("http", { description -> description.put("leased", 3) } as ConnectionMetricsSource)
+    def description = new ObjectMap()
+
+    when:
+    ConnectionMetrics.describe(description)
+
+    then:
+    description.getMap("http").getAsInteger("leased") == 3
+  }
+}
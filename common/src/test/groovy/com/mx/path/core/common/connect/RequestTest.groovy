@@ -6,6 +6,8 @@ import static org.mockito.Mockito.times
 import static org.mockito.Mockito.verify
 
 import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 import com.github.rholder.retry.RetryerBuilder
 import com.github.rholder.retry.StopStrategies
@@ -179,6 +181,27 @@ class RequestTest extends Specification {
     subject.getAttemptCount() == 2
   }
 
+  def "copy"() {
+    given:
+    subject.withBaseUrl("http://base").withPath("/path").withHeader("header", "value").withQueryStringParam("param", "value")
+    subject.withCancellation(new Cancellation())
+    subject.start()
+
+    when:
+    def copy = subject.copy()
+    copy.withBaseUrl("http://other").withHeader("header", "changed").withQueryStringParam("param", "changed")
+
+    then:
+    copy instanceof TestRequest
+    copy.getFilterChain() == filterChain
+    copy.getPath() == "/path"
+    copy.getStartNano() == 0
+    copy.getCancellation() == null
+    subject.getBaseUrl() == "http://base"
+    subject.getHeaders().get("header") == "value"
+    subject.getQueryStringParams().get("param") == "value"
+  }
+
   def "execute"() {
     given:
     filterChain = mock(RequestFilter)
@@ -246,6 +269,130 @@ class RequestTest extends Specification {
     err.message == "System is not ready"
   }
 
+  def "executeAsync with retry configuration schedules retries"() {
+    given:
+    def attempts = new AtomicInteger()
+    filterChain = new RequestFilterBase() {
+      @Override
+      void execute(Request request, Response response) {
+        attempts.incrementAndGet()
+      }
+    }
+    subject = new TestRequest(filterChain)
+    subject.withResponseRetryConfiguration(ResponseRetryConfiguration.<TestResponse>builder()
+        .stopStrategy(ResponseRetryConfiguration.StopStrategy.COUNT)
+        .count(3)
+        .pauseStrategy(ResponseRetryConfiguration.PauseStrategy.FIXED)
+        .pause(Duration.ofMillis(10))
+        .onResponse(Collections.singletonList(ResponseMatcher.builder().predicate({ t -> true }).build()))
+        .build())
+
+    when:
+    def response = subject.executeAsync().get(5, TimeUnit.SECONDS)
+
+    then:
+    attempts.get() == 3
+    response.getException() instanceof UpstreamSystemUnavailableAfterRetries
+  }
+
+  def "retry budget stops retries"() {
+    given:
+    def attempts = new AtomicInteger()
+    filterChain = new RequestFilterBase() {
+      @Override
+      void execute(Request request, Response response) {
+        attempts.incrementAndGet()
+      }
+    }
+    subject = new TestRequest(filterChain)
+    subject.withConnectionSettings(AccessorConnectionSettings.builder()
+        .retryBudget(new RetryBudgetSettings().tap {
+          enabled = true
+          ratio = 0.0d
+          minRetriesPerSecond = 0
+        })
+        .build())
+    subject.withResponseRetryConfiguration(ResponseRetryConfiguration.<TestResponse>builder()
+        .stopStrategy(ResponseRetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .onResponse(Collections.singletonList(ResponseMatcher.builder().predicate({ t -> true }).build()))
+        .build())
+
+    when:
+    def response = subject.execute()
+    def asyncResponse = subject.executeAsync().get(5, TimeUnit.SECONDS)
+
+    then:
+    attempts.get() == 2
+    response.getException() instanceof UpstreamSystemUnavailableAfterRetries
+    asyncResponse.getException() instanceof UpstreamSystemUnavailableAfterRetries
+  }
+
+  def "spent retry budget fails with exception supplier without pausing"() {
+    given:
+    def attempts = new AtomicInteger()
+    filterChain = new RequestFilterBase() {
+      @Override
+      void execute(Request request, Response response) {
+        attempts.incrementAndGet()
+      }
+    }
+    subject = new TestRequest(filterChain)
+    subject.withConnectionSettings(AccessorConnectionSettings.builder()
+        .retryBudget(new RetryBudgetSettings().tap {
+          enabled = true
+          ratio = 0.0d
+          minRetriesPerSecond = 0
+        })
+        .build())
+    subject.withResponseRetryConfiguration(ResponseRetryConfiguration.<TestResponse>builder()
+        .stopStrategy(ResponseRetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .pauseStrategy(ResponseRetryConfiguration.PauseStrategy.FIXED)
+        .pause(Duration.ofSeconds(10))
+        .onResponse(Collections.singletonList(ResponseMatcher.builder().predicate({ t -> true }).build()))
+        .build(), { e -> new UpstreamSystemUnavailable("Budget spent", e) })
+    def started = System.nanoTime()
+
+    when:
+    subject.execute()
+
+    then:
+    thrown(UpstreamSystemUnavailable)
+    attempts.get() == 1
+    Duration.ofNanos(System.nanoTime() - started) < Duration.ofSeconds(5)
+  }
+
+  def "retry budget is off by default"() {
+    given:
+    def attempts = new AtomicInteger()
+    filterChain = new RequestFilterBase() {
+      @Override
+      void execute(Request request, Response response) {
+        attempts.incrementAndGet()
+      }
+    }
+    subject = new TestRequest(filterChain)
+    subject.withConnectionSettings(AccessorConnectionSettings.builder()
+        .retryBudget(new RetryBudgetSettings().tap {
+          ratio = 0.0d
+          minRetriesPerSecond = 0
+        })
+        .build())
+    subject.withResponseRetryConfiguration(ResponseRetryConfiguration.<TestResponse>builder()
+        .stopStrategy(ResponseRetryConfiguration.StopStrategy.COUNT)
+        .count(3)
+        .onResponse(Collections.singletonList(ResponseMatcher.builder().predicate({ t -> true }).build()))
+        .build())
+
+    when:
+    def response = subject.execute()
+
+    then:
+    attempts.get() == 3
+    response.getException() instanceof UpstreamSystemUnavailableAfterRetries
+  }
+
   class TestMutualAuthSettings implements ConnectionSettings {
     @Override
     List<RequestFilter> getBaseRequestFilters() {
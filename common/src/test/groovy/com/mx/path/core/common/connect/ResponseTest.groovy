@@ -92,6 +92,24 @@ class ResponseTest extends Specification {
     subject.getStatus() == HttpStatus.OK
   }
 
+  def "copyFrom copies headers and cookies"() {
+    given:
+    def source = new TestResponse().withStatus(HttpStatus.OK).withBody("body")
+    source.getHeaders().put("header", "value")
+    source.getCookies().put("cookie", "value")
+
+    when:
+    subject.copyFrom(source)
+    source.getHeaders().put("header", "changed")
+    source.getCookies().put("cookie", "changed")
+
+    then:
+    subject.getStatus() == HttpStatus.OK
+    subject.getBody() == "body"
+    subject.getHeaders().get("header") == "value"
+    subject.getCookies().get("cookie") == "value"
+  }
+
   def "throwException wraps non-PathRequestException"() {
     setup:
     def exception = new Exception("error")
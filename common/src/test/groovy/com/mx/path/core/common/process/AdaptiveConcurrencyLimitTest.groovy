@@ -0,0 +1,131 @@
+package com.mx.path.core.common.process
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings
+
+import spock.lang.Specification
+
+class AdaptiveConcurrencyLimitTest extends Specification {
+
+  AdaptiveConcurrencyLimit build(Closure configure = {}) {
+    def settings = new ConcurrencyLimitSettings().tap {
+      initialLimit = 4
+      minLimit = 2
+      maxLimit = 6
+    }
+    settings.tap(configure)
+
+    return new AdaptiveConcurrencyLimit(settings)
+  }
+
+  def "rejects calls beyond the limit"() {
+    given:
+    def subject = build()
+
+    expect:
+    (1..4).every { subject.tryAcquire() }
+    !subject.tryAcquire()
+    subject.inFlight == 4
+
+    when:
+    subject.releaseIgnored()
+
+    then:
+    subject.tryAcquire()
+    subject.limit == 4
+  }
+
+  def "aimd raises the limit while it is in use, up to the max"() {
+    given:
+    def subject = build()
+
+    when:
+    5.times {
+      (1..subject.limit).each { subject.tryAcquire() }
+      subject.release(millis(10), false)
+      while (subject.inFlight > 0) {
+        subject.releaseIgnored()
+      }
+    }
+
+    then:
+    subject.limit == 6
+  }
+
+  def "aimd does not raise the limit while traffic is light"() {
+    given:
+    def subject = build()
+
+    when:
+    10.times {
+      subject.tryAcquire()
+      subject.release(millis(10), false)
+    }
+
+    then:
+    subject.limit == 4
+  }
+
+  def "aimd backs off on failures and slow calls, down to the min"() {
+    given:
+    def subject = build {
+      backoffRatio = 0.5
+      latencyThreshold = Duration.ofMillis(100)
+    }
+
+    when:
+    subject.tryAcquire()
+    subject.release(millis(10), true)
+
+    then:
+    subject.limit == 2
+
+    when:
+    subject.tryAcquire()
+    subject.release(millis(200), false)
+
+    then:
+    subject.limit == 2
+  }
+
+  def "gradient lowers the limit when latency rises"() {
+    given:
+    def subject = build {
+      algorithm = ConcurrencyLimitSettings.Algorithm.GRADIENT
+      smoothing = 1.0
+      maxLimit = 100
+      initialLimit = 50
+    }
+    (1..50).each { subject.tryAcquire() }
+    subject.release(millis(10), false)
+
+    when:
+    10.times { subject.release(millis(100), false); subject.tryAcquire() }
+
+    then:
+    subject.limit < 50
+  }
+
+  def "describes limit and usage"() {
+    given:
+    def subject = build()
+    subject.tryAcquire()
+    def description = new ObjectMap()
+
+    when:
+    subject.describe(description)
+
+    then:
+    description.get("algorithm") == "aimd"
+    description.get("limit") == 4
+    description.get("inFlight") == 1
+    description.get("rejected") == 0L
+  }
+
+  long millis(long value) {
+    return TimeUnit.MILLISECONDS.toNanos(value)
+  }
+}
@@ -5,6 +5,10 @@ import static org.mockito.Mockito.when
 
 import java.time.Duration
 import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 import com.mx.path.core.common.accessor.PathResponseStatus
 import com.mx.path.core.common.accessor.UpstreamSystemUnavailable
@@ -58,6 +62,7 @@ class BlockRetryConfigurationTest extends Specification implements WithMockery {
     BlockRetryConfiguration.builder().stopStrategy(RetryConfiguration.StopStrategy.COUNT).count(1).pauseStrategy(RetryConfiguration.PauseStrategy.FIXED).build()        | "Missing required fields for pauseStrategy FIXED: pause at configuration."
     BlockRetryConfiguration.builder().stopStrategy(RetryConfiguration.StopStrategy.COUNT).count(1).pauseStrategy(RetryConfiguration.PauseStrategy.INCREMENTING).build() | "Missing required fields for pauseStrategy INCREMENTING: initialPause, increment at configuration."
     BlockRetryConfiguration.builder().stopStrategy(RetryConfiguration.StopStrategy.COUNT).count(1).pauseStrategy(RetryConfiguration.PauseStrategy.FIBONACCI).build()    | "Missing required fields for pauseStrategy FIBONACCI: multiplier, maxPause at configuration."
+    BlockRetryConfiguration.builder().stopStrategy(RetryConfiguration.StopStrategy.COUNT).count(1).pauseStrategy(RetryConfiguration.PauseStrategy.FULL_JITTER).build()  | "Missing required fields for pauseStrategy FULL_JITTER: initialPause, maxPause at configuration."
   }
 
   @Unroll
@@ -148,6 +153,114 @@ class BlockRetryConfigurationTest extends Specification implements WithMockery {
     callCount == 1
   }
 
+  def "pauses with jitter stay within bounds"() {
+    given:
+    def fullJitter = BlockRetryConfiguration.<Boolean>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(10)
+        .pauseStrategy(RetryConfiguration.PauseStrategy.FULL_JITTER)
+        .initialPause(Duration.ofMillis(100))
+        .maxPause(Duration.ofMillis(500))
+        .build()
+    def decorrelatedJitter = BlockRetryConfiguration.<Boolean>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(10)
+        .pauseStrategy(RetryConfiguration.PauseStrategy.DECORRELATED_JITTER)
+        .initialPause(Duration.ofMillis(100))
+        .maxPause(Duration.ofMillis(500))
+        .build()
+
+    expect:
+    (1..100).every { fullJitter.pauseAfter(1, Duration.ZERO) <= Duration.ofMillis(100) }
+    (1..100).every { fullJitter.pauseAfter(8, Duration.ZERO) <= Duration.ofMillis(500) }
+    (1..100).every {
+      def pause = decorrelatedJitter.pauseAfter(2, Duration.ofMillis(120))
+      pause >= Duration.ofMillis(100) && pause <= Duration.ofMillis(360)
+    }
+    (1..100).every { decorrelatedJitter.pauseAfter(5, Duration.ofMillis(400)) <= Duration.ofMillis(500) }
+  }
+
+  def "callAsync schedules attempts until accepted"() {
+    given:
+    def subject = BlockRetryConfiguration.<Integer>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .pauseStrategy(RetryConfiguration.PauseStrategy.FIXED)
+        .pause(Duration.ofMillis(10))
+        .rejectOn({ result -> result < 3 })
+        .build()
+    def attempts = new AtomicInteger()
+
+    when:
+    def result = subject.callAsync({ CompletableFuture.completedFuture(attempts.incrementAndGet()) }).get(5, TimeUnit.SECONDS)
+
+    then:
+    result == 3
+    attempts.get() == 3
+  }
+
+  def "callAsync fails when budget is spent"() {
+    given:
+    def subject = BlockRetryConfiguration.<Integer>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .rejectOn({ result -> true })
+        .build()
+    def budget = new RetryBudget(0.0d, 0, Duration.ofSeconds(10))
+
+    when:
+    subject.callAsync({ CompletableFuture.completedFuture(1) }, RetryConfiguration.retryExecutor(), budget).get(5, TimeUnit.SECONDS)
+
+    then:
+    def error = thrown(ExecutionException)
+    error.cause instanceof RetriesFailedException
+    ((RetriesFailedException) error.cause).numberOfFailedAttempts == 1
+  }
+
+  def "call gives up before pausing when budget is spent"() {
+    given:
+    def subject = BlockRetryConfiguration.<Integer>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .pauseStrategy(RetryConfiguration.PauseStrategy.FIXED)
+        .pause(Duration.ofSeconds(10))
+        .rejectOn({ result -> true })
+        .build()
+    def budget = new RetryBudget(0.0d, 0, Duration.ofSeconds(10))
+    def attempts = new AtomicInteger()
+    def started = System.nanoTime()
+
+    when:
+    subject.call({ attempts.incrementAndGet() } as Callable<Integer>, budget, { e -> new UpstreamSystemUnavailable("Budget spent", e) })
+
+    then:
+    def error = thrown(UpstreamSystemUnavailable)
+    error.cause instanceof RetriesFailedException
+    ((RetriesFailedException) error.cause).numberOfFailedAttempts == 1
+    attempts.get() == 1
+    Duration.ofNanos(System.nanoTime() - started) < Duration.ofSeconds(5)
+  }
+
+  def "call with budget retries until accepted"() {
+    given:
+    def subject = BlockRetryConfiguration.<Integer>builder()
+        .stopStrategy(RetryConfiguration.StopStrategy.COUNT)
+        .count(5)
+        .pauseStrategy(RetryConfiguration.PauseStrategy.FIXED)
+        .pause(Duration.ofMillis(10))
+        .rejectOn({ result -> result < 3 })
+        .build()
+    def budget = new RetryBudget(0.0d, 10, Duration.ofSeconds(10))
+    def attempts = new AtomicInteger()
+
+    when:
+    def result = subject.call({ attempts.incrementAndGet() } as Callable<Integer>, budget, null)
+
+    then:
+    result == 3
+    attempts.get() == 3
+  }
+
   def "builder"() {
     when:
     BlockRetryConfiguration<Boolean> result = BlockRetryConfiguration.<Boolean>builder()
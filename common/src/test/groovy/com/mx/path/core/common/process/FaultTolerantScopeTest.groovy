@@ -0,0 +1,51 @@
+package com.mx.path.core.common.process
+
+import spock.lang.Specification
+
+class FaultTolerantScopeTest extends Specification {
+
+  def "of interns scopes by name"() {
+    expect:
+    FaultTolerantScope.of("http.accounts.list").is(FaultTolerantScope.of("http.accounts.list"))
+    FaultTolerantScope.of("http.accounts.list").getName() == "http.accounts.list"
+    FaultTolerantScope.of("http.accounts.list").toString() == "http.accounts.list"
+  }
+
+  def "of builds parent chain"() {
+    when:
+    def subject = FaultTolerantScope.of("http.transfers.create")
+
+    then:
+    subject.getParent().is(FaultTolerantScope.of("http.transfers"))
+    subject.getParent().getParent().is(FaultTolerantScope.of("http"))
+    subject.getParent().getParent().getParent() == null
+  }
+
+  def "child returns interned scope"() {
+    when:
+    def subject = FaultTolerantScope.of("http").child("members").child("read")
+
+    then:
+    subject.is(FaultTolerantScope.of("http.members.read"))
+    subject.is(FaultTolerantScope.of("http").child("members").child("read"))
+    subject.getParent().is(FaultTolerantScope.of("http.members"))
+  }
+
+  def "child ignores empty segments"() {
+    given:
+    def http = FaultTolerantScope.of("http")
+
+    expect:
+    http.child(null).is(http)
+    http.child("").is(http)
+  }
+
+  def "child with dotted segment keeps parent chain consistent"() {
+    when:
+    def subject = FaultTolerantScope.of("http").child("cards.debit")
+
+    then:
+    subject.is(FaultTolerantScope.of("http.cards.debit"))
+    subject.getParent().is(FaultTolerantScope.of("http.cards"))
+  }
+}
@@ -0,0 +1,62 @@
+package com.mx.path.core.common.process
+
+import java.time.Duration
+
+import spock.lang.Specification
+
+class RetryBudgetTest extends Specification {
+  long now
+  RetryBudget subject
+
+  def setup() {
+    now = 0
+    subject = new RetryBudget(0.1d, 0, Duration.ofSeconds(10), { now })
+  }
+
+  def "allows retries up to ratio of requests"() {
+    given:
+    20.times { subject.recordRequest() }
+
+    expect:
+    subject.tryAcquireRetry()
+    subject.tryAcquireRetry()
+    !subject.tryAcquireRetry()
+  }
+
+  def "allows minimum retries without requests"() {
+    given:
+    subject = new RetryBudget(0.1d, 1, Duration.ofSeconds(2), { now })
+
+    expect:
+    subject.tryAcquireRetry()
+    subject.tryAcquireRetry()
+    !subject.tryAcquireRetry()
+  }
+
+  def "expires requests and retries that leave the window"() {
+    given:
+    10.times { subject.recordRequest() }
+    subject.tryAcquireRetry()
+
+    when:
+    now += Duration.ofSeconds(5).toNanos()
+    10.times { subject.recordRequest() }
+
+    then:
+    subject.tryAcquireRetry()
+    !subject.tryAcquireRetry()
+
+    when:
+    now += Duration.ofSeconds(6).toNanos()
+
+    then: "first requests and retry have expired"
+    !subject.tryAcquireRetry()
+
+    when:
+    now += Duration.ofSeconds(5).toNanos()
+    10.times { subject.recordRequest() }
+
+    then:
+    subject.tryAcquireRetry()
+  }
+}
@@ -0,0 +1,246 @@
+package com.mx.path.core.common.store
+
+import static org.mockito.ArgumentMatchers.any
+import static org.mockito.ArgumentMatchers.eq
+import static org.mockito.Mockito.CALLS_REAL_METHODS
+import static org.mockito.Mockito.doReturn
+import static org.mockito.Mockito.doThrow
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+import java.time.Duration
+
+import com.mx.path.core.common.messaging.EventListener
+import com.mx.path.core.common.messaging.MessageBroker
+
+import org.mockito.ArgumentCaptor
+
+import spock.lang.Specification
+
+class NearCacheStoreTest extends Specification {
+  Store delegate
+  MessageBroker messageBroker
+  long now
+  NearCacheStore subject
+
+  def setup() {
+    now = 0
+    delegate = mock(Store, CALLS_REAL_METHODS)
+    messageBroker = mock(MessageBroker)
+    subject = build(new NearCacheSettings().tap { ttl = Duration.ofSeconds(10) })
+  }
+
+  NearCacheStore build(NearCacheSettings settings) {
+    return new NearCacheStore(delegate, settings, messageBroker, { now })
+  }
+
+  def "serves repeated reads from the cache until the ttl expires"() {
+    given:
+    when(delegate.get("key")).thenReturn("value")
+
+    when:
+    def first = subject.get("key")
+    def second = subject.get("key")
+
+    then:
+    first == "value"
+    second == "value"
+    verify(delegate, times(1)).get("key")
+
+    when:
+    now += Duration.ofSeconds(10).toNanos()
+    subject.get("key")
+
+    then:
+    verify(delegate, times(2)).get("key")
+    with(subject.configurations.getMap("stats")) {
+      get("hits") == 1L
+      get("misses") == 2L
+      get("expirations") == 1L
+      get("entries") == 1
+    }
+  }
+
+  def "does not cache missing keys"() {
+    when:
+    2.times { subject.get("missing") }
+
+    then:
+    verify(delegate, times(2)).get("missing")
+  }
+
+  def "writes through and caches values no longer than their expiry"() {
+    when:
+    subject.put("key", "value", 2)
+
+    then:
+    verify(delegate).put("key", "value", 2)
+    subject.get("key") == "value"
+
+    when:
+    now += Duration.ofSeconds(2).toNanos()
+    subject.get("key")
+
+    then:
+    verify(delegate, times(1)).get("key")
+  }
+
+  def "caches keys set only if they did not exist"() {
+    given:
+    when(delegate.putIfNotExist("new", "value", 10)).thenReturn(true)
+    when(delegate.putIfNotExist("taken", "value", 10)).thenReturn(false)
+
+    when:
+    subject.putIfNotExist("new", "value", 10)
+    subject.putIfNotExist("taken", "value", 10)
+    subject.get("new")
+    subject.get("taken")
+
+    then:
+    verify(delegate, times(0)).get("new")
+    verify(delegate, times(1)).get("taken")
+  }
+
+  def "deletes from the remote store and the cache"() {
+    given:
+    subject.put("key", "value")
+
+    when:
+    subject.delete("key")
+    def value = subject.get("key")
+
+    then:
+    verify(delegate).delete("key")
+    value == null
+  }
+
+  def "evicts the least recently used values beyond max entries and size"() {
+    given:
+    subject = build(new NearCacheSettings().tap {
+      maxEntries = 2
+      maxSize = 1000
+    })
+
+    when:
+    subject.put("a", "1")
+    subject.put("b", "2")
+    subject.get("a")
+    subject.put("c", "3")
+
+    then: "b was least recently used"
+    subject.get("b") == null
+    subject.get("a") == "1"
+    subject.get("c") == "3"
+    subject.configurations.getMap("stats").get("evictions") == 1L
+
+    when: "a large value exceeds max size"
+    subject.put("large", "x" * 450)
+
+    then:
+    subject.get("a") == null
+    subject.get("large") == "x" * 450
+    subject.configurations.getMap("stats").get("entries") == 1
+  }
+
+  def "publishes written keys and evicts keys written by other nodes"() {
+    given:
+    def listener = ArgumentCaptor.forClass(EventListener)
+    def payload = ArgumentCaptor.forClass(String)
+    subject = build(new NearCacheSettings().tap { invalidationChannel = "nearCache" })
+    verify(messageBroker).registerListener(eq("nearCache"), listener.capture())
+
+    when:
+    subject.put("key", "value", 60)
+
+    then:
+    verify(messageBroker).publish(eq("nearCache"), payload.capture())
+    payload.value.endsWith(":key")
+
+    when: "this node's own message is received"
+    listener.value.receive("nearCache", payload.value)
+
+    then:
+    subject.get("key") == "value"
+    verify(delegate, times(0)).get("key")
+
+    when: "another node writes the key"
+    listener.value.receive("nearCache", "other-node:key")
+    when(delegate.get("key")).thenReturn("changed")
+
+    then:
+    subject.get("key") == "changed"
+    subject.configurations.getMap("stats").get("invalidations") == 1L
+  }
+
+  def "does not fail writes when invalidation cannot be published"() {
+    given:
+    subject = build(new NearCacheSettings().tap { invalidationChannel = "nearCache" })
+    doThrow(new IllegalStateException("down")).when(messageBroker).publish(any(), any())
+
+    when:
+    subject.put("key", "value")
+
+    then:
+    noExceptionThrown()
+    subject.get("key") == "value"
+  }
+
+  def "reads only missing keys from the remote store"() {
+    given:
+    subject.put("cached", "1")
+    doReturn([missing: "2"]).when(delegate).getAll(["missing", "absent"])
+
+    when:
+    def values = subject.getAll(["missing", "cached", "absent"])
+
+    then:
+    values == [missing: "2", cached: "1"]
+    values.keySet().toList() == ["missing", "cached"]
+
+    when:
+    values = subject.getAll(["cached", "missing"])
+
+    then:
+    values == [cached: "1", missing: "2"]
+    verify(delegate, times(1)).getAll(any())
+  }
+
+  def "caches values written in a pipeline and publishes their keys together"() {
+    given:
+    def payload = ArgumentCaptor.forClass(String)
+    subject = build(new NearCacheSettings().tap { invalidationChannel = "nearCache" })
+    subject.put("stale", "value")
+
+    when:
+    subject.pipeline({ batch ->
+      batch.put("a", "1", 60)
+      batch.putSet("keys", "a", 60)
+      batch.delete("stale")
+    })
+
+    then:
+    verify(delegate).pipeline(any())
+    subject.get("a") == "1"
+    subject.get("stale") == null
+    verify(delegate, times(0)).get("a")
+    verify(messageBroker, times(2)).publish(eq("nearCache"), payload.capture())
+    payload.allValues[1].endsWith(":a\nstale")
+  }
+
+  def "never caches lock keys"() {
+    given:
+    when(delegate.putIfNotExist("global:lock_token:key", "token", 10L)).thenReturn(true)
+    when(delegate.get("global:lock_token:key")).thenReturn("token")
+
+    when:
+    subject.putIfNotExist("global:lock_token:key", "token", 10)
+    subject.get("global:lock_token:key")
+    subject.get("global:lock_token:key")
+
+    then:
+    verify(delegate, times(2)).get("global:lock_token:key")
+    subject.configurations.getMap("stats").get("entries") == 0
+  }
+}
@@ -0,0 +1,65 @@
+package com.mx.path.core.common.store
+
+import static org.mockito.Mockito.CALLS_REAL_METHODS
+import static org.mockito.Mockito.inOrder
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+import spock.lang.Specification
+
+class StoreTest extends Specification {
+  Store subject
+
+  def setup() {
+    subject = mock(Store, CALLS_REAL_METHODS)
+  }
+
+  def "getAll defaults to a get per key"() {
+    given:
+    when(subject.get("a")).thenReturn("1")
+    when(subject.get("c")).thenReturn("3")
+
+    when:
+    def values = subject.getAll(["c", "b", "a"])
+
+    then:
+    values == [c: "3", a: "1"]
+    values.keySet().toList() == ["c", "a"]
+  }
+
+  def "putAll defaults to a put per key"() {
+    when:
+    subject.putAll([a: "1", b: "2"], 30)
+
+    then:
+    verify(subject).put("a", "1", 30) || true
+    verify(subject).put("b", "2", 30) || true
+  }
+
+  def "deleteAll defaults to a delete per key"() {
+    when:
+    subject.deleteAll(["a", "b"])
+
+    then:
+    verify(subject).delete("a") || true
+    verify(subject).delete("b") || true
+  }
+
+  def "pipeline defaults to applying each operation in order"() {
+    when:
+    subject.pipeline({ batch ->
+      batch.putSet("keys", "a", 30)
+      batch.put("a", "1", 30)
+      batch.deleteSet("keys", "b")
+      batch.delete("b")
+    })
+
+    then:
+    def order = inOrder(subject)
+    order.verify(subject).putSet("keys", "a", 30) || true
+    order.verify(subject).put("a", "1", 30) || true
+    order.verify(subject).deleteSet("keys", "b") || true
+    order.verify(subject).delete("b") || true
+  }
+}
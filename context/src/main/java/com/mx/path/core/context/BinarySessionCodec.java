@@ -0,0 +1,407 @@
+package com.mx.path.core.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes sessions in a compact binary format, without reflection. Object values are encoded as JSON, as by
+ * {@link JsonSessionCodec}, since they can be of any class.
+ *
+ * <p>An encoded session is {@code ~} followed by the unpadded base64 of a format version byte and the session's
+ * non-null fields. Each field is a varint tag, holding the field's number and wire type, and its value: a varint, a
+ * fixed 8 byte value, or a varint length and that many bytes. Fields can be added without changing the format version.
+ * A decoder skips fields it does not know, and leaves fields it does not find unset. Field numbers must never be
+ * reused.
+ *
+ * <p>Sessions encoded as JSON are also decoded, so existing sessions are read after switching to this codec.
+ */
+@SuppressWarnings("PMD.CyclomaticComplexity")
+public class BinarySessionCodec implements SessionCodec {
+
+  private static final char MARKER = '~';
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int WIRE_VARINT = 0;
+  private static final int WIRE_FIXED64 = 1;
+  private static final int WIRE_BYTES = 2;
+  private static final int WIRE_TYPE_BITS = 3;
+  private static final int WIRE_TYPE_MASK = 0x7;
+  private static final int VARINT_BITS = 7;
+  private static final int VARINT_MASK = 0x7f;
+  private static final int VARINT_CONTINUE = 0x80;
+  private static final int BYTE_BITS = 8;
+  private static final int BYTE_MASK = 0xff;
+
+  // Field numbers. Add new fields with new numbers, never reuse one.
+  private static final int ID = 1;
+  private static final int CLIENT_ID = 2;
+  private static final int USER_ID = 3;
+  private static final int SESSION_STATE = 4;
+  private static final int EXPIRES_AT = 5;
+  private static final int STARTED_AT_SECONDS = 6;
+  private static final int STARTED_AT_NANOS = 7;
+  private static final int EMAIL = 8;
+  private static final int FIRST_NAME = 9;
+  private static final int LAST_NAME = 10;
+  private static final int DEVICE_ID = 11;
+  private static final int DEVICE_MAKE = 12;
+  private static final int DEVICE_MODEL = 13;
+  private static final int DEVICE_OPERATING_SYSTEM = 14;
+  private static final int DEVICE_OPERATING_SYSTEM_VERSION = 15;
+  private static final int DEVICE_HEIGHT = 16;
+  private static final int DEVICE_WIDTH = 17;
+  private static final int DEVICE_LATITUDE = 18;
+  private static final int DEVICE_LONGITUDE = 19;
+
+  private static final int[] WIRE_TYPES = wireTypes();
+
+  private static final JsonSessionCodec JSON = new JsonSessionCodec();
+
+  /**
+   * @param encoded encoded session
+   * @return true if session was encoded by this codec
+   */
+  static boolean isBinary(String encoded) {
+    return encoded != null && !encoded.isEmpty() && encoded.charAt(0) == MARKER;
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public final String encode(Session session) {
+    Writer writer = new Writer();
+    writer.writeByte(FORMAT_VERSION);
+    writer.writeString(ID, session.getId());
+    writer.writeString(CLIENT_ID, session.getClientId());
+    writer.writeString(USER_ID, session.getUserId());
+    if (session.getSessionState() != null) {
+      writer.writeString(SESSION_STATE, session.getSessionState().name());
+    }
+    writer.writeLong(EXPIRES_AT, session.getExpiresAt());
+    LocalDateTime startedAt = session.getStartedAt();
+    if (startedAt != null) {
+      writer.writeLong(STARTED_AT_SECONDS, startedAt.toEpochSecond(ZoneOffset.UTC));
+      if (startedAt.getNano() != 0) {
+        writer.writeLong(STARTED_AT_NANOS, (long) startedAt.getNano());
+      }
+    }
+    writer.writeString(EMAIL, session.getEncryptedEmail());
+    writer.writeString(FIRST_NAME, session.getEncryptedFirstName());
+    writer.writeString(LAST_NAME, session.getEncryptedLastName());
+    writer.writeString(DEVICE_ID, session.getDeviceId());
+    writer.writeString(DEVICE_MAKE, session.getDeviceMake());
+    writer.writeString(DEVICE_MODEL, session.getDeviceModel());
+    writer.writeString(DEVICE_OPERATING_SYSTEM, session.getDeviceOperatingSystem());
+    writer.writeString(DEVICE_OPERATING_SYSTEM_VERSION, session.getDeviceOperatingSystemVersion());
+    writer.writeInteger(DEVICE_HEIGHT, session.getDeviceHeight());
+    writer.writeInteger(DEVICE_WIDTH, session.getDeviceWidth());
+    writer.writeDouble(DEVICE_LATITUDE, session.getDeviceLatitude());
+    writer.writeDouble(DEVICE_LONGITUDE, session.getDeviceLongitude());
+
+    return MARKER + Base64.getEncoder().withoutPadding().encodeToString(writer.toByteArray());
+  }
+
+  @Override
+  public final Session decode(String encoded) {
+    if (isBinary(encoded)) {
+      return decodeBinary(encoded);
+    }
+
+    return JSON.decode(encoded);
+  }
+
+  @Override
+  public final String encodeObject(Object obj) {
+    return JSON.encodeObject(obj);
+  }
+
+  @Override
+  public final <T> T decodeObject(String encoded, Class<T> klass) {
+    return JSON.decodeObject(encoded, klass);
+  }
+
+  /**
+   * Decode a session encoded by this codec.
+   *
+   * @param encoded encoded session
+   * @return session
+   */
+  static Session decodeBinary(String encoded) {
+    Reader reader;
+    try {
+      reader = new Reader(Base64.getDecoder().decode(encoded.substring(1)));
+    } catch (IllegalArgumentException e) {
+      throw new GatewayContextException("Unable to decode binary session", e);
+    }
+
+    int version = reader.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new GatewayContextException("Unsupported binary session format version " + version);
+    }
+
+    Session session = new Session();
+    Long startedAtSeconds = null;
+    long startedAtNanos = 0;
+    while (reader.hasMore()) {
+      long tag = reader.readVarint();
+      int wireType = (int) (tag & WIRE_TYPE_MASK);
+      long field = tag >>> WIRE_TYPE_BITS;
+      if (field >= WIRE_TYPES.length || WIRE_TYPES[(int) field] != wireType) {
+        // Added by a newer version, or no longer used
+        reader.skip(wireType);
+        continue;
+      }
+
+      switch ((int) field) {
+        case ID:
+          session.setId(reader.readString());
+          break;
+        case CLIENT_ID:
+          session.setClientId(reader.readString());
+          break;
+        case USER_ID:
+          session.setUserId(reader.readString());
+          break;
+        case SESSION_STATE:
+          session.setSessionState(sessionState(reader.readString()));
+          break;
+        case EXPIRES_AT:
+          session.setExpiresAt(reader.readLong());
+          break;
+        case STARTED_AT_SECONDS:
+          startedAtSeconds = reader.readLong();
+          break;
+        case STARTED_AT_NANOS:
+          startedAtNanos = reader.readLong();
+          break;
+        case EMAIL:
+          session.setEncryptedEmail(reader.readString());
+          break;
+        case FIRST_NAME:
+          session.setEncryptedFirstName(reader.readString());
+          break;
+        case LAST_NAME:
+          session.setEncryptedLastName(reader.readString());
+          break;
+        case DEVICE_ID:
+          session.setDeviceId(reader.readString());
+          break;
+        case DEVICE_MAKE:
+          session.setDeviceMake(reader.readString());
+          break;
+        case DEVICE_MODEL:
+          session.setDeviceModel(reader.readString());
+          break;
+        case DEVICE_OPERATING_SYSTEM:
+          session.setDeviceOperatingSystem(reader.readString());
+          break;
+        case DEVICE_OPERATING_SYSTEM_VERSION:
+          session.setDeviceOperatingSystemVersion(reader.readString());
+          break;
+        case DEVICE_HEIGHT:
+          session.setDeviceHeight((int) reader.readLong());
+          break;
+        case DEVICE_WIDTH:
+          session.setDeviceWidth((int) reader.readLong());
+          break;
+        case DEVICE_LATITUDE:
+          session.setDeviceLatitude(reader.readDouble());
+          break;
+        case DEVICE_LONGITUDE:
+          session.setDeviceLongitude(reader.readDouble());
+          break;
+        default:
+          reader.skip(wireType);
+      }
+    }
+
+    if (startedAtSeconds != null) {
+      session.setStartedAt(LocalDateTime.ofEpochSecond(startedAtSeconds, (int) startedAtNanos, ZoneOffset.UTC));
+    }
+
+    return session;
+  }
+
+  /**
+   * Session state by name, or null if this version does not know it. As decoded from JSON.
+   */
+  private static Session.SessionState sessionState(String name) {
+    try {
+      return Session.SessionState.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static int[] wireTypes() {
+    int[] wireTypes = new int[DEVICE_LONGITUDE + 1];
+    Arrays.fill(wireTypes, WIRE_BYTES);
+    wireTypes[0] = -1;
+    wireTypes[EXPIRES_AT] = WIRE_VARINT;
+    wireTypes[STARTED_AT_SECONDS] = WIRE_VARINT;
+    wireTypes[STARTED_AT_NANOS] = WIRE_VARINT;
+    wireTypes[DEVICE_HEIGHT] = WIRE_VARINT;
+    wireTypes[DEVICE_WIDTH] = WIRE_VARINT;
+    wireTypes[DEVICE_LATITUDE] = WIRE_FIXED64;
+    wireTypes[DEVICE_LONGITUDE] = WIRE_FIXED64;
+
+    return wireTypes;
+  }
+
+  /**
+   * Writes fields. Null values are not written.
+   */
+  private static final class Writer {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    void writeByte(int value) {
+      out.write(value);
+    }
+
+    void writeString(int field, String value) {
+      if (value == null) {
+        return;
+      }
+
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeTag(field, WIRE_BYTES);
+      writeVarint(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    void writeLong(int field, Long value) {
+      if (value == null) {
+        return;
+      }
+
+      writeTag(field, WIRE_VARINT);
+      // Zigzag, so small negative values stay short
+      writeVarint((value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    void writeInteger(int field, Integer value) {
+      writeLong(field, value != null ? value.longValue() : null);
+    }
+
+    void writeDouble(int field, Double value) {
+      if (value == null) {
+        return;
+      }
+
+      writeTag(field, WIRE_FIXED64);
+      long bits = Double.doubleToLongBits(value);
+      for (int i = 0; i < Long.BYTES; i++) {
+        out.write((int) (bits >>> (i * BYTE_BITS)) & BYTE_MASK);
+      }
+    }
+
+    byte[] toByteArray() {
+      return out.toByteArray();
+    }
+
+    private void writeTag(int field, int wireType) {
+      writeVarint(((long) field << WIRE_TYPE_BITS) | wireType);
+    }
+
+    private void writeVarint(long value) {
+      long remaining = value;
+      while ((remaining & ~VARINT_MASK) != 0) {
+        out.write((int) (remaining & VARINT_MASK) | VARINT_CONTINUE);
+        remaining >>>= VARINT_BITS;
+      }
+      out.write((int) remaining);
+    }
+  }
+
+  /**
+   * Reads fields. Fails with {@link GatewayContextException} if the input ends early.
+   */
+  private static final class Reader {
+    private final byte[] bytes;
+    private int position;
+
+    Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    boolean hasMore() {
+      return position < bytes.length;
+    }
+
+    int readByte() {
+      require(1);
+      return bytes[position++] & BYTE_MASK;
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+        int next = readByte();
+        value |= (long) (next & VARINT_MASK) << shift;
+        if ((next & VARINT_CONTINUE) == 0) {
+          return value;
+        }
+      }
+
+      throw new GatewayContextException("Invalid binary session, malformed varint");
+    }
+
+    long readLong() {
+      long value = readVarint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() {
+      require(Long.BYTES);
+      long bits = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        bits |= (long) (bytes[position++] & BYTE_MASK) << (i * BYTE_BITS);
+      }
+
+      return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+      int length = readLength();
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+
+      return value;
+    }
+
+    void skip(int wireType) {
+      switch (wireType) {
+        case WIRE_VARINT:
+          readVarint();
+          break;
+        case WIRE_FIXED64:
+          require(Long.BYTES);
+          position += Long.BYTES;
+          break;
+        case WIRE_BYTES:
+          position += readLength();
+          break;
+        default:
+          throw new GatewayContextException("Invalid binary session, unknown wire type " + wireType);
+      }
+    }
+
+    private int readLength() {
+      long length = readVarint();
+      if (length < 0 || length > bytes.length - position) {
+        throw new GatewayContextException("Invalid binary session, truncated");
+      }
+
+      return (int) length;
+    }
+
+    private void require(int count) {
+      if (bytes.length - position < count) {
+        throw new GatewayContextException("Invalid binary session, truncated");
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.mx.path.core.context;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.mx.path.core.common.serialization.LocalDateDeserializer;
+import com.mx.path.core.common.serialization.LocalDateTimeDeserializer;
+import com.mx.path.core.context.util.XMLGregorianCalendarConverter;
+
+/**
+ * Encodes sessions and object values as JSON. The default {@link SessionCodec}.
+ *
+ * <p>Also decodes sessions written by {@link BinarySessionCodec}, so a binary codec can be rolled out to some nodes
+ * while others still run this one.
+ */
+public class JsonSessionCodec implements SessionCodec {
+
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(XMLGregorianCalendar.class, new XMLGregorianCalendarConverter.Deserializer())
+      .registerTypeAdapter(XMLGregorianCalendar.class, new XMLGregorianCalendarConverter.Serializer())
+      .registerTypeAdapter(LocalDateTime.class, LocalDateTimeDeserializer.builder().build())
+      .registerTypeAdapter(LocalDate.class, LocalDateDeserializer.builder().build())
+      .create();
+
+  @Override
+  public final String encode(Session session) {
+    return GSON.toJson(session);
+  }
+
+  @Override
+  public final Session decode(String encoded) {
+    if (BinarySessionCodec.isBinary(encoded)) {
+      return BinarySessionCodec.decodeBinary(encoded);
+    }
+
+    return GSON.fromJson(encoded, Session.class);
+  }
+
+  @Override
+  public final String encodeObject(Object obj) {
+    return GSON.toJson(obj);
+  }
+
+  @Override
+  public final <T> T decodeObject(String encoded, Class<T> klass) {
+    return GSON.fromJson(encoded, klass);
+  }
+}
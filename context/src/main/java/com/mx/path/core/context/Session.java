@@ -1,7 +1,7 @@
 package com.mx.path.core.context;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -11,18 +11,13 @@ import java.util.Objects;
 import java.util.UUID;
 import java.util.function.Supplier;
 
-import javax.xml.datatype.XMLGregorianCalendar;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.mx.path.core.common.compression.CompressionService;
 import com.mx.path.core.common.lang.Strings;
 import com.mx.path.core.common.security.EncryptionService;
-import com.mx.path.core.common.serialization.LocalDateDeserializer;
-import com.mx.path.core.common.serialization.LocalDateTimeDeserializer;
 import com.mx.path.core.common.session.SessionInfo;
 import com.mx.path.core.context.store.SessionRepository;
-import com.mx.path.core.context.util.XMLGregorianCalendarConverter;
 
 /**
  * Represents a user session across Path services. The {@code .current()} session
@@ -46,12 +41,9 @@ public class Session implements SessionInfo {
 
   private static Duration defaultSessionExpiration = Duration.ofMinutes(DEFAULT_SESSION_EXPIRATION_MINUTES);
 
-  private static Gson gson = new GsonBuilder()
-      .registerTypeAdapter(XMLGregorianCalendar.class, new XMLGregorianCalendarConverter.Deserializer())
-      .registerTypeAdapter(XMLGregorianCalendar.class, new XMLGregorianCalendarConverter.Serializer())
-      .registerTypeAdapter(LocalDateTime.class, LocalDateTimeDeserializer.builder().build())
-      .registerTypeAdapter(LocalDate.class, LocalDateDeserializer.builder().build())
-      .create();
+  private static boolean bufferedWrites = false;
+
+  private static SessionCodec codec = new JsonSessionCodec();
 
   /**
    * Return session repository.
@@ -93,7 +85,10 @@ public class Session implements SessionInfo {
   }
 
   /**
-   * Set session service supplier.
+   * Set session compression service supplier. Values put on the session are compressed with it.
+   *
+   * <p>See {@link com.mx.path.core.common.compression.LzCompressionService} and
+   * {@link com.mx.path.core.common.compression.DeflateCompressionService}.
    *
    * @param supplier supplier to set
    */
@@ -108,6 +103,27 @@ public class Session implements SessionInfo {
     compressionServiceSupplier = null;
   }
 
+  /**
+   * Return session codec.
+   *
+   * @return codec used to encode sessions and object values
+   */
+  public static SessionCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set session codec. Defaults to {@link JsonSessionCodec}.
+   *
+   * <p>Every codec decodes what the others encode, so existing sessions are still read after changing it. Object values
+   * are encoded by the codec as well.
+   *
+   * @param sessionCodec codec to set
+   */
+  public static void setCodec(SessionCodec sessionCodec) {
+    codec = sessionCodec;
+  }
+
   /**
    * Set default session expiry duration.
    *
@@ -117,6 +133,30 @@ public class Session implements SessionInfo {
     defaultSessionExpiration = sessionExpiry;
   }
 
+  /**
+   * Buffer session value writes and deletes until the session is flushed, instead of applying each immediately.
+   *
+   * <p>Buffered values are read back by the session that wrote them, and are written to the repository in one batch by
+   * {@link #flush()}, which is called by {@link #save()} and when a gateway request completes. Other sessions, services,
+   * and processes do not see them until then. {@link #putIfNotExist} is always applied immediately.
+   *
+   * <p>Off by default.
+   *
+   * @param buffered true to buffer writes
+   */
+  public static void setBufferedWrites(boolean buffered) {
+    bufferedWrites = buffered;
+  }
+
+  /**
+   * Return true if session value writes are buffered. See {@link #setBufferedWrites(boolean)}.
+   *
+   * @return true if writes are buffered
+   */
+  public static boolean isBufferedWrites() {
+    return bufferedWrites;
+  }
+
   // Singleton
   private static ThreadLocal<List<SessionEventListener>> eventListenersThreadLocal = new ThreadLocal<List<SessionEventListener>>();
   private static ThreadLocal<Session> sessionThreadLocal = new ThreadLocal<>();
@@ -198,6 +238,7 @@ public class Session implements SessionInfo {
     if (session == null) {
       return;
     }
+    session.persistedState = fingerprint(codec.encode(session));
 
     sessionThreadLocal.set(session);
   }
@@ -306,6 +347,28 @@ public class Session implements SessionInfo {
   private LocalDateTime startedAt;
   private String userId;
 
+  /**
+   * Hash of the serialized state as of the last load or save. Transient, so it is not serialized itself.
+   */
+  private transient HashCode persistedState;
+
+  /**
+   * Values read through this session, decoded. See {@link SessionValueCache}.
+   */
+  private final transient SessionValueCache valueCache = new SessionValueCache();
+
+  /**
+   * Value writes and deletes not yet sent to the repository. See {@link #setBufferedWrites(boolean)}.
+   */
+  private final transient SessionWriteBuffer writeBuffer = new SessionWriteBuffer();
+
+  /**
+   * Decrypted personal fields, with the encrypted value they were decrypted from.
+   */
+  private transient Decrypted decryptedEmail;
+  private transient Decrypted decryptedFirstName;
+  private transient Decrypted decryptedLastName;
+
   // Getter/setters
 
   /**
@@ -495,7 +558,8 @@ public class Session implements SessionInfo {
    * @return the email
    */
   public final String getEmail() {
-    return decryptValue(email);
+    decryptedEmail = decrypted(decryptedEmail, email);
+    return decryptedEmail.value;
   }
 
   /**
@@ -559,7 +623,8 @@ public class Session implements SessionInfo {
    * @return the user's first name
    */
   public final String getFirstName() {
-    return decryptValue(firstName);
+    decryptedFirstName = decrypted(decryptedFirstName, firstName);
+    return decryptedFirstName.value;
   }
 
   /**
@@ -577,7 +642,8 @@ public class Session implements SessionInfo {
    * @return the user's last name
    */
   public final String getLastName() {
-    return decryptValue(lastName);
+    decryptedLastName = decrypted(decryptedLastName, lastName);
+    return decryptedLastName.value;
   }
 
   /**
@@ -643,6 +709,39 @@ public class Session implements SessionInfo {
     return userId;
   }
 
+  /**
+   * Email as stored, encrypted. Used by {@link SessionCodec} implementations.
+   */
+  final String getEncryptedEmail() {
+    return email;
+  }
+
+  final void setEncryptedEmail(String encryptedEmail) {
+    this.email = encryptedEmail;
+  }
+
+  /**
+   * First name as stored, encrypted. Used by {@link SessionCodec} implementations.
+   */
+  final String getEncryptedFirstName() {
+    return firstName;
+  }
+
+  final void setEncryptedFirstName(String encryptedFirstName) {
+    this.firstName = encryptedFirstName;
+  }
+
+  /**
+   * Last name as stored, encrypted. Used by {@link SessionCodec} implementations.
+   */
+  final String getEncryptedLastName() {
+    return lastName;
+  }
+
+  final void setEncryptedLastName(String encryptedLastName) {
+    this.lastName = encryptedLastName;
+  }
+
   // Public methods
 
   /**
@@ -650,6 +749,9 @@ public class Session implements SessionInfo {
    */
   public final void delete() {
     getRepository().delete(this);
+    persistedState = null;
+    writeBuffer.clear();
+    valueCache.clear();
     clearSession();
   }
 
@@ -662,7 +764,7 @@ public class Session implements SessionInfo {
    */
   @Deprecated
   public final void delete(String key) {
-    getRepository().deleteValue(this, key);
+    deleteValue(key);
   }
 
   /**
@@ -672,7 +774,7 @@ public class Session implements SessionInfo {
    * @param scope session scope
    */
   public final void delete(ScopeKeyGenerator scope, String key) {
-    getRepository().deleteValue(this, buildScopeKey(scope, key));
+    deleteValue(buildScopeKey(scope, key));
   }
 
   /**
@@ -685,20 +787,20 @@ public class Session implements SessionInfo {
    */
   @Deprecated
   public final String get(String key) {
-    String value = getRepository().getValue(this, key);
-    return decompressValue(decryptValue(value));
+    return valueCache.get(key, this::readValue).get();
   }
 
   /**
    * Get the value for given key.
    *
+   * <p>Values are cached by this session instance, for the rest of the request.
+   *
    * @param scope scope
    * @param key key
    * @return value
    */
   public final String get(ScopeKeyGenerator scope, String key) {
-    String value = getRepository().getValue(this, buildScopeKey(scope, key));
-    return decompressValue(decryptValue(value));
+    return valueCache.get(buildScopeKey(scope, key), this::readValue).get();
   }
 
   /**
@@ -715,6 +817,9 @@ public class Session implements SessionInfo {
   /**
    * Get the value for given key, scoped to a service where value is an Object.
    *
+   * <p>The decoded value is cached by this session instance for the rest of the request. Each call returns a new
+   * object deserialized from it.
+   *
    * @param scope scope
    * @param key key
    * @param klass klass
@@ -722,7 +827,7 @@ public class Session implements SessionInfo {
    * @return object
    */
   public final <T> T getObj(ScopeKeyGenerator scope, String key, Class<T> klass) {
-    return gson.fromJson(get(scope, key), klass);
+    return valueCache.get(buildScopeKey(scope, key), this::readValue).getObj(value -> codec.decodeObject(value, klass));
   }
 
   /**
@@ -735,7 +840,7 @@ public class Session implements SessionInfo {
    */
   @Deprecated
   public final void put(String key, String value) {
-    getRepository().saveValue(this, key, compressValue(value));
+    saveValue(key, compressValue(value));
   }
 
   /**
@@ -746,7 +851,7 @@ public class Session implements SessionInfo {
    * @param value value
    */
   public final void put(ScopeKeyGenerator scope, String key, String value) {
-    getRepository().saveValue(this, buildScopeKey(scope, key), compressValue(value));
+    saveValue(buildScopeKey(scope, key), compressValue(value));
   }
 
   /**
@@ -757,7 +862,7 @@ public class Session implements SessionInfo {
    * @param obj object
    */
   public final void putObj(ScopeKeyGenerator scope, String key, Object obj) {
-    getRepository().saveValue(this, buildScopeKey(scope, key), compressValue(gson.toJson(obj)));
+    saveValue(buildScopeKey(scope, key), compressValue(codec.encodeObject(obj)));
   }
 
   /**
@@ -770,7 +875,7 @@ public class Session implements SessionInfo {
    * @param value value
    */
   public final void sput(ScopeKeyGenerator scope, String key, String value) {
-    getRepository().saveValue(this, buildScopeKey(scope, key), encryptValue(compressValue(value)));
+    saveValue(buildScopeKey(scope, key), encryptValue(compressValue(value)));
   }
 
   /**
@@ -783,24 +888,114 @@ public class Session implements SessionInfo {
    * @param value value
    */
   public final void sputObj(ScopeKeyGenerator scope, String key, Object value) {
-    getRepository().saveValue(this, buildScopeKey(scope, key), encryptValue(compressValue(gson.toJson(value))));
+    saveValue(buildScopeKey(scope, key), encryptValue(compressValue(codec.encodeObject(value))));
+  }
+
+  /**
+   * Put a key/value pair if the key does not exist.
+   *
+   * <p>Always applied to the repository immediately, even if writes are buffered, since the result depends on the
+   * stored value. Buffered writes are flushed first, so a buffered write of the same key is seen.
+   *
+   * @param scope scope
+   * @param key key
+   * @param value value
+   * @return true if the value was put
+   */
+  public final boolean putIfNotExist(ScopeKeyGenerator scope, String key, String value) {
+    flush();
+
+    String scopeKey = buildScopeKey(scope, key);
+    boolean result = getRepository().setIfNotExist(this, scopeKey, compressValue(value));
+    valueCache.invalidate(scopeKey);
+
+    return result;
   }
 
   /**
-   * Saves this session to repository.
+   * Write buffered value writes and deletes to the repository, in one batch. See {@link #setBufferedWrites(boolean)}.
+   *
+   * <p>Does nothing if nothing is buffered. Their expiry is computed once, from the session's expiry at the time of
+   * the flush. Changes stay buffered until the repository has saved them, so a failed flush can be retried.
+   */
+  public final void flush() {
+    if (writeBuffer.isEmpty()) {
+      return;
+    }
+
+    SessionWriteBuffer.Changes changes = writeBuffer.snapshot();
+    getRepository().saveChanges(this, changes.getValues(), changes.getDeletes());
+    writeBuffer.saved(changes);
+  }
+
+  /**
+   * Saves this session to repository, if it changed since it was loaded or last saved. Buffered value writes are
+   * flushed first.
+   *
+   * <p>An unchanged session is not written again. Its expiry in the repository does not need refreshing either, since
+   * it is derived from {@link #getExpiresAt()}, which would have changed.
    */
   public final void save() {
     notifyBeforeSave();
+    flush();
+
+    HashCode state = fingerprint(codec.encode(this));
+    if (state.equals(persistedState)) {
+      return;
+    }
 
     getRepository().save(this);
+    persistedState = state;
   }
 
   // Private
 
+  /**
+   * Hash of serialized state, kept instead of the state itself so an unchanged session can be detected without holding
+   * a second copy of every loaded session.
+   */
+  private static HashCode fingerprint(String state) {
+    return Hashing.murmur3_128().hashString(state, StandardCharsets.UTF_8);
+  }
+
   private String buildScopeKey(ScopeKeyGenerator scope, String key) {
     return scope.generate() + "." + key;
   }
 
+  private String readValue(String repositoryKey) {
+    String stored = writeBuffer.contains(repositoryKey)
+        ? writeBuffer.get(repositoryKey)
+        : getRepository().getValue(this, repositoryKey);
+
+    return decompressValue(decryptValue(stored));
+  }
+
+  private void saveValue(String repositoryKey, String value) {
+    if (bufferedWrites) {
+      writeBuffer.put(repositoryKey, value);
+    } else {
+      getRepository().saveValue(this, repositoryKey, value);
+    }
+    valueCache.invalidate(repositoryKey);
+  }
+
+  private void deleteValue(String repositoryKey) {
+    if (bufferedWrites) {
+      writeBuffer.delete(repositoryKey);
+    } else {
+      getRepository().deleteValue(this, repositoryKey);
+    }
+    valueCache.invalidate(repositoryKey);
+  }
+
+  private Decrypted decrypted(Decrypted previous, String encrypted) {
+    if (previous != null && Objects.equals(previous.encrypted, encrypted)) {
+      return previous;
+    }
+
+    return new Decrypted(encrypted, decryptValue(encrypted));
+  }
+
   private String compressValue(String value) {
     CompressionService compressionService = getCompressionService();
     if (compressionService == null) {
@@ -854,4 +1049,17 @@ public class Session implements SessionInfo {
       listener.beforeSave(this);
     });
   }
+
+  /**
+   * Decrypted value of an encrypted field.
+   */
+  private static final class Decrypted {
+    private final String encrypted;
+    private final String value;
+
+    Decrypted(String encrypted, String value) {
+      this.encrypted = encrypted;
+      this.value = value;
+    }
+  }
 }
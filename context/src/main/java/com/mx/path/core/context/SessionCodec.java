@@ -0,0 +1,44 @@
+package com.mx.path.core.context;
+
+/**
+ * Interface for encoding sessions, and object values put on sessions, to the strings kept in the session store.
+ *
+ * <p>Implementations must decode everything written by the other implementations, so the codec can be changed without
+ * losing existing sessions. See {@link Session#setCodec(SessionCodec)}.
+ */
+public interface SessionCodec {
+
+  /**
+   * Encode session.
+   *
+   * @param session session to encode
+   * @return encoded session
+   */
+  String encode(Session session);
+
+  /**
+   * Decode session.
+   *
+   * @param encoded encoded session
+   * @return session
+   */
+  Session decode(String encoded);
+
+  /**
+   * Encode an object value, as put with {@link Session#putObj}.
+   *
+   * @param obj object
+   * @return encoded object
+   */
+  String encodeObject(Object obj);
+
+  /**
+   * Decode an object value, as read with {@link Session#getObj}.
+   *
+   * @param encoded encoded object
+   * @param klass object class
+   * @param <T> object type
+   * @return object
+   */
+  <T> T decodeObject(String encoded, Class<T> klass);
+}
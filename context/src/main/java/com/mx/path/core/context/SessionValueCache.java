@@ -0,0 +1,85 @@
+package com.mx.path.core.context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Decoded session values read through a {@link Session}, by repository key.
+ *
+ * <p>Held by the session instance, which is loaded for each request, so values are cached for the request. A value is
+ * dropped when it is written or deleted through the same session. Writes made elsewhere during the request are not
+ * seen.
+ */
+final class SessionValueCache {
+  private final Map<String, Value> values = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * Cached value for key, loading it if it is not cached.
+   *
+   * @param key repository key
+   * @param loader reads and decodes the value
+   * @return value, holding null if there is none
+   */
+  Value get(String key, Function<String, String> loader) {
+    Value value = values.get(key);
+    if (value != null) {
+      return value;
+    }
+
+    long version = invalidations.get();
+    value = new Value(loader.apply(key));
+    // A write while the value was read may have made it stale
+    if (invalidations.get() == version) {
+      values.putIfAbsent(key, value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Drop cached value for key.
+   *
+   * @param key repository key
+   */
+  void invalidate(String key) {
+    invalidations.incrementAndGet();
+    values.remove(key);
+  }
+
+  /**
+   * Drop all cached values.
+   */
+  void clear() {
+    invalidations.incrementAndGet();
+    values.clear();
+  }
+
+  /**
+   * A decoded value. Objects are deserialized from it on each read, so callers never share a mutable instance.
+   */
+  static final class Value {
+    private final String value;
+
+    Value(String value) {
+      this.value = value;
+    }
+
+    String get() {
+      return value;
+    }
+
+    /**
+     * New object deserialized from the value.
+     *
+     * @param parser deserializes the value
+     * @param <T> object type
+     * @return object, or null if there is no value
+     */
+    <T> T getObj(Function<String, T> parser) {
+      return value != null ? parser.apply(value) : null;
+    }
+  }
+}
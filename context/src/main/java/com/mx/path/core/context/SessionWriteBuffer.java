@@ -0,0 +1,114 @@
+package com.mx.path.core.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Session value writes and deletes not yet sent to the repository, by repository key. See
+ * {@link Session#setBufferedWrites(boolean)}.
+ *
+ * <p>Only the last write or delete of each key is kept. Values are kept encoded, as they will be stored.
+ */
+final class SessionWriteBuffer {
+  private final Map<String, String> values = new LinkedHashMap<>();
+  private final Set<String> deletes = new LinkedHashSet<>();
+
+  /**
+   * Buffer a write, replacing any buffered write or delete of key.
+   *
+   * @param key repository key
+   * @param value encoded value
+   */
+  synchronized void put(String key, String value) {
+    deletes.remove(key);
+    values.put(key, value);
+  }
+
+  /**
+   * Buffer a delete, replacing any buffered write of key.
+   *
+   * @param key repository key
+   */
+  synchronized void delete(String key) {
+    values.remove(key);
+    deletes.add(key);
+  }
+
+  /**
+   * @param key repository key
+   * @return true if a write or delete of key is buffered
+   */
+  synchronized boolean contains(String key) {
+    return values.containsKey(key) || deletes.contains(key);
+  }
+
+  /**
+   * Buffered value of key. Null if it is deleted, or not buffered. Check {@link #contains(String)} first.
+   *
+   * @param key repository key
+   * @return encoded value
+   */
+  synchronized String get(String key) {
+    return values.get(key);
+  }
+
+  /**
+   * @return true if nothing is buffered
+   */
+  synchronized boolean isEmpty() {
+    return values.isEmpty() && deletes.isEmpty();
+  }
+
+  /**
+   * Return everything buffered, without removing it. Call {@link #saved(Changes)} once the changes are stored.
+   *
+   * @return buffered writes and deletes
+   */
+  synchronized Changes snapshot() {
+    return new Changes(new LinkedHashMap<>(values), new ArrayList<>(deletes));
+  }
+
+  /**
+   * Remove stored changes. Keys written or deleted again since the snapshot stay buffered.
+   *
+   * @param changes changes from {@link #snapshot()} that were stored
+   */
+  synchronized void saved(Changes changes) {
+    // Only removes writes still mapped to the stored value
+    changes.getValues().forEach(values::remove);
+    deletes.removeAll(changes.getDeletes());
+  }
+
+  /**
+   * Drop everything buffered.
+   */
+  synchronized void clear() {
+    values.clear();
+    deletes.clear();
+  }
+
+  /**
+   * Snapshot of buffered writes and deletes.
+   */
+  static final class Changes {
+    private final Map<String, String> values;
+    private final Collection<String> deletes;
+
+    Changes(Map<String, String> values, Collection<String> deletes) {
+      this.values = values;
+      this.deletes = deletes;
+    }
+
+    Map<String, String> getValues() {
+      return values;
+    }
+
+    Collection<String> getDeletes() {
+      return deletes;
+    }
+  }
+}
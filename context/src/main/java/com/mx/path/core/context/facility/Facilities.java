@@ -40,6 +40,8 @@ import com.mx.path.core.context.GatewayContextException;
  *       class: implementation.SessionStorage
  *       configuration:
  *         key: value
+ *       nearCache:     # optional in-process cache in front of cacheStore or sessionStore, see NearCacheSettings
+ *         ttl: 10s
  *     encryptionService:
  *       class: implementation.EncryptionService
  *       configuration:
@@ -0,0 +1,34 @@
+package com.mx.path.core.context.security;
+
+/**
+ * A data key issued by a {@link DataKeyProvider}: its id, and the plaintext AES key.
+ */
+public final class DataKey {
+  private final String id;
+  private final byte[] key;
+
+  /**
+   * Build new {@link DataKey}.
+   *
+   * @param id id the key can be fetched by, stored with every value it encrypts
+   * @param key plaintext AES key, 16 or 32 bytes
+   */
+  public DataKey(String id, byte[] key) {
+    this.id = id;
+    this.key = key.clone();
+  }
+
+  /**
+   * @return key id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * @return plaintext key
+   */
+  public byte[] getKey() {
+    return key.clone();
+  }
+}
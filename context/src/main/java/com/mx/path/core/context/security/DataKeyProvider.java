@@ -0,0 +1,27 @@
+package com.mx.path.core.context.security;
+
+/**
+ * Source of data keys for {@link EnvelopeEncryptionService}, typically a remote key management service that keeps the
+ * master keys.
+ *
+ * <p>Each key id must keep resolving to the same key for as long as values encrypted with it are stored. An id can
+ * hold the wrapped key itself, or refer to one kept by the provider, and should include the master key version, so
+ * master keys can be rotated without re-encrypting values.
+ */
+public interface DataKeyProvider {
+
+  /**
+   * Generate a new data key to encrypt with.
+   *
+   * @return data key
+   */
+  DataKey generate();
+
+  /**
+   * Fetch a data key by id, to decrypt with.
+   *
+   * @param id key id
+   * @return data key, or null if it is not known
+   */
+  DataKey get(String id);
+}
@@ -0,0 +1,386 @@
+package com.mx.path.core.context.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.security.EncryptionService;
+import com.mx.path.core.common.security.EncryptionServiceException;
+
+/**
+ * Encrypts values locally with AES-GCM data keys from a {@link DataKeyProvider}, so the remote key service is only
+ * called when a data key is generated or first used to decrypt. See {@link EnvelopeEncryptionSettings}.
+ *
+ * <p>An encrypted value is {@value #PREFIX} followed by the unpadded base64 of a format version byte, the length and
+ * UTF-8 bytes of the data key id, the IV, and the AES-GCM ciphertext and tag. Values name the key they were encrypted
+ * with, so they remain readable after the data key or master key is rotated.
+ *
+ * <p>Each thread reuses its own {@link Cipher}. Keys generated and fetched, and cache hits, are included in
+ * {@link #getConfigurations()}.
+ *
+ * <p>To configure it as the encryption service facility, extend it with a constructor that builds the provider:
+ *
+ * <pre>{@code
+ * public class KmsEncryptionService extends EnvelopeEncryptionService {
+ *   public KmsEncryptionService(@Configuration KmsEncryptionSettings settings) {
+ *     super(new KmsDataKeyProvider(settings), settings.getEnvelope());
+ *   }
+ * }
+ * }</pre>
+ */
+public class EnvelopeEncryptionService implements EncryptionService {
+  public static final String PREFIX = "env:";
+
+  private static final int FORMAT_VERSION = 1;
+  private static final String ALGORITHM = "AES";
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+  private static final int TAG_BYTES = TAG_BITS / Byte.SIZE;
+  private static final int MAX_KEY_ID_BYTES = 0xFFFF;
+  private static final int BYTE_MASK = 0xFF;
+
+  private final DataKeyProvider provider;
+  private final EnvelopeEncryptionSettings settings;
+  private final LongSupplier nanoClock;
+  private final long maxKeyAgeNanos;
+  private final long maxKeyUses;
+  private final int keyCacheSize;
+  private final long keyCacheTtlNanos;
+  private final SecureRandom random = new SecureRandom();
+  private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(EnvelopeEncryptionService::newCipher);
+  private final Map<String, CachedKey> keys = new LinkedHashMap<>(16, 0.75f, true);
+  private volatile ActiveKey activeKey;
+  private long generated;
+  private long fetched;
+  private long hits;
+
+  /**
+   * Build new {@link EnvelopeEncryptionService}.
+   *
+   * @param provider data key provider
+   * @param settings envelope encryption settings
+   */
+  public EnvelopeEncryptionService(DataKeyProvider provider, EnvelopeEncryptionSettings settings) {
+    this(provider, settings, System::nanoTime);
+  }
+
+  EnvelopeEncryptionService(DataKeyProvider provider, EnvelopeEncryptionSettings settings, LongSupplier nanoClock) {
+    this.provider = provider;
+    this.settings = settings;
+    this.nanoClock = nanoClock;
+    this.maxKeyAgeNanos = settings.maxKeyAgeOrDefault().toNanos();
+    this.maxKeyUses = settings.maxKeyUsesOrDefault();
+    this.keyCacheSize = settings.keyCacheSizeOrDefault();
+    this.keyCacheTtlNanos = settings.keyCacheTtlOrDefault().toNanos();
+  }
+
+  @Override
+  public final String encrypt(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    return encrypt(ciphers.get(), activeKey(1), value);
+  }
+
+  /**
+   * Encrypt several strings with the same data key.
+   *
+   * @param values values
+   * @return encrypted strings, in the order of values
+   */
+  @Override
+  public final List<String> encryptAll(List<String> values) {
+    Cipher cipher = ciphers.get();
+    ActiveKey key = activeKey(values.size());
+    List<String> result = new ArrayList<>(values.size());
+    for (String value : values) {
+      result.add(value != null ? encrypt(cipher, key, value) : null);
+    }
+
+    return result;
+  }
+
+  @Override
+  public final String decrypt(String cypher) {
+    if (cypher == null) {
+      return null;
+    }
+
+    Envelope envelope = Envelope.parse(cypher);
+    return decrypt(ciphers.get(), key(envelope.keyId), envelope);
+  }
+
+  /**
+   * Decrypt several strings, looking up each data key once.
+   *
+   * @param cyphers cyphers
+   * @return decrypted strings, in the order of cyphers
+   */
+  @Override
+  public final List<String> decryptAll(List<String> cyphers) {
+    Cipher cipher = ciphers.get();
+    Map<String, SecretKeySpec> batchKeys = new HashMap<>();
+    List<String> result = new ArrayList<>(cyphers.size());
+    for (String cypher : cyphers) {
+      if (cypher == null) {
+        result.add(null);
+        continue;
+      }
+
+      Envelope envelope = Envelope.parse(cypher);
+      SecretKeySpec key = batchKeys.get(envelope.keyId);
+      if (key == null) {
+        key = key(envelope.keyId);
+        batchKeys.put(envelope.keyId, key);
+      }
+      result.add(decrypt(cipher, key, envelope));
+    }
+
+    return result;
+  }
+
+  @Override
+  public final boolean isEncrypted(String value) {
+    return value != null && value.startsWith(PREFIX);
+  }
+
+  /**
+   * Stop encrypting with the current data key. A new one is generated for the next value. Values encrypted with the
+   * current key can still be decrypted.
+   */
+  @Override
+  public final void rotateKeys() {
+    activeKey = null;
+  }
+
+  /**
+   * Describe this service's settings, and its data key usage.
+   *
+   * @return description
+   */
+  public final ObjectMap getConfigurations() {
+    ObjectMap description = new ObjectMap();
+    settings.describe(description.createMap("envelope"));
+
+    ObjectMap stats = description.createMap("stats");
+    synchronized (this) {
+      stats.put("cachedKeys", keys.size());
+      stats.put("generatedKeys", generated);
+      stats.put("fetchedKeys", fetched);
+      stats.put("keyCacheHits", hits);
+    }
+
+    return description;
+  }
+
+  /**
+   * Current data key, reserved for uses values. Generates a new key if the current one is too old, or used up.
+   */
+  private ActiveKey activeKey(int uses) {
+    long now = nanoClock.getAsLong();
+    ActiveKey key = activeKey;
+    if (key != null && key.reserve(uses, now)) {
+      return key;
+    }
+
+    synchronized (this) {
+      key = activeKey;
+      if (key != null && key.reserve(uses, now)) {
+        return key;
+      }
+
+      DataKey dataKey = provider.generate();
+      if (dataKey == null) {
+        throw new EncryptionServiceException("Data key provider did not generate a key");
+      }
+      key = new ActiveKey(dataKey.getId(), new SecretKeySpec(dataKey.getKey(), ALGORITHM), now + maxKeyAgeNanos);
+      // A batch larger than the key's uses still gets a new key to itself
+      key.reserve(uses, now);
+      activeKey = key;
+      generated++;
+      cache(dataKey.getId(), key.secretKey, now);
+    }
+
+    return key;
+  }
+
+  /**
+   * Data key to decrypt with, from cache or provider.
+   */
+  private SecretKeySpec key(String keyId) {
+    long now = nanoClock.getAsLong();
+    synchronized (this) {
+      CachedKey cached = keys.get(keyId);
+      if (cached != null && now - cached.expiresAtNanos < 0) {
+        hits++;
+        return cached.secretKey;
+      }
+    }
+
+    DataKey dataKey = provider.get(keyId);
+    if (dataKey == null) {
+      throw new EncryptionServiceException("Unable to decrypt, unknown data key " + keyId);
+    }
+    SecretKeySpec secretKey = new SecretKeySpec(dataKey.getKey(), ALGORITHM);
+    synchronized (this) {
+      fetched++;
+      cache(keyId, secretKey, now);
+    }
+
+    return secretKey;
+  }
+
+  /**
+   * Must be called while holding this service's lock.
+   */
+  private void cache(String keyId, SecretKeySpec secretKey, long now) {
+    keys.put(keyId, new CachedKey(secretKey, now + keyCacheTtlNanos));
+
+    Iterator<CachedKey> eldest = keys.values().iterator();
+    while (keys.size() > keyCacheSize && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  private String encrypt(Cipher cipher, ActiveKey key, String value) {
+    byte[] iv = new byte[IV_BYTES];
+    random.nextBytes(iv);
+
+    byte[] encrypted;
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, key.secretKey, new GCMParameterSpec(TAG_BITS, iv));
+      encrypted = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new EncryptionServiceException("Unable to encrypt", e);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(1 + Short.BYTES + key.id.length + IV_BYTES + encrypted.length);
+    buffer.put((byte) FORMAT_VERSION);
+    buffer.putShort((short) key.id.length);
+    buffer.put(key.id);
+    buffer.put(iv);
+    buffer.put(encrypted);
+
+    return PREFIX + Base64.getEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  private static String decrypt(Cipher cipher, SecretKeySpec key, Envelope envelope) {
+    try {
+      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, envelope.bytes, envelope.ivOffset, IV_BYTES));
+      byte[] decrypted = cipher.doFinal(envelope.bytes, envelope.ivOffset + IV_BYTES, envelope.bytes.length - envelope.ivOffset - IV_BYTES);
+
+      return new String(decrypted, StandardCharsets.UTF_8);
+    } catch (GeneralSecurityException e) {
+      throw new EncryptionServiceException("Unable to decrypt", e);
+    }
+  }
+
+  private static Cipher newCipher() {
+    try {
+      return Cipher.getInstance(TRANSFORMATION);
+    } catch (GeneralSecurityException e) {
+      throw new EncryptionServiceException("Unable to create cipher " + TRANSFORMATION, e);
+    }
+  }
+
+  /**
+   * Data key used to encrypt, and the number of values it has encrypted.
+   */
+  private final class ActiveKey {
+    private final byte[] id;
+    private final SecretKeySpec secretKey;
+    private final long expiresAtNanos;
+    private final AtomicLong uses = new AtomicLong();
+
+    ActiveKey(String id, SecretKeySpec secretKey, long expiresAtNanos) {
+      this.id = id.getBytes(StandardCharsets.UTF_8);
+      if (this.id.length > MAX_KEY_ID_BYTES) {
+        throw new EncryptionServiceException("Data key id is too long");
+      }
+      this.secretKey = secretKey;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @return true if the key is not expired, and had count uses left
+     */
+    boolean reserve(int count, long now) {
+      return now - expiresAtNanos < 0 && uses.addAndGet(count) <= maxKeyUses;
+    }
+  }
+
+  /**
+   * Data key used to decrypt.
+   */
+  private static final class CachedKey {
+    private final SecretKeySpec secretKey;
+    private final long expiresAtNanos;
+
+    CachedKey(SecretKeySpec secretKey, long expiresAtNanos) {
+      this.secretKey = secretKey;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
+  /**
+   * Parsed encrypted value.
+   */
+  private static final class Envelope {
+    private final byte[] bytes;
+    private final String keyId;
+    private final int ivOffset;
+
+    private Envelope(byte[] bytes, String keyId, int ivOffset) {
+      this.bytes = bytes;
+      this.keyId = keyId;
+      this.ivOffset = ivOffset;
+    }
+
+    static Envelope parse(String cypher) {
+      if (!cypher.startsWith(PREFIX)) {
+        throw new EncryptionServiceException("Unable to decrypt, value is not encrypted");
+      }
+
+      byte[] bytes;
+      try {
+        bytes = Base64.getDecoder().decode(cypher.substring(PREFIX.length()));
+      } catch (IllegalArgumentException e) {
+        throw new EncryptionServiceException("Unable to decrypt, invalid encoding", e);
+      }
+
+      int headerBytes = 1 + Short.BYTES;
+      if (bytes.length < headerBytes) {
+        throw new EncryptionServiceException("Unable to decrypt, value is truncated");
+      }
+      int version = bytes[0] & BYTE_MASK;
+      if (version != FORMAT_VERSION) {
+        throw new EncryptionServiceException("Unable to decrypt, unsupported format version " + version);
+      }
+      int keyIdLength = ByteBuffer.wrap(bytes, 1, Short.BYTES).getShort() & MAX_KEY_ID_BYTES;
+      if (bytes.length < headerBytes + keyIdLength + IV_BYTES + TAG_BYTES) {
+        throw new EncryptionServiceException("Unable to decrypt, value is truncated");
+      }
+
+      String keyId = new String(bytes, headerBytes, keyIdLength, StandardCharsets.UTF_8);
+      return new Envelope(bytes, keyId, headerBytes + keyIdLength);
+    }
+  }
+}
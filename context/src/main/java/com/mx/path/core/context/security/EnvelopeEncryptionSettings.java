@@ -0,0 +1,125 @@
+package com.mx.path.core.context.security;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for an {@link EnvelopeEncryptionService}.
+ *
+ * <p>Values are encrypted with a data key that is replaced after {@code maxKeyAge}, or once it has encrypted
+ * {@code maxKeyUses} values, whichever comes first. Keys used to decrypt are cached, up to {@code keyCacheSize} keys,
+ * for {@code keyCacheTtl}.
+ */
+@Data
+public class EnvelopeEncryptionSettings {
+
+  public static final Duration DEFAULT_MAX_KEY_AGE = Duration.ofMinutes(15);
+  public static final long DEFAULT_MAX_KEY_USES = 1_000_000L;
+  public static final int DEFAULT_KEY_CACHE_SIZE = 1_000;
+  public static final Duration DEFAULT_KEY_CACHE_TTL = Duration.ofHours(1);
+
+  /**
+   * Longest time a data key is used to encrypt.
+   *
+   * -- GETTER --
+   * Return max key age.
+   *
+   * @return max key age
+   * -- SETTER --
+   * Set max key age.
+   *
+   * @param maxKeyAge max key age to set
+   */
+  @ConfigurationField
+  private Duration maxKeyAge;
+
+  /**
+   * Most values encrypted with one data key.
+   *
+   * -- GETTER --
+   * Return max key uses.
+   *
+   * @return max key uses
+   * -- SETTER --
+   * Set max key uses.
+   *
+   * @param maxKeyUses max key uses to set
+   */
+  @ConfigurationField
+  private Long maxKeyUses;
+
+  /**
+   * Most data keys cached to decrypt with.
+   *
+   * -- GETTER --
+   * Return key cache size.
+   *
+   * @return key cache size
+   * -- SETTER --
+   * Set key cache size.
+   *
+   * @param keyCacheSize key cache size to set
+   */
+  @ConfigurationField
+  private Integer keyCacheSize;
+
+  /**
+   * Longest time a data key is cached to decrypt with.
+   *
+   * -- GETTER --
+   * Return key cache ttl.
+   *
+   * @return key cache ttl
+   * -- SETTER --
+   * Set key cache ttl.
+   *
+   * @param keyCacheTtl key cache ttl to set
+   */
+  @ConfigurationField
+  private Duration keyCacheTtl;
+
+  /**
+   * @return configured max key age, or default
+   */
+  public final Duration maxKeyAgeOrDefault() {
+    return maxKeyAge != null ? maxKeyAge : DEFAULT_MAX_KEY_AGE;
+  }
+
+  /**
+   * @return configured max key uses, or default
+   */
+  public final long maxKeyUsesOrDefault() {
+    return maxKeyUses != null ? maxKeyUses : DEFAULT_MAX_KEY_USES;
+  }
+
+  /**
+   * @return configured key cache size, or default
+   */
+  public final int keyCacheSizeOrDefault() {
+    return keyCacheSize != null ? keyCacheSize : DEFAULT_KEY_CACHE_SIZE;
+  }
+
+  /**
+   * @return configured key cache ttl, or default
+   */
+  public final Duration keyCacheTtlOrDefault() {
+    return keyCacheTtl != null ? keyCacheTtl : DEFAULT_KEY_CACHE_TTL;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("maxKeyAge", Durations.toCompactString(maxKeyAgeOrDefault()));
+    description.put("maxKeyUses", maxKeyUsesOrDefault());
+    description.put("keyCacheSize", keyCacheSizeOrDefault());
+    description.put("keyCacheTtl", Durations.toCompactString(keyCacheTtlOrDefault()));
+  }
+}
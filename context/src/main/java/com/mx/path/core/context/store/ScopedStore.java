@@ -1,9 +1,16 @@
 package com.mx.path.core.context.store;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import com.mx.path.core.common.store.Store;
+import com.mx.path.core.common.store.StoreBatch;
 
 /**
  * Abstract class to provide scope logic to base store.
@@ -173,4 +180,95 @@ public abstract class ScopedStore implements Store {
   public final boolean putIfNotExist(String key, String value) {
     return store.putIfNotExist(buildKey(key), value);
   }
+
+  /**
+   * Get values of several keys.
+   *
+   * @param keys keys
+   * @return values by key. Keys without a value are omitted.
+   */
+  @Override
+  public final Map<String, String> getAll(Collection<String> keys) {
+    Map<String, String> scopedKeys = new LinkedHashMap<>();
+    keys.forEach(key -> scopedKeys.put(buildKey(key), key));
+
+    Map<String, String> values = new LinkedHashMap<>();
+    store.getAll(new ArrayList<>(scopedKeys.keySet())).forEach((scopedKey, value) -> values.put(scopedKeys.get(scopedKey), value));
+
+    return values;
+  }
+
+  /**
+   * Put several values.
+   *
+   * @param values values by key
+   * @param expirySeconds seconds to expire
+   */
+  @Override
+  public final void putAll(Map<String, String> values, long expirySeconds) {
+    Map<String, String> scopedValues = new LinkedHashMap<>();
+    values.forEach((key, value) -> scopedValues.put(buildKey(key), value));
+    store.putAll(scopedValues, expirySeconds);
+  }
+
+  /**
+   * Delete several keys.
+   *
+   * @param keys keys
+   */
+  @Override
+  public final void deleteAll(Collection<String> keys) {
+    store.deleteAll(keys.stream().map(this::buildKey).collect(Collectors.toList()));
+  }
+
+  /**
+   * Send several write operations together, in a single batch of the wrapped store.
+   *
+   * @param operations adds the operations to the batch
+   */
+  @Override
+  public final void pipeline(Consumer<StoreBatch> operations) {
+    store.pipeline(batch -> operations.accept(new ScopedBatch(batch)));
+  }
+
+  /**
+   * Adds scope to the keys of a wrapped store's batch.
+   */
+  private final class ScopedBatch implements StoreBatch {
+    private final StoreBatch batch;
+
+    ScopedBatch(StoreBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void delete(String key) {
+      batch.delete(buildKey(key));
+    }
+
+    @Override
+    public void deleteSet(String key, String value) {
+      batch.deleteSet(buildKey(key), value);
+    }
+
+    @Override
+    public void put(String key, String value, long expirySeconds) {
+      batch.put(buildKey(key), value, expirySeconds);
+    }
+
+    @Override
+    public void put(String key, String value) {
+      batch.put(buildKey(key), value);
+    }
+
+    @Override
+    public void putSet(String key, String value, long expirySeconds) {
+      batch.putSet(buildKey(key), value, expirySeconds);
+    }
+
+    @Override
+    public void putSet(String key, String value) {
+      batch.putSet(buildKey(key), value);
+    }
+  }
 }
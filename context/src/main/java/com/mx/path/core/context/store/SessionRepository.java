@@ -1,5 +1,8 @@
 package com.mx.path.core.context.store;
 
+import java.util.Collection;
+import java.util.Map;
+
 import com.mx.path.core.context.Session;
 
 /**
@@ -55,9 +58,39 @@ public interface SessionRepository {
    */
   void saveValue(Session session, String key, String value);
 
+  /**
+   * Set values of several key-value pairs.
+   *
+   * <p>Defaults to {@link #saveValue} for each pair. Implementations should save them in one batch.
+   *
+   * @param session session to set key-value pair values
+   * @param values values by key
+   */
+  default void saveValues(Session session, Map<String, String> values) {
+    values.forEach((key, value) -> saveValue(session, key, value));
+  }
+
+  /**
+   * Set values of several key-value pairs, and delete several keys.
+   *
+   * <p>Used to flush buffered session writes. Defaults to {@link #saveValues} and {@link #deleteValue} for each deleted
+   * key. Implementations should apply them in one batch.
+   *
+   * @param session session to change
+   * @param values values to set, by key
+   * @param deletedKeys keys to delete
+   */
+  default void saveChanges(Session session, Map<String, String> values, Collection<String> deletedKeys) {
+    saveValues(session, values);
+    deletedKeys.forEach(key -> deleteValue(session, key));
+  }
+
   /**
    * Add new key-value pair on session if key does not exist.
    *
+   * <p>Always applied immediately, even if session writes are buffered, since its result depends on the stored value.
+   * Buffered writes are not seen, so flush the session first if they may include key.
+   *
    * @param session session do add key-value pair
    * @param key key
    * @param value value
@@ -68,6 +101,8 @@ public interface SessionRepository {
   /**
    * Add new key-value pair on session, if key does not exist, and set expiration time.
    *
+   * <p>Always applied immediately, see {@link #setIfNotExist(Session, String, String)}.
+   *
    * @param session session to add key-value pair
    * @param key key
    * @param value value
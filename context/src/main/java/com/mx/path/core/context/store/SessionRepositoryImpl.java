@@ -1,11 +1,11 @@
 package com.mx.path.core.context.store;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.mx.path.core.common.serialization.LocalDateTimeDeserializer;
 import com.mx.path.core.common.store.Store;
 import com.mx.path.core.context.Session;
 
@@ -14,9 +14,6 @@ import com.mx.path.core.context.Session;
  */
 public class SessionRepositoryImpl implements SessionRepository {
 
-  private static final Gson GSON = new GsonBuilder().registerTypeAdapter(LocalDateTime.class, LocalDateTimeDeserializer.builder()
-      .build()).create();
-
   private final Store store;
 
   /**
@@ -63,15 +60,15 @@ public class SessionRepositoryImpl implements SessionRepository {
   }
 
   /**
-   * Load session.
+   * Load session, decoded with {@link Session#getCodec()}.
    *
    * @param sessionId session id
    * @return session
    */
   @Override
   public final Session load(String sessionId) {
-    String json = store.get(sessionId);
-    return (json != null) ? GSON.fromJson(json, Session.class) : null;
+    String encoded = store.get(sessionId);
+    return (encoded != null) ? Session.getCodec().decode(encoded) : null;
   }
 
   /**
@@ -86,14 +83,13 @@ public class SessionRepositoryImpl implements SessionRepository {
   }
 
   /**
-   * Save session.
+   * Save session, encoded with {@link Session#getCodec()}.
    *
    * @param session session to save
    */
   @Override
   public final void save(Session session) {
-    String json = GSON.toJson(session);
-    store.put(session.getId(), json, session.getExpiresIn());
+    store.put(session.getId(), Session.getCodec().encode(session), session.getExpiresIn());
   }
 
   /**
@@ -105,8 +101,51 @@ public class SessionRepositoryImpl implements SessionRepository {
    */
   @Override
   public final void saveValue(Session session, String key, String value) {
-    registerSessionKey(session, key);
-    getScopedStoreSession(session).put(key, value, session.getExpiresIn());
+    getScopedStoreSession(session).pipeline(batch -> {
+      batch.putSet("session_keys", key, session.getExpiresIn());
+      batch.put(key, value, session.getExpiresIn());
+    });
+  }
+
+  /**
+   * Save several key-value pairs, and register their keys, in one batch.
+   *
+   * @param session session to set key-value pair values
+   * @param values values by key
+   */
+  @Override
+  public final void saveValues(Session session, Map<String, String> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+
+    getScopedStoreSession(session).pipeline(batch -> values.forEach((key, value) -> {
+      batch.putSet("session_keys", key, session.getExpiresIn());
+      batch.put(key, value, session.getExpiresIn());
+    }));
+  }
+
+  /**
+   * Save several key-value pairs, register their keys, and delete several keys, in one batch.
+   *
+   * @param session session to change
+   * @param values values to set, by key
+   * @param deletedKeys keys to delete
+   */
+  @Override
+  public final void saveChanges(Session session, Map<String, String> values, Collection<String> deletedKeys) {
+    if (values.isEmpty() && deletedKeys.isEmpty()) {
+      return;
+    }
+
+    long expiresIn = session.getExpiresIn();
+    getScopedStoreSession(session).pipeline(batch -> {
+      values.forEach((key, value) -> {
+        batch.putSet("session_keys", key, expiresIn);
+        batch.put(key, value, expiresIn);
+      });
+      deletedKeys.forEach(batch::delete);
+    });
   }
 
   /**
@@ -139,17 +178,19 @@ public class SessionRepositoryImpl implements SessionRepository {
   /**
    * Deletes all tracked session keys for given session.
    *
-   * <p>Removes all keys found in "session_keys" and then removes the "session_keys" set
+   * <p>Removes all keys found in "session_keys" and the "session_keys" set, in one batch
    *
    * @param session session
    */
   private void deleteSessionKeys(Session session) {
     Store sessionStore = getScopedStoreSession(session);
     Set<String> keys = sessionStore.getSet("session_keys");
+    List<String> deleting = new ArrayList<>();
     if (keys != null) {
-      keys.forEach(sessionStore::delete);
+      deleting.addAll(keys);
     }
-    sessionStore.delete("session_keys");
+    deleting.add("session_keys");
+    sessionStore.deleteAll(deleting);
   }
 
   private Store getScopedStoreSession(Session session) {
@@ -9,6 +9,7 @@ import lombok.SneakyThrows;
 
 import com.mx.path.core.common.collection.ObjectMap;
 import com.mx.path.core.common.process.Lock;
+import com.mx.path.core.common.store.NearCacheStore;
 import com.mx.path.core.common.store.Store;
 
 import org.apache.commons.lang.RandomStringUtils;
@@ -40,6 +41,9 @@ import org.apache.commons.lang.RandomStringUtils;
  * }</pre>
  *
  * NOT Thread-safe, NOT reusable. New instance required per request.
+ *
+ * Lock keys are never cached by a {@link NearCacheStore}, including one wrapped by a {@link ScopedStore}, so a
+ * released or expired lock is not reported as held.
  */
 public class StoreLock extends Lock {
 
@@ -121,7 +125,7 @@ public class StoreLock extends Lock {
    * @param configurations for mutex
    */
   public StoreLock(Store store, String key, ObjectMap configurations) {
-    this.lockKey = "lock_token:" + key;
+    this.lockKey = NearCacheStore.LOCK_KEY_MARKER + key;
     this.token = RandomStringUtils.randomAlphanumeric(configurations.getAsInteger("tokenLength", DEFAULT_TOKEN_LENGTH));
     this.pollMilliseconds = configurations.getAsLong("pollMilliseconds", DEFAULT_POLL_MILLISECONDS);
     this.maxLockLengthSeconds = configurations.getAsInteger("maxLockLengthSeconds", DEFAULT_MAX_LOCK_LENGTH_SECONDS);
@@ -156,7 +160,10 @@ public class StoreLock extends Lock {
         return acquired() ? LockState.Acquired : LockState.Timeout;
       }
 
-      request();
+      // A successful request is the lock; skip the sleep and the read that would confirm it
+      if (request() == LockState.Acquired) {
+        return LockState.Acquired;
+      }
 
       try {
         Thread.sleep(pollMilliseconds);
@@ -197,9 +204,7 @@ public class StoreLock extends Lock {
         return LockState.ConditionMet;
       }
 
-      request();
-
-      if (acquired()) {
+      if (request() == LockState.Acquired || acquired()) {
         return LockState.Acquired;
       }
 
@@ -0,0 +1,150 @@
+package com.mx.path.core.context
+
+import java.time.LocalDateTime
+
+import com.mx.testing.TestPayee
+
+import spock.lang.Specification
+
+class BinarySessionCodecTest extends Specification {
+
+  BinarySessionCodec subject
+
+  def setup() {
+    subject = new BinarySessionCodec()
+  }
+
+  Session fullSession() {
+    return new Session().tap {
+      setId("session-1234")
+      setClientId("client1")
+      setUserId("user1")
+      setSessionState(Session.SessionState.AUTHENTICATED)
+      setExpiresAt(1700000000L)
+      setStartedAt(LocalDateTime.of(2023, 11, 14, 22, 13, 20, 123456789))
+      setEncryptedEmail("encrypted:email")
+      setEncryptedFirstName("encrypted:first")
+      setEncryptedLastName("encrypted:last")
+      setDeviceId("device1")
+      setDeviceMake("make")
+      setDeviceModel("model")
+      setDeviceOperatingSystem("os")
+      setDeviceOperatingSystemVersion("1.2")
+      setDeviceHeight(-1)
+      setDeviceWidth(1080)
+      setDeviceLatitude(40.2338)
+      setDeviceLongitude(-111.6585)
+    }
+  }
+
+  def "roundTripsAllFields"() {
+    given:
+    def session = fullSession()
+
+    when:
+    def encoded = subject.encode(session)
+    def decoded = subject.decode(encoded)
+
+    then:
+    encoded.startsWith("~")
+    new JsonSessionCodec().encode(decoded) == new JsonSessionCodec().encode(session)
+    decoded.getEncryptedEmail() == "encrypted:email"
+    decoded.getStartedAt() == session.getStartedAt()
+    decoded.getDeviceHeight() == -1
+    decoded.getDeviceLongitude() == -111.6585d
+  }
+
+  def "isSmallerThanJson"() {
+    given:
+    def session = fullSession()
+
+    expect:
+    subject.encode(session).length() < new JsonSessionCodec().encode(session).length()
+  }
+
+  def "leavesMissingFieldsUnset"() {
+    when:
+    def decoded = subject.decode(subject.encode(new Session().tap { setId("session-1234") }))
+
+    then:
+    decoded.getId() == "session-1234"
+    decoded.getUserId() == null
+    decoded.getStartedAt() == null
+    decoded.getSessionState() == Session.SessionState.UNAUTHENTICATED
+  }
+
+  def "decodesJsonSessions"() {
+    given:
+    def session = fullSession()
+    def json = new JsonSessionCodec().encode(session)
+
+    when:
+    def decoded = subject.decode(json)
+
+    then:
+    decoded.getId() == "session-1234"
+    decoded.getEncryptedEmail() == "encrypted:email"
+    decoded.getStartedAt() == session.getStartedAt()
+  }
+
+  def "jsonCodecDecodesBinarySessions"() {
+    when:
+    def decoded = new JsonSessionCodec().decode(subject.encode(fullSession()))
+
+    then:
+    decoded.getId() == "session-1234"
+    decoded.getDeviceWidth() == 1080
+  }
+
+  def "skipsUnknownFields"() {
+    given:
+    def bytes = Base64.getDecoder().decode(subject.encode(new Session().tap { setId("session-1234") }).substring(1))
+    def stream = new ByteArrayOutputStream()
+    stream.write(bytes)
+    // Field 50, length-delimited
+    [0x92, 0x03, 0x01, 0x78].each { stream.write(it) }
+    // Field 51, varint
+    [0x98, 0x03, 0x96, 0x01].each { stream.write(it) }
+    // Field 3 (userId) with an unexpected wire type
+    [0x18, 0x01].each { stream.write(it) }
+    def encoded = "~" + Base64.getEncoder().withoutPadding().encodeToString(stream.toByteArray())
+
+    when:
+    def decoded = subject.decode(encoded)
+
+    then:
+    decoded.getId() == "session-1234"
+    decoded.getUserId() == null
+  }
+
+  def "rejectsUnknownVersion"() {
+    when:
+    subject.decode("~" + Base64.getEncoder().withoutPadding().encodeToString([2] as byte[]))
+
+    then:
+    thrown(GatewayContextException)
+  }
+
+  def "rejectsTruncatedSession"() {
+    given:
+    def encoded = subject.encode(fullSession())
+
+    when:
+    subject.decode(encoded.substring(0, encoded.length() - 8))
+
+    then:
+    thrown(GatewayContextException)
+  }
+
+  def "encodesObjectsAsJson"() {
+    given:
+    def payee = new TestPayee().tap { setId("payee1") }
+
+    when:
+    def encoded = subject.encodeObject(payee)
+
+    then:
+    encoded == new JsonSessionCodec().encodeObject(payee)
+    subject.decodeObject(encoded, TestPayee).getId() == "payee1"
+  }
+}
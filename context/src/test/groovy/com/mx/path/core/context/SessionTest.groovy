@@ -35,6 +35,7 @@ class SessionTest extends Specification {
     Session.resetCompressionService()
     Session.clearSession()
     Session.setDefaultSessionExpiration(Duration.ofMinutes(30))
+    Session.setBufferedWrites(false)
   }
 
   def "setCurrent"() {
@@ -112,6 +113,46 @@ class SessionTest extends Specification {
     1 * repository.save(subject)
   }
 
+  def "saveSkipsUnchangedSession"() {
+    when:
+    subject.save()
+    subject.save()
+
+    then:
+    1 * repository.save(subject)
+
+    when:
+    subject.setFirstName("changed")
+    subject.save()
+
+    then:
+    1 * repository.save(subject)
+  }
+
+  def "saveSkipsLoadedSessionUntilChanged"() {
+    given:
+    repository.load("session-1234") >> subject
+
+    when:
+    Session.loadSession("session-1234")
+    Session.current().save()
+
+    then:
+    0 * repository.save(_)
+
+    when: "a listener changes the session before it is saved"
+    Session.registerSessionEventListener(new SessionEventListener() {
+          @Override
+          void beforeSave(Session session) {
+            session.setSessionState(Session.SessionState.AUTHENTICATED)
+          }
+        })
+    Session.current().save()
+
+    then:
+    1 * repository.save(subject)
+  }
+
   def "getRetrievesFromRepository"() {
     when:
     subject.get("key1")
@@ -122,6 +163,54 @@ class SessionTest extends Specification {
     1 * repository.getValue(subject, "scope.key1")
   }
 
+  def "getCachesValuesUntilWritten"() {
+    when:
+    def first = subject.get(TestScope.Key, "key1")
+    def second = subject.get(TestScope.Key, "key1")
+
+    then:
+    1 * repository.getValue(subject, "scope.key1") >> "value1"
+    first == "value1"
+    second == "value1"
+
+    when:
+    subject.put(TestScope.Key, "key1", "value2")
+    def third = subject.get(TestScope.Key, "key1")
+
+    then:
+    1 * repository.getValue(subject, "scope.key1") >> "value2"
+    third == "value2"
+
+    when:
+    subject.delete(TestScope.Key, "key1")
+    def fourth = subject.get(TestScope.Key, "key1")
+
+    then:
+    1 * repository.getValue(subject, "scope.key1") >> null
+    fourth == null
+  }
+
+  def "getObjReturnsNewObjectOnEachCall"() {
+    given:
+    HashSessionRepository.register()
+    subject.putObj(TestScope.Key, "payee", new TestPayee().tap { setId("payee1") })
+
+    when:
+    def first = subject.getObj(TestScope.Key, "payee", TestPayee.class)
+    first.setId("changed")
+    def second = subject.getObj(TestScope.Key, "payee", TestPayee.class)
+
+    then:
+    !first.is(second)
+    second.getId() == "payee1"
+
+    when:
+    subject.putObj(TestScope.Key, "payee", new TestPayee().tap { setId("payee2") })
+
+    then:
+    subject.getObj(TestScope.Key, "payee", TestPayee.class).getId() == "payee2"
+  }
+
   def "putStoresInRepository"() {
     when:
     subject.put("key1", "value1")
@@ -161,6 +250,79 @@ class SessionTest extends Specification {
     1 * repository.deleteValue(subject, "scope.key1")
   }
 
+  def "bufferedWritesAreReadBackAndFlushedOnSave"() {
+    given:
+    Session.setBufferedWrites(true)
+
+    when:
+    subject.put(TestScope.Key, "key1", "value1")
+    subject.put(TestScope.Key, "key2", "value2")
+    subject.delete(TestScope.Key, "key2")
+    subject.delete(TestScope.Key, "key3")
+
+    then:
+    subject.get(TestScope.Key, "key1") == "value1"
+    subject.get(TestScope.Key, "key2") == null
+    0 * repository.getValue(_, _)
+    0 * repository.saveValue(_, _, _)
+    0 * repository.deleteValue(_, _)
+
+    when:
+    subject.save()
+
+    then:
+    1 * repository.saveChanges(subject, [("scope.key1"): "value1"], ["scope.key2", "scope.key3"])
+    1 * repository.save(subject)
+
+    when:
+    subject.flush()
+
+    then:
+    0 * repository.saveChanges(_, _, _)
+  }
+
+  def "bufferedWritesStayBufferedWhenFlushFails"() {
+    given:
+    Session.setBufferedWrites(true)
+    subject.put(TestScope.Key, "key1", "value1")
+
+    when:
+    subject.flush()
+
+    then:
+    1 * repository.saveChanges(subject, [("scope.key1"): "value1"], []) >> { throw new RuntimeException("down") }
+    thrown(RuntimeException)
+    subject.get(TestScope.Key, "key1") == "value1"
+
+    when:
+    subject.flush()
+
+    then:
+    1 * repository.saveChanges(subject, [("scope.key1"): "value1"], [])
+
+    when:
+    subject.flush()
+
+    then:
+    0 * repository.saveChanges(_, _, _)
+  }
+
+  def "putIfNotExistFlushesAndAppliesImmediately"() {
+    given:
+    Session.setBufferedWrites(true)
+    subject.put(TestScope.Key, "key1", "value1")
+
+    when:
+    def result = subject.putIfNotExist(TestScope.Key, "key2", "value2")
+
+    then:
+    1 * repository.saveChanges(subject, [("scope.key1"): "value1"], [])
+
+    then:
+    1 * repository.setIfNotExist(subject, "scope.key2", "value2") >> true
+    result
+  }
+
   def "deleteCurrentDeletesTheCurrentSession"() {
     given:
     Session session = Mock()
@@ -391,4 +553,30 @@ class SessionTest extends Specification {
     1 * encryptionService.encrypt("test@unit.me") >> "encrypted:v1:(!ph3%"
     1 * encryptionService.decrypt("encrypted:v1:(!ph3%") >> "test@unit.me"
   }
-}
\ No newline at end of file
+
+  def "decryptsEmailOnce"() {
+    given:
+    subject = spy(new Session())
+    encryptionService.encrypt("test@unit.me") >> "encrypted:v1:(!ph3%"
+    encryptionService.encrypt("other@unit.me") >> "encrypted:v1:other"
+    subject.setEmail("test@unit.me")
+
+    when:
+    subject.getEmail()
+    def email = subject.getEmail()
+
+    then:
+    1 * encryptionService.isEncrypted("encrypted:v1:(!ph3%") >> true
+    1 * encryptionService.decrypt("encrypted:v1:(!ph3%") >> "test@unit.me"
+    email == "test@unit.me"
+
+    when:
+    subject.setEmail("other@unit.me")
+    email = subject.getEmail()
+
+    then:
+    1 * encryptionService.isEncrypted("encrypted:v1:other") >> true
+    1 * encryptionService.decrypt("encrypted:v1:other") >> "other@unit.me"
+    email == "other@unit.me"
+  }
+}
@@ -0,0 +1,173 @@
+package com.mx.path.core.context.security
+
+import java.time.Duration
+import java.util.concurrent.ThreadLocalRandom
+
+import com.mx.path.core.common.security.EncryptionServiceException
+
+import spock.lang.Specification
+
+class EnvelopeEncryptionServiceTest extends Specification {
+
+  static class FakeKeyProvider implements DataKeyProvider {
+    Map<String, byte[]> keys = [:]
+    int generated = 0
+    int fetched = 0
+
+    @Override
+    DataKey generate() {
+      generated++
+      byte[] key = new byte[32]
+      ThreadLocalRandom.current().nextBytes(key)
+      String id = "v1/key-" + generated
+      keys[id] = key
+      return new DataKey(id, key)
+    }
+
+    @Override
+    DataKey get(String id) {
+      fetched++
+      return keys.containsKey(id) ? new DataKey(id, keys[id]) : null
+    }
+  }
+
+  FakeKeyProvider provider
+  EnvelopeEncryptionSettings settings
+  long now
+  EnvelopeEncryptionService subject
+
+  def setup() {
+    provider = new FakeKeyProvider()
+    settings = new EnvelopeEncryptionSettings()
+    now = 0
+    subject = new EnvelopeEncryptionService(provider, settings, { -> now })
+  }
+
+  def "encrypts and decrypts"() {
+    when:
+    def encrypted = subject.encrypt("jane@example.com ünïcødé")
+
+    then:
+    encrypted.startsWith(EnvelopeEncryptionService.PREFIX)
+    subject.isEncrypted(encrypted)
+    !subject.isEncrypted("jane@example.com")
+    subject.decrypt(encrypted) == "jane@example.com ünïcødé"
+    subject.encrypt("value") != subject.encrypt("value")
+    subject.encrypt(null) == null
+    subject.decrypt(null) == null
+  }
+
+  def "reuses data key until max uses"() {
+    given:
+    settings.setMaxKeyUses(3L)
+    subject = new EnvelopeEncryptionService(provider, settings, { -> now })
+
+    when:
+    3.times { subject.encrypt("value") }
+
+    then:
+    provider.generated == 1
+
+    when:
+    subject.encrypt("value")
+
+    then:
+    provider.generated == 2
+  }
+
+  def "replaces data key after max age"() {
+    given:
+    subject.encrypt("value")
+
+    when:
+    now += Duration.ofMinutes(14).toNanos()
+    subject.encrypt("value")
+
+    then:
+    provider.generated == 1
+
+    when:
+    now += Duration.ofMinutes(1).toNanos()
+    subject.encrypt("value")
+
+    then:
+    provider.generated == 2
+  }
+
+  def "decrypts values encrypted before rotation"() {
+    given:
+    def encrypted = subject.encrypt("value")
+
+    when:
+    subject.rotateKeys()
+    def rotated = subject.encrypt("value")
+
+    then:
+    provider.generated == 2
+    subject.decrypt(encrypted) == "value"
+    subject.decrypt(rotated) == "value"
+    provider.fetched == 0
+  }
+
+  def "caches data keys fetched to decrypt"() {
+    given:
+    def encrypted = subject.encrypt("value")
+    def other = new EnvelopeEncryptionService(provider, settings, { -> now })
+
+    when:
+    other.decrypt(encrypted)
+    other.decrypt(encrypted)
+
+    then:
+    provider.fetched == 1
+    other.getConfigurations().getMap("stats").get("keyCacheHits") == 1L
+
+    when:
+    now += Duration.ofHours(1).toNanos()
+    other.decrypt(encrypted)
+
+    then:
+    provider.fetched == 2
+  }
+
+  def "encryptAll and decryptAll share data keys"() {
+    given:
+    def other = new EnvelopeEncryptionService(provider, settings, { -> now })
+
+    when:
+    def encrypted = subject.encryptAll(["first", null, "second"])
+    def decrypted = other.decryptAll(encrypted)
+
+    then:
+    provider.generated == 1
+    provider.fetched == 1
+    encrypted[1] == null
+    decrypted == ["first", null, "second"]
+  }
+
+  def "fails on tampered value"() {
+    given:
+    def prefix = EnvelopeEncryptionService.PREFIX
+    byte[] bytes = Base64.getDecoder().decode(subject.encrypt("value").substring(prefix.length()))
+    bytes[bytes.length - 1] = (byte) (bytes[bytes.length - 1] ^ 1)
+    def tampered = prefix + Base64.getEncoder().withoutPadding().encodeToString(bytes)
+
+    when:
+    subject.decrypt(tampered)
+
+    then:
+    thrown(EncryptionServiceException)
+  }
+
+  def "fails on unknown data key"() {
+    given:
+    def encrypted = subject.encrypt("value")
+    provider.keys.clear()
+
+    when:
+    new EnvelopeEncryptionService(provider, settings).decrypt(encrypted)
+
+    then:
+    thrown(EncryptionServiceException)
+  }
+}
@@ -79,4 +79,50 @@ class ScopedStoreSessionTest extends Specification {
     then:
     thrown(RuntimeException)
   }
-}
\ No newline at end of file
+
+  def "getAll"() {
+    given:
+    when(store.getAll(["sessionId:key1", "sessionId:key2"])).thenReturn(["sessionId:key1": "value1"])
+
+    when:
+    def result = subject.getAll(["key1", "key2"])
+
+    then:
+    result == [key1: "value1"]
+  }
+
+  def "putAll"() {
+    when:
+    subject.putAll([key1: "value1", key2: "value2"], 10)
+
+    then:
+    verify(store).putAll(["sessionId:key1": "value1", "sessionId:key2": "value2"], 10) || true
+  }
+
+  def "deleteAll"() {
+    when:
+    subject.deleteAll(["key1", "key2"])
+
+    then:
+    verify(store).deleteAll(["sessionId:key1", "sessionId:key2"]) || true
+  }
+
+  def "pipeline"() {
+    given:
+    store = mock(Store, CALLS_REAL_METHODS)
+    subject = new ScopedStoreSession(store, com.mx.path.core.context.Session.current())
+
+    when:
+    subject.pipeline({ batch ->
+      batch.putSet("session_keys", "key1", 10)
+      batch.put("key1", "value1", 10)
+      batch.delete("key2")
+    })
+
+    then:
+    verify(store).pipeline(any()) || true
+    verify(store).putSet("sessionId:session_keys", "key1", 10) || true
+    verify(store).put("sessionId:key1", "value1", 10) || true
+    verify(store).delete("sessionId:key2") || true
+  }
+}
@@ -1,6 +1,9 @@
 package com.mx.path.core.context.store
 
+import static org.mockito.ArgumentMatchers.any
+import static org.mockito.Mockito.CALLS_REAL_METHODS
 import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
 import static org.mockito.Mockito.verify
 import static org.mockito.Mockito.when
 
@@ -9,6 +12,8 @@ import java.time.LocalDateTime
 import com.google.gson.GsonBuilder
 import com.mx.path.core.common.serialization.LocalDateTimeDeserializer
 import com.mx.path.core.common.store.Store
+import com.mx.path.core.context.BinarySessionCodec
+import com.mx.path.core.context.JsonSessionCodec
 import com.mx.path.core.context.Session
 import com.mx.testing.WithMockery
 
@@ -22,7 +27,8 @@ class SessionRepositoryImplTest extends Specification implements WithMockery {
   Session session
 
   def setup() {
-    store = mock(Store)
+    // Real default batch methods, so batched operations reach the single-key methods
+    store = mock(Store, CALLS_REAL_METHODS)
     subject = new SessionRepositoryImpl(store)
     Session.createSession()
     session = Session.current()
@@ -31,6 +37,7 @@ class SessionRepositoryImplTest extends Specification implements WithMockery {
 
   def cleanup() {
     Session.clearSession()
+    Session.setCodec(new JsonSessionCodec())
   }
 
   def "delete"() {
@@ -57,6 +64,7 @@ class SessionRepositoryImplTest extends Specification implements WithMockery {
     verify(store).delete("sessionId:key1") || true
     verify(store).delete("sessionId:key2") || true
     verify(store).delete("sessionId:session_keys") || true
+    verify(store).deleteAll(["sessionId:key1", "sessionId:key2", "sessionId:session_keys"]) || true
   }
 
   def "deleteValue"() {
@@ -105,6 +113,27 @@ class SessionRepositoryImplTest extends Specification implements WithMockery {
     verify(store).put("sessionId", json, session.getExpiresIn()) || true
   }
 
+  def "saveAndLoadWithCodec"() {
+    given:
+    Session.setCodec(new BinarySessionCodec())
+    def encoded = new BinarySessionCodec().encode(session)
+
+    when:
+    subject.save(session)
+
+    then:
+    encoded.startsWith("~")
+    verify(store).put("sessionId", encoded, session.getExpiresIn()) || true
+
+    when:
+    Mockito.doReturn(encoded).when(store).get("sessionId")
+    def loadedSession = subject.load("sessionId")
+
+    then:
+    loadedSession.getId() == "sessionId"
+    loadedSession.getStartedAt() == session.getStartedAt()
+  }
+
   def "saveValue"() {
     when:
     subject.saveValue(session, "key1", "value1")
@@ -112,6 +141,30 @@ class SessionRepositoryImplTest extends Specification implements WithMockery {
     then:
     verify(store).putSet("sessionId:session_keys", "key1", session.getExpiresIn()) || true
     verify(store).put("sessionId:key1", "value1", session.getExpiresIn()) || true
+    verify(store).pipeline(any()) || true
+  }
+
+  def "saveValues"() {
+    when:
+    subject.saveValues(session, [key1: "value1", key2: "value2"])
+
+    then:
+    verify(store, times(1)).pipeline(any()) || true
+    verify(store).putSet("sessionId:session_keys", "key1", session.getExpiresIn()) || true
+    verify(store).put("sessionId:key1", "value1", session.getExpiresIn()) || true
+    verify(store).putSet("sessionId:session_keys", "key2", session.getExpiresIn()) || true
+    verify(store).put("sessionId:key2", "value2", session.getExpiresIn()) || true
+  }
+
+  def "saveChanges"() {
+    when:
+    subject.saveChanges(session, [key1: "value1"], ["key2"])
+
+    then:
+    verify(store, times(1)).pipeline(any()) || true
+    verify(store).putSet("sessionId:session_keys", "key1", session.getExpiresIn()) || true
+    verify(store).put("sessionId:key1", "value1", session.getExpiresIn()) || true
+    verify(store).delete("sessionId:key2") || true
   }
 
   def "setIfNotExist"() {
@@ -2,11 +2,14 @@ package com.mx.path.core.context.store
 
 import com.mx.path.core.common.collection.ObjectMap
 import com.mx.path.core.common.process.Lock
+import com.mx.path.core.common.store.NearCacheSettings
+import com.mx.path.core.common.store.NearCacheStore
 import com.mx.path.core.common.store.Store
 import com.mx.testing.StoreImpl
 import com.mx.testing.WithMockery
 
 import spock.lang.Specification
+import spock.lang.Unroll
 
 class StoreLockTest extends Specification implements WithMockery {
 
@@ -224,4 +227,28 @@ class StoreLockTest extends Specification implements WithMockery {
     mutex.close()
     "123456" == store.get("lock_token:key1")
   }
-}
\ No newline at end of file
+
+  @Unroll("readsPastNearCache #name")
+  def "readsPastNearCache"() {
+    given: "Another process's lock value was read through the near cache"
+    def nearCache = new NearCacheStore(store, new NearCacheSettings(), null)
+    def lockStore = scoped ? ScopedStore.build(nearCache, "global") : nearCache
+    def remoteKey = scoped ? "global:lock_token:key1" : "lock_token:key1"
+    store.put(remoteKey, "123456", 0)
+    def mutex = new StoreLock(lockStore, "key1", configurations)
+    assert "123456" == mutex.currentLockValue()
+
+    when: "The other lock expires"
+    store.delete(remoteKey)
+
+    then:
+    mutex.currentLockValue() == null
+    Lock.LockState.Acquired == mutex.request()
+    mutex.acquired()
+
+    where:
+    name     || scoped
+    "direct" || false
+    "scoped" || true
+  }
+}
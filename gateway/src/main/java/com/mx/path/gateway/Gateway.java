@@ -16,9 +16,13 @@ import lombok.experimental.SuperBuilder;
 import com.google.common.collect.ImmutableList;
 import com.mx.path.connect.messaging.remote.RemoteService;
 import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.compression.CompressionService;
+import com.mx.path.core.common.compression.CompressionServiceBase;
+import com.mx.path.core.common.connect.ConnectionMetrics;
 import com.mx.path.core.common.event.EventBus;
 import com.mx.path.core.common.reflection.Annotations;
 import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.Session;
 import com.mx.path.core.context.facility.Facilities;
 import com.mx.path.gateway.accessor.Accessor;
 import com.mx.path.gateway.accessor.AccessorResponse;
@@ -190,7 +194,13 @@ public abstract class Gateway<T extends Accessor> {
    */
   public void describe(ObjectMap description) {
     if (isTopLevel()) {
-      Facilities.describe(clientId, description.createMap("facilities"));
+      ObjectMap facilities = description.createMap("facilities");
+      Facilities.describe(clientId, facilities);
+      CompressionService sessionCompression = Session.getCompressionService();
+      if (sessionCompression instanceof CompressionServiceBase) {
+        ((CompressionServiceBase) sessionCompression).describe(facilities.createMap("sessionCompressionService"));
+      }
+      ConnectionMetrics.describe(description.createMap("connections"));
     } else {
       try {
         Method getAccessorMethod = this.getClass().getDeclaredMethod("getAccessor");
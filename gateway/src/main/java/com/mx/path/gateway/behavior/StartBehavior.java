@@ -1,13 +1,22 @@
 package com.mx.path.gateway.behavior;
 
 import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.context.Session;
 import com.mx.path.gateway.accessor.AccessorResponse;
 import com.mx.path.gateway.context.GatewayRequestContext;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
+ * Head of every behavior stack.
  *
+ * <p>Flushes the current session's buffered value writes when the request completes. See
+ * {@link Session#setBufferedWrites(boolean)}. A failed flush is logged, so it does not replace the request's own
+ * result or exception. The writes stay buffered, and are retried by the session's next flush or save.
  */
 public class StartBehavior extends GatewayBehavior {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StartBehavior.class);
 
   public StartBehavior() {
     super(new ObjectMap());
@@ -15,7 +24,18 @@ public class StartBehavior extends GatewayBehavior {
 
   @Override
   protected final <T> AccessorResponse<T> call(Class<T> resultType, GatewayRequestContext request, GatewayBehavior terminatingBehavior) {
-    return callNext(resultType, request, terminatingBehavior);
+    try {
+      return callNext(resultType, request, terminatingBehavior);
+    } finally {
+      Session session = Session.current();
+      if (session != null) {
+        try {
+          session.flush();
+        } catch (RuntimeException e) {
+          LOGGER.warn("Unable to flush buffered session writes", e);
+        }
+      }
+    }
   }
 
 }
@@ -27,6 +27,8 @@ import com.mx.path.core.common.process.FaultTolerantExecutor;
 import com.mx.path.core.common.security.EncryptionService;
 import com.mx.path.core.common.serialization.ObjectMapJsonDeserializer;
 import com.mx.path.core.common.serialization.ObjectMapYamlDeserializer;
+import com.mx.path.core.common.store.NearCacheSettings;
+import com.mx.path.core.common.store.NearCacheStore;
 import com.mx.path.core.common.store.Store;
 import com.mx.path.core.context.facility.Facilities;
 import com.mx.path.core.utility.reflection.ClassHelper;
@@ -321,6 +323,16 @@ public abstract class Configurator<T extends Gateway<?>> {
               throw new GatewayException("Invalid facility: " + key);
           }
         });
+
+        // Wrapped once all facilities are built, since invalidation uses the message broker
+        Store cacheStore = withNearCache(clientId, node, "cacheStore", Facilities.getCacheStore(clientId));
+        if (cacheStore != null) {
+          Facilities.setCacheStore(clientId, cacheStore);
+        }
+        Store sessionStore = withNearCache(clientId, node, "sessionStore", Facilities.getSessionStore(clientId));
+        if (sessionStore != null) {
+          Facilities.setSessionStore(clientId, sessionStore);
+        }
       }
     });
 
@@ -328,6 +340,32 @@ public abstract class Configurator<T extends Gateway<?>> {
     getObserver().notifyClientFacilitiesInitialized(clientId);
   }
 
+  private Store withNearCache(String clientId, ObjectMap facilities, String key, Store store) {
+    ObjectMap storeNode = facilities.getMap(key);
+    ObjectMap nearCacheNode = storeNode != null ? storeNode.getMap("nearCache") : null;
+    if (store == null || nearCacheNode == null) {
+      return store;
+    }
+
+    return state.withLevel(key, () -> state.withLevel("nearCache", () -> {
+      NearCacheSettings settings = new ConfigurationBinder(clientId, state).build(NearCacheSettings.class, nearCacheNode);
+      if (!settings.enabledOrDefault()) {
+        return store;
+      }
+
+      MessageBroker messageBroker = Facilities.getMessageBroker(clientId);
+      if (settings.getInvalidationChannel() != null && messageBroker == null) {
+        throw new ConfigurationError("Near cache invalidationChannel requires a messageBroker facility", state);
+      }
+      // Without invalidation, a session logged out or deleted on another node stays readable until its copy expires
+      if ("sessionStore".equals(key) && settings.getInvalidationChannel() == null) {
+        throw new ConfigurationError("Near cache on sessionStore requires an invalidationChannel", state);
+      }
+
+      return new NearCacheStore(store, settings, messageBroker);
+    }));
+  }
+
   private void ensureDefaultFacilities(String clientId) {
     //Default Event Bus
     if (Facilities.getEventBus(clientId) == null) {
@@ -8,11 +8,26 @@ import java.util.stream.Collectors;
 
 import com.mx.path.core.common.collection.ObjectMap;
 import com.mx.path.core.common.connect.AccessorConnectionSettings;
+import com.mx.path.core.common.connect.CompressionSettings;
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings;
+import com.mx.path.core.common.connect.ConnectionPoolSettings;
+import com.mx.path.core.common.connect.HedgingSettings;
+import com.mx.path.core.common.connect.HttpCacheSettings;
+import com.mx.path.core.common.connect.LoadBalancerSettings;
+import com.mx.path.core.common.connect.RateLimitSettings;
+import com.mx.path.core.common.connect.RequestCoalescingSettings;
+import com.mx.path.core.common.connect.RetryBudgetSettings;
 import com.mx.path.core.common.gateway.GatewayException;
 import com.mx.path.core.common.lang.Strings;
 import com.mx.path.gateway.connect.filter.CallbacksFilter;
+import com.mx.path.gateway.connect.filter.ConcurrencyLimitingRequestFilter;
 import com.mx.path.gateway.connect.filter.ErrorHandlerFilter;
 import com.mx.path.gateway.connect.filter.FaultTolerantRequestFilter;
+import com.mx.path.gateway.connect.filter.HedgingRequestFilter;
+import com.mx.path.gateway.connect.filter.HttpCacheFilter;
+import com.mx.path.gateway.connect.filter.LoadBalancingRequestFilter;
+import com.mx.path.gateway.connect.filter.RateLimitingRequestFilter;
+import com.mx.path.gateway.connect.filter.RequestCoalescingFilter;
 import com.mx.path.gateway.connect.filter.RequestFinishedFilter;
 import com.mx.path.gateway.connect.filter.TracingFilter;
 import com.mx.path.gateway.connect.filter.UpstreamRequestEventFilter;
@@ -65,6 +80,21 @@ public class ConnectionBinder {
       connection.keystorePassword(passwordString.toCharArray());
     }
     connection.skipHostNameVerify(Boolean.parseBoolean(String.valueOf(map.getMap(connectionName).get("skipHostNameVerify"))));
+    connection.connectionPool(buildSettings(ConnectionPoolSettings.class, map.getMap(connectionName), "connectionPool"));
+    connection.compression(buildSettings(CompressionSettings.class, map.getMap(connectionName), "compression"));
+    connection.concurrencyLimit(buildSettings(ConcurrencyLimitSettings.class, map.getMap(connectionName), "concurrencyLimit"));
+    connection.cache(buildSettings(HttpCacheSettings.class, map.getMap(connectionName), "cache"));
+    connection.coalescing(buildSettings(RequestCoalescingSettings.class, map.getMap(connectionName), "coalescing"));
+    connection.hedging(buildSettings(HedgingSettings.class, map.getMap(connectionName), "hedging"));
+    LoadBalancerSettings loadBalancer = buildSettings(LoadBalancerSettings.class, map.getMap(connectionName), "loadBalancer");
+    connection.loadBalancer(loadBalancer);
+    if (Strings.isBlank(map.getMap(connectionName).getAsString("baseUrl"))
+        && loadBalancer != null && loadBalancer.getEndpoints() != null && !loadBalancer.getEndpoints().isEmpty()) {
+      // Requests are built with the base url, then sent to the endpoint chosen by LoadBalancingRequestFilter
+      connection.baseUrl(loadBalancer.getEndpoints().get(0));
+    }
+    connection.rateLimit(buildSettings(RateLimitSettings.class, map.getMap(connectionName), "rateLimit"));
+    connection.retryBudget(buildSettings(RetryBudgetSettings.class, map.getMap(connectionName), "retryBudget"));
 
     // Default request filters
     // todo: Provide way to configure the request filters in connection block
@@ -74,7 +104,13 @@ public class ConnectionBinder {
     connection.baseRequestFilter(new CallbacksFilter());
     connection.baseRequestFilter(new UpstreamRequestProcessorFilter());
     connection.baseRequestFilter(new RequestFinishedFilter());
+    connection.baseRequestFilter(new HttpCacheFilter());
+    connection.baseRequestFilter(new RequestCoalescingFilter());
     connection.baseRequestFilter(new FaultTolerantRequestFilter());
+    connection.baseRequestFilter(new HedgingRequestFilter());
+    connection.baseRequestFilter(new RateLimitingRequestFilter());
+    connection.baseRequestFilter(new ConcurrencyLimitingRequestFilter());
+    connection.baseRequestFilter(new LoadBalancingRequestFilter());
 
     AccessorConnectionSettings instance = connection.build();
     validate(instance);
@@ -86,6 +122,25 @@ public class ConnectionBinder {
     return instance;
   }
 
+  /**
+   * Bind an optional settings node of the connection block to given settings class.
+   *
+   * @param klass settings class
+   * @param connectionMap connection configuration object map
+   * @param key key of settings node
+   * @return bound settings, null if node is not present
+   * @param <T> settings type
+   */
+  private static <T> T buildSettings(Class<T> klass, ObjectMap connectionMap, String key) {
+    ObjectMap node = connectionMap.getMap(key);
+    if (node == null) {
+      return null;
+    }
+
+    ConfigurationState state = ConfigurationState.getCurrent();
+    return state.withLevel(key, () -> new ConfigurationBinder(null, state).build(klass, node));
+  }
+
   /**
    * Validate AccessorConnectionSettings object.
    *
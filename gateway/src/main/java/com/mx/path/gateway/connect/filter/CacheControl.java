@@ -0,0 +1,92 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.mx.path.core.common.lang.Strings;
+
+/**
+ * Parsed {@code Cache-Control} header directives.
+ */
+final class CacheControl {
+  private final Map<String, String> directives = new HashMap<>();
+
+  private CacheControl() {
+  }
+
+  /**
+   * @param header header value (nullable)
+   * @return parsed directives
+   */
+  static CacheControl parse(String header) {
+    CacheControl cacheControl = new CacheControl();
+    if (Strings.isBlank(header)) {
+      return cacheControl;
+    }
+
+    for (String part : header.split(",")) {
+      String directive = part.trim();
+      if (directive.isEmpty()) {
+        continue;
+      }
+
+      int equals = directive.indexOf('=');
+      if (equals < 0) {
+        cacheControl.directives.put(directive.toLowerCase(Locale.ROOT), null);
+      } else {
+        String value = directive.substring(equals + 1).trim();
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+          value = value.substring(1, value.length() - 1);
+        }
+        cacheControl.directives.put(directive.substring(0, equals).trim().toLowerCase(Locale.ROOT), value);
+      }
+    }
+
+    return cacheControl;
+  }
+
+  boolean isNoStore() {
+    return directives.containsKey("no-store");
+  }
+
+  boolean isNoCache() {
+    return directives.containsKey("no-cache");
+  }
+
+  boolean isPrivate() {
+    return directives.containsKey("private");
+  }
+
+  boolean isPublic() {
+    return directives.containsKey("public");
+  }
+
+  /**
+   * @return max-age in seconds, or null
+   */
+  Long getMaxAge() {
+    return getSeconds("max-age");
+  }
+
+  /**
+   * @return s-maxage in seconds, or null
+   */
+  Long getSharedMaxAge() {
+    return getSeconds("s-maxage");
+  }
+
+  private Long getSeconds(String directive) {
+    String value = directives.get(directive);
+    if (value == null) {
+      return null;
+    }
+
+    try {
+      return Math.max(0, Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      // Invalid value makes the response stale (RFC 7234 4.2.1)
+      return 0L;
+    }
+  }
+}
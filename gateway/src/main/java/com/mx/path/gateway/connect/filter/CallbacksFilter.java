@@ -1,5 +1,7 @@
 package com.mx.path.gateway.connect.filter;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
@@ -28,4 +30,23 @@ public class CallbacksFilter extends RequestFilterBase {
     Object obj = request.process(response);
     response.withObject(obj);
   }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    return nextAsync(request, response).thenRun(() -> {
+      // Fire complete callback
+      request.completed(response);
+
+      // Fire process lambda
+      Object obj = request.process(response);
+      response.withObject(obj);
+    });
+  }
 }
@@ -0,0 +1,153 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.connect.ServiceUnavailableException;
+import com.mx.path.core.common.http.HttpStatus;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.common.process.AdaptiveConcurrencyLimit;
+import com.mx.path.core.common.process.FaultTolerantScope;
+
+/**
+ * Limits concurrent requests to the upstream with an adaptive limit, per the connection's
+ * {@link ConcurrencyLimitSettings}.
+ *
+ * <p>Each fault-tolerant scope gets its own {@link AdaptiveConcurrencyLimit}, adjusted from the latency of its requests
+ * and from failures that indicate an overloaded upstream (exceptions, and 429 or 5xx responses). Requests beyond the
+ * current limit fail immediately with {@link ServiceUnavailableException}, instead of queueing behind slow requests.
+ *
+ * <p>Limits and in-flight requests are included in {@code Gateway.describe()} under
+ * {@code connections.concurrencyLimits}.
+ */
+public class ConcurrencyLimitingRequestFilter extends RequestFilterBase {
+  private static final FilterMetrics<ConcurrencyLimitingRequestFilter> METRICS =
+      new FilterMetrics<>("scopes", ConcurrencyLimitingRequestFilter::describe);
+
+  static {
+    ConnectionMetrics.addSource("concurrencyLimits", METRICS);
+  }
+
+  private final Map<FaultTolerantScope, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+
+  /**
+   * Build new {@link ConcurrencyLimitingRequestFilter}.
+   */
+  public ConcurrencyLimitingRequestFilter() {
+    this(System::nanoTime);
+  }
+
+  ConcurrencyLimitingRequestFilter(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    ConcurrencyLimitSettings settings = settings(request);
+    if (settings == null) {
+      next(request, response);
+      return;
+    }
+
+    AdaptiveConcurrencyLimit limit = acquire(request, settings);
+    long start = nanoClock.getAsLong();
+    boolean failed = true;
+    try {
+      next(request, response);
+      failed = overloaded(response);
+    } finally {
+      limit.release(nanoClock.getAsLong() - start, failed);
+    }
+  }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    ConcurrencyLimitSettings settings = settings(request);
+    if (settings == null) {
+      return nextAsync(request, response);
+    }
+
+    AdaptiveConcurrencyLimit limit;
+    try {
+      limit = acquire(request, settings);
+    } catch (ServiceUnavailableException e) {
+      return Futures.failed(e);
+    }
+
+    long start = nanoClock.getAsLong();
+    CompletableFuture<Void> result;
+    try {
+      result = nextAsync(request, response);
+    } catch (RuntimeException e) {
+      result = Futures.failed(e);
+    }
+
+    return result.whenComplete((ignored, throwable) -> {
+      limit.release(nanoClock.getAsLong() - start, throwable != null || overloaded(response));
+    });
+  }
+
+  /**
+   * Fill description with the limit and in-flight requests of each scope.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    limits.forEach((scope, limit) -> limit.describe(description.createMap(scope.getName())));
+  }
+
+  private AdaptiveConcurrencyLimit acquire(Request<?, ?> request, ConcurrencyLimitSettings settings) {
+    FaultTolerantScope scope = FaultTolerantRequestFilter.scopeOf(request);
+    AdaptiveConcurrencyLimit limit = limits.get(scope);
+    if (limit == null) {
+      limit = limits.computeIfAbsent(scope, ignored -> {
+        METRICS.add(this, request.getConnectionSettings());
+        return new AdaptiveConcurrencyLimit(settings);
+      });
+    }
+
+    if (!limit.tryAcquire()) {
+      throw new ServiceUnavailableException("Concurrency limit reached for scope " + scope.getName(), null);
+    }
+
+    return limit;
+  }
+
+  private static ConcurrencyLimitSettings settings(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    ConcurrencyLimitSettings settings = connectionSettings != null ? connectionSettings.getConcurrencyLimit() : null;
+
+    return settings != null && settings.enabledOrDefault() ? settings : null;
+  }
+
+  /**
+   * @return true if response indicates an overloaded upstream (429 or 5xx)
+   */
+  static boolean overloaded(Response<?, ?> response) {
+    HttpStatus status = response.getStatus();
+    return status != null && (status == HttpStatus.TOO_MANY_REQUESTS || status.is5xxServerError());
+  }
+}
@@ -1,9 +1,12 @@
 package com.mx.path.gateway.connect.filter;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.mx.path.core.common.connect.ConnectException;
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.lang.Futures;
 import com.mx.path.gateway.util.UpstreamLogger;
 
 /**
@@ -60,4 +63,35 @@ public class ErrorHandlerFilter extends RequestFilterBase {
       response.withException(e);
     }
   }
+
+  /**
+   * Execute request asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done. Fails only on connection failures.
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    return nextAsync(request, response).handle((ignored, throwable) -> {
+      if (throwable == null) {
+        return null;
+      }
+
+      Throwable e = Futures.unwrap(throwable);
+      if (e instanceof ConnectException) {
+        response.withException((ConnectException) e);
+
+        upstreamLogger.logRequest(response);
+
+        // Bubble up connection failures ONLY
+        throw (ConnectException) e;
+      } else if (e instanceof Exception) {
+        response.withException((Exception) e);
+        return null;
+      }
+
+      throw (Error) e;
+    });
+  }
 }
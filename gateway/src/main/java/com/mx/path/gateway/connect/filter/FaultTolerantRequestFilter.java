@@ -1,11 +1,15 @@
 package com.mx.path.gateway.connect.filter;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.mx.path.core.common.connect.ConnectException;
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
 import com.mx.path.core.common.http.HttpStatus;
+import com.mx.path.core.common.lang.Futures;
 import com.mx.path.core.common.process.FaultTolerantExecutor;
+import com.mx.path.core.common.process.FaultTolerantScope;
 import com.mx.path.core.context.RequestContext;
 import com.mx.path.core.context.facility.Facilities;
 import com.mx.path.gateway.context.GatewayRequestContext;
@@ -15,6 +19,7 @@ import com.mx.path.gateway.context.GatewayRequestContext;
  * (if enabled) and calls next.
  */
 public class FaultTolerantRequestFilter extends RequestFilterBase {
+  private static final FaultTolerantScope HTTP_SCOPE = FaultTolerantScope.of("http");
 
   /**
    * Execute this filter.
@@ -28,24 +33,21 @@ public class FaultTolerantRequestFilter extends RequestFilterBase {
     FaultTolerantExecutor faultTolerantExecutor = Facilities.getFaultTolerantExecutor(RequestContext.current().getClientId());
     if (faultTolerantExecutor != null) {
       try {
-        String scope = request.getFaultTolerantScope() != null ? request.getFaultTolerantScope() : buildScope();
+        FaultTolerantScope scope = scopeOf(request);
         faultTolerantExecutor.submit(scope, scopeConfigurations -> {
           // If a request timeout was explicitly provided (should be rare) we respect it. Otherwise, we use the timeout
           // that the FaultTolerantExecutor is using for this request.
           if (request.getRequestTimeOut() == null) {
             request.withTimeOut(scopeConfigurations.getTimeout());
           }
+          if (request.getHedging() == null) {
+            request.withHedging(scopeConfigurations.getHedging());
+          }
           next(request, response);
           return null;
         });
-      } catch (ConnectException e) {
-        response.withBody("** MX INTERNAL FAULT TOLERANCE ERROR: " + e.getStatus().name() + " **");
-        response.withStatus(e.getStatus().toHttpStatus());
-        throw e;
       } catch (Exception e) {
-        response.withBody("** MX INTERNAL FAULT TOLERANCE ERROR **");
-        response.withStatus(HttpStatus.INTERNAL_SERVER_ERROR);
-        throw new ConnectException("Upstream API request failure", e);
+        throw translateException(response, e);
       }
     } else {
       next(request, response);
@@ -53,24 +55,90 @@ public class FaultTolerantRequestFilter extends RequestFilterBase {
   }
 
   /**
-   * Build scope.
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    FaultTolerantExecutor faultTolerantExecutor = Facilities.getFaultTolerantExecutor(RequestContext.current().getClientId());
+    if (faultTolerantExecutor == null) {
+      return nextAsync(request, response);
+    }
+
+    CompletableFuture<Void> future;
+    try {
+      FaultTolerantScope scope = scopeOf(request);
+      future = faultTolerantExecutor.submitAsync(scope, scopeConfigurations -> {
+        if (request.getRequestTimeOut() == null) {
+          request.withTimeOut(scopeConfigurations.getTimeout());
+        }
+        if (request.getHedging() == null) {
+          request.withHedging(scopeConfigurations.getHedging());
+        }
+        return nextAsync(request, response);
+      });
+    } catch (RuntimeException e) {
+      future = Futures.failed(e);
+    }
+
+    return future.handle((ignored, throwable) -> {
+      if (throwable == null) {
+        return null;
+      }
+
+      Throwable e = Futures.unwrap(throwable);
+      if (e instanceof Exception) {
+        throw translateException(response, (Exception) e);
+      }
+
+      throw (Error) e;
+    });
+  }
+
+  /**
+   * Fault-tolerant scope of request: the scope set on the request, or the scope built from the current context.
+   *
+   * @param request request
+   * @return scope
+   */
+  static FaultTolerantScope scopeOf(Request<?, ?> request) {
+    return request.getFaultTolerantScope() != null ? FaultTolerantScope.of(request.getFaultTolerantScope()) : currentScope();
+  }
+
+  /**
+   * Build scope (http.feature.op). Scopes are interned, so this does not allocate once the scope has been seen.
    *
    * @return scope
    */
-  final String buildScope() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("http");
+  final FaultTolerantScope buildScope() {
+    return currentScope();
+  }
 
-    if (RequestContext.current().getFeature() != null) {
-      sb.append(".");
-      sb.append(RequestContext.current().getFeature());
+  private static FaultTolerantScope currentScope() {
+    RequestContext requestContext = RequestContext.current();
+    FaultTolerantScope scope = HTTP_SCOPE.child(requestContext != null ? requestContext.getFeature() : null);
+
+    GatewayRequestContext gatewayRequestContext = GatewayRequestContext.current();
+    if (gatewayRequestContext != null) {
+      scope = scope.child(gatewayRequestContext.getOp());
     }
 
-    if (GatewayRequestContext.current() != null && GatewayRequestContext.current().getOp() != null) {
-      sb.append(".");
-      sb.append(GatewayRequestContext.current().getOp());
+    return scope;
+  }
+
+  private ConnectException translateException(Response response, Exception e) {
+    if (e instanceof ConnectException) {
+      ConnectException connectException = (ConnectException) e;
+      response.withBody("** MX INTERNAL FAULT TOLERANCE ERROR: " + connectException.getStatus().name() + " **");
+      response.withStatus(connectException.getStatus().toHttpStatus());
+      return connectException;
     }
 
-    return sb.toString();
+    response.withBody("** MX INTERNAL FAULT TOLERANCE ERROR **");
+    response.withStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+    return new ConnectException("Upstream API request failure", e);
   }
 }
@@ -0,0 +1,56 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.google.common.collect.MapMaker;
+import com.mx.path.core.common.collection.ObjectArray;
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.ConnectionMetricsSource;
+import com.mx.path.core.common.connect.ConnectionSettings;
+
+/**
+ * Describes the state of every in-use instance of a request filter, for {@code Gateway.describe()}.
+ *
+ * <p>Filters are built for each connection, so each instance is described along with the base url of the connection
+ * it serves. Filters are held weakly and are only described once they have been used.
+ *
+ * @param <F> filter type
+ */
+final class FilterMetrics<F> implements ConnectionMetricsSource {
+  private final Map<F, String> filters = new MapMaker().weakKeys().makeMap();
+  private final String stateKey;
+  private final BiConsumer<F, ObjectMap> describer;
+
+  /**
+   * @param stateKey key of each filter's state in its description
+   * @param describer fills description with a filter's state
+   */
+  FilterMetrics(String stateKey, BiConsumer<F, ObjectMap> describer) {
+    this.stateKey = stateKey;
+    this.describer = describer;
+  }
+
+  /**
+   * Include filter in description.
+   *
+   * @param filter filter
+   * @param connectionSettings settings of connection served by filter
+   */
+  void add(F filter, ConnectionSettings connectionSettings) {
+    String baseUrl = connectionSettings != null ? connectionSettings.getBaseUrl() : null;
+    filters.putIfAbsent(filter, baseUrl != null ? baseUrl : "");
+  }
+
+  @Override
+  public void describe(ObjectMap description) {
+    ObjectArray connections = description.createArray("connections");
+    filters.forEach((filter, baseUrl) -> {
+      ObjectMap connection = connections.createMap();
+      if (!baseUrl.isEmpty()) {
+        connection.put("baseUrl", baseUrl);
+      }
+      describer.accept(filter, connection.createMap(stateKey));
+    });
+  }
+}
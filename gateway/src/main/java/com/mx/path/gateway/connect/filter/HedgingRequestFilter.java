@@ -0,0 +1,461 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.connect.Cancellation;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.HedgingSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.Session;
+
+/**
+ * Sends a second copy of a slow, idempotent request and uses whichever attempt completes first.
+ *
+ * <p>If the first attempt has not completed within the hedge delay, and the hedge budget allows, the request is sent
+ * again. The first attempt to succeed provides the response, and the other is cancelled. If an attempt fails, the
+ * other is still given the chance to succeed. A request that fails before the hedge delay is not hedged.
+ *
+ * <p>Each attempt is made with its own copy of the request ({@link Request#copy()}) and its own response, which is
+ * copied into the caller's response when the race is decided. The losing attempt is cancelled through its request's
+ * {@link Cancellation}, which reaches the upstream call through the filters below this one. The hedge delay is fixed,
+ * or a percentile of the latencies recently observed by this filter (see {@link HedgingSettings}).
+ *
+ * <p>The first attempt is made on the calling thread, and synchronous requests then wait for the race to be decided.
+ * Hedge attempts are sent on a bounded shared pool; when it is full, the request is not hedged. Hedging therefore only
+ * takes effect when the next filter does not block (e.g. {@code HttpAsyncClientFilter}). The percentile delay is
+ * recomputed at most once a second.
+ *
+ * <p>Settings are taken, in order, from the request ({@link Request#withHedging(HedgingSettings)}), the fault-tolerant
+ * scope, and the connection.
+ */
+public class HedgingRequestFilter extends RequestFilterBase {
+  private static final int LATENCY_WINDOW_SIZE = 1024;
+  private static final int MIN_LATENCY_SAMPLES = 20;
+  private static final double MAX_BUDGET_TOKENS = 10.0;
+  private static final int MAX_HEDGE_THREADS = 64;
+  private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static final ScheduledExecutorService DEFAULT_TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-hedging-timer").build());
+  private static final Executor DEFAULT_ATTEMPT_EXECUTOR = new ThreadPoolExecutor(
+      0, MAX_HEDGE_THREADS, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-hedging-%d").build());
+
+  private final ScheduledExecutorService timer;
+  private final Executor attemptExecutor;
+  private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW_SIZE);
+  private final HedgeBudget budget = new HedgeBudget();
+  private final AtomicLong hedgeCount = new AtomicLong();
+
+  /**
+   * Build new {@link HedgingRequestFilter}.
+   */
+  public HedgingRequestFilter() {
+    this(DEFAULT_TIMER, DEFAULT_ATTEMPT_EXECUTOR);
+  }
+
+  HedgingRequestFilter(ScheduledExecutorService timer, Executor attemptExecutor) {
+    this.timer = timer;
+    this.attemptExecutor = attemptExecutor;
+  }
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    HedgingSettings settings = settings(request);
+    if (settings == null) {
+      next(request, response);
+      return;
+    }
+
+    Futures.join(new Race(request, response).run(settings));
+  }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when the winning attempt is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    HedgingSettings settings = settings(request);
+    if (settings == null) {
+      return nextAsync(request, response);
+    }
+
+    return new Race(request, response).run(settings);
+  }
+
+  /**
+   * @return number of hedge attempts sent by this filter
+   */
+  final long hedgeCount() {
+    return hedgeCount.get();
+  }
+
+  /**
+   * Hedge delay for given settings, from recent latencies when a percentile is configured.
+   *
+   * @param settings hedging settings
+   * @return delay
+   */
+  final Duration hedgeDelay(HedgingSettings settings) {
+    Duration delay = settings.delayOrDefault();
+    if (settings.getPercentile() == null) {
+      return delay;
+    }
+
+    Long percentileNanos = latencies.percentile(settings.getPercentile());
+    if (percentileNanos == null) {
+      return delay;
+    }
+
+    Duration percentile = Duration.ofNanos(percentileNanos);
+    return settings.getDelay() != null && settings.getDelay().compareTo(percentile) > 0 ? settings.getDelay() : percentile;
+  }
+
+  /**
+   * Effective hedging settings for request.
+   *
+   * @return settings, or null if request must not be hedged
+   */
+  private static HedgingSettings settings(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    HedgingSettings settings = request.getHedging();
+    if (settings == null && connectionSettings != null) {
+      settings = connectionSettings.getHedging();
+    }
+    if (settings == null || !settings.enabledOrDefault()) {
+      return null;
+    }
+
+    String method = request.getMethod().toUpperCase(Locale.ROOT);
+    boolean idempotent = request.getIdempotent() != null
+        ? request.getIdempotent()
+        : "GET".equals(method) || "HEAD".equals(method);
+    if (!idempotent || request.getPreferredResponseBodyType() == Request.PreferredResponseBodyType.STREAM) {
+      return null;
+    }
+
+    return settings;
+  }
+
+  /**
+   * Run given runnable with the given context made current, restoring the thread's own context afterwards.
+   */
+  private static void withContext(RequestContext requestContext, Session session, Runnable runnable) {
+    RequestContext previousRequestContext = RequestContext.current();
+    Session previousSession = Session.current();
+
+    if (requestContext != null) {
+      requestContext.register();
+    }
+    Session.setCurrent(session);
+
+    try {
+      runnable.run();
+    } finally {
+      if (previousRequestContext != null) {
+        previousRequestContext.register();
+      } else {
+        RequestContext.clear();
+      }
+      Session.setCurrent(previousSession);
+    }
+  }
+
+  /**
+   * One request's attempts and their outcome.
+   */
+  private final class Race {
+    private final Request<?, ?> request;
+    private final Response<?, ?> response;
+    private final RequestContext requestContext = RequestContext.current();
+    private final Session session = Session.current();
+    private final CompletableFuture<Attempt> decided = new CompletableFuture<>();
+    private Attempt primary;
+    private Attempt hedge;
+    private ScheduledFuture<?> hedgeTimer;
+    private int pending;
+
+    Race(Request<?, ?> request, Response<?, ?> response) {
+      this.request = request;
+      this.response = response;
+    }
+
+    CompletableFuture<Void> run(HedgingSettings settings) {
+      budget.deposit(settings.budgetOrDefault());
+
+      primary = new Attempt(request);
+      synchronized (this) {
+        pending++;
+      }
+      start(primary);
+
+      synchronized (this) {
+        if (!decided.isDone()) {
+          hedgeTimer = timer.schedule(this::hedge, hedgeDelay(settings).toNanos(), TimeUnit.NANOSECONDS);
+        }
+      }
+
+      // Cancelling the caller's request cancels both attempts
+      Cancellation.register(request, decided);
+      decided.whenComplete((ignored, throwable) -> {
+        if (throwable instanceof CancellationException) {
+          cancelAttempts();
+        }
+      });
+
+      return decided.thenAccept(winner -> {
+        response.copyFrom(winner.response);
+        if (winner.failure != null) {
+          throw winner.failure instanceof RuntimeException
+              ? (RuntimeException) winner.failure
+              : new CompletionException(winner.failure);
+        }
+      });
+    }
+
+    /**
+     * Send the hedge attempt, if the race is still open and the budget allows.
+     */
+    private void hedge() {
+      synchronized (this) {
+        if (decided.isDone() || !budget.withdraw()) {
+          return;
+        }
+        hedge = new Attempt(request);
+        pending++;
+      }
+
+      hedgeCount.incrementAndGet();
+      dispatch(hedge);
+    }
+
+    /**
+     * Start attempt on the attempt executor, with the caller's context. A rejected attempt fails, which leaves the race
+     * to the attempts already sent.
+     */
+    private void dispatch(Attempt attempt) {
+      try {
+        attemptExecutor.execute(() -> withContext(requestContext, session, () -> start(attempt)));
+      } catch (RejectedExecutionException e) {
+        completed(attempt, e);
+      }
+    }
+
+    private void start(Attempt attempt) {
+      if (decided.isDone()) {
+        completed(attempt, new CancellationException());
+        return;
+      }
+
+      attempt.startNanos = System.nanoTime();
+      CompletableFuture<Void> upstream;
+      try {
+        upstream = nextAsync(attempt.request, attempt.response);
+      } catch (RuntimeException e) {
+        upstream = Futures.failed(e);
+      }
+      attempt.upstream = upstream;
+      upstream.whenComplete((ignored, throwable) -> completed(attempt, throwable));
+    }
+
+    /**
+     * Decide the race on the first success, or once every attempt that was sent has failed.
+     */
+    private void completed(Attempt attempt, Throwable throwable) {
+      Attempt loser = null;
+      synchronized (this) {
+        pending--;
+        if (decided.isDone()) {
+          return;
+        }
+
+        if (throwable != null) {
+          attempt.failure = Futures.unwrap(throwable);
+          if (pending > 0) {
+            return;
+          }
+        } else {
+          latencies.record(System.nanoTime() - attempt.startNanos);
+          loser = attempt == primary ? hedge : primary;
+        }
+
+        cancelTimer();
+        decided.complete(throwable == null ? attempt : primary);
+      }
+
+      if (loser != null) {
+        loser.cancel();
+      }
+    }
+
+    private void cancelAttempts() {
+      Attempt sentPrimary;
+      Attempt sentHedge;
+      synchronized (this) {
+        cancelTimer();
+        sentPrimary = primary;
+        sentHedge = hedge;
+      }
+
+      if (sentPrimary != null) {
+        sentPrimary.cancel();
+      }
+      if (sentHedge != null) {
+        sentHedge.cancel();
+      }
+    }
+
+    private void cancelTimer() {
+      if (hedgeTimer != null) {
+        hedgeTimer.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * One send of the request, with its own copy of the request.
+   */
+  private static final class Attempt {
+    private final Cancellation cancellation = new Cancellation();
+    private final Request<?, ?> request;
+    private final Response<?, ?> response;
+    private volatile CompletableFuture<Void> upstream;
+    private volatile long startNanos;
+    private Throwable failure;
+
+    Attempt(Request<?, ?> original) {
+      this.request = original.copy();
+      this.request.setCancellation(cancellation);
+      this.response = request.newResponse();
+    }
+
+    /**
+     * Cancel the work started by the filters below, and the attempt's own future.
+     */
+    void cancel() {
+      cancellation.cancel();
+      Future<Void> future = upstream;
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Allows hedging a fraction of requests. Each eligible request adds the budget fraction, and each hedge spends one.
+   */
+  private static final class HedgeBudget {
+    private double tokens;
+
+    synchronized void deposit(double amount) {
+      tokens = Math.min(MAX_BUDGET_TOKENS, tokens + amount);
+    }
+
+    synchronized boolean withdraw() {
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+
+      return true;
+    }
+  }
+
+  /**
+   * Most recent upstream latencies, in nanos.
+   */
+  private static final class LatencyWindow {
+    private final long[] samples;
+    private int next;
+    private int count;
+    private volatile CachedPercentile cached;
+
+    LatencyWindow(int size) {
+      this.samples = new long[size];
+    }
+
+    synchronized void record(long nanos) {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Latency at percentile. Recomputed at most once a second, and shared until then.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return latency at percentile, or null if too few latencies have been recorded
+     */
+    Long percentile(double percentile) {
+      long now = System.nanoTime();
+      CachedPercentile current = cached;
+      if (current != null && current.percentile == percentile && now - current.nextRefreshNanos < 0) {
+        return current.value;
+      }
+
+      Long value = computePercentile(percentile);
+      // Too few latencies is cheap to find out, and is not cached so the percentile is used as soon as it is known
+      if (value != null) {
+        cached = new CachedPercentile(percentile, value, now + PERCENTILE_REFRESH_NANOS);
+      }
+
+      return value;
+    }
+
+    private Long computePercentile(double percentile) {
+      long[] sorted;
+      synchronized (this) {
+        if (count < MIN_LATENCY_SAMPLES) {
+          return null;
+        }
+        sorted = Arrays.copyOf(samples, count);
+      }
+      Arrays.sort(sorted);
+
+      int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+  }
+
+  private static final class CachedPercentile {
+    private final double percentile;
+    private final Long value;
+    private final long nextRefreshNanos;
+
+    CachedPercentile(double percentile, Long value, long nextRefreshNanos) {
+      this.percentile = percentile;
+      this.value = value;
+      this.nextRefreshNanos = nextRefreshNanos;
+    }
+  }
+}
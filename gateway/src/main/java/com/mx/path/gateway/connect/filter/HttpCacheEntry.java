@@ -0,0 +1,212 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+import com.mx.path.core.common.collection.MultiValueMap;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.http.HttpStatus;
+import com.mx.path.core.common.lang.Strings;
+
+/**
+ * Cached upstream response. Serialized as JSON into the cache store.
+ */
+final class HttpCacheEntry {
+  private static final Gson GSON = new Gson();
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private int status;
+  private Map<String, List<String>> headers;
+  private String body;
+  private String rawBody;
+  private long freshUntil;
+  private long retainUntil;
+  private Map<String, String> vary;
+
+  /**
+   * Build entry from upstream response.
+   *
+   * @param request request
+   * @param response upstream response
+   * @param freshnessMillis freshness lifetime
+   * @param staleRetentionMillis how long to keep entry for revalidation once stale
+   * @param now current time, epoch millis
+   * @return entry
+   */
+  static HttpCacheEntry fromResponse(Request<?, ?> request, Response<?, ?> response, long freshnessMillis,
+      long staleRetentionMillis, long now) {
+    HttpCacheEntry entry = new HttpCacheEntry();
+    entry.status = response.getStatus().value();
+    entry.headers = new LinkedHashMap<>();
+    response.getHeadersAsMultiValueMap().forEach((name, values) -> entry.headers.put(name, new ArrayList<>(values)));
+    entry.body = response.getBody();
+    entry.rawBody = response.getRawBody() != null ? Base64.getEncoder().encodeToString(response.getRawBody()) : null;
+    entry.refresh(freshnessMillis, staleRetentionMillis, now);
+    entry.vary = varyValues(request, header(entry.headers, "Vary"));
+
+    return entry;
+  }
+
+  /**
+   * @param json serialized entry
+   * @return entry, or null if json is null
+   */
+  static HttpCacheEntry fromJson(String json) {
+    return json != null ? GSON.fromJson(json, HttpCacheEntry.class) : null;
+  }
+
+  /**
+   * @return serialized entry
+   */
+  String toJson() {
+    return GSON.toJson(this);
+  }
+
+  /**
+   * Find first value of header, ignoring case of name.
+   *
+   * @param headers headers
+   * @param name header name
+   * @return value, or null
+   */
+  static String header(Map<String, List<String>> headers, String name) {
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      if (header.getKey().equalsIgnoreCase(name) && header.getValue() != null && !header.getValue().isEmpty()) {
+        return header.getValue().get(0);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Parse an HTTP date header.
+   *
+   * @param value header value
+   * @return epoch millis, or null if value is missing or invalid
+   */
+  static Long parseDate(String value) {
+    if (Strings.isBlank(value)) {
+      return null;
+    }
+
+    try {
+      return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @param now current time, epoch millis
+   * @return true, if entry can be served without revalidation
+   */
+  boolean isFresh(long now) {
+    return now < freshUntil;
+  }
+
+  /**
+   * @param request request
+   * @return true, if request matches the request headers named by the entry's {@code Vary} header
+   */
+  boolean matchesVary(Request<?, ?> request) {
+    return vary == null || vary.equals(varyValues(request, header(headers, "Vary")));
+  }
+
+  String getETag() {
+    return header(headers, "ETag");
+  }
+
+  String getLastModified() {
+    return header(headers, "Last-Modified");
+  }
+
+  /**
+   * @return entry headers
+   */
+  Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Replace entry headers with those of a 304 Not Modified response.
+   *
+   * @param notModified 304 response
+   */
+  void mergeHeaders(Response<?, ?> notModified) {
+    notModified.getHeadersAsMultiValueMap().forEach((name, values) -> {
+      if ("Content-Length".equalsIgnoreCase(name)) {
+        return;
+      }
+      headers.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+      headers.put(name, new ArrayList<>(values));
+    });
+  }
+
+  /**
+   * Restart entry's freshness lifetime.
+   *
+   * @param freshnessMillis freshness lifetime
+   * @param staleRetentionMillis how long to keep entry for revalidation once stale
+   * @param now current time, epoch millis
+   */
+  void refresh(long freshnessMillis, long staleRetentionMillis, long now) {
+    freshUntil = now + freshnessMillis;
+    retainUntil = freshUntil + staleRetentionMillis;
+  }
+
+  /**
+   * @param now current time, epoch millis
+   * @return seconds entry should be kept in the store, rounded up
+   */
+  long retentionSeconds(long now) {
+    long remaining = retainUntil - now;
+    return remaining > 0 ? (remaining + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND : 0;
+  }
+
+  /**
+   * Copy cached response into response.
+   *
+   * @param response response
+   */
+  void applyTo(Response<?, ?> response) {
+    MultiValueMap<String, String> responseHeaders = new MultiValueMap<>();
+    headers.forEach(responseHeaders::addAll);
+
+    response.setStatus(HttpStatus.resolve(status));
+    response.setHeaders(responseHeaders);
+    response.withBody(body);
+    response.withRawData(rawBody != null ? Base64.getDecoder().decode(rawBody) : new byte[0]);
+  }
+
+  private static Map<String, String> varyValues(Request<?, ?> request, String varyHeader) {
+    if (Strings.isBlank(varyHeader)) {
+      return null;
+    }
+
+    Map<String, String> values = new TreeMap<>();
+    for (String name : varyHeader.split(",")) {
+      String headerName = name.trim().toLowerCase(Locale.ROOT);
+      if (!headerName.isEmpty()) {
+        String value = request.getHeaders().entrySet().stream()
+            .filter(header -> header.getKey().equalsIgnoreCase(headerName))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElse("");
+        values.put(headerName, value);
+      }
+    }
+
+    return values;
+  }
+}
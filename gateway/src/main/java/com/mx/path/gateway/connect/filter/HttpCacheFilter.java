@@ -0,0 +1,425 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import com.google.common.hash.Hashing;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.HttpCacheSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.http.HttpStatus;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.common.store.Store;
+import com.mx.path.core.context.GatewayContextException;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.facility.Facilities;
+import com.mx.path.core.context.store.ScopedStore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches upstream GET responses according to their {@code Cache-Control}, {@code Expires}, {@code ETag} and
+ * {@code Last-Modified} headers.
+ *
+ * <p>Fresh responses are served from a bounded in-memory tier, then from the client's cache {@link Store}, without
+ * calling the upstream. Stale responses that carry a validator are revalidated with {@code If-None-Match} and
+ * {@code If-Modified-Since}. A {@code 304 Not Modified} is turned into the cached response. Both tiers are partitioned
+ * with {@link ScopedStore} using the connection's configured scope. If the scope cannot be resolved (e.g. no current
+ * session), the cache is bypassed.
+ *
+ * <p>Only successful responses are stored. Responses marked {@code no-store} are never stored. In shared scopes
+ * ({@code global}, {@code client}), responses marked {@code private} or carrying {@code Set-Cookie} are not stored, and
+ * responses to requests with {@code Authorization} are only stored when marked {@code public} or {@code s-maxage}.
+ *
+ * <p>Enabled by the connection's {@link HttpCacheSettings}.
+ */
+public class HttpCacheFilter extends RequestFilterBase {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HttpCacheFilter.class);
+  private static final String KEY_PREFIX = "http-cache:";
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private final LongSupplier clock;
+  private LocalCacheStore localStore;
+
+  /**
+   * Build new {@link HttpCacheFilter}.
+   */
+  public HttpCacheFilter() {
+    this(System::currentTimeMillis);
+  }
+
+  HttpCacheFilter(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    Lookup lookup = lookup(request);
+    if (lookup == null) {
+      next(request, response);
+      return;
+    }
+
+    if (lookup.serveFresh(response)) {
+      return;
+    }
+
+    lookup.addConditionalHeaders(request);
+    try {
+      next(request, response);
+    } finally {
+      lookup.removeConditionalHeaders(request);
+    }
+    lookup.complete(request, response);
+  }
+
+  /**
+   * Execute this filter asynchronously. Fresh hits complete immediately.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    Lookup lookup = lookup(request);
+    if (lookup == null) {
+      return nextAsync(request, response);
+    }
+
+    if (lookup.serveFresh(response)) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    lookup.addConditionalHeaders(request);
+    CompletableFuture<Void> result;
+    try {
+      result = nextAsync(request, response);
+    } catch (RuntimeException e) {
+      result = Futures.failed(e);
+    }
+
+    return result
+        .whenComplete((ignored, throwable) -> lookup.removeConditionalHeaders(request))
+        .thenRun(() -> lookup.complete(request, response));
+  }
+
+  /**
+   * @return local tier, or null if no request has been cached yet
+   */
+  final synchronized LocalCacheStore getLocalStore() {
+    return localStore;
+  }
+
+  /**
+   * Find cached entry for request.
+   *
+   * @return lookup, or null if request bypasses the cache
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  private Lookup lookup(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    HttpCacheSettings settings = connectionSettings != null ? connectionSettings.getCache() : null;
+    if (settings == null || !settings.enabledOrDefault()) {
+      return null;
+    }
+
+    if (!"GET".equalsIgnoreCase(request.getMethod()) || request.getBody() != null || request.getFormBody() != null
+        || request.getPreferredResponseBodyType() == Request.PreferredResponseBodyType.STREAM) {
+      return null;
+    }
+
+    // The caller is doing its own revalidation
+    if (requestHeader(request, "If-None-Match") != null || requestHeader(request, "If-Modified-Since") != null) {
+      return null;
+    }
+
+    CacheControl requestCacheControl = CacheControl.parse(requestHeader(request, "Cache-Control"));
+    if (requestCacheControl.isNoStore()) {
+      return null;
+    }
+
+    RequestContext requestContext = RequestContext.current();
+    Store sharedStore = requestContext != null ? Facilities.getCacheStore(requestContext.getClientId()) : null;
+
+    Lookup lookup = new Lookup(
+        settings,
+        ScopedStore.build(localStore(settings), settings.scopeOrDefault()),
+        sharedStore != null ? ScopedStore.build(sharedStore, settings.scopeOrDefault()) : null,
+        buildKey(request, connectionSettings),
+        requestCacheControl.isNoCache() || Long.valueOf(0).equals(requestCacheControl.getMaxAge()),
+        clock.getAsLong());
+
+    try {
+      lookup.read(request);
+    } catch (GatewayContextException e) {
+      return null;
+    }
+
+    return lookup;
+  }
+
+  private synchronized LocalCacheStore localStore(HttpCacheSettings settings) {
+    if (localStore == null) {
+      localStore = new LocalCacheStore(settings.localMaxEntriesOrDefault(), clock);
+    }
+
+    return localStore;
+  }
+
+  private static String buildKey(Request<?, ?> request, ConnectionSettings connectionSettings) {
+    StringBuilder key = new StringBuilder()
+        .append(connectionSettings.getCertificateAlias()).append('\n')
+        .append(request.getPreferredResponseBodyType()).append('\n')
+        .append(request.getUri()).append('\n');
+    new TreeMap<>(request.getQueryStringParams()).forEach((name, value) -> key.append(name).append('=').append(value).append('&'));
+
+    return KEY_PREFIX + Hashing.sha256().hashString(key, StandardCharsets.UTF_8);
+  }
+
+  private static String requestHeader(Request<?, ?> request, String name) {
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if (header.getKey().equalsIgnoreCase(name)) {
+        return header.getValue();
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * State of one request's trip through the cache.
+   */
+  private static final class Lookup {
+    private final HttpCacheSettings settings;
+    private final Store localStore;
+    private final Store sharedStore;
+    private final String key;
+    private final boolean revalidate;
+    private final long now;
+    private HttpCacheEntry entry;
+    private boolean addedETag;
+    private boolean addedLastModified;
+
+    Lookup(HttpCacheSettings settings, Store localStore, Store sharedStore, String key, boolean revalidate, long now) {
+      this.settings = settings;
+      this.localStore = localStore;
+      this.sharedStore = sharedStore;
+      this.key = key;
+      this.revalidate = revalidate;
+      this.now = now;
+    }
+
+    /**
+     * Read entry from local tier, falling back to the shared tier.
+     */
+    void read(Request<?, ?> request) {
+      HttpCacheEntry local = HttpCacheEntry.fromJson(localStore.get(key));
+      if (local != null && local.matchesVary(request)) {
+        entry = local;
+        return;
+      }
+
+      if (sharedStore == null) {
+        return;
+      }
+
+      HttpCacheEntry shared;
+      try {
+        shared = HttpCacheEntry.fromJson(sharedStore.get(key));
+      } catch (GatewayContextException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        LOGGER.warn("Unable to read HTTP cache entry from cache store", e);
+        return;
+      }
+
+      if (shared != null && shared.matchesVary(request)) {
+        entry = shared;
+        long retentionSeconds = shared.retentionSeconds(now);
+        if (retentionSeconds > 0) {
+          localStore.put(key, shared.toJson(), retentionSeconds);
+        }
+      }
+    }
+
+    /**
+     * @return true, if a fresh entry was copied into response
+     */
+    boolean serveFresh(Response<?, ?> response) {
+      if (entry == null || revalidate || !entry.isFresh(now)) {
+        return false;
+      }
+
+      entry.applyTo(response);
+      return true;
+    }
+
+    void addConditionalHeaders(Request<?, ?> request) {
+      if (entry == null) {
+        return;
+      }
+
+      if (entry.getETag() != null) {
+        request.getHeaders().put("If-None-Match", entry.getETag());
+        addedETag = true;
+      }
+      if (entry.getLastModified() != null) {
+        request.getHeaders().put("If-Modified-Since", entry.getLastModified());
+        addedLastModified = true;
+      }
+    }
+
+    void removeConditionalHeaders(Request<?, ?> request) {
+      if (addedETag) {
+        request.getHeaders().remove("If-None-Match");
+      }
+      if (addedLastModified) {
+        request.getHeaders().remove("If-Modified-Since");
+      }
+    }
+
+    /**
+     * Store upstream response, or turn a 304 into the cached response.
+     */
+    void complete(Request<?, ?> request, Response<?, ?> response) {
+      if (entry != null && response.getStatus() == HttpStatus.NOT_MODIFIED) {
+        entry.mergeHeaders(response);
+        Long freshness = freshnessMillis(entry.getHeaders());
+        entry.refresh(freshness != null ? freshness : 0, staleRetentionMillis(), now);
+        write(entry);
+        entry.applyTo(response);
+        return;
+      }
+
+      if (response.getStatus() != HttpStatus.OK) {
+        return;
+      }
+
+      Map<String, List<String>> headers = response.getHeadersAsMultiValueMap();
+      if (!isStorable(request, headers)) {
+        return;
+      }
+
+      boolean hasValidator = HttpCacheEntry.header(headers, "ETag") != null || HttpCacheEntry.header(headers, "Last-Modified") != null;
+      Long freshness = freshnessMillis(headers);
+      if (freshness == null && !hasValidator) {
+        return;
+      }
+
+      HttpCacheEntry stored = HttpCacheEntry.fromResponse(request, response, freshness != null ? freshness : 0,
+          hasValidator ? staleRetentionMillis() : 0, now);
+      write(stored);
+    }
+
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private boolean isStorable(Request<?, ?> request, Map<String, List<String>> headers) {
+      CacheControl cacheControl = CacheControl.parse(HttpCacheEntry.header(headers, "Cache-Control"));
+      if (cacheControl.isNoStore()) {
+        return false;
+      }
+
+      String vary = HttpCacheEntry.header(headers, "Vary");
+      if (vary != null && vary.trim().equals("*")) {
+        return false;
+      }
+
+      if (settings.isSharedScope()) {
+        if (cacheControl.isPrivate() || HttpCacheEntry.header(headers, "Set-Cookie") != null) {
+          return false;
+        }
+        if (requestHeader(request, "Authorization") != null && !cacheControl.isPublic() && cacheControl.getSharedMaxAge() == null) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    /**
+     * Freshness lifetime of a response, from (in order) {@code s-maxage} (shared scopes only), {@code max-age},
+     * {@code Expires}, and the configured default TTL. Reduced by {@code Age}. {@code no-cache} responses are
+     * always stale.
+     *
+     * @return freshness in millis, or null if the response does not specify one
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private Long freshnessMillis(Map<String, List<String>> headers) {
+      CacheControl cacheControl = CacheControl.parse(HttpCacheEntry.header(headers, "Cache-Control"));
+      if (cacheControl.isNoCache()) {
+        return 0L;
+      }
+
+      Long freshness = null;
+      if (settings.isSharedScope() && cacheControl.getSharedMaxAge() != null) {
+        freshness = cacheControl.getSharedMaxAge() * MILLIS_PER_SECOND;
+      } else if (cacheControl.getMaxAge() != null) {
+        freshness = cacheControl.getMaxAge() * MILLIS_PER_SECOND;
+      } else {
+        String expiresHeader = HttpCacheEntry.header(headers, "Expires");
+        if (expiresHeader != null) {
+          // An invalid Expires means already expired
+          Long expires = HttpCacheEntry.parseDate(expiresHeader);
+          Long date = HttpCacheEntry.parseDate(HttpCacheEntry.header(headers, "Date"));
+          freshness = expires != null ? expires - (date != null ? date : now) : 0L;
+        } else if (settings.getDefaultTtl() != null) {
+          freshness = settings.getDefaultTtl().toMillis();
+        }
+      }
+
+      if (freshness == null) {
+        return null;
+      }
+
+      return Math.max(0, freshness - ageMillis(headers));
+    }
+
+    private long ageMillis(Map<String, List<String>> headers) {
+      String age = HttpCacheEntry.header(headers, "Age");
+      if (age == null) {
+        return 0;
+      }
+
+      try {
+        return Math.max(0, Long.parseLong(age.trim())) * MILLIS_PER_SECOND;
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+
+    private long staleRetentionMillis() {
+      return settings.staleRetentionOrDefault().toMillis();
+    }
+
+    private void write(HttpCacheEntry cacheEntry) {
+      long retentionSeconds = cacheEntry.retentionSeconds(now);
+      if (retentionSeconds <= 0) {
+        return;
+      }
+
+      String json = cacheEntry.toJson();
+      localStore.put(key, json, retentionSeconds);
+
+      if (sharedStore != null) {
+        try {
+          sharedStore.put(key, json, retentionSeconds);
+        } catch (RuntimeException e) {
+          LOGGER.warn("Unable to write HTTP cache entry to cache store", e);
+        }
+      }
+    }
+  }
+}
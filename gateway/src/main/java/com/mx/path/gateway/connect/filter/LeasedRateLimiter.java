@@ -0,0 +1,193 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.store.Store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rate limiter whose limit is shared by every node, using a {@link Store}.
+ *
+ * <p>Time is divided into fixed windows, aligned on the wall clock so that all nodes agree on them. The cluster may
+ * send {@code rate * window} requests per window, divided into batches of {@code leaseSize} permits. A node leases a
+ * whole batch with a single {@link Store#putIfNotExist(String, String, long)} of the batch's key, and hands out its
+ * permits locally without calling the store. When every batch of the current window has been leased, a request may
+ * reserve a permit from the next window, if the next window starts within its allowed wait.
+ *
+ * <p>If no store is available, or the store fails, permits are taken from a local {@link TokenBucket} with the same
+ * rate for the rest of the window, so an unavailable store does not stop requests.
+ */
+final class LeasedRateLimiter implements RateLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LeasedRateLimiter.class);
+  private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final String name;
+  private final long windowMillis;
+  private final int leaseSize;
+  private final int batches;
+  private final int lastBatchSize;
+  private final Supplier<Store> store;
+  private final LongSupplier millisClock;
+  private final TokenBucket fallback;
+  private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final AtomicLong leases = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong fallbacks = new AtomicLong();
+  private volatile Lease current;
+  private volatile long fallbackUntil;
+  private long exhaustedWindow = -1;
+
+  LeasedRateLimiter(String name, double rate, int burst, long windowMillis, int leaseSize, Supplier<Store> store,
+      LongSupplier millisClock, LongSupplier nanoClock) {
+    this.name = name;
+    this.windowMillis = Math.max(1, windowMillis);
+    this.leaseSize = leaseSize;
+    long permitsPerWindow = Math.max(1, (long) (rate * this.windowMillis / TimeUnit.SECONDS.toMillis(1)));
+    this.batches = (int) ((permitsPerWindow + leaseSize - 1) / leaseSize);
+    this.lastBatchSize = (int) (permitsPerWindow - (long) (batches - 1) * leaseSize);
+    this.store = store;
+    this.millisClock = millisClock;
+    this.fallback = new TokenBucket(rate, burst, nanoClock);
+  }
+
+  @Override
+  public long reserve(long maxWaitNanos) {
+    while (true) {
+      long now = millisClock.getAsLong();
+      long window = now / windowMillis;
+      if (now < fallbackUntil) {
+        return fallback.reserve(maxWaitNanos);
+      }
+
+      Lease lease = current;
+      if (lease != null && lease.window >= window) {
+        if (lease.remaining.getAndDecrement() > 0) {
+          long wait = (lease.window * windowMillis - now) * NANOS_PER_MILLI;
+          if (wait <= maxWaitNanos) {
+            return Math.max(0, wait);
+          }
+          lease.remaining.incrementAndGet();
+          rejected.incrementAndGet();
+          return REJECTED;
+        }
+      }
+
+      long waitForNext = ((window + 1) * windowMillis - now) * NANOS_PER_MILLI;
+      try {
+        if (!renew(lease, window, waitForNext <= maxWaitNanos)) {
+          rejected.incrementAndGet();
+          return REJECTED;
+        }
+      } catch (RuntimeException e) {
+        LOGGER.warn("Unable to lease rate limit permits for " + name + ". Using local limit.", e);
+        fallbackUntil = (window + 1) * windowMillis;
+        fallbacks.incrementAndGet();
+        return fallback.reserve(maxWaitNanos);
+      }
+    }
+  }
+
+  @Override
+  public void describe(ObjectMap description) {
+    description.put("type", "distributed");
+    description.put("batchesPerWindow", batches);
+    description.put("leases", leases.get());
+    description.put("rejected", rejected.get());
+    description.put("fallbacks", fallbacks.get());
+  }
+
+  /**
+   * Replace spent lease with a batch from the current window, or from the next window if allowed. The store is called
+   * without holding this limiter's lock, so threads reserving from a live lease are not held up by the store.
+   *
+   * @return true if a lease is available (possibly leased by another thread), false if none can be leased
+   */
+  private boolean renew(Lease spent, long window, boolean allowNextWindow) {
+    long exhausted;
+    synchronized (this) {
+      Lease lease = current;
+      if (lease != spent && lease != null && lease.window >= window && lease.remaining.get() > 0) {
+        return true;
+      }
+      exhausted = exhaustedWindow;
+    }
+
+    Store shared = store.get();
+    if (shared == null) {
+      throw new IllegalStateException("No store available");
+    }
+
+    Lease next = exhausted < window ? lease(shared, window) : null;
+    if (next == null) {
+      exhausted(window);
+      if (!allowNextWindow) {
+        return false;
+      }
+      next = exhausted < window + 1 ? lease(shared, window + 1) : null;
+      if (next == null) {
+        exhausted(window + 1);
+        return false;
+      }
+    }
+
+    install(next);
+    leases.incrementAndGet();
+    return true;
+  }
+
+  private synchronized void exhausted(long window) {
+    exhaustedWindow = Math.max(exhaustedWindow, window);
+  }
+
+  /**
+   * Make lease current. Another thread may have leased a batch meanwhile: a batch of the same window adds its permits
+   * to the current lease, and a batch of an earlier window is dropped.
+   */
+  private synchronized void install(Lease next) {
+    Lease lease = current;
+    if (lease != null && lease.window == next.window) {
+      // Failed reservations may have taken the remaining count below zero
+      lease.remaining.accumulateAndGet(next.remaining.get(), (remaining, added) -> Math.max(0, remaining) + added);
+    } else if (lease == null || lease.window < next.window) {
+      current = next;
+    }
+  }
+
+  /**
+   * Claim an unclaimed batch of given window. Starts at a random batch, so nodes rarely compete for the same one.
+   *
+   * @return lease, or null if all batches have been claimed
+   */
+  private Lease lease(Store shared, long window) {
+    long expirySeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(windowMillis * 2));
+    int start = ThreadLocalRandom.current().nextInt(batches);
+    for (int i = 0; i < batches; i++) {
+      int batch = (start + i) % batches;
+      if (shared.putIfNotExist("rate-limit:" + name + ":" + window + ":" + batch, nodeId, expirySeconds)) {
+        return new Lease(window, batch == batches - 1 ? lastBatchSize : leaseSize);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Permits leased for one window.
+   */
+  private static final class Lease {
+    private final long window;
+    private final AtomicLong remaining;
+
+    Lease(long window, int permits) {
+      this.window = window;
+      this.remaining = new AtomicLong(permits);
+    }
+  }
+}
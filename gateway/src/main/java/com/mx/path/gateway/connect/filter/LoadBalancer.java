@@ -0,0 +1,273 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.LoadBalancerSettings;
+
+/**
+ * Chooses an endpoint for each request and ejects endpoints that keep failing. See {@link LoadBalancerSettings}.
+ *
+ * <p>Selection is lock-free. Outcomes are recorded under the balancer's lock, which keeps ejection decisions
+ * consistent across endpoints.
+ */
+final class LoadBalancer {
+  private static final double PERCENT = 100.0;
+  private static final double LATENCY_WEIGHT = 0.1;
+
+  private final Endpoint[] endpoints;
+  private final LoadBalancerSettings.Strategy strategy;
+  private final int consecutiveFailures;
+  private final long latencyThresholdNanos;
+  private final long ejectionNanos;
+  private final long maxEjectionNanos;
+  private final int maxEjected;
+  private final LongSupplier nanoClock;
+  private int ejectedCount;
+
+  LoadBalancer(LoadBalancerSettings settings, LongSupplier nanoClock) {
+    List<String> urls = settings.getEndpoints();
+    this.endpoints = new Endpoint[urls.size()];
+    for (int i = 0; i < endpoints.length; i++) {
+      endpoints[i] = new Endpoint(urls.get(i));
+    }
+    this.strategy = settings.strategyOrDefault();
+    this.consecutiveFailures = Math.max(1, settings.consecutiveFailuresOrDefault());
+    this.latencyThresholdNanos = settings.getLatencyThreshold() != null ? settings.getLatencyThreshold().toNanos() : Long.MAX_VALUE;
+    this.ejectionNanos = settings.ejectionDurationOrDefault().toNanos();
+    this.maxEjectionNanos = Math.max(ejectionNanos, settings.maxEjectionDurationOrDefault().toNanos());
+    this.maxEjected = (int) (endpoints.length * settings.maxEjectedPercentOrDefault() / PERCENT);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * @param url base url
+   * @return true if url is one of this balancer's endpoints
+   */
+  boolean hasEndpoint(String url) {
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.url.equals(url)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @return current time of the balancer's clock, in nanos
+   */
+  long now() {
+    return nanoClock.getAsLong();
+  }
+
+  /**
+   * Choose the endpoint for a request and count the request as outstanding. The caller must {@link #release} it.
+   *
+   * <p>An ejected endpoint whose ejection has expired is chosen first, as a probe, by one request at a time. If every
+   * endpoint is ejected, the one whose ejection ends soonest is used rather than failing the request.
+   *
+   * @return endpoint
+   */
+  Endpoint select() {
+    long now = nanoClock.getAsLong();
+    Endpoint selected = probe(now);
+    if (selected == null) {
+      selected = strategy == LoadBalancerSettings.Strategy.POWER_OF_TWO_CHOICES && endpoints.length > 2
+          ? powerOfTwoChoices()
+          : leastOutstanding();
+    }
+    if (selected == null) {
+      selected = soonestReturning();
+    }
+    selected.outstanding.incrementAndGet();
+
+    return selected;
+  }
+
+  /**
+   * Record the outcome of a request and stop counting it as outstanding.
+   *
+   * @param endpoint endpoint the request was sent to
+   * @param startNanos when the request was sent, per {@link #now()}
+   * @param failed true if the request failed
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  void release(Endpoint endpoint, long startNanos, boolean failed) {
+    endpoint.outstanding.decrementAndGet();
+    long now = nanoClock.getAsLong();
+    long latency = now - startNanos;
+    boolean failure = failed || latency > latencyThresholdNanos;
+
+    synchronized (this) {
+      endpoint.requests++;
+      endpoint.latencyNanos = endpoint.requests == 1
+          ? latency
+          : endpoint.latencyNanos * (1 - LATENCY_WEIGHT) + latency * LATENCY_WEIGHT;
+      if (failure) {
+        endpoint.failures++;
+      }
+
+      if (endpoint.ejected) {
+        // Only the probe decides whether an ejected endpoint returns. Requests sent before the ejection are ignored.
+        if (endpoint.probing && startNanos - endpoint.probeStartNanos >= 0) {
+          endpoint.probing = false;
+          if (failure) {
+            eject(endpoint, now);
+          } else {
+            endpoint.ejected = false;
+            endpoint.consecutiveEjections = 0;
+            endpoint.consecutiveFailures = 0;
+            ejectedCount--;
+          }
+        }
+        return;
+      }
+
+      if (!failure) {
+        endpoint.consecutiveFailures = 0;
+        return;
+      }
+
+      endpoint.consecutiveFailures++;
+      if (endpoint.consecutiveFailures >= consecutiveFailures && ejectedCount < maxEjected) {
+        endpoint.ejected = true;
+        ejectedCount++;
+        eject(endpoint, now);
+      }
+    }
+  }
+
+  /**
+   * Fill description with the health and load of each endpoint.
+   *
+   * @param description description
+   */
+  synchronized void describe(ObjectMap description) {
+    for (Endpoint endpoint : endpoints) {
+      ObjectMap endpointDescription = description.createMap(endpoint.url);
+      endpointDescription.put("state", endpoint.state());
+      endpointDescription.put("outstanding", endpoint.outstanding.get());
+      endpointDescription.put("requests", endpoint.requests);
+      endpointDescription.put("failures", endpoint.failures);
+      endpointDescription.put("ejections", endpoint.ejections);
+      endpointDescription.put("latencyMillis", TimeUnit.NANOSECONDS.toMillis((long) endpoint.latencyNanos));
+    }
+  }
+
+  /**
+   * Eject endpoint, for twice as long as its previous consecutive ejection.
+   */
+  private void eject(Endpoint endpoint, long now) {
+    long duration = ejectionNanos;
+    for (int i = 0; i < endpoint.consecutiveEjections && duration < maxEjectionNanos; i++) {
+      duration *= 2;
+    }
+    endpoint.consecutiveEjections++;
+    endpoint.ejections++;
+    endpoint.ejectedUntilNanos = now + Math.min(duration, maxEjectionNanos);
+  }
+
+  private Endpoint probe(long now) {
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejected && !endpoint.probing && now - endpoint.ejectedUntilNanos >= 0) {
+        synchronized (this) {
+          if (endpoint.ejected && !endpoint.probing && now - endpoint.ejectedUntilNanos >= 0) {
+            endpoint.probing = true;
+            endpoint.probeStartNanos = now;
+            return endpoint;
+          }
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private Endpoint powerOfTwoChoices() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(endpoints.length);
+    int second = random.nextInt(endpoints.length - 1);
+    if (second >= first) {
+      second++;
+    }
+
+    Endpoint left = endpoints[first];
+    Endpoint right = endpoints[second];
+    if (left.ejected) {
+      return right.ejected ? leastOutstanding() : right;
+    }
+    if (right.ejected) {
+      return left;
+    }
+
+    return right.outstanding.get() < left.outstanding.get() ? right : left;
+  }
+
+  private Endpoint leastOutstanding() {
+    // Start at a random endpoint, so ties are spread across endpoints
+    int start = ThreadLocalRandom.current().nextInt(endpoints.length);
+    Endpoint selected = null;
+    int fewest = Integer.MAX_VALUE;
+    for (int i = 0; i < endpoints.length; i++) {
+      Endpoint endpoint = endpoints[(start + i) % endpoints.length];
+      int outstanding = endpoint.outstanding.get();
+      if (!endpoint.ejected && outstanding < fewest) {
+        selected = endpoint;
+        fewest = outstanding;
+      }
+    }
+
+    return selected;
+  }
+
+  private Endpoint soonestReturning() {
+    Endpoint selected = endpoints[0];
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejectedUntilNanos - selected.ejectedUntilNanos < 0) {
+        selected = endpoint;
+      }
+    }
+
+    return selected;
+  }
+
+  /**
+   * One upstream endpoint. State other than the outstanding count is guarded by the balancer's lock, and volatile
+   * where it is read by lock-free selection.
+   */
+  static final class Endpoint {
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean ejected;
+    private volatile boolean probing;
+    private volatile long ejectedUntilNanos;
+    private long probeStartNanos;
+    private int consecutiveFailures;
+    private int consecutiveEjections;
+    private long requests;
+    private long failures;
+    private long ejections;
+    private double latencyNanos;
+
+    Endpoint(String url) {
+      this.url = url;
+    }
+
+    String getUrl() {
+      return url;
+    }
+
+    String state() {
+      if (probing) {
+        return "probing";
+      }
+
+      return ejected ? "ejected" : "healthy";
+    }
+  }
+}
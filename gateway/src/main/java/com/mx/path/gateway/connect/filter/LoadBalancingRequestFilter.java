@@ -0,0 +1,117 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.LoadBalancerSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.lang.Futures;
+
+/**
+ * Sends each request to one of the connection's endpoints, per its {@link LoadBalancerSettings}.
+ *
+ * <p>The request's base url is replaced with the chosen endpoint, unless the request was given a base url other than
+ * the connection's. This filter runs last, so each retry or hedge attempt chooses again, and an endpoint that has been
+ * ejected in the meantime is avoided.
+ *
+ * <p>Balancers are shared by all connections with the same settings, so every client sees the same endpoint health.
+ * Their state is included in {@code Gateway.describe()} under {@code connections.loadBalancers}.
+ */
+public class LoadBalancingRequestFilter extends RequestFilterBase {
+  private static final Map<LoadBalancerSettings, LoadBalancer> BALANCERS = new ConcurrentHashMap<>();
+
+  static {
+    ConnectionMetrics.addSource("loadBalancers", LoadBalancingRequestFilter::describe);
+  }
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    LoadBalancer balancer = balancer(request);
+    if (balancer == null) {
+      next(request, response);
+      return;
+    }
+
+    LoadBalancer.Endpoint endpoint = balancer.select();
+    request.withBaseUrl(endpoint.getUrl());
+    long start = balancer.now();
+    boolean failed = true;
+    try {
+      next(request, response);
+      failed = ConcurrencyLimitingRequestFilter.overloaded(response);
+    } finally {
+      balancer.release(endpoint, start, failed);
+    }
+  }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    LoadBalancer balancer = balancer(request);
+    if (balancer == null) {
+      return nextAsync(request, response);
+    }
+
+    LoadBalancer.Endpoint endpoint = balancer.select();
+    request.withBaseUrl(endpoint.getUrl());
+    long start = balancer.now();
+    CompletableFuture<Void> result;
+    try {
+      result = nextAsync(request, response);
+    } catch (RuntimeException e) {
+      result = Futures.failed(e);
+    }
+
+    return result.whenComplete((ignored, throwable) -> {
+      balancer.release(endpoint, start, throwable != null || ConcurrencyLimitingRequestFilter.overloaded(response));
+    });
+  }
+
+  /**
+   * Fill description with the endpoints of every balancer.
+   *
+   * @param description description
+   */
+  static void describe(ObjectMap description) {
+    BALANCERS.forEach((settings, balancer) -> balancer.describe(description.createMap(String.join(", ", settings.getEndpoints()))));
+  }
+
+  /**
+   * Balancer for request, or null if the request is not balanced.
+   */
+  private static LoadBalancer balancer(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    LoadBalancerSettings settings = connectionSettings != null ? connectionSettings.getLoadBalancer() : null;
+    if (settings == null || !settings.enabledOrDefault() || settings.getEndpoints() == null || settings.getEndpoints().isEmpty()) {
+      return null;
+    }
+
+    LoadBalancer balancer = BALANCERS.get(settings);
+    if (balancer == null) {
+      balancer = BALANCERS.computeIfAbsent(settings, key -> new LoadBalancer(key, System::nanoTime));
+    }
+
+    String baseUrl = request.getBaseUrl();
+    boolean connectionBaseUrl = baseUrl == null || baseUrl.equals(connectionSettings.getBaseUrl()) || balancer.hasEndpoint(baseUrl);
+
+    return connectionBaseUrl ? balancer : null;
+  }
+}
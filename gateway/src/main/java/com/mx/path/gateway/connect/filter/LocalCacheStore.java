@@ -0,0 +1,173 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.store.Store;
+
+/**
+ * Bounded, in-memory store used as the local tier of {@link HttpCacheFilter}.
+ *
+ * <p>Holds at most {@code maxEntries} values or sets. The least recently used is evicted first. Expired entries are
+ * dropped when read. A set expires as a whole, at the expiry given when a value was last added to it.
+ */
+final class LocalCacheStore implements Store {
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private final Map<String, Entry> entries;
+  private final LongSupplier clock;
+
+  LocalCacheStore(int maxEntries) {
+    this(maxEntries, System::currentTimeMillis);
+  }
+
+  LocalCacheStore(int maxEntries, LongSupplier clock) {
+    this.clock = clock;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public synchronized void delete(String key) {
+    entries.remove(key);
+  }
+
+  @Override
+  public synchronized void deleteSet(String key, String value) {
+    Entry entry = live(key);
+    if (entry != null && entry.members != null) {
+      entry.members.remove(value);
+      if (entry.members.isEmpty()) {
+        entries.remove(key);
+      }
+    }
+  }
+
+  @Override
+  public synchronized String get(String key) {
+    Entry entry = live(key);
+
+    return entry != null ? entry.value : null;
+  }
+
+  @Override
+  public synchronized Set<String> getSet(String key) {
+    Entry entry = live(key);
+
+    return entry != null && entry.members != null ? new LinkedHashSet<>(entry.members) : Collections.emptySet();
+  }
+
+  @Override
+  public synchronized boolean inSet(String key, String value) {
+    Entry entry = live(key);
+
+    return entry != null && entry.members != null && entry.members.contains(value);
+  }
+
+  @Override
+  public synchronized void put(String key, String value, long expirySeconds) {
+    entries.put(key, new Entry(value, clock.getAsLong() + expirySeconds * MILLIS_PER_SECOND));
+  }
+
+  @Override
+  public synchronized void put(String key, String value) {
+    entries.put(key, new Entry(value, Long.MAX_VALUE));
+  }
+
+  @Override
+  public synchronized void putSet(String key, String value, long expirySeconds) {
+    addToSet(key, value, clock.getAsLong() + expirySeconds * MILLIS_PER_SECOND);
+  }
+
+  @Override
+  public synchronized void putSet(String key, String value) {
+    addToSet(key, value, Long.MAX_VALUE);
+  }
+
+  @Override
+  public synchronized boolean putIfNotExist(String key, String value, long expirySeconds) {
+    if (live(key) != null) {
+      return false;
+    }
+    put(key, value, expirySeconds);
+
+    return true;
+  }
+
+  @Override
+  public synchronized boolean putIfNotExist(String key, String value) {
+    if (live(key) != null) {
+      return false;
+    }
+    put(key, value);
+
+    return true;
+  }
+
+  /**
+   * @return number of values held, including expired values not yet dropped
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Must be called while holding this store's lock.
+   *
+   * @return unexpired entry for key, or null
+   */
+  private Entry live(String key) {
+    Entry entry = entries.get(key);
+    if (entry != null && entry.isExpired(clock.getAsLong())) {
+      entries.remove(key);
+      return null;
+    }
+
+    return entry;
+  }
+
+  /**
+   * Must be called while holding this store's lock. Replaces a string value held under the same key.
+   */
+  private void addToSet(String key, String value, long expiresAt) {
+    Entry entry = live(key);
+    Set<String> members = entry != null && entry.members != null ? entry.members : new LinkedHashSet<>();
+    members.add(value);
+    entries.put(key, new Entry(members, expiresAt));
+  }
+
+  /**
+   * A string value or a set.
+   */
+  private static final class Entry {
+    private final String value;
+    private final Set<String> members;
+    private final long expiresAt;
+
+    Entry(String value, long expiresAt) {
+      this.value = value;
+      this.members = null;
+      this.expiresAt = expiresAt;
+    }
+
+    Entry(Set<String> members, long expiresAt) {
+      this.value = null;
+      this.members = members;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
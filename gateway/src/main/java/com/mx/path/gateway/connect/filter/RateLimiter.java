@@ -0,0 +1,28 @@
+package com.mx.path.gateway.connect.filter;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Hands out permits to send requests. See {@link RateLimitingRequestFilter}.
+ */
+interface RateLimiter {
+  /**
+   * Returned by {@link #reserve(long)} when no permit can be reserved within the allowed wait.
+   */
+  long REJECTED = -1;
+
+  /**
+   * Reserve a permit. Does not block.
+   *
+   * @param maxWaitNanos longest acceptable wait for the permit
+   * @return nanos to wait before using the reserved permit (0 to use it now), or {@link #REJECTED}
+   */
+  long reserve(long maxWaitNanos);
+
+  /**
+   * Fill description with current state.
+   *
+   * @param description description
+   */
+  void describe(ObjectMap description);
+}
@@ -0,0 +1,291 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.Cancellation;
+import com.mx.path.core.common.connect.ConnectException;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.RateLimitSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.connect.TooManyRequestsException;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.common.process.FaultTolerantScope;
+import com.mx.path.core.common.process.RetryConfiguration;
+import com.mx.path.core.common.store.Store;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.facility.Facilities;
+import com.mx.path.core.context.store.ScopedStore;
+import com.mx.path.gateway.process.AsyncWithGatewayContext;
+
+/**
+ * Limits the rate of requests sent to the upstream, per the connection's {@link RateLimitSettings}.
+ *
+ * <p>Each request takes a permit from the limiter of the most specific configured fault-tolerant scope that matches
+ * it, or from the connection's limiter. A request that cannot get a permit within the configured wait fails with
+ * {@link TooManyRequestsException}. Waiting requests block the calling thread. Asynchronous requests
+ * ({@link Request#executeAsync()}) wait on a shared timer instead, which only hands them to a worker thread to send.
+ *
+ * <p>Limits are enforced by each node with a lock-free {@link TokenBucket}, or shared by the cluster with a
+ * {@link LeasedRateLimiter} backed by the client's cache store. The state of each limiter is included in
+ * {@code Gateway.describe()} under {@code connections.rateLimits}.
+ */
+public class RateLimitingRequestFilter extends RequestFilterBase {
+  private static final FilterMetrics<RateLimitingRequestFilter> METRICS =
+      new FilterMetrics<>("limiters", RateLimitingRequestFilter::describe);
+  private static final String CONNECTION_LIMIT = "";
+  private static final Limit NO_LIMIT = new Limit(null, null);
+  private static final ScheduledExecutorService DEFAULT_TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-rate-limit-timer").build());
+
+  static {
+    ConnectionMetrics.addSource("rateLimits", METRICS);
+  }
+
+  private final ScheduledExecutorService timer;
+  private final Executor workers;
+  private final LongSupplier millisClock;
+  private final LongSupplier nanoClock;
+  private final Map<FaultTolerantScope, Limit> scopeLimits = new ConcurrentHashMap<>();
+  private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+  private volatile Limit connectionLimit;
+
+  /**
+   * Build new {@link RateLimitingRequestFilter}.
+   */
+  public RateLimitingRequestFilter() {
+    this(DEFAULT_TIMER, System::currentTimeMillis, System::nanoTime);
+  }
+
+  RateLimitingRequestFilter(ScheduledExecutorService timer, LongSupplier millisClock, LongSupplier nanoClock) {
+    this(timer, RetryConfiguration.retryExecutor(), millisClock, nanoClock);
+  }
+
+  RateLimitingRequestFilter(ScheduledExecutorService timer, Executor workers, LongSupplier millisClock, LongSupplier nanoClock) {
+    this.timer = timer;
+    this.workers = workers;
+    this.millisClock = millisClock;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    Limit limit = limit(request);
+    if (limit == NO_LIMIT) {
+      next(request, response);
+      return;
+    }
+
+    long wait = reserve(request, limit);
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ConnectException("Interrupted waiting for rate limit", e);
+      }
+    }
+
+    next(request, response);
+  }
+
+  /**
+   * Execute this filter asynchronously. Waits for a permit without blocking.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    Limit limit = limit(request);
+    if (limit == NO_LIMIT) {
+      return nextAsync(request, response);
+    }
+
+    long wait;
+    try {
+      wait = reserve(request, limit);
+    } catch (RuntimeException e) {
+      return Futures.failed(e);
+    }
+    if (wait <= 0) {
+      return nextAsync(request, response);
+    }
+
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    AsyncWithGatewayContext<Void> send = new AsyncWithGatewayContext<>(() -> {
+      if (result.isDone()) {
+        return null;
+      }
+      nextAsync(request, response).whenComplete((ignored, throwable) -> {
+        if (throwable != null) {
+          result.completeExceptionally(Futures.unwrap(throwable));
+        } else {
+          result.complete(null);
+        }
+      });
+      return null;
+    });
+    // The timer thread is shared by every connection. It only hands the request to a worker, which runs the rest of
+    // the chain, so a chain that completes synchronously does not hold up other delayed requests.
+    ScheduledFuture<?> scheduled = timer.schedule(() -> {
+      try {
+        workers.execute(() -> {
+          try {
+            send.call();
+          } catch (Exception e) {
+            result.completeExceptionally(e);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        result.completeExceptionally(e);
+      }
+    }, wait, TimeUnit.NANOSECONDS);
+
+    result.whenComplete((ignored, throwable) -> {
+      if (throwable instanceof CancellationException) {
+        scheduled.cancel(false);
+      }
+    });
+    // A request cancelled while waiting for its permit is not sent
+    Cancellation.register(request, result);
+
+    return result;
+  }
+
+  /**
+   * Fill description with the state of each limiter.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    limiters.forEach((name, limiter) -> limiter.describe(description.createMap(name.isEmpty() ? "connection" : name)));
+  }
+
+  /**
+   * Reserve a permit from the limit's limiter.
+   *
+   * @return nanos to wait before sending
+   * @throws TooManyRequestsException if no permit is available within the allowed wait
+   */
+  private long reserve(Request<?, ?> request, Limit limit) {
+    RateLimiter limiter = limiters.get(limit.name);
+    if (limiter == null) {
+      limiter = limiters.computeIfAbsent(limit.name, name -> {
+        METRICS.add(this, request.getConnectionSettings());
+        return buildLimiter(request.getConnectionSettings(), limit);
+      });
+    }
+    long wait = limiter.reserve(limit.settings.maxWaitOrDefault().toNanos());
+    if (wait == RateLimiter.REJECTED) {
+      throw new TooManyRequestsException("Rate limit exceeded" + (limit.name.isEmpty() ? "" : " for scope " + limit.name), null);
+    }
+
+    return wait;
+  }
+
+  /**
+   * Select the limit that applies to request.
+   */
+  private Limit limit(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    RateLimitSettings settings = connectionSettings != null ? connectionSettings.getRateLimit() : null;
+    if (settings == null || !settings.enabledOrDefault()) {
+      return NO_LIMIT;
+    }
+
+    Limit connectionLimit = connectionLimit(settings);
+    if (settings.getScopes() == null || settings.getScopes().isEmpty()) {
+      return connectionLimit;
+    }
+
+    return scopeLimits.computeIfAbsent(FaultTolerantRequestFilter.scopeOf(request), scope -> {
+      for (FaultTolerantScope candidate = scope; candidate != null; candidate = candidate.getParent()) {
+        for (RateLimitSettings scopeSettings : settings.getScopes()) {
+          if (candidate.getName().equals(scopeSettings.getScope())) {
+            return scopeSettings.enabledOrDefault() && scopeSettings.getRate() != null
+                ? new Limit(candidate.getName(), scopeSettings)
+                : NO_LIMIT;
+          }
+        }
+      }
+
+      return connectionLimit;
+    });
+  }
+
+  /**
+   * Connection's limit, built once per settings instance.
+   */
+  private Limit connectionLimit(RateLimitSettings settings) {
+    Limit limit = connectionLimit;
+    if (limit == null || limit.settings != settings) {
+      limit = new Limit(CONNECTION_LIMIT, settings);
+      connectionLimit = limit;
+    }
+
+    return settings.getRate() != null ? limit : NO_LIMIT;
+  }
+
+  private RateLimiter buildLimiter(ConnectionSettings connectionSettings, Limit limit) {
+    RateLimitSettings settings = limit.settings;
+    if (!settings.distributedOrDefault()) {
+      return new TokenBucket(settings.getRate(), settings.burstOrDefault(), nanoClock);
+    }
+
+    // Shared by every node, so named by the upstream rather than by this instance
+    return new LeasedRateLimiter(
+        connectionSettings.getBaseUrl() + ":" + (limit.name.isEmpty() ? "connection" : limit.name),
+        settings.getRate(),
+        settings.burstOrDefault(),
+        settings.windowOrDefault().toMillis(),
+        settings.leaseSizeOrDefault(),
+        RateLimitingRequestFilter::clientStore,
+        millisClock,
+        nanoClock);
+  }
+
+  /**
+   * @return current client's cache store, or null if there is none
+   */
+  private static Store clientStore() {
+    RequestContext requestContext = RequestContext.current();
+    Store store = requestContext != null ? Facilities.getCacheStore(requestContext.getClientId()) : null;
+
+    return store != null ? ScopedStore.build(store, "client") : null;
+  }
+
+  /**
+   * Limiter name and settings that apply to a request.
+   */
+  private static final class Limit {
+    private final String name;
+    private final RateLimitSettings settings;
+
+    Limit(String name, RateLimitSettings settings) {
+      this.name = name;
+      this.settings = settings;
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import lombok.EqualsAndHashCode;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.connect.ConnectionSettings;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.RequestCoalescingSettings;
+import com.mx.path.core.common.connect.RequestFilterBase;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.connect.TimeoutException;
+import com.mx.path.core.common.exception.PathRequestException;
+import com.mx.path.core.common.exception.PathRequestExceptionWrapper;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.gateway.process.AsyncWithGatewayContext;
+
+/**
+ * Coalesces identical in-flight requests into a single upstream call.
+ *
+ * <p>The first request (the leader) continues down the chain. Identical requests that arrive while it is in flight
+ * (followers) wait for it and receive a copy of its response instead of calling the upstream. The copy is taken as soon
+ * as the upstream call returns, before the filters above this one process the leader's response. Each follower still
+ * runs those filters (callbacks, processors, events) with its own request. If the leader fails, each follower fails
+ * with its own {@link PathRequestExceptionWrapper}, carrying the status and messages of the leader's exception and
+ * caused by it.
+ *
+ * <p>Followers wait at most their request timeout for the leader and then fail with {@link TimeoutException}.
+ * Asynchronous followers do not block; their timeout is scheduled on a shared timer.
+ *
+ * <p>Only GET and HEAD requests without a body and without a streamed response are coalesced, and only when enabled by
+ * the connection's {@link RequestCoalescingSettings} or by {@link Request#withCoalescing(boolean)}.
+ */
+public class RequestCoalescingFilter extends RequestFilterBase {
+  private static final ScheduledExecutorService TIMEOUT_TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-coalescing-timer").build());
+
+  private final Map<CoalescingKey, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Execute this filter.
+   *
+   * @param request  Request
+   * @param response Response
+   */
+  @Override
+  public final void execute(Request request, Response response) {
+    CoalescingKey key = buildKey(request);
+    if (key == null) {
+      next(request, response);
+      return;
+    }
+
+    CompletableFuture<Outcome> leader = new CompletableFuture<>();
+    CompletableFuture<Outcome> existing = inFlight.putIfAbsent(key, leader);
+    if (existing != null) {
+      awaitLeader(existing, request).applyTo(response);
+      return;
+    }
+
+    Outcome outcome = null;
+    try {
+      next(request, response);
+      outcome = new Outcome(response, null);
+    } catch (RuntimeException e) {
+      outcome = new Outcome(response, e);
+      throw e;
+    } finally {
+      inFlight.remove(key, leader);
+      if (outcome != null) {
+        leader.complete(outcome);
+      } else {
+        leader.completeExceptionally(new IllegalStateException("Coalesced leader request failed"));
+      }
+    }
+  }
+
+  /**
+   * Execute this filter asynchronously. Followers do not block while waiting for the leader.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    CoalescingKey key = buildKey(request);
+    if (key == null) {
+      return nextAsync(request, response);
+    }
+
+    CompletableFuture<Outcome> leader = new CompletableFuture<>();
+    CompletableFuture<Outcome> existing = inFlight.putIfAbsent(key, leader);
+    if (existing != null) {
+      return awaitLeaderAsync(existing, request).thenAccept(outcome -> outcome.applyTo(response));
+    }
+
+    CompletableFuture<Void> result;
+    try {
+      result = nextAsync(request, response);
+    } catch (RuntimeException e) {
+      result = Futures.failed(e);
+    }
+
+    return result.whenComplete((ignored, throwable) -> {
+      RuntimeException exception = null;
+      if (throwable != null) {
+        Throwable cause = Futures.unwrap(throwable);
+        exception = cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+      }
+      inFlight.remove(key, leader);
+      leader.complete(new Outcome(response, exception));
+    });
+  }
+
+  /**
+   * @return number of distinct requests currently in flight
+   */
+  final int inFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Block until the leader completes, at most for the request timeout.
+   */
+  private static Outcome awaitLeader(CompletableFuture<Outcome> leader, Request<?, ?> request) {
+    Duration timeout = request.getRequestTimeout();
+    try {
+      return leader.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (java.util.concurrent.TimeoutException e) {
+      throw new TimeoutException("Timed out waiting for coalesced request " + request.getTraceKey(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TimeoutException("Interrupted waiting for coalesced request " + request.getTraceKey(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = Futures.unwrap(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new CompletionException(cause);
+    }
+  }
+
+  /**
+   * Wait for the leader without blocking, at most for the request timeout.
+   */
+  private static CompletableFuture<Outcome> awaitLeaderAsync(CompletableFuture<Outcome> leader, Request<?, ?> request) {
+    CompletableFuture<Outcome> result = new CompletableFuture<>();
+    ScheduledFuture<?> timer = TIMEOUT_TIMER.schedule(new AsyncWithGatewayContext<>(() -> {
+      result.completeExceptionally(new TimeoutException("Timed out waiting for coalesced request " + request.getTraceKey()));
+      return null;
+    }), request.getRequestTimeout().toNanos(), TimeUnit.NANOSECONDS);
+
+    leader.whenComplete((outcome, throwable) -> {
+      timer.cancel(false);
+      if (throwable != null) {
+        result.completeExceptionally(Futures.unwrap(throwable));
+      } else {
+        result.complete(outcome);
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Build identity of request, or null if request must not be coalesced.
+   */
+  private CoalescingKey buildKey(Request<?, ?> request) {
+    ConnectionSettings connectionSettings = request.getConnectionSettings();
+    RequestCoalescingSettings settings = connectionSettings != null ? connectionSettings.getCoalescing() : null;
+
+    boolean enabled = request.getCoalesce() != null
+        ? request.getCoalesce()
+        : settings != null && settings.enabledOrDefault();
+    if (!enabled) {
+      return null;
+    }
+
+    String method = request.getMethod().toUpperCase(Locale.ROOT);
+    if (!"GET".equals(method) && !"HEAD".equals(method)) {
+      return null;
+    }
+
+    if (request.getBody() != null || request.getFormBody() != null
+        || request.getPreferredResponseBodyType() == Request.PreferredResponseBodyType.STREAM) {
+      return null;
+    }
+
+    RequestContext requestContext = RequestContext.current();
+    return new CoalescingKey(
+        requestContext != null ? requestContext.getClientId() : null,
+        connectionSettings != null ? connectionSettings.getCertificateAlias() : null,
+        method,
+        request.getUri(),
+        new TreeMap<>(request.getQueryStringParams()),
+        keyHeaders(request, settings != null ? settings.getHeaders() : null),
+        request.getPreferredResponseBodyType());
+  }
+
+  private static Map<String, String> keyHeaders(Request<?, ?> request, List<String> headerNames) {
+    Map<String, String> headers = new TreeMap<>();
+    request.getHeaders().forEach((name, value) -> {
+      if (headerNames == null || headerNames.stream().anyMatch(name::equalsIgnoreCase)) {
+        headers.put(name.toLowerCase(Locale.ROOT), value);
+      }
+    });
+
+    return headers;
+  }
+
+  /**
+   * Identity of a coalescable request.
+   */
+  @EqualsAndHashCode
+  private static final class CoalescingKey {
+    private final String clientId;
+    private final String certificateAlias;
+    private final String method;
+    private final String uri;
+    private final Map<String, String> queryStringParams;
+    private final Map<String, String> headers;
+    private final Request.PreferredResponseBodyType preferredResponseBodyType;
+
+    CoalescingKey(String clientId, String certificateAlias, String method, String uri, Map<String, String> queryStringParams,
+        Map<String, String> headers, Request.PreferredResponseBodyType preferredResponseBodyType) {
+      this.clientId = clientId;
+      this.certificateAlias = certificateAlias;
+      this.method = method;
+      this.uri = uri;
+      this.queryStringParams = queryStringParams;
+      this.headers = headers;
+      this.preferredResponseBodyType = preferredResponseBodyType;
+    }
+  }
+
+  /**
+   * Result of the leader's upstream call. Holds a private copy of the leader's response, so the leader's filters can
+   * keep processing its own response while followers read the copy.
+   */
+  private static final class Outcome {
+    private final Response<?, ?> response;
+    private final RuntimeException exception;
+
+    Outcome(Response<?, ?> leaderResponse, RuntimeException exception) {
+      this.response = new ResponseSnapshot();
+      this.response.copyFrom(leaderResponse);
+      this.exception = exception;
+    }
+
+    /**
+     * Copy leader's response into follower's response and throw a copy of leader's exception, if any.
+     */
+    void applyTo(Response<?, ?> followerResponse) {
+      followerResponse.copyFrom(response);
+      if (Objects.nonNull(exception)) {
+        throw followerException();
+      }
+    }
+
+    /**
+     * New exception for one follower, so followers never share (and add to) the leader's exception instance.
+     */
+    private PathRequestException followerException() {
+      PathRequestExceptionWrapper followerException = new PathRequestExceptionWrapper(exception.getMessage(), exception);
+      if (exception instanceof PathRequestException) {
+        PathRequestException leaderException = (PathRequestException) exception;
+        followerException.setStatus(leaderException.getStatus());
+        followerException.setCode(leaderException.getCode());
+        followerException.setErrorTitle(leaderException.getErrorTitle());
+        followerException.setReason(leaderException.getReason());
+        followerException.setUserMessage(leaderException.getUserMessage());
+        followerException.setInternal(leaderException.isInternal());
+        followerException.setReport(leaderException.shouldReport());
+        leaderException.getHeaders().forEach(followerException::withHeader);
+      }
+
+      return followerException;
+    }
+  }
+
+  /**
+   * Detached copy of the leader's upstream result.
+   */
+  private static final class ResponseSnapshot extends Response<Request<?, ?>, ResponseSnapshot> {
+  }
+}
@@ -0,0 +1,54 @@
+package com.mx.path.gateway.connect.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Lock-free local token bucket.
+ *
+ * <p>Implemented as a generic cell rate algorithm: the only state is the time at which the bucket will next be full
+ * again. Each permit pushes that time one emission interval ({@code 1 / rate}) into the future, and a permit is
+ * available while that time is no more than {@code burst} intervals ahead of now. Reservations that must wait are
+ * made immediately, so waiting requests are sent in order, at the configured rate.
+ */
+final class TokenBucket implements RateLimiter {
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicLong theoreticalArrival;
+  private final AtomicLong rejected = new AtomicLong();
+
+  TokenBucket(double rate, int burst, LongSupplier nanoClock) {
+    this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / rate));
+    this.toleranceNanos = intervalNanos * burst;
+    this.nanoClock = nanoClock;
+    this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  @Override
+  public long reserve(long maxWaitNanos) {
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long current = theoreticalArrival.get();
+      long next = Math.max(current, now) + intervalNanos;
+      long wait = next - toleranceNanos - now;
+      if (wait > maxWaitNanos) {
+        rejected.incrementAndGet();
+        return REJECTED;
+      }
+      if (theoreticalArrival.compareAndSet(current, next)) {
+        return Math.max(0, wait);
+      }
+    }
+  }
+
+  @Override
+  public void describe(ObjectMap description) {
+    description.put("type", "local");
+    description.put("rejected", rejected.get());
+  }
+}
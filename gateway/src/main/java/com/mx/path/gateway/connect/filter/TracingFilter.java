@@ -1,8 +1,11 @@
 package com.mx.path.gateway.connect.filter;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.lang.Futures;
 import com.mx.path.core.context.tracing.HttpHeadersCarrier;
 
 import io.opentracing.Scope;
@@ -55,4 +58,42 @@ public class TracingFilter extends RequestFilterBase {
       span.finish();
     }
   }
+
+  /**
+   * Execute this filter asynchronously. The span is finished when the rest of the chain completes.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    Tracer tracer = GlobalTracer.get();
+
+    if (tracer == null) {
+      return nextAsync(request, response);
+    }
+
+    Span span = tracer.buildSpan(request.getTraceKey())
+        .start();
+    CompletableFuture<Void> future;
+    try (Scope scope = tracer.activateSpan(span)) {
+
+      tracer.inject(tracer.activeSpan().setTag(Tags.SPAN_KIND, Tags.SPAN_KIND_CLIENT).context(), Format.Builtin.HTTP_HEADERS, new HttpHeadersCarrier(request.getHeaders()));
+
+      request.setTraceId(span.context().toTraceId());
+      request.setTraceSpanId(span.context().toSpanId());
+      future = nextAsync(request, response);
+
+    } catch (RuntimeException e) {
+      future = Futures.failed(e);
+    }
+
+    return future.whenComplete((ignored, throwable) -> {
+      if (throwable != null) {
+        span.log(Futures.unwrap(throwable).getMessage());
+      }
+      span.finish();
+    });
+  }
 }
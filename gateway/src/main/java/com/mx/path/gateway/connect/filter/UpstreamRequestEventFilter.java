@@ -1,5 +1,7 @@
 package com.mx.path.gateway.connect.filter;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
@@ -43,4 +45,32 @@ public class UpstreamRequestEventFilter extends RequestFilterBase {
       eventBus.post(AfterUpstreamRequestEvent.builder().response(response).build());
     }
   }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    RequestContext requestContext = RequestContext.current();
+
+    EventBus eventBus = null;
+    if (requestContext != null && requestContext.getClientId() != null) {
+      eventBus = Facilities.getEventBus(requestContext.getClientId());
+    }
+
+    if (eventBus == null) {
+      return nextAsync(request, response);
+    }
+
+    EventBus requestEventBus = eventBus;
+    requestEventBus.post(BeforeUpstreamRequestEvent.builder().request(request).build());
+
+    return nextAsync(request, response).thenRun(() -> {
+      requestEventBus.post(AfterUpstreamRequestEvent.builder().response(response).build());
+    });
+  }
 }
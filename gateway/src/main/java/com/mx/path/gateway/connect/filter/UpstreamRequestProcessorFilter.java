@@ -1,6 +1,7 @@
 package com.mx.path.gateway.connect.filter;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
@@ -41,4 +42,35 @@ public class UpstreamRequestProcessorFilter extends RequestFilterBase {
       next(request, response);
     }
   }
+
+  /**
+   * Execute this filter asynchronously.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when request is done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    List<UpstreamRequestProcessor> processors = null;
+
+    if (RequestContext.current() != null && RequestContext.current().getUpstreamRequestConfiguration() != null) {
+      processors = RequestContext.current().getUpstreamRequestConfiguration().getUpstreamRequestProcessors();
+    }
+
+    if (processors == null || processors.isEmpty()) {
+      return nextAsync(request, response);
+    }
+
+    List<UpstreamRequestProcessor> requestProcessors = processors;
+    requestProcessors.forEach(processor -> {
+      processor.executeBefore(request, response);
+    });
+
+    return nextAsync(request, response).thenRun(() -> {
+      requestProcessors.forEach(processor -> {
+        processor.executeAfter(request, response);
+      });
+    });
+  }
 }
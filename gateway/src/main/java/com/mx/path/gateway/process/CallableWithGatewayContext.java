@@ -80,7 +80,9 @@ public abstract class CallableWithGatewayContext<T> implements Callable<T> {
 
     try (Scope scope = GlobalTracer.get().activateSpan(span)) {
       Session.setCurrent(session);
-      requestContext.register();
+      if (requestContext != null) {
+        requestContext.register();
+      }
 
       try {
         result = execute();
@@ -0,0 +1,89 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.lang.Durations;
+import com.mx.path.core.common.process.FaultTolerantScopeConfiguration;
+
+/**
+ * Timeout of a scope, derived from the latencies of its calls. See {@link AdaptiveTimeoutSettings}.
+ */
+final class AdaptiveTimeout {
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double percentile;
+  private final double multiplier;
+  private final long minTimeoutNanos;
+  private final long maxTimeoutNanos;
+  private final int minSamples;
+  private final LongSupplier nanoClock;
+  private final LatencyHistogram latencies;
+  private volatile FaultTolerantScopeConfiguration configuration;
+  private volatile long nextRefreshNanos;
+
+  AdaptiveTimeout(AdaptiveTimeoutSettings settings, Duration staticTimeout, LongSupplier nanoClock) {
+    this.percentile = settings.percentileOrDefault();
+    this.multiplier = settings.multiplierOrDefault();
+    this.maxTimeoutNanos = settings.maxTimeoutOrDefault(staticTimeout).toNanos();
+    this.minTimeoutNanos = Math.min(settings.minTimeoutOrDefault().toNanos(), maxTimeoutNanos);
+    this.minSamples = settings.minSamplesOrDefault();
+    this.nanoClock = nanoClock;
+    this.latencies = new LatencyHistogram(settings.windowOrDefault().toNanos(), nanoClock);
+    this.configuration = configuration(staticTimeout);
+    this.nextRefreshNanos = nanoClock.getAsLong() + REFRESH_NANOS;
+  }
+
+  /**
+   * Record the latency of a call.
+   *
+   * @param nanos latency
+   */
+  void record(long nanos) {
+    latencies.record(nanos);
+  }
+
+  /**
+   * Task configuration with the current timeout. Recomputed at most once a second, and shared until then.
+   *
+   * @return configuration
+   */
+  FaultTolerantScopeConfiguration configuration() {
+    long now = nanoClock.getAsLong();
+    if (now - nextRefreshNanos < 0) {
+      return configuration;
+    }
+    nextRefreshNanos = now + REFRESH_NANOS;
+
+    Long latency = latencies.percentile(percentile, minSamples);
+    if (latency != null) {
+      long timeoutNanos = Math.max(minTimeoutNanos, Math.min(maxTimeoutNanos, (long) (latency * multiplier)));
+      // Whole millis, so timeouts describe compactly and small changes do not replace the configuration
+      Duration timeout = Duration.ofMillis(Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+      if (!timeout.equals(configuration.getTimeout())) {
+        configuration = configuration(timeout);
+      }
+    }
+
+    return configuration;
+  }
+
+  /**
+   * Fill description with the current timeout.
+   *
+   * @param description description
+   */
+  void describe(ObjectMap description) {
+    description.put("timeout", Durations.toCompactString(configuration.getTimeout()));
+    description.put("samples", latencies.count());
+  }
+
+  private static FaultTolerantScopeConfiguration configuration(Duration timeout) {
+    FaultTolerantScopeConfiguration configuration = new FaultTolerantScopeConfiguration();
+    configuration.setTimeout(timeout);
+
+    return configuration;
+  }
+}
@@ -0,0 +1,194 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for a scope's adaptive timeout.
+ *
+ * <p>The latencies of the scope's calls are recorded in a histogram covering the last {@code window}. Once at least
+ * {@code minSamples} calls have been recorded, the scope's timeout becomes {@code multiplier} times the latency at
+ * {@code percentile}, kept between {@code minTimeout} and {@code maxTimeout}. Until then, the scope's static
+ * {@code timeout} is used. The effective timeout is recomputed at most once a second.
+ */
+@Data
+public class AdaptiveTimeoutSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final double DEFAULT_PERCENTILE = 99.9;
+  public static final double DEFAULT_MULTIPLIER = 2.0;
+  public static final Duration DEFAULT_MIN_TIMEOUT = Duration.ofMillis(500);
+  public static final int DEFAULT_MIN_SAMPLES = 100;
+  public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+
+  /**
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Latency percentile the timeout is derived from, between 0 and 100.
+   *
+   * -- GETTER --
+   * Return percentile.
+   *
+   * @return percentile
+   * -- SETTER --
+   * Set percentile.
+   *
+   * @param percentile percentile to set
+   */
+  @ConfigurationField
+  private Double percentile;
+
+  /**
+   * -- GETTER --
+   * Return multiplier.
+   *
+   * @return multiplier
+   * -- SETTER --
+   * Set multiplier.
+   *
+   * @param multiplier multiplier to set
+   */
+  @ConfigurationField
+  private Double multiplier;
+
+  /**
+   * -- GETTER --
+   * Return min timeout.
+   *
+   * @return min timeout
+   * -- SETTER --
+   * Set min timeout.
+   *
+   * @param minTimeout min timeout to set
+   */
+  @ConfigurationField
+  private Duration minTimeout;
+
+  /**
+   * Longest adaptive timeout. Defaults to the scope's static timeout.
+   *
+   * -- GETTER --
+   * Return max timeout.
+   *
+   * @return max timeout
+   * -- SETTER --
+   * Set max timeout.
+   *
+   * @param maxTimeout max timeout to set
+   */
+  @ConfigurationField
+  private Duration maxTimeout;
+
+  /**
+   * Calls that must be recorded before the adaptive timeout is used.
+   *
+   * -- GETTER --
+   * Return min samples.
+   *
+   * @return min samples
+   * -- SETTER --
+   * Set min samples.
+   *
+   * @param minSamples min samples to set
+   */
+  @ConfigurationField
+  private Integer minSamples;
+
+  /**
+   * How long latencies are kept.
+   *
+   * -- GETTER --
+   * Return window.
+   *
+   * @return window
+   * -- SETTER --
+   * Set window.
+   *
+   * @param window window to set
+   */
+  @ConfigurationField
+  private Duration window;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured percentile, or default
+   */
+  public final double percentileOrDefault() {
+    return percentile != null ? percentile : DEFAULT_PERCENTILE;
+  }
+
+  /**
+   * @return configured multiplier, or default
+   */
+  public final double multiplierOrDefault() {
+    return multiplier != null ? multiplier : DEFAULT_MULTIPLIER;
+  }
+
+  /**
+   * @return configured min timeout, or default
+   */
+  public final Duration minTimeoutOrDefault() {
+    return minTimeout != null ? minTimeout : DEFAULT_MIN_TIMEOUT;
+  }
+
+  /**
+   * @param staticTimeout scope's static timeout
+   * @return configured max timeout, or the scope's static timeout
+   */
+  public final Duration maxTimeoutOrDefault(Duration staticTimeout) {
+    return maxTimeout != null ? maxTimeout : staticTimeout;
+  }
+
+  /**
+   * @return configured min samples, or default
+   */
+  public final int minSamplesOrDefault() {
+    return minSamples != null ? minSamples : DEFAULT_MIN_SAMPLES;
+  }
+
+  /**
+   * @return configured window, or default
+   */
+  public final Duration windowOrDefault() {
+    return window != null ? window : DEFAULT_WINDOW;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("percentile", percentileOrDefault());
+    description.put("multiplier", multiplierOrDefault());
+    description.put("minTimeout", Durations.toCompactString(minTimeoutOrDefault()));
+    if (maxTimeout != null) {
+      description.put("maxTimeout", Durations.toCompactString(maxTimeout));
+    }
+    description.put("minSamples", minSamplesOrDefault());
+    description.put("window", Durations.toCompactString(windowOrDefault()));
+  }
+}
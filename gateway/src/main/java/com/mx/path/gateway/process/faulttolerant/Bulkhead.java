@@ -0,0 +1,107 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationException;
+
+/**
+ * Limits concurrent calls of a scope. See {@link BulkheadSettings}.
+ */
+final class Bulkhead {
+  private final String name;
+  private final int maxConcurrentCalls;
+  private final long maxWaitNanos;
+  private final Semaphore permits;
+  private final ThreadPoolExecutor threadPool;
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  Bulkhead(String name, BulkheadSettings settings) {
+    this.name = name;
+    this.maxConcurrentCalls = settings.maxConcurrentCallsOrDefault();
+    this.maxWaitNanos = settings.maxWaitOrDefault().toNanos();
+    this.permits = new Semaphore(maxConcurrentCalls);
+
+    if (BulkheadSettings.THREAD_POOL.equals(settings.typeOrDefault())) {
+      this.threadPool = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 1, TimeUnit.MINUTES,
+          new SynchronousQueue<>(),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-bulkhead-" + name + "-%d").build());
+      this.threadPool.allowCoreThreadTimeOut(true);
+    } else if (BulkheadSettings.SEMAPHORE.equals(settings.typeOrDefault())) {
+      this.threadPool = null;
+    } else {
+      throw new ConfigurationException("Invalid bulkhead type: " + settings.getType());
+    }
+  }
+
+  /**
+   * @return true, if calls run on this bulkhead's thread pool
+   */
+  boolean isThreadPool() {
+    return threadPool != null;
+  }
+
+  /**
+   * Take a permit, waiting up to the configured max wait.
+   *
+   * @return true, if acquired. Caller must {@link #release()} it.
+   */
+  boolean tryAcquire() {
+    boolean acquired;
+    try {
+      acquired = maxWaitNanos > 0
+          ? permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)
+          : permits.tryAcquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+
+    if (!acquired) {
+      rejectedCount.incrementAndGet();
+    }
+
+    return acquired;
+  }
+
+  void release() {
+    permits.release();
+  }
+
+  /**
+   * Run call on the thread pool.
+   *
+   * @param call call
+   * @param <T> result type
+   * @return future, or null if the pool is saturated
+   */
+  <T> Future<T> trySubmit(Callable<T> call) {
+    try {
+      return threadPool.submit(call);
+    } catch (RejectedExecutionException e) {
+      rejectedCount.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Fill description with current usage.
+   *
+   * @param description description
+   */
+  void describe(ObjectMap description) {
+    description.put("name", name);
+    description.put("type", isThreadPool() ? BulkheadSettings.THREAD_POOL : BulkheadSettings.SEMAPHORE);
+    description.put("maxConcurrentCalls", maxConcurrentCalls);
+    description.put("active", isThreadPool() ? threadPool.getActiveCount() : maxConcurrentCalls - permits.availablePermits());
+    description.put("rejected", rejectedCount.get());
+  }
+}
@@ -0,0 +1,101 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for a scope's bulkhead, which limits the number of concurrent calls.
+ *
+ * <p>A {@code semaphore} bulkhead runs calls on the calling thread. A {@code threadPool} bulkhead runs synchronous
+ * calls on a dedicated pool of {@code maxConcurrentCalls} threads, which lets the executor abandon calls that exceed
+ * the scope's timeout. Asynchronous calls always use a semaphore.
+ */
+@Data
+public class BulkheadSettings {
+
+  public static final String SEMAPHORE = "semaphore";
+  public static final String THREAD_POOL = "threadPool";
+  public static final String DEFAULT_TYPE = SEMAPHORE;
+  public static final int DEFAULT_MAX_CONCURRENT_CALLS = 25;
+  public static final Duration DEFAULT_MAX_WAIT = Duration.ZERO;
+
+  /**
+   * Bulkhead type, {@code semaphore} or {@code threadPool}.
+   *
+   * -- GETTER --
+   * Return type.
+   *
+   * @return type
+   * -- SETTER --
+   * Set type.
+   *
+   * @param type type to set
+   */
+  @ConfigurationField
+  private String type;
+
+  /**
+   * -- GETTER --
+   * Return max concurrent calls.
+   *
+   * @return max concurrent calls
+   * -- SETTER --
+   * Set max concurrent calls.
+   *
+   * @param maxConcurrentCalls max concurrent calls to set
+   */
+  @ConfigurationField
+  private Integer maxConcurrentCalls;
+
+  /**
+   * How long a call waits for a semaphore permit before it is rejected.
+   *
+   * -- GETTER --
+   * Return max wait.
+   *
+   * @return max wait
+   * -- SETTER --
+   * Set max wait.
+   *
+   * @param maxWait max wait to set
+   */
+  @ConfigurationField
+  private Duration maxWait;
+
+  /**
+   * @return configured type, or default
+   */
+  public final String typeOrDefault() {
+    return type != null ? type : DEFAULT_TYPE;
+  }
+
+  /**
+   * @return configured max concurrent calls, or default
+   */
+  public final int maxConcurrentCallsOrDefault() {
+    return maxConcurrentCalls != null ? maxConcurrentCalls : DEFAULT_MAX_CONCURRENT_CALLS;
+  }
+
+  /**
+   * @return configured max wait, or default
+   */
+  public final Duration maxWaitOrDefault() {
+    return maxWait != null ? maxWait : DEFAULT_MAX_WAIT;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("type", typeOrDefault());
+    description.put("maxConcurrentCalls", maxConcurrentCallsOrDefault());
+    description.put("maxWait", Durations.toCompactString(maxWaitOrDefault()));
+  }
+}
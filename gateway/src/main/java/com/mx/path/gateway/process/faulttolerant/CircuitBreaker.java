@@ -0,0 +1,203 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import com.mx.path.core.common.collection.ObjectMap;
+
+/**
+ * Lock-free circuit breaker over a count-based sliding window. See {@link CircuitBreakerSettings}.
+ */
+final class CircuitBreaker {
+  private static final double PERCENT = 100.0;
+
+  /**
+   * Breaker state.
+   */
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int windowSize;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final Double slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final LongSupplier nanoClock;
+
+  private final AtomicReference<Status> status = new AtomicReference<>(new Status(State.CLOSED, 0));
+  private final AtomicReference<Window> window;
+  private final AtomicInteger halfOpenPermits = new AtomicInteger();
+  private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  CircuitBreaker(CircuitBreakerSettings settings, long slowCallNanos, LongSupplier nanoClock) {
+    this.windowSize = settings.windowSizeOrDefault();
+    this.minimumCalls = settings.minimumCallsOrDefault();
+    this.failureRateThreshold = settings.failureRateThresholdOrDefault();
+    this.slowCallRateThreshold = settings.getSlowCallRateThreshold();
+    this.slowCallNanos = slowCallNanos;
+    this.openNanos = settings.openDurationOrDefault().toNanos();
+    this.halfOpenCalls = settings.halfOpenCallsOrDefault();
+    this.nanoClock = nanoClock;
+    this.window = new AtomicReference<>(new Window(windowSize));
+  }
+
+  /**
+   * @return true, if a call may proceed. Callers that are allowed must report the call's outcome with
+   *     {@link #onResult(long, boolean)}, or {@link #onRejected()} if the call is not made.
+   */
+  boolean tryAcquire() {
+    Status current = status.get();
+    switch (current.state) {
+      case CLOSED:
+        return true;
+
+      case OPEN:
+        if (nanoClock.getAsLong() - current.since < openNanos) {
+          rejectedCount.incrementAndGet();
+          return false;
+        }
+        if (status.compareAndSet(current, new Status(State.HALF_OPEN, nanoClock.getAsLong()))) {
+          halfOpenSuccesses.set(0);
+          halfOpenPermits.set(halfOpenCalls);
+        }
+        return tryAcquire();
+
+      default:
+        if (halfOpenPermits.getAndUpdate(permits -> permits > 0 ? permits - 1 : 0) > 0) {
+          return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+  }
+
+  /**
+   * Return the permit of a call that was allowed but not made.
+   */
+  void onRejected() {
+    if (status.get().state == State.HALF_OPEN) {
+      halfOpenPermits.incrementAndGet();
+    }
+  }
+
+  /**
+   * Record the outcome of a call.
+   *
+   * @param durationNanos call duration
+   * @param failed true if the call failed
+   */
+  void onResult(long durationNanos, boolean failed) {
+    boolean slow = slowCallNanos > 0 && durationNanos > slowCallNanos;
+    Status current = status.get();
+
+    if (current.state == State.HALF_OPEN) {
+      if (failed || slow) {
+        transition(current, State.OPEN);
+      } else if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls && transition(current, State.CLOSED)) {
+        window.set(new Window(windowSize));
+      }
+    } else if (current.state == State.CLOSED) {
+      Window calls = window.get();
+      calls.record(failed, slow);
+      if (calls.shouldOpen()) {
+        transition(current, State.OPEN);
+      }
+    }
+  }
+
+  /**
+   * @return current state
+   */
+  State getState() {
+    return status.get().state;
+  }
+
+  /**
+   * Fill description with current state and rates.
+   *
+   * @param description description
+   */
+  void describe(ObjectMap description) {
+    Window calls = window.get();
+    description.put("state", getState().name());
+    description.put("calls", calls.size());
+    description.put("failureRate", calls.rate(calls.failures.get()));
+    description.put("slowCallRate", calls.rate(calls.slowCalls.get()));
+    description.put("rejected", rejectedCount.get());
+  }
+
+  private boolean transition(Status from, State to) {
+    return status.compareAndSet(from, new Status(to, nanoClock.getAsLong()));
+  }
+
+  /**
+   * Immutable state and the time it was entered.
+   */
+  private static final class Status {
+    private final State state;
+    private final long since;
+
+    Status(State state, long since) {
+      this.state = state;
+      this.since = since;
+    }
+  }
+
+  /**
+   * Outcomes of the most recent calls. Replaced, rather than cleared, when the breaker closes.
+   */
+  private final class Window {
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    Window(int size) {
+      this.outcomes = new AtomicIntegerArray(size);
+    }
+
+    void record(boolean failed, boolean slow) {
+      int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+      int index = (int) (recorded.getAndIncrement() % outcomes.length());
+      int previous = outcomes.getAndSet(index, outcome);
+
+      failures.addAndGet(bit(outcome, FAILED) - bit(previous, FAILED));
+      slowCalls.addAndGet(bit(outcome, SLOW) - bit(previous, SLOW));
+    }
+
+    boolean shouldOpen() {
+      if (size() < minimumCalls) {
+        return false;
+      }
+
+      return rate(failures.get()) >= failureRateThreshold
+          || slowCallRateThreshold != null && rate(slowCalls.get()) >= slowCallRateThreshold;
+    }
+
+    int size() {
+      return (int) Math.min(recorded.get(), outcomes.length());
+    }
+
+    double rate(int count) {
+      int size = size();
+      return size > 0 ? count * PERCENT / size : 0;
+    }
+
+    private int bit(int outcome, int flag) {
+      return (outcome & flag) != 0 ? 1 : 0;
+    }
+  }
+}
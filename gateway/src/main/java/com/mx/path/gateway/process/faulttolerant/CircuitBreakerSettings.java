@@ -0,0 +1,208 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Settings for a scope's circuit breaker.
+ *
+ * <p>The breaker tracks the outcome of the last {@code windowSize} calls. Once at least {@code minimumCalls} have been
+ * recorded, it opens if the percentage of failed calls, or of calls slower than {@code slowCallDuration}, reaches its
+ * threshold. An open breaker rejects calls for {@code openDuration}, then lets {@code halfOpenCalls} trial calls
+ * through. It closes if they all succeed, and opens again on the first failure.
+ */
+@Data
+public class CircuitBreakerSettings {
+
+  public static final boolean DEFAULT_ENABLED = true;
+  public static final int DEFAULT_WINDOW_SIZE = 100;
+  public static final int DEFAULT_MINIMUM_CALLS = 20;
+  public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 50.0;
+  public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+  public static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+  /**
+   * -- GETTER --
+   * Return enabled.
+   *
+   * @return enabled
+   * -- SETTER --
+   * Set enabled.
+   *
+   * @param enabled enabled to set
+   */
+  @ConfigurationField
+  private Boolean enabled;
+
+  /**
+   * Number of most recent calls used to compute failure and slow call rates.
+   *
+   * -- GETTER --
+   * Return window size.
+   *
+   * @return window size
+   * -- SETTER --
+   * Set window size.
+   *
+   * @param windowSize window size to set
+   */
+  @ConfigurationField
+  private Integer windowSize;
+
+  /**
+   * Number of calls that must be recorded before the breaker can open.
+   *
+   * -- GETTER --
+   * Return minimum calls.
+   *
+   * @return minimum calls
+   * -- SETTER --
+   * Set minimum calls.
+   *
+   * @param minimumCalls minimum calls to set
+   */
+  @ConfigurationField
+  private Integer minimumCalls;
+
+  /**
+   * Percentage (0-100) of failed calls that opens the breaker.
+   *
+   * -- GETTER --
+   * Return failure rate threshold.
+   *
+   * @return failure rate threshold
+   * -- SETTER --
+   * Set failure rate threshold.
+   *
+   * @param failureRateThreshold failure rate threshold to set
+   */
+  @ConfigurationField
+  private Double failureRateThreshold;
+
+  /**
+   * Percentage (0-100) of slow calls that opens the breaker. If not set, slow calls do not open the breaker.
+   *
+   * -- GETTER --
+   * Return slow call rate threshold.
+   *
+   * @return slow call rate threshold
+   * -- SETTER --
+   * Set slow call rate threshold.
+   *
+   * @param slowCallRateThreshold slow call rate threshold to set
+   */
+  @ConfigurationField
+  private Double slowCallRateThreshold;
+
+  /**
+   * Calls that take longer than this are slow. Defaults to the scope's timeout.
+   *
+   * -- GETTER --
+   * Return slow call duration.
+   *
+   * @return slow call duration
+   * -- SETTER --
+   * Set slow call duration.
+   *
+   * @param slowCallDuration slow call duration to set
+   */
+  @ConfigurationField
+  private Duration slowCallDuration;
+
+  /**
+   * How long an open breaker rejects calls before allowing trial calls.
+   *
+   * -- GETTER --
+   * Return open duration.
+   *
+   * @return open duration
+   * -- SETTER --
+   * Set open duration.
+   *
+   * @param openDuration open duration to set
+   */
+  @ConfigurationField
+  private Duration openDuration;
+
+  /**
+   * Number of trial calls that must succeed to close the breaker.
+   *
+   * -- GETTER --
+   * Return half-open calls.
+   *
+   * @return half-open calls
+   * -- SETTER --
+   * Set half-open calls.
+   *
+   * @param halfOpenCalls half-open calls to set
+   */
+  @ConfigurationField
+  private Integer halfOpenCalls;
+
+  /**
+   * @return configured enabled, or default
+   */
+  public final boolean enabledOrDefault() {
+    return enabled != null ? enabled : DEFAULT_ENABLED;
+  }
+
+  /**
+   * @return configured window size, or default
+   */
+  public final int windowSizeOrDefault() {
+    return windowSize != null ? windowSize : DEFAULT_WINDOW_SIZE;
+  }
+
+  /**
+   * @return configured minimum calls, or default
+   */
+  public final int minimumCallsOrDefault() {
+    return minimumCalls != null ? minimumCalls : DEFAULT_MINIMUM_CALLS;
+  }
+
+  /**
+   * @return configured failure rate threshold, or default
+   */
+  public final double failureRateThresholdOrDefault() {
+    return failureRateThreshold != null ? failureRateThreshold : DEFAULT_FAILURE_RATE_THRESHOLD;
+  }
+
+  /**
+   * @return configured open duration, or default
+   */
+  public final Duration openDurationOrDefault() {
+    return openDuration != null ? openDuration : DEFAULT_OPEN_DURATION;
+  }
+
+  /**
+   * @return configured half-open calls, or default
+   */
+  public final int halfOpenCallsOrDefault() {
+    return halfOpenCalls != null ? halfOpenCalls : DEFAULT_HALF_OPEN_CALLS;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("enabled", enabledOrDefault());
+    description.put("windowSize", windowSizeOrDefault());
+    description.put("minimumCalls", minimumCallsOrDefault());
+    description.put("failureRateThreshold", failureRateThresholdOrDefault());
+    if (slowCallRateThreshold != null) {
+      description.put("slowCallRateThreshold", slowCallRateThreshold);
+    }
+    if (slowCallDuration != null) {
+      description.put("slowCallDuration", Durations.toCompactString(slowCallDuration));
+    }
+    description.put("openDuration", Durations.toCompactString(openDurationOrDefault()));
+    description.put("halfOpenCalls", halfOpenCallsOrDefault());
+  }
+}
@@ -0,0 +1,481 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import lombok.Getter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.Configuration;
+import com.mx.path.core.common.configuration.ConfigurationException;
+import com.mx.path.core.common.connect.CircuitOpenException;
+import com.mx.path.core.common.connect.ConnectException;
+import com.mx.path.core.common.connect.ServiceUnavailableException;
+import com.mx.path.core.common.connect.TimeoutException;
+import com.mx.path.core.common.connect.TooManyRequestsException;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.common.lang.Strings;
+import com.mx.path.core.common.process.AdaptiveConcurrencyLimit;
+import com.mx.path.core.common.process.FaultTolerantAsyncTask;
+import com.mx.path.core.common.process.FaultTolerantExecutor;
+import com.mx.path.core.common.process.FaultTolerantScope;
+import com.mx.path.core.common.process.FaultTolerantScopeConfiguration;
+import com.mx.path.core.common.process.FaultTolerantTask;
+import com.mx.path.gateway.process.AsyncWithGatewayContext;
+
+/**
+ * Built-in {@link FaultTolerantExecutor} with a circuit breaker, a bulkhead, an adaptive concurrency limit and a
+ * timeout per scope.
+ *
+ * <p>Scope settings are selected with the dot-delimited fallback described by {@link FaultTolerantExecutor}, once per
+ * scope. The result is cached, so calls do not repeat the lookup. Each requested scope gets its own circuit breaker.
+ * A bulkhead is shared by all scopes that select the same bulkhead settings, so a bulkhead configured on
+ * {@code http.accounts} limits {@code http.accounts.list} and {@code http.accounts.get} together.
+ *
+ * <p>A scope with an {@code adaptiveTimeout} uses a timeout derived from the recent latencies of its calls instead of
+ * its static timeout (see {@link AdaptiveTimeoutSettings}), so hung upstream calls are abandoned soon after they
+ * become unusually slow.
+ *
+ * <p>Rejects calls with {@link CircuitOpenException} while a circuit is open, with {@link TooManyRequestsException}
+ * when a bulkhead is full, and with {@link ServiceUnavailableException} when the scope's adaptive concurrency limit is
+ * reached. Each requested scope gets its own concurrency limit, adjusted from the latency and failures of its calls.
+ * Calls that exceed the scope's timeout fail with {@link TimeoutException}. The timeout is also passed to the task in
+ * its {@link FaultTolerantScopeConfiguration}, which the http filter chain uses as the request timeout. Synchronous
+ * calls on a semaphore bulkhead run on the calling thread and rely on that request timeout. Synchronous calls on a
+ * thread-pool bulkhead, and all asynchronous calls, are abandoned (and cancelled) when the timeout expires.
+ *
+ * <p>Configured in the gateway's {@code facilities} block. See {@link FaultTolerantExecutorConfiguration}.
+ */
+public class DefaultFaultTolerantExecutor implements FaultTolerantExecutor {
+  private static final String DEFAULTS_SCOPE = "";
+  private static final ScheduledExecutorService TIMEOUT_TIMER = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-fault-tolerant-timer").build());
+
+  @Getter
+  private final FaultTolerantExecutorConfiguration configuration;
+  private final Map<String, FaultTolerantScopeSettings> configuredScopes = new ConcurrentHashMap<>();
+  private final Map<FaultTolerantScope, ScopeState> scopes = new ConcurrentHashMap<>();
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+
+  /**
+   * Build new {@link DefaultFaultTolerantExecutor}.
+   *
+   * @param configuration configuration
+   */
+  public DefaultFaultTolerantExecutor(@Configuration FaultTolerantExecutorConfiguration configuration) {
+    this(configuration, System::nanoTime);
+  }
+
+  DefaultFaultTolerantExecutor(FaultTolerantExecutorConfiguration configuration, LongSupplier nanoClock) {
+    this.configuration = configuration;
+    this.nanoClock = nanoClock;
+    if (configuration.getScopes() != null) {
+      configuration.getScopes().forEach(settings -> {
+        if (Strings.isBlank(settings.getScope())) {
+          throw new ConfigurationException("Fault-tolerant scope settings must have a scope");
+        }
+        configuredScopes.put(settings.getScope(), settings);
+      });
+    }
+  }
+
+  /**
+   * Run task on the calling thread, or on the scope's thread-pool bulkhead.
+   *
+   * @param scope scope
+   * @param task task
+   */
+  @Override
+  public final void submit(String scope, FaultTolerantTask task) {
+    submit(FaultTolerantScope.of(scope), task);
+  }
+
+  /**
+   * Run task on the calling thread, or on the scope's thread-pool bulkhead.
+   *
+   * @param scope scope
+   * @param task task
+   */
+  @Override
+  public final void submit(FaultTolerantScope scope, FaultTolerantTask task) {
+    ScopeState state = scopeState(scope);
+    Bulkhead bulkhead = state.bulkhead;
+    acquireConcurrency(state);
+
+    if (bulkhead != null && bulkhead.isThreadPool()) {
+      submitToThreadPool(state, task);
+      return;
+    }
+
+    if (bulkhead != null && !bulkhead.tryAcquire()) {
+      state.releaseConcurrency();
+      throw bulkheadFull(state.scope);
+    }
+
+    try {
+      acquireCircuit(state);
+      long start = nanoClock.getAsLong();
+      boolean failed = true;
+      try {
+        task.apply(state.taskConfiguration());
+        failed = false;
+      } finally {
+        onResult(state, start, failed);
+      }
+    } finally {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+    }
+  }
+
+  /**
+   * Run task without blocking. The task's future is cancelled if it does not complete within the scope's timeout.
+   *
+   * @param scope scope
+   * @param task task
+   * @return future completed when task is done
+   */
+  @Override
+  public final CompletableFuture<Void> submitAsync(String scope, FaultTolerantAsyncTask task) {
+    return submitAsync(FaultTolerantScope.of(scope), task);
+  }
+
+  /**
+   * Run task without blocking. The task's future is cancelled if it does not complete within the scope's timeout.
+   *
+   * @param scope scope
+   * @param task task
+   * @return future completed when task is done
+   */
+  @Override
+  public final CompletableFuture<Void> submitAsync(FaultTolerantScope scope, FaultTolerantAsyncTask task) {
+    ScopeState state = scopeState(scope);
+    Bulkhead bulkhead = state.bulkhead;
+
+    try {
+      acquireConcurrency(state);
+    } catch (ServiceUnavailableException e) {
+      return Futures.failed(e);
+    }
+
+    if (bulkhead != null && !bulkhead.tryAcquire()) {
+      state.releaseConcurrency();
+      return Futures.failed(bulkheadFull(state.scope));
+    }
+
+    try {
+      acquireCircuit(state);
+    } catch (CircuitOpenException e) {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+      return Futures.failed(e);
+    }
+
+    FaultTolerantScopeConfiguration taskConfiguration = state.taskConfiguration();
+    long start = nanoClock.getAsLong();
+    CompletableFuture<Void> taskFuture;
+    try {
+      taskFuture = task.apply(taskConfiguration);
+    } catch (RuntimeException e) {
+      taskFuture = Futures.failed(e);
+    }
+
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    CompletableFuture<Void> timed = taskFuture;
+    ScheduledFuture<?> timer = TIMEOUT_TIMER.schedule(new AsyncWithGatewayContext<>(() -> {
+      if (result.completeExceptionally(timeout(state.scope, null))) {
+        timed.cancel(true);
+      }
+      return null;
+    }), taskConfiguration.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+
+    taskFuture.whenComplete((ignored, throwable) -> {
+      timer.cancel(false);
+      if (throwable != null) {
+        result.completeExceptionally(Futures.unwrap(throwable));
+      } else {
+        result.complete(null);
+      }
+    });
+
+    return result.whenComplete((ignored, throwable) -> {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+      onResult(state, start, throwable != null);
+    });
+  }
+
+  /**
+   * Effective settings and protections for scope. Resolved once and cached.
+   *
+   * @param scope requested scope
+   * @return state
+   */
+  final ScopeState scopeState(String scope) {
+    return scopeState(FaultTolerantScope.of(scope));
+  }
+
+  private ScopeState scopeState(FaultTolerantScope scope) {
+    // Scopes are interned, so a hit is an identity lookup
+    ScopeState state = scopes.get(scope);
+    if (state != null) {
+      return state;
+    }
+
+    return scopes.computeIfAbsent(scope, this::resolve);
+  }
+
+  /**
+   * Describe effective configuration and the current state of circuits, concurrency limits, adaptive timeouts and
+   * bulkheads.
+   *
+   * @return description
+   */
+  public final ObjectMap getConfigurations() {
+    ObjectMap description = new ObjectMap();
+    configuration.getDefaults().describe(description.createMap("defaults"));
+
+    List<FaultTolerantScopeSettings> configured = new ArrayList<>(configuredScopes.values());
+    configured.sort((left, right) -> left.getScope().compareTo(right.getScope()));
+    ObjectMap scopeDescriptions = description.createMap("scopes");
+    configured.forEach(settings -> settings.describe(scopeDescriptions.createMap(settings.getScope())));
+
+    ObjectMap circuits = description.createMap("circuits");
+    scopes.forEach((scope, state) -> {
+      if (state.circuitBreaker != null) {
+        state.circuitBreaker.describe(circuits.createMap(scope.getName()));
+      }
+    });
+
+    ObjectMap concurrencyLimits = description.createMap("concurrencyLimits");
+    scopes.forEach((scope, state) -> {
+      if (state.concurrencyLimit != null) {
+        state.concurrencyLimit.describe(concurrencyLimits.createMap(scope.getName()));
+      }
+    });
+
+    ObjectMap timeouts = description.createMap("adaptiveTimeouts");
+    scopes.forEach((scope, state) -> {
+      if (state.adaptiveTimeout != null) {
+        state.adaptiveTimeout.describe(timeouts.createMap(scope.getName()));
+      }
+    });
+
+    ObjectMap bulkheadDescriptions = description.createMap("bulkheads");
+    bulkheads.forEach((name, bulkhead) -> bulkhead.describe(bulkheadDescriptions.createMap(name.isEmpty() ? "defaults" : name)));
+
+    return description;
+  }
+
+  private void submitToThreadPool(ScopeState state, FaultTolerantTask task) {
+    acquireCircuit(state);
+
+    FaultTolerantScopeConfiguration taskConfiguration = state.taskConfiguration();
+    long start = nanoClock.getAsLong();
+    Future<Void> future = state.bulkhead.trySubmit(new AsyncWithGatewayContext<>(() -> task.apply(taskConfiguration)));
+    if (future == null) {
+      state.releaseCircuit();
+      state.releaseConcurrency();
+      throw bulkheadFull(state.scope);
+    }
+
+    boolean failed = true;
+    try {
+      future.get(taskConfiguration.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+      failed = false;
+    } catch (java.util.concurrent.TimeoutException e) {
+      future.cancel(true);
+      throw timeout(state.scope, e);
+    } catch (ExecutionException e) {
+      Throwable cause = Futures.unwrap(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ConnectException("Fault-tolerant task failed", cause);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ConnectException("Interrupted waiting for fault-tolerant task", e);
+    } finally {
+      onResult(state, start, failed);
+    }
+  }
+
+  private void acquireCircuit(ScopeState state) {
+    if (state.circuitBreaker != null && !state.circuitBreaker.tryAcquire()) {
+      state.releaseConcurrency();
+      throw new CircuitOpenException("Circuit open for scope " + state.scope, null);
+    }
+  }
+
+  private void acquireConcurrency(ScopeState state) {
+    if (state.concurrencyLimit != null && !state.concurrencyLimit.tryAcquire()) {
+      throw new ServiceUnavailableException("Concurrency limit reached for scope " + state.scope, null);
+    }
+  }
+
+  private void onResult(ScopeState state, long start, boolean failed) {
+    long duration = nanoClock.getAsLong() - start;
+    if (state.circuitBreaker != null) {
+      state.circuitBreaker.onResult(duration, failed);
+    }
+    if (state.concurrencyLimit != null) {
+      state.concurrencyLimit.release(duration, failed);
+    }
+    if (state.adaptiveTimeout != null) {
+      state.adaptiveTimeout.record(duration);
+    }
+  }
+
+  private static TooManyRequestsException bulkheadFull(String scope) {
+    return new TooManyRequestsException("Bulkhead full for scope " + scope, null);
+  }
+
+  private static TimeoutException timeout(String scope, Throwable cause) {
+    return new TimeoutException("Fault-tolerant task timed out for scope " + scope, cause);
+  }
+
+  /**
+   * Select settings for scope with the dot-delimited fallback (the scope's parents), and build its protections.
+   */
+  private ScopeState resolve(FaultTolerantScope scope) {
+    List<FaultTolerantScopeSettings> chain = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    for (FaultTolerantScope candidate = scope; candidate != null; candidate = candidate.getParent()) {
+      FaultTolerantScopeSettings settings = configuredScopes.get(candidate.getName());
+      if (settings != null) {
+        chain.add(settings);
+        names.add(candidate.getName());
+      }
+    }
+    chain.add(configuration.getDefaults());
+    names.add(DEFAULTS_SCOPE);
+
+    FaultTolerantScopeSettings effective = new FaultTolerantScopeSettings();
+    effective.setScope(scope.getName());
+    String bulkheadName = null;
+    for (int i = 0; i < chain.size(); i++) {
+      FaultTolerantScopeSettings settings = chain.get(i);
+      if (effective.getTimeout() == null) {
+        effective.setTimeout(settings.getTimeout());
+      }
+      if (effective.getCircuitBreaker() == null) {
+        effective.setCircuitBreaker(settings.getCircuitBreaker());
+      }
+      if (effective.getConcurrencyLimit() == null) {
+        effective.setConcurrencyLimit(settings.getConcurrencyLimit());
+      }
+      if (effective.getAdaptiveTimeout() == null) {
+        effective.setAdaptiveTimeout(settings.getAdaptiveTimeout());
+      }
+      if (effective.getBulkhead() == null && settings.getBulkhead() != null) {
+        effective.setBulkhead(settings.getBulkhead());
+        bulkheadName = names.get(i);
+      }
+    }
+
+    return new ScopeState(scope.getName(), effective, bulkheadName);
+  }
+
+  /**
+   * Resolved settings and protections of one requested scope.
+   */
+  final class ScopeState {
+    private final String scope;
+    private final FaultTolerantScopeSettings settings;
+    private final FaultTolerantScopeConfiguration taskConfiguration = new FaultTolerantScopeConfiguration();
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AdaptiveTimeout adaptiveTimeout;
+
+    ScopeState(String scope, FaultTolerantScopeSettings settings, String bulkheadName) {
+      this.scope = scope;
+      this.settings = settings;
+      this.taskConfiguration.setTimeout(settings.timeoutOrDefault());
+
+      CircuitBreakerSettings circuitBreakerSettings = settings.getCircuitBreaker();
+      if (circuitBreakerSettings != null && circuitBreakerSettings.enabledOrDefault()) {
+        Duration slowCallDuration = circuitBreakerSettings.getSlowCallDuration() != null
+            ? circuitBreakerSettings.getSlowCallDuration()
+            : settings.timeoutOrDefault();
+        this.circuitBreaker = new CircuitBreaker(circuitBreakerSettings, slowCallDuration.toNanos(), nanoClock);
+      } else {
+        this.circuitBreaker = null;
+      }
+
+      this.adaptiveTimeout = settings.getAdaptiveTimeout() != null && settings.getAdaptiveTimeout().enabledOrDefault()
+          ? new AdaptiveTimeout(settings.getAdaptiveTimeout(), settings.timeoutOrDefault(), nanoClock)
+          : null;
+
+      this.concurrencyLimit = settings.getConcurrencyLimit() != null && settings.getConcurrencyLimit().enabledOrDefault()
+          ? new AdaptiveConcurrencyLimit(settings.getConcurrencyLimit())
+          : null;
+
+      this.bulkhead = bulkheadName != null
+          ? bulkheads.computeIfAbsent(bulkheadName, name -> new Bulkhead(name.isEmpty() ? "defaults" : name, settings.getBulkhead()))
+          : null;
+    }
+
+    FaultTolerantScopeSettings getSettings() {
+      return settings;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+      return circuitBreaker;
+    }
+
+    Bulkhead getBulkhead() {
+      return bulkhead;
+    }
+
+    /**
+     * @return configuration passed to the scope's tasks, with the current adaptive timeout if there is one
+     */
+    FaultTolerantScopeConfiguration taskConfiguration() {
+      return adaptiveTimeout != null ? adaptiveTimeout.configuration() : taskConfiguration;
+    }
+
+    AdaptiveTimeout getAdaptiveTimeout() {
+      return adaptiveTimeout;
+    }
+
+    AdaptiveConcurrencyLimit getConcurrencyLimit() {
+      return concurrencyLimit;
+    }
+
+    void releaseCircuit() {
+      if (circuitBreaker != null) {
+        circuitBreaker.onRejected();
+      }
+    }
+
+    /**
+     * Give back a concurrency permit taken by a call that was rejected before it ran.
+     */
+    void releaseConcurrency() {
+      if (concurrencyLimit != null) {
+        concurrencyLimit.releaseIgnored();
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+import com.mx.path.core.common.configuration.ConfigurationField;
+
+/**
+ * Configuration of {@link DefaultFaultTolerantExecutor}.
+ *
+ * <p><strong>Example:</strong>
+ *
+ * <pre>{@code
+ * facilities:
+ *   faultTolerantExecutor:
+ *     class: com.mx.path.gateway.process.faulttolerant.DefaultFaultTolerantExecutor
+ *     configurations:
+ *       defaults:
+ *         timeout: 10s
+ *         circuitBreaker:
+ *           failureRateThreshold: 50
+ *           openDuration: 30s
+ *         bulkhead:
+ *           maxConcurrentCalls: 50
+ *       scopes:
+ *         - scope: http.accounts
+ *           timeout: 5s
+ *           concurrencyLimit:
+ *             algorithm: gradient
+ *             maxLimit: 40
+ *         - scope: http.statements
+ *           adaptiveTimeout:
+ *             percentile: 99.9
+ *             multiplier: 2
+ *             minTimeout: 500ms
+ *         - scope: http.transfers
+ *           bulkhead:
+ *             type: threadPool
+ *             maxConcurrentCalls: 10
+ * }</pre>
+ */
+@Data
+public class FaultTolerantExecutorConfiguration {
+
+  /**
+   * Settings for scopes that have no configured scope, or parent scope.
+   *
+   * -- GETTER --
+   * Return defaults.
+   *
+   * @return defaults
+   * -- SETTER --
+   * Set defaults.
+   *
+   * @param defaults defaults to set
+   */
+  @ConfigurationField
+  private FaultTolerantScopeSettings defaults = new FaultTolerantScopeSettings();
+
+  /**
+   * -- GETTER --
+   * Return scope settings.
+   *
+   * @return scope settings
+   * -- SETTER --
+   * Set scope settings.
+   *
+   * @param scopes scope settings to set
+   */
+  @ConfigurationField(elementType = FaultTolerantScopeSettings.class)
+  private List<FaultTolerantScopeSettings> scopes = new ArrayList<>();
+}
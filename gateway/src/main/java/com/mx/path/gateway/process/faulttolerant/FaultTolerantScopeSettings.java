@@ -0,0 +1,140 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.configuration.ConfigurationField;
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Protections applied to the tasks of one fault-tolerant scope.
+ *
+ * <p>Settings that are not set are inherited from the nearest configured parent scope, then from the executor's
+ * defaults. The {@code adaptiveTimeout}, {@code circuitBreaker}, {@code bulkhead} and {@code concurrencyLimit} blocks
+ * are inherited as a whole.
+ */
+@Data
+public class FaultTolerantScopeSettings {
+
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+  /**
+   * Dot-delimited scope name (e.g. {@code http.accounts}). Not used for the executor's defaults.
+   *
+   * -- GETTER --
+   * Return scope.
+   *
+   * @return scope
+   * -- SETTER --
+   * Set scope.
+   *
+   * @param scope scope to set
+   */
+  @ConfigurationField
+  private String scope;
+
+  /**
+   * Longest time a task may take. With an {@code adaptiveTimeout}, used until enough latencies have been recorded.
+   *
+   * -- GETTER --
+   * Return timeout.
+   *
+   * @return timeout
+   * -- SETTER --
+   * Set timeout.
+   *
+   * @param timeout timeout to set
+   */
+  @ConfigurationField
+  private Duration timeout;
+
+  /**
+   * Timeout derived from the scope's observed latencies. Each requested scope records its own latencies.
+   *
+   * -- GETTER --
+   * Return adaptive timeout settings.
+   *
+   * @return adaptive timeout settings, null to always use the static timeout
+   * -- SETTER --
+   * Set adaptive timeout settings.
+   *
+   * @param adaptiveTimeout adaptive timeout settings to set
+   */
+  @ConfigurationField
+  private AdaptiveTimeoutSettings adaptiveTimeout;
+
+  /**
+   * -- GETTER --
+   * Return circuit breaker settings.
+   *
+   * @return circuit breaker settings, null for no circuit breaker
+   * -- SETTER --
+   * Set circuit breaker settings.
+   *
+   * @param circuitBreaker circuit breaker settings to set
+   */
+  @ConfigurationField
+  private CircuitBreakerSettings circuitBreaker;
+
+  /**
+   * -- GETTER --
+   * Return bulkhead settings.
+   *
+   * @return bulkhead settings, null for no bulkhead
+   * -- SETTER --
+   * Set bulkhead settings.
+   *
+   * @param bulkhead bulkhead settings to set
+   */
+  @ConfigurationField
+  private BulkheadSettings bulkhead;
+
+  /**
+   * Adaptive limit on concurrent calls. Each requested scope gets its own limit.
+   *
+   * -- GETTER --
+   * Return concurrency limit settings.
+   *
+   * @return concurrency limit settings, null for no adaptive limit
+   * -- SETTER --
+   * Set concurrency limit settings.
+   *
+   * @param concurrencyLimit concurrency limit settings to set
+   */
+  @ConfigurationField
+  private ConcurrencyLimitSettings concurrencyLimit;
+
+  /**
+   * @return configured timeout, or default
+   */
+  public final Duration timeoutOrDefault() {
+    return timeout != null ? timeout : DEFAULT_TIMEOUT;
+  }
+
+  /**
+   * Fill description with effective settings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    if (scope != null) {
+      description.put("scope", scope);
+    }
+    description.put("timeout", Durations.toCompactString(timeoutOrDefault()));
+    if (adaptiveTimeout != null) {
+      adaptiveTimeout.describe(description.createMap("adaptiveTimeout"));
+    }
+    if (circuitBreaker != null) {
+      circuitBreaker.describe(description.createMap("circuitBreaker"));
+    }
+    if (bulkhead != null) {
+      bulkhead.describe(description.createMap("bulkhead"));
+    }
+    if (concurrencyLimit != null) {
+      concurrencyLimit.describe(description.createMap("concurrencyLimit"));
+    }
+  }
+}
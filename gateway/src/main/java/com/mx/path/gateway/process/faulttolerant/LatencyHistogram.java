@@ -0,0 +1,147 @@
+package com.mx.path.gateway.process.faulttolerant;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free latency histogram over a sliding window.
+ *
+ * <p>Latencies are counted in microseconds, in log-linear buckets (as in HdrHistogram): each power of two is divided
+ * into 16 buckets, so a reported value is within about 6% of the recorded one, from 1us to over a day, in a few
+ * kilobytes. Recording is a single atomic increment.
+ *
+ * <p>The window is made of two halves. Percentiles are computed over both, and the older half is dropped each time
+ * half a window passes, so latencies are forgotten between half a window and a window after they are recorded.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_SHIFT = 33;
+  private static final long MAX_MICROS = (2L * SUB_BUCKETS << MAX_SHIFT) - 1;
+  private static final int BUCKETS = SUB_BUCKETS * (MAX_SHIFT + 2);
+  private static final double PERCENT = 100.0;
+
+  private final long halfWindowNanos;
+  private final LongSupplier nanoClock;
+  private volatile Half current;
+  private volatile Half previous;
+
+  LatencyHistogram(long windowNanos, LongSupplier nanoClock) {
+    this.halfWindowNanos = Math.max(1, windowNanos / 2);
+    this.nanoClock = nanoClock;
+    long now = nanoClock.getAsLong();
+    this.current = new Half(now);
+    this.previous = new Half(now - halfWindowNanos);
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos latency
+   */
+  void record(long nanos) {
+    long micros = Math.max(0, Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    half().counts.incrementAndGet(index(micros));
+  }
+
+  /**
+   * @return number of latencies within the window
+   */
+  long count() {
+    Half newer = half();
+    Half older = previous;
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += newer.counts.get(i) + older.counts.get(i);
+    }
+
+    return count;
+  }
+
+  /**
+   * @param percentile percentile, between 0 and 100
+   * @param minSamples fewest latencies the percentile may be computed from
+   * @return latency at percentile in nanos (the upper bound of its bucket), or null if fewer than minSamples latencies
+   *     are within the window
+   */
+  Long percentile(double percentile, long minSamples) {
+    Half newer = half();
+    Half older = previous;
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = newer.counts.get(i) + older.counts.get(i);
+      total += counts[i];
+    }
+    if (total == 0 || total < minSamples) {
+      return null;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(percentile / PERCENT * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+      }
+    }
+
+    return TimeUnit.MICROSECONDS.toNanos(MAX_MICROS);
+  }
+
+  /**
+   * Current half, rotating the halves if it has expired. Racing rotations are harmless: at worst a few latencies
+   * are recorded in the half being retired.
+   */
+  private Half half() {
+    Half half = current;
+    long now = nanoClock.getAsLong();
+    if (now - half.startNanos < halfWindowNanos) {
+      return half;
+    }
+
+    synchronized (this) {
+      half = current;
+      if (now - half.startNanos >= halfWindowNanos) {
+        // After a full window without a rotation, both halves have expired
+        previous = now - half.startNanos < 2 * halfWindowNanos ? half : new Half(now - halfWindowNanos);
+        half = new Half(now);
+        current = half;
+      }
+    }
+
+    return half;
+  }
+
+  static int index(long micros) {
+    if (micros < 2 * SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+
+    return SUB_BUCKETS * shift + (int) (micros >>> shift);
+  }
+
+  static long upperBound(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * Half of the window.
+   */
+  private static final class Half {
+    private final long startNanos;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    Half(long startNanos) {
+      this.startNanos = startNanos;
+    }
+  }
+}
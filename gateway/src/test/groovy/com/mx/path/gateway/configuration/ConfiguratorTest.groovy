@@ -6,7 +6,10 @@ import static org.mockito.Mockito.spy
 import static org.mockito.Mockito.times
 import static org.mockito.Mockito.verify
 
+import com.mx.path.core.common.store.NearCacheStore
+import com.mx.path.core.context.facility.Facilities
 import com.mx.path.gateway.Gateway
+import com.mx.testing.binding.TestCacheStore
 import com.mx.testing.gateway.TestAccountGateway
 import com.mx.testing.gateway.TestGateway
 import com.mx.testing.gateway.TestIdGateway
@@ -28,6 +31,10 @@ class ConfiguratorTest extends Specification {
     subject.setObserver(observer)
   }
 
+  def cleanup() {
+    Facilities.reset()
+  }
+
   def "invokes after gateways initialized listeners"() {
     given:
     def yaml =
@@ -98,4 +105,79 @@ class ConfiguratorTest extends Specification {
     gateways.get("client")
     verify(observer, times(1)).notifyClientFacilitiesInitialized("client")
   }
+
+  def "wraps stores configured with a near cache"() {
+    given:
+    def yaml =
+        "client:\n" +
+        "  facilities:\n" +
+        "    cacheStore:\n" +
+        "      class: com.mx.testing.binding.TestCacheStore\n" +
+        "      nearCache:\n" +
+        "        maxEntries: 100\n" +
+        "        ttl: 5s\n" +
+        "    sessionStore:\n" +
+        "      class: com.mx.testing.binding.TestCacheStore\n" +
+        "  accessor:\n" +
+        "    class: com.mx.testing.accessors.BaseAccessor\n" +
+        "    scope: singleton\n" +
+        "  gateways:\n" +
+        "    id: {}\n"
+
+    when:
+    subject.buildFromYaml(yaml)
+
+    then:
+    def cacheStore = Facilities.getCacheStore("client")
+    cacheStore instanceof NearCacheStore
+    ((NearCacheStore) cacheStore).delegate instanceof TestCacheStore
+    ((NearCacheStore) cacheStore).configurations.getMap("nearCache").get("maxEntries") == 100
+    Facilities.getSessionStore("client") instanceof TestCacheStore
+  }
+
+  def "requires a message broker for near cache invalidation"() {
+    given:
+    def yaml =
+        "client:\n" +
+        "  facilities:\n" +
+        "    cacheStore:\n" +
+        "      class: com.mx.testing.binding.TestCacheStore\n" +
+        "      nearCache:\n" +
+        "        invalidationChannel: nearCache\n" +
+        "  accessor:\n" +
+        "    class: com.mx.testing.accessors.BaseAccessor\n" +
+        "    scope: singleton\n" +
+        "  gateways:\n" +
+        "    id: {}\n"
+
+    when:
+    subject.buildFromYaml(yaml)
+
+    then:
+    def e = thrown(ConfigurationError)
+    e.message.contains("Near cache invalidationChannel requires a messageBroker facility")
+  }
+
+  def "requires invalidation for a near cached session store"() {
+    given:
+    def yaml =
+        "client:\n" +
+        "  facilities:\n" +
+        "    sessionStore:\n" +
+        "      class: com.mx.testing.binding.TestCacheStore\n" +
+        "      nearCache:\n" +
+        "        ttl: 5s\n" +
+        "  accessor:\n" +
+        "    class: com.mx.testing.accessors.BaseAccessor\n" +
+        "    scope: singleton\n" +
+        "  gateways:\n" +
+        "    id: {}\n"
+
+    when:
+    subject.buildFromYaml(yaml)
+
+    then:
+    def e = thrown(ConfigurationError)
+    e.message.contains("Near cache on sessionStore requires an invalidationChannel")
+  }
 }
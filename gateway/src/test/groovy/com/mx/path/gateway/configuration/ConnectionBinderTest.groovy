@@ -1,13 +1,32 @@
 package com.mx.path.gateway.configuration
 
+import java.time.Duration
+
 import com.mx.path.core.common.accessor.PathResponseStatus
+import com.mx.path.core.common.collection.ObjectArray
 import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.CompressionSettings
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings
+import com.mx.path.core.common.connect.ConnectionPoolSettings
+import com.mx.path.core.common.connect.HttpCacheSettings
+import com.mx.path.core.common.connect.LoadBalancerSettings
 import com.mx.path.core.common.gateway.GatewayException
 import com.mx.testing.binding.ConnectionWithBoundConfiguration
 
 import spock.lang.Specification
 
 class ConnectionBinderTest extends Specification {
+  static final Map<String, Map<String, Object>> SETTINGS = [
+    connectionPool  : [maxTotal: 50, maxPerRoute: 10, keepAlive: "45s"],
+    compression     : [compressRequests: true, requestThreshold: 4096],
+    cache           : [enabled: true, scope: "client", defaultTtl: "30s"],
+    coalescing      : [enabled: true, headers: ["Authorization"]],
+    hedging         : [enabled: true, delay: "150ms", percentile: 95.0d, budget: 0.05d],
+    retryBudget     : [enabled: true, ratio: 0.2d, minRetriesPerSecond: 5, window: "30s"],
+    concurrencyLimit: [algorithm: "gradient", initialLimit: 10, maxLimit: 50],
+    rateLimit       : [rate: 50.0d, maxWait: "100ms", distributed: true, scopes: [[scope: "http.accounts", rate: 5.0d]]],
+    loadBalancer    : [endpoints: ["http://node1", "http://node2"], strategy: "least_outstanding", latencyThreshold: "2s"],
+  ]
 
   ObjectMap configuration
   ConnectionBinder subject
@@ -88,6 +107,82 @@ class ConnectionBinderTest extends Specification {
     }
   }
 
+  def "build connection settings with #key"() {
+    given:
+    def connectionConfiguration = new ObjectMap()
+    connectionConfiguration.put("baseUrl", "url")
+    connectionConfiguration.put(key, toObject(SETTINGS[key]))
+    configuration.put("TestConnection", connectionConfiguration)
+
+    when:
+    def connection = subject.buildConnection(configuration, "TestConnection")
+
+    then:
+    field.call(connection."${key}") == expected
+
+    where:
+    key                || field                                       || expected
+    "connectionPool"   || { it.maxTotal }                             || 50
+    "connectionPool"   || { it.maxPerRoute }                          || 10
+    "connectionPool"   || { it.keepAlive }                            || Duration.ofSeconds(45)
+    "connectionPool"   || { it.idleTimeout }                          || null
+    "connectionPool"   || { it.idleTimeoutOrDefault() }               || ConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT
+    "compression"      || { it.compressRequests }                     || true
+    "compression"      || { it.requestThreshold }                     || 4096
+    "compression"      || { it.decompressResponses }                  || null
+    "compression"      || { it.decompressResponsesOrDefault() }       || CompressionSettings.DEFAULT_DECOMPRESS_RESPONSES
+    "cache"            || { it.enabledOrDefault() }                   || true
+    "cache"            || { it.scopeOrDefault() }                     || "client"
+    "cache"            || { it.isSharedScope() }                      || true
+    "cache"            || { it.defaultTtl }                           || Duration.ofSeconds(30)
+    "cache"            || { it.localMaxEntriesOrDefault() }           || HttpCacheSettings.DEFAULT_LOCAL_MAX_ENTRIES
+    "coalescing"       || { it.enabledOrDefault() }                   || true
+    "coalescing"       || { it.headers }                              || ["Authorization"]
+    "hedging"          || { it.enabledOrDefault() }                   || true
+    "hedging"          || { it.delayOrDefault() }                     || Duration.ofMillis(150)
+    "hedging"          || { it.percentile }                           || 95
+    "hedging"          || { it.budgetOrDefault() }                    || 0.05
+    "retryBudget"      || { it.enabledOrDefault() }                   || true
+    "retryBudget"      || { it.ratioOrDefault() }                     || 0.2
+    "retryBudget"      || { it.minRetriesPerSecondOrDefault() }       || 5
+    "retryBudget"      || { it.windowOrDefault() }                    || Duration.ofSeconds(30)
+    "concurrencyLimit" || { it.enabledOrDefault() }                   || true
+    "concurrencyLimit" || { it.algorithmOrDefault() }                 || ConcurrencyLimitSettings.Algorithm.GRADIENT
+    "concurrencyLimit" || { it.initialLimitOrDefault() }              || 10
+    "concurrencyLimit" || { it.maxLimitOrDefault() }                  || 50
+    "rateLimit"        || { it.enabledOrDefault() }                   || true
+    "rateLimit"        || { it.rate }                                 || 50.0
+    "rateLimit"        || { it.burstOrDefault() }                     || 50
+    "rateLimit"        || { it.maxWaitOrDefault() }                   || Duration.ofMillis(100)
+    "rateLimit"        || { it.distributedOrDefault() }               || true
+    "rateLimit"        || { it.scopes*.scope }                        || ["http.accounts"]
+    "rateLimit"        || { it.scopes*.rate }                         || [5.0]
+    "loadBalancer"     || { it.endpoints }                            || ["http://node1", "http://node2"]
+    "loadBalancer"     || { it.strategyOrDefault() }                  || LoadBalancerSettings.Strategy.LEAST_OUTSTANDING
+    "loadBalancer"     || { it.latencyThreshold }                     || Duration.ofSeconds(2)
+    "loadBalancer"     || { it.consecutiveFailuresOrDefault() }       || 5
+  }
+
+  def "build connection settings with load balancer defaults base url to the first endpoint"() {
+    given:
+    def configuration = new ObjectMap().tap {
+      createMap("TestConnection").tap {
+        createMap("loadBalancer").tap {
+          createArray("endpoints").tap {
+            add("http://node1")
+            add("http://node2")
+          }
+        }
+      }
+    }
+
+    when:
+    def connection = subject.buildConnection(configuration, "TestConnection")
+
+    then:
+    connection.baseUrl == "http://node1"
+  }
+
   def "build connection and fail validation"() {
     given:
     def configuration = new ObjectMap().tap {
@@ -107,4 +202,22 @@ class ConnectionBinderTest extends Specification {
     e.status == PathResponseStatus.INTERNAL_ERROR
     e.message == "Invalid connection details. Missing certificateAlias"
   }
+
+  /**
+   * Convert nested maps and lists to the configuration's {@link ObjectMap} and {@link ObjectArray}.
+   */
+  private static Object toObject(Object value) {
+    if (value instanceof Map) {
+      def map = new ObjectMap()
+      value.each { k, v -> map.put(k as String, toObject(v)) }
+      return map
+    }
+    if (value instanceof List) {
+      def array = new ObjectArray()
+      value.each { array.add(toObject(it)) }
+      return array
+    }
+
+    return value
+  }
 }
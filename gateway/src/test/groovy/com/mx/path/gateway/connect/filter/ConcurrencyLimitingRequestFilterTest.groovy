@@ -0,0 +1,124 @@
+package com.mx.path.gateway.connect.filter
+
+import java.util.concurrent.CompletableFuture
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.connect.ServiceUnavailableException
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.common.lang.Futures
+import com.mx.testing.RequestImpl
+import com.mx.testing.ResponseImpl
+import com.mx.testing.accessors.BaseAccessor
+import com.mx.testing.gateway.TestGateway
+
+import spock.lang.Specification
+
+class ConcurrencyLimitingRequestFilterTest extends Specification {
+  ConcurrencyLimitingRequestFilter subject
+  List<CompletableFuture<Void>> upstream
+  HttpStatus upstreamStatus
+
+  def setup() {
+    upstream = []
+    upstreamStatus = HttpStatus.OK
+    subject = new ConcurrencyLimitingRequestFilter({ 0L })
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+            response.setStatus(upstreamStatus)
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            response.setStatus(upstreamStatus)
+            def future = new CompletableFuture<Void>()
+            upstream.add(future)
+            return future
+          }
+        })
+  }
+
+  RequestImpl buildRequest(String scope = "http.accounts.list") {
+    def settings = AccessorConnectionSettings.builder()
+        .concurrencyLimit(new ConcurrencyLimitSettings().tap {
+          initialLimit = 2
+          backoffRatio = 0.5
+        })
+        .build()
+
+    return new RequestImpl()
+        .withBaseUrl("http://localhost")
+        .withPath("/accounts")
+        .withMethod("GET")
+        .withFaultTolerantScope(scope)
+        .withConnectionSettings(settings)
+  }
+
+  def "rejects requests beyond the scope's limit"() {
+    given:
+    def request = buildRequest()
+    2.times { subject.executeAsync(request, new ResponseImpl(request)) }
+
+    when:
+    Futures.join(subject.executeAsync(request, new ResponseImpl(request)))
+
+    then:
+    def e = thrown(ServiceUnavailableException)
+    e.message == "Concurrency limit reached for scope http.accounts.list"
+
+    when: "a request completes"
+    upstream[0].complete(null)
+    def other = buildRequest("http.transfers.create")
+    subject.executeAsync(request, new ResponseImpl(request))
+    subject.executeAsync(other, new ResponseImpl(other))
+
+    then: "a permit is available, and other scopes have their own limit"
+    upstream.size() == 4
+  }
+
+  def "backs off when the upstream is overloaded"() {
+    given:
+    def request = buildRequest()
+    upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE
+    def description = new ObjectMap()
+
+    when:
+    subject.execute(request, new ResponseImpl(request))
+    subject.describe(description)
+
+    then:
+    description.getMap("http.accounts.list").get("limit") == 1
+    description.getMap("http.accounts.list").get("inFlight") == 0
+  }
+
+  def "is included in Gateway.describe"() {
+    given:
+    def request = buildRequest("http.describe.list")
+    subject.executeAsync(request, new ResponseImpl(request))
+    def gateway = TestGateway.builder().clientId("client").baseAccessor(new BaseAccessor()).build()
+
+    when:
+    def connections = gateway.describe().getMap("connections").getMap("concurrencyLimits").get("connections") as List<ObjectMap>
+    def scope = connections.collect { it.getMap("scopes").getMap("http.describe.list") }.find { it != null }
+
+    then:
+    scope.get("limit") == 2
+    scope.get("inFlight") == 1
+  }
+
+  def "passes requests through without settings"() {
+    given:
+    def request = new RequestImpl().withBaseUrl("http://localhost").withPath("/accounts").withMethod("GET")
+
+    when:
+    5.times { subject.executeAsync(request, new ResponseImpl(request)) }
+
+    then:
+    upstream.size() == 5
+  }
+}
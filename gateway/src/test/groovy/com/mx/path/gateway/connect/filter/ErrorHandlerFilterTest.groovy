@@ -8,6 +8,7 @@ import com.mx.path.core.common.connect.Request
 import com.mx.path.core.common.connect.RequestFilter
 import com.mx.path.core.common.connect.Response
 import com.mx.path.core.common.connect.TimeoutException
+import com.mx.path.core.common.lang.Futures
 import com.mx.path.gateway.util.UpstreamLogger
 
 import spock.lang.Specification
@@ -78,4 +79,38 @@ class ErrorHandlerFilterTest extends Specification {
     then:
     thrown(TimeoutException)
   }
+
+  def "async thrown exception sets response exception"() {
+    given:
+    nextExecutor = mock(RequestFilter.class)
+    request = mock(Request.class)
+    response = new TestResponse()
+    subject = new ErrorHandlerFilter()
+    subject.setNext(nextExecutor)
+    when(nextExecutor.executeAsync(request, response)).thenReturn(Futures.failed(new RuntimeException()))
+
+    when:
+    def future = subject.executeAsync(request, response)
+
+    then:
+    !future.isCompletedExceptionally()
+    response.getException().class == RuntimeException
+  }
+
+  def "async ConnectException fails future"() {
+    given:
+    nextExecutor = mock(RequestFilter.class)
+    request = mock(Request.class)
+    response = new TestResponse()
+    subject = new ErrorHandlerFilter()
+    subject.setNext(nextExecutor)
+    when(nextExecutor.executeAsync(request, response)).thenReturn(Futures.failed(new TimeoutException("bad robot!", new RuntimeException())))
+
+    when:
+    Futures.join(subject.executeAsync(request, response))
+
+    then:
+    thrown(TimeoutException)
+    response.getException().class == TimeoutException
+  }
 }
@@ -0,0 +1,245 @@
+package com.mx.path.gateway.connect.filter
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.core.common.connect.ConnectException
+import com.mx.path.core.common.connect.HedgingSettings
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.common.lang.Futures
+import com.mx.testing.HedgingRequestImpl
+import com.mx.testing.ResponseImpl
+
+import spock.lang.Specification
+
+class HedgingRequestFilterTest extends Specification {
+  ScheduledExecutorService timer
+  HedgingRequestFilter subject
+  List<CompletableFuture<Void>> attempts
+  List<Request> attemptRequests
+  List<String> attemptThreads
+
+  def setup() {
+    timer = Executors.newSingleThreadScheduledExecutor()
+    subject = new HedgingRequestFilter(timer, Executors.newCachedThreadPool())
+    attempts = new CopyOnWriteArrayList<>()
+    attemptRequests = new CopyOnWriteArrayList<>()
+    attemptThreads = new CopyOnWriteArrayList<>()
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            def attempt = new CompletableFuture<Void>()
+            attempts.add(attempt)
+            attemptRequests.add(request)
+            attemptThreads.add(Thread.currentThread().getName())
+            response.withBody("attempt " + attempts.size()).setStatus(HttpStatus.OK)
+            return attempt
+          }
+        })
+  }
+
+  def cleanup() {
+    timer.shutdownNow()
+  }
+
+  HedgingRequestImpl buildRequest(String method = "GET") {
+    return new HedgingRequestImpl()
+        .withBaseUrl("http://localhost")
+        .withPath("/rates")
+        .withMethod(method)
+        .withHedging(new HedgingSettings().tap {
+          enabled = true
+          delay = Duration.ofMillis(20)
+          budget = 1.0
+        })
+  }
+
+  def "hedges slow requests and uses the first attempt to complete"() {
+    given:
+    def request = buildRequest()
+    def response = new ResponseImpl(request)
+
+    when:
+    def result = subject.executeAsync(request, response)
+    waitForAttempts(2)
+    attempts[1].complete(null)
+    result.get(1, TimeUnit.SECONDS)
+
+    then:
+    response.body == "attempt 2"
+    attempts[0].isCancelled()
+    subject.hedgeCount() == 1
+  }
+
+  def "sends each attempt with its own request and cancels the loser's work"() {
+    given:
+    def request = buildRequest().withHeader("X-Trace", "1")
+    def response = new ResponseImpl(request)
+
+    when:
+    def result = subject.executeAsync(request, response)
+    waitForAttempts(2)
+    attemptRequests[0].withBaseUrl("http://endpoint1")
+    attemptRequests[1].withBaseUrl("http://endpoint2").withHeader("X-Trace", "2")
+    attempts[1].complete(null)
+    result.get(1, TimeUnit.SECONDS)
+
+    then:
+    !attemptRequests[0].is(request)
+    !attemptRequests[0].is(attemptRequests[1])
+    request.baseUrl == "http://localhost"
+    request.headers["X-Trace"] == "1"
+    attemptRequests[0].headers["X-Trace"] == "1"
+    attemptRequests[0].cancellation.isCancelled()
+    !attemptRequests[1].cancellation.isCancelled()
+  }
+
+  def "makes the first attempt of a synchronous request on the calling thread"() {
+    given:
+    def request = buildRequest().withHedging(new HedgingSettings().tap {
+      enabled = true
+      delay = Duration.ofSeconds(5)
+    })
+    def response = new ResponseImpl(request)
+    def completer = new Thread({
+      waitForAttempts(1)
+      attempts.first().complete(null)
+    })
+    completer.start()
+
+    when:
+    subject.execute(request, response)
+
+    then:
+    attemptThreads == [Thread.currentThread().getName()]
+    response.body == "attempt 1"
+  }
+
+  def "does not hedge requests that complete before the delay"() {
+    given:
+    def request = buildRequest()
+    def response = new ResponseImpl(request)
+
+    when:
+    def result = subject.executeAsync(request, response)
+    attempts[0].complete(null)
+    result.get(1, TimeUnit.SECONDS)
+    Thread.sleep(50)
+
+    then:
+    attempts.size() == 1
+    response.body == "attempt 1"
+    subject.hedgeCount() == 0
+  }
+
+  def "waits for the other attempt when one fails"() {
+    given:
+    def request = buildRequest()
+    def response = new ResponseImpl(request)
+
+    when:
+    def result = subject.executeAsync(request, response)
+    waitForAttempts(2)
+    attempts[0].completeExceptionally(new ConnectException("Upstream failed", new IOException()))
+
+    then:
+    !result.isDone()
+
+    when:
+    attempts[1].complete(null)
+    result.get(1, TimeUnit.SECONDS)
+
+    then:
+    response.body == "attempt 2"
+  }
+
+  def "fails when every attempt fails"() {
+    given:
+    def request = buildRequest()
+
+    when:
+    def result = subject.executeAsync(request, new ResponseImpl(request))
+    waitForAttempts(2)
+    attempts.each { it.completeExceptionally(new ConnectException("Upstream failed", new IOException())) }
+    Futures.join(result)
+
+    then:
+    def e = thrown(ConnectException)
+    e.message == "Upstream failed"
+  }
+
+  def "does not hedge non-idempotent requests"() {
+    given:
+    def post = buildRequest("POST")
+    def idempotentPost = buildRequest("POST").withIdempotent(true)
+
+    when:
+    subject.executeAsync(post, new ResponseImpl(post))
+    Thread.sleep(50)
+
+    then:
+    attempts.size() == 1
+
+    when:
+    subject.executeAsync(idempotentPost, new ResponseImpl(idempotentPost))
+    waitForAttempts(3)
+
+    then:
+    subject.hedgeCount() == 1
+  }
+
+  def "limits hedges to the budget"() {
+    given:
+    def requests = (1..4).collect {
+      buildRequest().tap { hedging.budget = 0.5 }
+    }
+
+    when:
+    requests.each { subject.executeAsync(it, new ResponseImpl(it)) }
+    Thread.sleep(100)
+
+    then:
+    subject.hedgeCount() == 2
+    attempts.size() == 6
+  }
+
+  def "derives delay from latency percentile"() {
+    given:
+    def settings = new HedgingSettings().tap {
+      enabled = true
+      percentile = 50
+    }
+
+    expect: "falls back to default delay until enough latencies are observed"
+    subject.hedgeDelay(settings) == HedgingSettings.DEFAULT_DELAY
+
+    when:
+    30.times {
+      def request = buildRequest()
+      def result = subject.executeAsync(request, new ResponseImpl(request))
+      attempts.last().complete(null)
+      result.get(1, TimeUnit.SECONDS)
+    }
+
+    then:
+    subject.hedgeDelay(settings) < HedgingSettings.DEFAULT_DELAY
+  }
+
+  private void waitForAttempts(int count) {
+    def deadline = System.currentTimeMillis() + 1000
+    while (attempts.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5)
+    }
+  }
+}
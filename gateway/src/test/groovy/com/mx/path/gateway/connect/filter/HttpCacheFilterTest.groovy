@@ -0,0 +1,231 @@
+package com.mx.path.gateway.connect.filter
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+import com.mx.path.core.common.collection.MultiValueMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.HttpCacheSettings
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.context.RequestContext
+import com.mx.path.core.context.Session
+import com.mx.testing.RequestImpl
+import com.mx.testing.ResponseImpl
+
+import spock.lang.Specification
+
+class HttpCacheFilterTest extends Specification {
+  HttpCacheFilter subject
+  long now
+  int upstreamCalls
+  HttpStatus upstreamStatus
+  Map<String, String> upstreamHeaders
+  String lastIfNoneMatch
+
+  def setup() {
+    now = 1_000_000L
+    upstreamCalls = 0
+    upstreamStatus = HttpStatus.OK
+    upstreamHeaders = ["Cache-Control": "max-age=60"]
+    subject = new HttpCacheFilter({ now })
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+            respond(request, response)
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            respond(request, response)
+            return CompletableFuture.completedFuture(null)
+          }
+        })
+  }
+
+  def cleanup() {
+    RequestContext.clear()
+    Session.clearSession()
+  }
+
+  void respond(Request request, Response response) {
+    upstreamCalls++
+    lastIfNoneMatch = request.headers.get("If-None-Match")
+    def headers = new MultiValueMap<String, String>()
+    upstreamHeaders.each { name, value -> headers.add(name, value) }
+    response.withHeaders(headers).withStatus(upstreamStatus)
+    if (upstreamStatus == HttpStatus.OK) {
+      response.withBody("rates " + upstreamCalls)
+    }
+  }
+
+  RequestImpl buildRequest(String scope = "global") {
+    def settings = AccessorConnectionSettings.builder()
+        .cache(new HttpCacheSettings().tap {
+          enabled = true
+          it.scope = scope
+        })
+        .build()
+
+    return new RequestImpl().withBaseUrl("http://localhost").withPath("/rates").withMethod("GET").withConnectionSettings(settings)
+  }
+
+  ResponseImpl get(RequestImpl request = buildRequest()) {
+    def response = new ResponseImpl(request)
+    subject.execute(request, response)
+    return response
+  }
+
+  def "serves fresh responses from cache"() {
+    when:
+    def first = get()
+    now += 30_000
+    def second = get()
+
+    then:
+    upstreamCalls == 1
+    first.body == "rates 1"
+    second.body == "rates 1"
+    second.status == HttpStatus.OK
+  }
+
+  def "calls upstream once response is stale"() {
+    when:
+    get()
+    now += 61_000
+    def second = get()
+
+    then:
+    upstreamCalls == 2
+    second.body == "rates 2"
+  }
+
+  def "revalidates stale responses and turns 304 into the cached response"() {
+    given:
+    upstreamHeaders = ["Cache-Control": "max-age=60", "ETag": "\"v1\""]
+
+    when:
+    get()
+    now += 61_000
+    upstreamStatus = HttpStatus.NOT_MODIFIED
+    def request = buildRequest()
+    def revalidated = get(request)
+
+    then:
+    upstreamCalls == 2
+    lastIfNoneMatch == "\"v1\""
+    revalidated.status == HttpStatus.OK
+    revalidated.body == "rates 1"
+    request.headers.get("If-None-Match") == null
+
+    when: "revalidation restarted freshness"
+    now += 30_000
+    def third = get()
+
+    then:
+    upstreamCalls == 2
+    third.body == "rates 1"
+  }
+
+  def "does not store no-store responses"() {
+    given:
+    upstreamHeaders = ["Cache-Control": "no-store, max-age=60"]
+
+    when:
+    get()
+    get()
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "request no-cache forces revalidation"() {
+    when:
+    get()
+    get(buildRequest().withHeader("Cache-Control", "no-cache"))
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "does not store private responses in shared scopes"() {
+    given:
+    upstreamHeaders = ["Cache-Control": "private, max-age=60"]
+
+    when:
+    get()
+    get()
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "uses configured default ttl when response has no freshness"() {
+    given:
+    upstreamHeaders = [:]
+    def request = { ->
+      buildRequest().tap { connectionSettings.cache.defaultTtl = Duration.ofSeconds(10) }
+    }
+
+    when:
+    get(request())
+    now += 5_000
+    get(request())
+
+    then:
+    upstreamCalls == 1
+
+    when:
+    now += 6_000
+    get(request())
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "bypasses cache when scope cannot be resolved"() {
+    when:
+    get(buildRequest("session"))
+    get(buildRequest("session"))
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "caches per session"() {
+    given:
+    Session.createSession()
+
+    when:
+    get(buildRequest("session"))
+    get(buildRequest("session"))
+
+    then:
+    upstreamCalls == 1
+
+    when:
+    Session.clearSession()
+    Session.createSession()
+    get(buildRequest("session"))
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "serves fresh responses asynchronously"() {
+    given:
+    get()
+    def request = buildRequest()
+    def response = new ResponseImpl(request)
+
+    when:
+    def result = subject.executeAsync(request, response)
+
+    then:
+    result.isDone()
+    upstreamCalls == 1
+    response.body == "rates 1"
+  }
+}
@@ -0,0 +1,91 @@
+package com.mx.path.gateway.connect.filter
+
+import static org.mockito.ArgumentMatchers.anyLong
+import static org.mockito.ArgumentMatchers.anyString
+import static org.mockito.ArgumentMatchers.eq
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.times
+import static org.mockito.Mockito.verify
+import static org.mockito.Mockito.when
+
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.store.Store
+
+import spock.lang.Specification
+
+class LeasedRateLimiterTest extends Specification {
+  long nowMillis
+  long nowNanos
+  Store store
+  Set<String> claimed
+  LeasedRateLimiter subject
+
+  def setup() {
+    nowMillis = 10_000L
+    nowNanos = 0L
+    claimed = new HashSet<>()
+    store = mock(Store)
+    when(store.putIfNotExist(anyString(), anyString(), anyLong())).thenAnswer({ invocation -> claimed.add(invocation.getArgument(0)) })
+    // 10 permits per 1 second window, leased 5 at a time
+    subject = new LeasedRateLimiter("upstream", 10.0, 10, 1000, 5, { store }, { nowMillis }, { nowNanos })
+  }
+
+  def "hands out leased permits without calling the store for each request"() {
+    when:
+    def waits = (1..5).collect { subject.reserve(0) }
+
+    then:
+    waits == [0L, 0L, 0L, 0L, 0L]
+    verify(store, times(1)).putIfNotExist(anyString(), anyString(), anyLong())
+  }
+
+  def "rejects when every batch of the window has been leased"() {
+    given:
+    claimed.add("rate-limit:upstream:10:0")
+
+    when:
+    def waits = (1..6).collect { subject.reserve(0) }
+
+    then:
+    waits == [0L, 0L, 0L, 0L, 0L, RateLimiter.REJECTED]
+  }
+
+  def "reserves from the next window when allowed to wait"() {
+    given:
+    claimed.addAll(["rate-limit:upstream:10:0", "rate-limit:upstream:10:1"])
+    nowMillis = 10_400L
+
+    expect:
+    subject.reserve(TimeUnit.SECONDS.toNanos(1)) == TimeUnit.MILLISECONDS.toNanos(600)
+    claimed.contains("rate-limit:upstream:11:0") || claimed.contains("rate-limit:upstream:11:1")
+  }
+
+  def "does not ask the store again once the window is exhausted"() {
+    given:
+    claimed.addAll(["rate-limit:upstream:10:0", "rate-limit:upstream:10:1"])
+
+    when:
+    subject.reserve(0)
+    subject.reserve(0)
+
+    then:
+    verify(store, times(2)).putIfNotExist(anyString(), anyString(), anyLong())
+  }
+
+  def "falls back to a local limit when the store fails"() {
+    given:
+    when(store.putIfNotExist(anyString(), anyString(), eq(2L))).thenThrow(new RuntimeException("down"))
+    def description = new ObjectMap()
+
+    when:
+    def waits = (1..11).collect { subject.reserve(0) }
+    subject.describe(description)
+
+    then:
+    waits.count { it == 0L } == 10
+    waits.last() == RateLimiter.REJECTED
+    description.get("fallbacks") == 1L
+  }
+}
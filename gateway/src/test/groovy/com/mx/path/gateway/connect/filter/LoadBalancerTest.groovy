@@ -0,0 +1,160 @@
+package com.mx.path.gateway.connect.filter
+
+import java.time.Duration
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.LoadBalancerSettings
+
+import spock.lang.Specification
+
+class LoadBalancerTest extends Specification {
+  long now
+  LoadBalancer subject
+
+  def setup() {
+    now = 0
+    subject = build()
+  }
+
+  LoadBalancer build(LoadBalancerSettings.Strategy balancingStrategy = LoadBalancerSettings.Strategy.LEAST_OUTSTANDING) {
+    return new LoadBalancer(new LoadBalancerSettings().tap {
+      endpoints = [
+        "http://node1",
+        "http://node2",
+        "http://node3"
+      ]
+      strategy = balancingStrategy
+      consecutiveFailures = 2
+      latencyThreshold = Duration.ofSeconds(1)
+      ejectionDuration = Duration.ofSeconds(10)
+      maxEjectionDuration = Duration.ofSeconds(30)
+      maxEjectedPercent = 67
+    }, { now })
+  }
+
+  def "sends requests to the endpoint with the fewest outstanding requests"() {
+    when:
+    def selected = (1..3).collect { subject.select().url }
+
+    then:
+    selected.toSet() == ["http://node1", "http://node2", "http://node3"].toSet()
+  }
+
+  def "power of two choices spreads requests across endpoints"() {
+    given:
+    subject = build(LoadBalancerSettings.Strategy.POWER_OF_TWO_CHOICES)
+
+    when:
+    def endpoints = (1..30).collect { subject.select() }
+
+    then:
+    endpoints.countBy { it.url }.values().every { it >= 5 }
+  }
+
+  def "ejects an endpoint after consecutive failures or slow responses"() {
+    given:
+    def node = select("http://node1")
+    subject.release(node, now, true)
+
+    when:
+    def start = now
+    select("http://node1")
+    now += Duration.ofSeconds(2).toNanos()
+    subject.release(node, start, false)
+
+    then:
+    node.state() == "ejected"
+    (1..20).every { subject.select().url != "http://node1" }
+  }
+
+  def "re-probes an ejected endpoint after the ejection"() {
+    given:
+    def node = eject("http://node1")
+
+    when:
+    now += Duration.ofSeconds(10).toNanos()
+    def probe = subject.select()
+
+    then:
+    probe.is(node)
+    node.state() == "probing"
+    subject.select().url != "http://node1"
+
+    when:
+    subject.release(probe, now, false)
+
+    then:
+    node.state() == "healthy"
+  }
+
+  def "ejects again for longer when the probe fails"() {
+    given:
+    def node = eject("http://node1")
+
+    when:
+    now += Duration.ofSeconds(10).toNanos()
+    subject.release(subject.select(), now, true)
+    now += Duration.ofSeconds(10).toNanos()
+
+    then: "ejection doubled to 20s"
+    node.state() == "ejected"
+    subject.select().url != "http://node1"
+
+    when:
+    now += Duration.ofSeconds(10).toNanos()
+
+    then:
+    subject.select().is(node)
+  }
+
+  def "does not eject more than the max ejected percent"() {
+    given:
+    eject("http://node1")
+    def node = eject("http://node2")
+    def last = null
+
+    when:
+    2.times {
+      last = select("http://node3")
+      subject.release(last, now, true)
+    }
+
+    then:
+    node.state() == "ejected"
+    last.state() == "healthy"
+  }
+
+  def "describes endpoint health and load"() {
+    given:
+    eject("http://node1")
+    subject.select()
+    def description = new ObjectMap()
+
+    when:
+    subject.describe(description)
+
+    then:
+    description.getMap("http://node1").get("state") == "ejected"
+    description.getMap("http://node1").get("ejections") == 1L
+    description.getMap("http://node1").get("failures") == 2L
+    description.getMap("http://node2").get("state") == "healthy"
+  }
+
+  LoadBalancer.Endpoint select(String url) {
+    while (true) {
+      def endpoint = subject.select()
+      if (endpoint.url == url) {
+        return endpoint
+      }
+      subject.release(endpoint, now, false)
+    }
+  }
+
+  LoadBalancer.Endpoint eject(String url) {
+    def endpoint = select(url)
+    subject.release(endpoint, now, true)
+    subject.release(select(url), now, true)
+
+    return endpoint
+  }
+}
@@ -0,0 +1,93 @@
+package com.mx.path.gateway.connect.filter
+
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.LoadBalancerSettings
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.common.lang.Futures
+import com.mx.testing.RequestImpl
+import com.mx.testing.ResponseImpl
+
+import spock.lang.Specification
+
+class LoadBalancingRequestFilterTest extends Specification {
+  LoadBalancingRequestFilter subject
+  List<String> sentTo
+  HttpStatus upstreamStatus
+
+  def setup() {
+    sentTo = []
+    upstreamStatus = HttpStatus.OK
+    subject = new LoadBalancingRequestFilter()
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+            sentTo.add(request.getBaseUrl())
+            response.setStatus(upstreamStatus)
+          }
+        })
+  }
+
+  RequestImpl buildRequest(String name, String baseUrl = "http://${name}1") {
+    def settings = AccessorConnectionSettings.builder()
+        .baseUrl("http://${name}1".toString())
+        .loadBalancer(new LoadBalancerSettings().tap {
+          endpoints = [
+            "http://${name}1".toString(),
+            "http://${name}2".toString()
+          ]
+          consecutiveFailures = 1
+        })
+        .build()
+
+    return new RequestImpl()
+        .withBaseUrl(baseUrl)
+        .withPath("/accounts")
+        .withMethod("GET")
+        .withConnectionSettings(settings)
+  }
+
+  def "sends requests to the connection's endpoints"() {
+    when:
+    20.times {
+      def request = buildRequest("spread")
+      subject.execute(request, new ResponseImpl(request))
+    }
+
+    then:
+    sentTo.toSet() == ["http://spread1", "http://spread2"].toSet()
+  }
+
+  def "stops sending requests to an ejected endpoint"() {
+    given:
+    upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE
+    def request = buildRequest("eject")
+    subject.execute(request, new ResponseImpl(request))
+    def ejected = sentTo[0]
+    upstreamStatus = HttpStatus.OK
+    sentTo.clear()
+
+    when:
+    10.times {
+      def next = buildRequest("eject")
+      Futures.join(subject.executeAsync(next, new ResponseImpl(next)))
+    }
+
+    then:
+    sentTo.size() == 10
+    !sentTo.contains(ejected)
+  }
+
+  def "leaves requests for other hosts alone"() {
+    given:
+    def request = buildRequest("other", "http://elsewhere")
+
+    when:
+    subject.execute(request, new ResponseImpl(request))
+
+    then:
+    sentTo == ["http://elsewhere"]
+  }
+}
@@ -0,0 +1,78 @@
+package com.mx.path.gateway.connect.filter
+
+import spock.lang.Specification
+
+class LocalCacheStoreTest extends Specification {
+  long now
+  LocalCacheStore subject
+
+  def setup() {
+    now = 0
+    subject = new LocalCacheStore(2, { now })
+  }
+
+  def "evicts the least recently used entry"() {
+    when:
+    subject.put("key1", "value1")
+    subject.put("key2", "value2")
+    subject.get("key1")
+    subject.put("key3", "value3")
+
+    then:
+    subject.get("key1") == "value1"
+    subject.get("key2") == null
+    subject.get("key3") == "value3"
+  }
+
+  def "expires values"() {
+    when:
+    subject.put("key", "value", 10)
+    now = 9_999
+
+    then:
+    subject.get("key") == "value"
+
+    when:
+    now = 10_000
+
+    then:
+    subject.get("key") == null
+    subject.size() == 0
+  }
+
+  def "adds to, reads and deletes from sets"() {
+    when:
+    subject.putSet("set", "a", 10)
+    subject.putSet("set", "b", 10)
+
+    then:
+    subject.getSet("set") == ["a", "b"] as Set
+    subject.inSet("set", "a")
+    !subject.inSet("set", "c")
+    subject.get("set") == null
+    !subject.putIfNotExist("set", "value")
+
+    when:
+    subject.deleteSet("set", "a")
+
+    then:
+    subject.getSet("set") == ["b"] as Set
+
+    when:
+    subject.deleteSet("set", "b")
+
+    then:
+    subject.getSet("set").isEmpty()
+    subject.size() == 0
+  }
+
+  def "expires sets as a whole"() {
+    when:
+    subject.putSet("set", "a", 10)
+    now = 10_000
+
+    then:
+    subject.getSet("set").isEmpty()
+    !subject.inSet("set", "a")
+  }
+}
@@ -0,0 +1,226 @@
+package com.mx.path.gateway.connect.filter
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.RateLimitSettings
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.connect.TooManyRequestsException
+import com.mx.path.core.common.lang.Futures
+import com.mx.testing.RequestImpl
+import com.mx.testing.ResponseImpl
+import com.mx.testing.accessors.BaseAccessor
+import com.mx.testing.gateway.TestGateway
+
+import spock.lang.Specification
+
+class RateLimitingRequestFilterTest extends Specification {
+  ScheduledExecutorService timer
+  long nowNanos
+  AtomicInteger upstreamCalls
+  RateLimitingRequestFilter subject
+
+  def setup() {
+    timer = Executors.newSingleThreadScheduledExecutor()
+    nowNanos = 0L
+    upstreamCalls = new AtomicInteger()
+    subject = new RateLimitingRequestFilter(timer, { System.currentTimeMillis() }, { nowNanos })
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+            upstreamCalls.incrementAndGet()
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            upstreamCalls.incrementAndGet()
+            return CompletableFuture.completedFuture(null)
+          }
+        })
+  }
+
+  def cleanup() {
+    timer.shutdownNow()
+  }
+
+  RequestImpl buildRequest(RateLimitSettings settings, String scope = null) {
+    def connectionSettings = AccessorConnectionSettings.builder()
+        .baseUrl("http://localhost")
+        .rateLimit(settings)
+        .build()
+
+    return new RequestImpl()
+        .withBaseUrl("http://localhost")
+        .withPath("/rates")
+        .withMethod("GET")
+        .withFaultTolerantScope(scope)
+        .withConnectionSettings(connectionSettings)
+  }
+
+  def "passes requests through when no rate is configured"() {
+    given:
+    def request = buildRequest(new RateLimitSettings())
+
+    when:
+    5.times { subject.execute(request, new ResponseImpl(request)) }
+
+    then:
+    upstreamCalls.get() == 5
+  }
+
+  def "fails fast once the connection's limit is reached"() {
+    given:
+    def request = buildRequest(new RateLimitSettings().tap {
+      rate = 2.0
+      burst = 2
+    })
+
+    when:
+    3.times { subject.execute(request, new ResponseImpl(request)) }
+
+    then:
+    def e = thrown(TooManyRequestsException)
+    e.message == "Rate limit exceeded"
+    upstreamCalls.get() == 2
+  }
+
+  def "uses the most specific configured scope"() {
+    given:
+    def settings = new RateLimitSettings().tap {
+      rate = 100.0
+      scopes = [
+        new RateLimitSettings().tap {
+          scope = "http.accounts"
+          rate = 1.0
+        }
+      ]
+    }
+    def accountsRequest = buildRequest(settings, "http.accounts.list")
+    def ratesRequest = buildRequest(settings, "http.rates")
+
+    when:
+    subject.execute(accountsRequest, new ResponseImpl(accountsRequest))
+    5.times { subject.execute(ratesRequest, new ResponseImpl(ratesRequest)) }
+    subject.execute(accountsRequest, new ResponseImpl(accountsRequest))
+
+    then:
+    def e = thrown(TooManyRequestsException)
+    e.message == "Rate limit exceeded for scope http.accounts"
+    upstreamCalls.get() == 6
+  }
+
+  def "waits for a permit asynchronously"() {
+    given:
+    def request = buildRequest(new RateLimitSettings().tap {
+      rate = 20.0
+      burst = 1
+      maxWait = Duration.ofSeconds(1)
+    })
+
+    when:
+    subject.executeAsync(request, new ResponseImpl(request)).get(1, TimeUnit.SECONDS)
+    def waiting = subject.executeAsync(request, new ResponseImpl(request))
+
+    then:
+    !waiting.isDone()
+    upstreamCalls.get() == 1
+
+    when:
+    waiting.get(1, TimeUnit.SECONDS)
+
+    then:
+    upstreamCalls.get() == 2
+  }
+
+  def "sends delayed asynchronous requests on a worker thread"() {
+    given:
+    def workers = Executors.newSingleThreadExecutor({ runnable -> new Thread(runnable, "rate-limit-test-worker") })
+    def threads = []
+    subject = new RateLimitingRequestFilter(timer, workers, { System.currentTimeMillis() }, { nowNanos })
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            threads.add(Thread.currentThread().getName())
+            return CompletableFuture.completedFuture(null)
+          }
+        })
+    def request = buildRequest(new RateLimitSettings().tap {
+      rate = 20.0
+      burst = 1
+      maxWait = Duration.ofSeconds(1)
+    })
+
+    when:
+    subject.executeAsync(request, new ResponseImpl(request)).get(1, TimeUnit.SECONDS)
+    subject.executeAsync(request, new ResponseImpl(request)).get(1, TimeUnit.SECONDS)
+
+    then:
+    threads == [Thread.currentThread().getName(), "rate-limit-test-worker"]
+
+    cleanup:
+    workers.shutdownNow()
+  }
+
+  def "fails asynchronous requests that cannot get a permit"() {
+    given:
+    def request = buildRequest(new RateLimitSettings().tap {
+      rate = 1.0
+    })
+    subject.executeAsync(request, new ResponseImpl(request))
+
+    when:
+    Futures.join(subject.executeAsync(request, new ResponseImpl(request)))
+
+    then:
+    thrown(TooManyRequestsException)
+    upstreamCalls.get() == 1
+  }
+
+  def "describes each limiter"() {
+    given:
+    def request = buildRequest(new RateLimitSettings().tap {
+      rate = 1.0
+    })
+    subject.execute(request, new ResponseImpl(request))
+    def description = new ObjectMap()
+
+    when:
+    subject.describe(description)
+
+    then:
+    description.getMap("connection").get("type") == "local"
+  }
+
+  def "is included in Gateway.describe"() {
+    given:
+    def request = buildRequest(new RateLimitSettings().tap {
+      scopes = [
+        new RateLimitSettings().tap {
+          scope = "http.describe"
+          rate = 1.0
+        }
+      ]
+    }, "http.describe.list")
+    subject.execute(request, new ResponseImpl(request))
+    def gateway = TestGateway.builder().clientId("client").baseAccessor(new BaseAccessor()).build()
+
+    when:
+    def connections = gateway.describe().getMap("connections").getMap("rateLimits").get("connections") as List<ObjectMap>
+    def limiter = connections.collect { it.getMap("limiters").getMap("http.describe") }.find { it != null }
+
+    then:
+    limiter.get("type") == "local"
+  }
+}
@@ -0,0 +1,212 @@
+package com.mx.path.gateway.connect.filter
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.ConnectException
+import com.mx.path.core.common.connect.Request
+import com.mx.path.core.common.connect.RequestCoalescingSettings
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.connect.TimeoutException
+import com.mx.path.core.common.exception.PathRequestException
+import com.mx.path.core.common.exception.PathRequestExceptionWrapper
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.common.lang.Futures
+import com.mx.testing.RequestImpl
+import com.mx.testing.ResponseImpl
+
+import spock.lang.Specification
+
+class RequestCoalescingFilterTest extends Specification {
+  RequestCoalescingFilter subject
+  CompletableFuture<Void> upstream
+  int upstreamCalls
+
+  def setup() {
+    subject = new RequestCoalescingFilter()
+    upstream = new CompletableFuture<>()
+    upstreamCalls = 0
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+            upstreamCalls++
+            response.withBody("rates").setStatus(HttpStatus.OK)
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            upstreamCalls++
+            response.withBody("rates").setStatus(HttpStatus.OK)
+            return upstream
+          }
+        })
+  }
+
+  RequestImpl buildRequest() {
+    return new RequestImpl().withBaseUrl("http://localhost").withPath("/rates").withCoalescing(true)
+  }
+
+  def "followers share the leader's upstream call"() {
+    given:
+    def leaderRequest = buildRequest()
+    def followerRequest = buildRequest()
+    def leaderResponse = new ResponseImpl(leaderRequest)
+    def followerResponse = new ResponseImpl(followerRequest)
+
+    when:
+    def leader = subject.executeAsync(leaderRequest, leaderResponse)
+    def follower = subject.executeAsync(followerRequest, followerResponse)
+
+    then:
+    upstreamCalls == 1
+    !follower.isDone()
+
+    when:
+    upstream.complete(null)
+
+    then:
+    leader.isDone()
+    follower.isDone()
+    followerResponse.body == "rates"
+    followerResponse.status == HttpStatus.OK
+    subject.inFlightCount() == 0
+  }
+
+  def "followers receive their own copy of the leader's exception"() {
+    given:
+    def leaderRequest = buildRequest()
+    def followerRequest1 = buildRequest()
+    def followerRequest2 = buildRequest()
+    def leaderException = new ConnectException("Upstream failed", new IOException())
+
+    when:
+    subject.executeAsync(leaderRequest, new ResponseImpl(leaderRequest))
+    def follower1 = subject.executeAsync(followerRequest1, new ResponseImpl(followerRequest1))
+    def follower2 = subject.executeAsync(followerRequest2, new ResponseImpl(followerRequest2))
+    upstream.completeExceptionally(leaderException)
+    def e1 = Futures.unwrap(follower1.handle({ ignored, throwable -> throwable }).join())
+    def e2 = Futures.unwrap(follower2.handle({ ignored, throwable -> throwable }).join())
+
+    then:
+    e1 instanceof PathRequestExceptionWrapper
+    e2 instanceof PathRequestExceptionWrapper
+    !e1.is(e2)
+    e1.cause.is(leaderException)
+    e2.cause.is(leaderException)
+    e1.message == "Upstream failed"
+    ((PathRequestException) e1).status == leaderException.status
+    upstreamCalls == 1
+  }
+
+  def "does not coalesce requests with different key headers"() {
+    given:
+    def request1 = buildRequest().withHeader("Authorization", "user1")
+    def request2 = buildRequest().withHeader("Authorization", "user2")
+
+    when:
+    subject.executeAsync(request1, new ResponseImpl(request1))
+    subject.executeAsync(request2, new ResponseImpl(request2))
+
+    then:
+    upstreamCalls == 2
+  }
+
+  def "ignores headers that are not key headers"() {
+    given:
+    def settings = AccessorConnectionSettings.builder()
+        .coalescing(new RequestCoalescingSettings().tap {
+          enabled = true
+          headers = ["Authorization"]
+        })
+        .build()
+    def request1 = new RequestImpl().withBaseUrl("http://localhost").withPath("/rates").withConnectionSettings(settings).withHeader("X-Trace", "1")
+    def request2 = new RequestImpl().withBaseUrl("http://localhost").withPath("/rates").withConnectionSettings(settings).withHeader("X-Trace", "2")
+
+    when:
+    subject.executeAsync(request1, new ResponseImpl(request1))
+    subject.executeAsync(request2, new ResponseImpl(request2))
+
+    then:
+    upstreamCalls == 1
+  }
+
+  def "does not coalesce non-idempotent or disabled requests"() {
+    given:
+    def post1 = buildRequest().withMethod("POST")
+    def post2 = buildRequest().withMethod("POST")
+    def disabled1 = buildRequest().withCoalescing(false)
+    def disabled2 = buildRequest().withCoalescing(false)
+
+    when:
+    [post1, post2, disabled1, disabled2].each { subject.executeAsync(it, new ResponseImpl(it)) }
+
+    then:
+    upstreamCalls == 4
+  }
+
+  def "executes synchronously"() {
+    given:
+    def request = buildRequest()
+    def response = new ResponseImpl(request)
+
+    when:
+    subject.execute(request, response)
+
+    then:
+    upstreamCalls == 1
+    response.body == "rates"
+    subject.inFlightCount() == 0
+  }
+
+  def "followers do not see changes made to the leader's response after the upstream call"() {
+    given:
+    def leaderRequest = buildRequest()
+    def followerRequest = buildRequest()
+    def leaderResponse = new ResponseImpl(leaderRequest)
+    def followerResponse = new ResponseImpl(followerRequest)
+
+    when:
+    subject.executeAsync(leaderRequest, leaderResponse)
+    def follower = subject.executeAsync(followerRequest, followerResponse)
+    upstream.complete(null)
+    leaderResponse.withBody("processed").withStatus(HttpStatus.ACCEPTED)
+
+    then:
+    follower.isDone()
+    followerResponse.body == "rates"
+    followerResponse.status == HttpStatus.OK
+  }
+
+  def "blocking followers wait at most the request timeout"() {
+    given:
+    def leaderRequest = buildRequest()
+    def followerRequest = buildRequest().withRequestTimeout(Duration.ofMillis(10))
+
+    when:
+    subject.executeAsync(leaderRequest, new ResponseImpl(leaderRequest))
+    subject.execute(followerRequest, new ResponseImpl(followerRequest))
+
+    then:
+    thrown(TimeoutException)
+    upstreamCalls == 1
+  }
+
+  def "asynchronous followers wait at most the request timeout"() {
+    given:
+    def leaderRequest = buildRequest()
+    def followerRequest = buildRequest().withRequestTimeout(Duration.ofMillis(10))
+
+    when:
+    subject.executeAsync(leaderRequest, new ResponseImpl(leaderRequest))
+    def follower = subject.executeAsync(followerRequest, new ResponseImpl(followerRequest))
+    def failure = Futures.unwrap(follower.handle({ ignored, throwable -> throwable }).get(5, TimeUnit.SECONDS))
+
+    then:
+    failure instanceof TimeoutException
+    !upstream.isDone()
+    upstreamCalls == 1
+  }
+}
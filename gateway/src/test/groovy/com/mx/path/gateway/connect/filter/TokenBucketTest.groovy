@@ -0,0 +1,60 @@
+package com.mx.path.gateway.connect.filter
+
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.core.common.collection.ObjectMap
+
+import spock.lang.Specification
+
+class TokenBucketTest extends Specification {
+  long now
+  TokenBucket subject
+
+  def setup() {
+    now = 0L
+    subject = new TokenBucket(10.0, 2, { now })
+  }
+
+  def "allows a burst without waiting"() {
+    expect:
+    subject.reserve(0) == 0
+    subject.reserve(0) == 0
+    subject.reserve(0) == RateLimiter.REJECTED
+  }
+
+  def "spaces waiting requests at the configured rate"() {
+    given:
+    subject.reserve(0)
+    subject.reserve(0)
+
+    expect:
+    subject.reserve(TimeUnit.SECONDS.toNanos(1)) == TimeUnit.MILLISECONDS.toNanos(100)
+    subject.reserve(TimeUnit.SECONDS.toNanos(1)) == TimeUnit.MILLISECONDS.toNanos(200)
+  }
+
+  def "refills over time"() {
+    given:
+    subject.reserve(0)
+    subject.reserve(0)
+
+    when:
+    now += TimeUnit.MILLISECONDS.toNanos(100)
+
+    then:
+    subject.reserve(0) == 0
+    subject.reserve(0) == RateLimiter.REJECTED
+  }
+
+  def "describes rejections"() {
+    given:
+    3.times { subject.reserve(0) }
+    def description = new ObjectMap()
+
+    when:
+    subject.describe(description)
+
+    then:
+    description.get("type") == "local"
+    description.get("rejected") == 1L
+  }
+}
@@ -0,0 +1,320 @@
+package com.mx.path.gateway.process.faulttolerant
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+import com.mx.path.core.common.connect.CircuitOpenException
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings
+import com.mx.path.core.common.connect.ConnectException
+import com.mx.path.core.common.connect.ServiceUnavailableException
+import com.mx.path.core.common.connect.TimeoutException
+import com.mx.path.core.common.connect.TooManyRequestsException
+import com.mx.path.core.common.lang.Futures
+import com.mx.path.core.common.process.FaultTolerantScope
+import com.mx.path.core.common.process.FaultTolerantScopeConfiguration
+
+import spock.lang.Specification
+
+class DefaultFaultTolerantExecutorTest extends Specification {
+  long now
+  FaultTolerantExecutorConfiguration configuration
+  DefaultFaultTolerantExecutor subject
+
+  def setup() {
+    now = 0
+    configuration = new FaultTolerantExecutorConfiguration().tap {
+      defaults = new FaultTolerantScopeSettings().tap {
+        timeout = Duration.ofSeconds(20)
+      }
+      scopes = [
+        new FaultTolerantScopeSettings().tap {
+          scope = "http"
+          timeout = Duration.ofSeconds(10)
+          circuitBreaker = new CircuitBreakerSettings().tap {
+            windowSize = 10
+            minimumCalls = 4
+            failureRateThreshold = 50
+            openDuration = Duration.ofSeconds(30)
+            halfOpenCalls = 1
+          }
+        },
+        new FaultTolerantScopeSettings().tap {
+          scope = "http.accounts"
+          timeout = Duration.ofSeconds(5)
+          bulkhead = new BulkheadSettings().tap {
+            maxConcurrentCalls = 1
+          }
+        }
+      ]
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+  }
+
+  def "selects settings with dot-delimited fallback"() {
+    expect:
+    subject.scopeState("http.accounts.list").settings.timeout == Duration.ofSeconds(5)
+    subject.scopeState("http.accounts.list").settings.circuitBreaker.windowSize == 10
+    subject.scopeState("http.profiles.get").settings.timeout == Duration.ofSeconds(10)
+    subject.scopeState("http.profiles.get").bulkhead == null
+    subject.scopeState("remote.payouts.update").settings.timeout == Duration.ofSeconds(20)
+    subject.scopeState("remote.payouts.update").circuitBreaker == null
+  }
+
+  def "caches resolved scopes"() {
+    expect:
+    subject.scopeState("http.accounts.list").is(subject.scopeState("http.accounts.list"))
+  }
+
+  def "submits with precomputed scope"() {
+    given:
+    FaultTolerantScopeConfiguration received
+
+    when:
+    subject.submit(FaultTolerantScope.of("http").child("accounts").child("list"), { config -> received = config; null })
+
+    then:
+    received.is(subject.scopeState("http.accounts.list").taskConfiguration)
+    received.timeout == Duration.ofSeconds(5)
+  }
+
+  def "shares bulkhead between scopes that select it"() {
+    expect:
+    subject.scopeState("http.accounts.list").bulkhead.is(subject.scopeState("http.accounts.get").bulkhead)
+  }
+
+  def "passes scope timeout to task"() {
+    given:
+    FaultTolerantScopeConfiguration received
+
+    when:
+    subject.submit("http.accounts.list", { config -> received = config; null })
+
+    then:
+    received.timeout == Duration.ofSeconds(5)
+  }
+
+  def "opens circuit after failures and closes after successful trial"() {
+    given:
+    def failing = { config -> throw new ConnectException("Upstream failed", new IOException()) }
+
+    when:
+    4.times {
+      try {
+        subject.submit("http.profiles.get", failing)
+      } catch (ConnectException ignored) {
+      }
+    }
+    subject.submit("http.profiles.get", { config -> null })
+
+    then:
+    thrown(CircuitOpenException)
+    subject.scopeState("http.profiles.get").circuitBreaker.state == CircuitBreaker.State.OPEN
+
+    when: "other scopes have their own circuit"
+    subject.submit("http.profiles.list", { config -> null })
+
+    then:
+    noExceptionThrown()
+
+    when:
+    now += Duration.ofSeconds(31).toNanos()
+    subject.submit("http.profiles.get", { config -> null })
+
+    then:
+    subject.scopeState("http.profiles.get").circuitBreaker.state == CircuitBreaker.State.CLOSED
+  }
+
+  def "reopens circuit when trial call fails"() {
+    given:
+    def failing = { config -> throw new ConnectException("Upstream failed", new IOException()) }
+    4.times {
+      try {
+        subject.submit("http.profiles.get", failing)
+      } catch (ConnectException ignored) {
+      }
+    }
+    now += Duration.ofSeconds(31).toNanos()
+
+    when:
+    subject.submit("http.profiles.get", failing)
+
+    then:
+    thrown(ConnectException)
+    subject.scopeState("http.profiles.get").circuitBreaker.state == CircuitBreaker.State.OPEN
+  }
+
+  def "rejects calls when bulkhead is full"() {
+    when:
+    subject.submit("http.accounts.list", { config ->
+      subject.submit("http.accounts.get", { inner -> null })
+      null
+    })
+
+    then:
+    thrown(TooManyRequestsException)
+
+    when: "permit is released"
+    subject.submit("http.accounts.get", { config -> null })
+
+    then:
+    noExceptionThrown()
+  }
+
+  def "rejects calls beyond the adaptive concurrency limit"() {
+    given:
+    configuration.scopes << new FaultTolerantScopeSettings().tap {
+      scope = "remote"
+      concurrencyLimit = new ConcurrencyLimitSettings().tap {
+        initialLimit = 2
+        maxLimit = 10
+      }
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+    def first = new CompletableFuture<Void>()
+    def second = new CompletableFuture<Void>()
+    subject.submitAsync("remote.payouts", { config -> first })
+    subject.submitAsync("remote.payouts", { config -> second })
+
+    when:
+    Futures.join(subject.submitAsync("remote.payouts", { config -> CompletableFuture.completedFuture(null) }))
+
+    then:
+    def e = thrown(ServiceUnavailableException)
+    e.message == "Concurrency limit reached for scope remote.payouts"
+
+    when: "calls complete while the limit is in use"
+    first.complete(null)
+    second.complete(null)
+
+    then:
+    subject.scopeState("remote.payouts").concurrencyLimit.limit == 3
+    subject.scopeState("remote.payouts").concurrencyLimit.inFlight == 0
+  }
+
+  def "does not count rejected calls against the concurrency limit"() {
+    given:
+    configuration.scopes << new FaultTolerantScopeSettings().tap {
+      scope = "http.accounts"
+      bulkhead = new BulkheadSettings().tap {
+        maxConcurrentCalls = 1
+      }
+      concurrencyLimit = new ConcurrencyLimitSettings().tap {
+        initialLimit = 5
+      }
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+
+    when:
+    subject.submit("http.accounts.list", { config ->
+      subject.submit("http.accounts.list", { inner -> null })
+      null
+    })
+
+    then:
+    thrown(TooManyRequestsException)
+    subject.scopeState("http.accounts.list").concurrencyLimit.inFlight == 0
+  }
+
+  def "derives timeout from observed latencies"() {
+    given:
+    configuration.scopes << new FaultTolerantScopeSettings().tap {
+      scope = "remote"
+      timeout = Duration.ofSeconds(30)
+      adaptiveTimeout = new AdaptiveTimeoutSettings().tap {
+        minSamples = 10
+        minTimeout = Duration.ofMillis(100)
+      }
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+    def timeouts = []
+
+    when:
+    20.times {
+      subject.submit("remote.payouts", { config ->
+        timeouts << config.timeout
+        now += Duration.ofMillis(800).toNanos()
+        null
+      })
+    }
+    subject.submit("remote.payouts", { config -> timeouts << config.timeout; null })
+
+    then: "static timeout is used until enough latencies are recorded"
+    timeouts.first() == Duration.ofSeconds(30)
+    timeouts.last() >= Duration.ofMillis(1600)
+    timeouts.last() <= Duration.ofMillis(1700)
+    subject.getConfigurations().getMap("adaptiveTimeouts").getMap("remote.payouts").get("samples") == 20L
+  }
+
+  def "times out asynchronous tasks and cancels them"() {
+    given:
+    configuration.scopes << new FaultTolerantScopeSettings().tap {
+      scope = "slow"
+      timeout = Duration.ofMillis(50)
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+    def task = new CompletableFuture<Void>()
+
+    when:
+    Futures.join(subject.submitAsync("slow", { config -> task }))
+
+    then:
+    thrown(TimeoutException)
+    task.isCancelled()
+  }
+
+  def "times out synchronous tasks on a thread-pool bulkhead"() {
+    given:
+    configuration.scopes << new FaultTolerantScopeSettings().tap {
+      scope = "slow"
+      timeout = Duration.ofMillis(50)
+      bulkhead = new BulkheadSettings().tap {
+        type = BulkheadSettings.THREAD_POOL
+        maxConcurrentCalls = 2
+      }
+    }
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+
+    when:
+    subject.submit("slow", { config -> Thread.sleep(1000); null })
+
+    then:
+    thrown(TimeoutException)
+  }
+
+  def "completes asynchronous tasks"() {
+    when:
+    def result = subject.submitAsync("http.accounts.list", { config -> CompletableFuture.completedFuture(null) })
+
+    then:
+    result.isDone()
+    !result.isCompletedExceptionally()
+  }
+
+  def "describes circuits and bulkheads"() {
+    given:
+    subject.submit("http.accounts.list", { config -> null })
+
+    when:
+    def description = subject.getConfigurations()
+
+    then:
+    description.getMap("scopes").getMap("http.accounts").get("timeout") == "5s"
+    description.getMap("circuits").getMap("http.accounts.list").get("state") == "CLOSED"
+    description.getMap("bulkheads").getMap("http.accounts").get("maxConcurrentCalls") == 1
+  }
+
+  def "describes concurrency limits"() {
+    given:
+    configuration.defaults.concurrencyLimit = new ConcurrencyLimitSettings()
+    subject = new DefaultFaultTolerantExecutor(configuration, { now })
+    subject.submit("http.profiles.get", { config -> null })
+
+    when:
+    def description = subject.getConfigurations()
+
+    then:
+    description.getMap("defaults").getMap("concurrencyLimit").get("algorithm") == "aimd"
+    description.getMap("concurrencyLimits").getMap("http.profiles.get").get("limit") == 20
+    description.getMap("concurrencyLimits").getMap("http.profiles.get").get("inFlight") == 0
+  }
+}
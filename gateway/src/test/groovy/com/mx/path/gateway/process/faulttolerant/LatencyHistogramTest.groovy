@@ -0,0 +1,66 @@
+package com.mx.path.gateway.process.faulttolerant
+
+import java.time.Duration
+
+import spock.lang.Specification
+
+class LatencyHistogramTest extends Specification {
+  long now
+  LatencyHistogram subject
+
+  def setup() {
+    now = 0
+    subject = new LatencyHistogram(Duration.ofSeconds(60).toNanos(), { now })
+  }
+
+  def "buckets values with bounded relative error"() {
+    expect:
+    [0L, 1L, 31L, 32L, 33L, 1000L, 123456L, 800_000L, 86_400_000_000L].every { micros ->
+      def upper = LatencyHistogram.upperBound(LatencyHistogram.index(micros))
+      upper >= micros && upper - micros <= Math.max(1, micros / 16)
+    }
+  }
+
+  def "computes percentiles"() {
+    given:
+    (1..1000).each { subject.record(Duration.ofMillis(it).toNanos()) }
+
+    expect:
+    Math.abs(subject.percentile(50, 1) - Duration.ofMillis(500).toNanos()) <= Duration.ofMillis(32).toNanos()
+    Math.abs(subject.percentile(99.9, 1) - Duration.ofMillis(999).toNanos()) <= Duration.ofMillis(64).toNanos()
+    subject.count() == 1000
+  }
+
+  def "requires minimum samples"() {
+    given:
+    subject.record(Duration.ofMillis(5).toNanos())
+
+    expect:
+    subject.percentile(99, 2) == null
+    subject.percentile(99, 1) != null
+  }
+
+  def "forgets latencies older than the window"() {
+    given:
+    subject.record(Duration.ofSeconds(5).toNanos())
+
+    when:
+    now += Duration.ofSeconds(31).toNanos()
+    subject.record(Duration.ofMillis(5).toNanos())
+
+    then: "still within the window"
+    subject.count() == 2
+
+    when:
+    now += Duration.ofSeconds(31).toNanos()
+
+    then:
+    subject.count() == 1
+
+    when:
+    now += Duration.ofSeconds(61).toNanos()
+
+    then:
+    subject.count() == 0
+  }
+}
@@ -0,0 +1,8 @@
+package com.mx.testing;
+
+public class HedgingRequestImpl extends RequestImpl {
+  @Override
+  public ResponseImpl newResponse() {
+    return new ResponseImpl(this);
+  }
+}
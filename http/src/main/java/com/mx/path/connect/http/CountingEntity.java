@@ -0,0 +1,66 @@
+package com.mx.path.connect.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Entity wrapper that counts the bytes read from the wrapped entity's content.
+ */
+class CountingEntity extends HttpEntityWrapper {
+
+  private long count;
+
+  CountingEntity(HttpEntity wrappedEntity) {
+    super(wrappedEntity);
+  }
+
+  /**
+   * @return number of bytes read so far
+   */
+  final synchronized long getCount() {
+    return count;
+  }
+
+  @Override
+  public final InputStream getContent() throws IOException {
+    InputStream content = super.getContent();
+    if (content == null) {
+      return null;
+    }
+
+    return new FilterInputStream(content) {
+      @Override
+      public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+          add(1);
+        }
+        return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+          add(n);
+        }
+        return n;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        add(skipped);
+        return skipped;
+      }
+    };
+  }
+
+  private synchronized void add(long n) {
+    count += n;
+  }
+}
@@ -0,0 +1,86 @@
+package com.mx.path.connect.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.Args;
+
+/**
+ * Request entity wrapper that gzips the wrapped entity while it is written.
+ *
+ * <p>Unlike {@link org.apache.http.client.entity.GzipCompressingEntity}, {@link #getContent()} is supported (by
+ * compressing into memory), which the non-blocking client requires.
+ */
+class GzipRequestEntity extends HttpEntityWrapper {
+
+  private static final String GZIP_CODEC = "gzip";
+
+  GzipRequestEntity(HttpEntity wrappedEntity) {
+    super(wrappedEntity);
+  }
+
+  @Override
+  public final Header getContentEncoding() {
+    return new BasicHeader(HTTP.CONTENT_ENCODING, GZIP_CODEC);
+  }
+
+  /**
+   * @return -1, compressed length is not known until the body is written
+   */
+  @Override
+  public final long getContentLength() {
+    return -1;
+  }
+
+  @Override
+  public final boolean isChunked() {
+    return true;
+  }
+
+  @Override
+  public final InputStream getContent() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeTo(out);
+
+    return new ByteArrayInputStream(out.toByteArray());
+  }
+
+  @Override
+  public final void writeTo(OutputStream outStream) throws IOException {
+    Args.notNull(outStream, "Output stream");
+
+    // Closing the gzip stream releases its native deflater. The connection's stream must stay open.
+    try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(outStream))) {
+      wrappedEntity.writeTo(gzip);
+    }
+  }
+
+  /**
+   * Flushes, instead of closing, the wrapped stream on close.
+   */
+  private static final class NonClosingOutputStream extends FilterOutputStream {
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
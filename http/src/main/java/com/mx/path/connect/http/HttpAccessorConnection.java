@@ -85,7 +85,7 @@ public class HttpAccessorConnection extends AccessorConnectionBase<HttpRequest>
    */
   @Override
   public List<RequestFilter> connectionRequestFilters() {
-    return Arrays.asList(new HttpClientFilter());
+    return Arrays.asList(new HttpAsyncClientFilter());
   }
 
   // Protected Methods
@@ -0,0 +1,170 @@
+package com.mx.path.connect.http;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.mx.path.core.common.accessor.PathResponseStatus;
+import com.mx.path.core.common.connect.Cancellation;
+import com.mx.path.core.common.connect.ConnectException;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.Request;
+import com.mx.path.core.common.connect.Response;
+import com.mx.path.core.common.lang.Futures;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.Session;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+
+/**
+ * Non-blocking HttpClient web request executor
+ *
+ * <p>Synchronous execution behaves exactly like {@link HttpClientFilter}. Asynchronous execution
+ * ({@link Request#executeAsync()}) sends the request with a pooled Apache HttpAsyncClient and returns without waiting
+ * for the upstream. When the response arrives, it is read and the remainder of the filter chain runs on the request's
+ * {@link Request#retryExecutor() worker executor}, with the calling thread's {@link RequestContext} and {@link Session}
+ * made current, never on the client's I/O dispatcher thread. A slow callback therefore does not hold up the other
+ * connections served by that dispatcher. Cancelling the returned future, or the request's {@link Cancellation}, aborts
+ * the upstream call.
+ */
+public class HttpAsyncClientFilter extends HttpClientFilter {
+
+  /**
+   * Execute request without blocking on the upstream call.
+   *
+   * @param request  Request
+   * @param response Response
+   * @return future completed when the upstream call and the rest of the chain are done
+   */
+  @Override
+  public final CompletableFuture<Void> executeAsync(Request request, Response response) {
+    BasicCookieStore cookieStore = new BasicCookieStore();
+    HttpRequest httpRequest = (HttpRequest) request;
+    HttpResponse httpResponse = (HttpResponse) response;
+    RequestContext requestContext = RequestContext.current();
+    Session session = Session.current();
+    // Carries the calling thread's context to the worker thread
+    Executor completionExecutor = httpRequest.retryExecutor();
+    CompletableFuture<Void> upstream = new CompletableFuture<>();
+    Future<org.apache.http.HttpResponse> execution;
+
+    try {
+      // Client is shared by all requests with the same connection settings. It must not be closed here.
+      CloseableHttpAsyncClient client = HttpClientManager.getAsync(httpRequest.getConnectionSettings()).getClient();
+
+      HttpClientContext context = HttpClientContext.create();
+      context.setCookieStore(cookieStore);
+
+      HttpUriRequest req = buildHttpUriRequest(httpRequest);
+
+      // Phase breakdown is not available from the non-blocking client
+      httpResponse.setTimings(new HttpTimings());
+
+      request.start();
+      execution = client.execute(req, context, new FutureCallback<org.apache.http.HttpResponse>() {
+        @Override
+        public void completed(org.apache.http.HttpResponse resp) {
+          response.finish();
+          dispatch(() -> {
+            try {
+              populateResponse(httpRequest, httpResponse, resp, cookieStore);
+            } catch (IOException | RuntimeException e) {
+              ConnectionMetrics.record(request, response);
+              upstream.completeExceptionally(new ConnectException("HttpClient Execute failed: " + e.getMessage(), e));
+              return;
+            }
+
+            ConnectionMetrics.record(request, response);
+            upstream.complete(null);
+          });
+        }
+
+        @Override
+        public void failed(Exception e) {
+          response.finish();
+          if (e instanceof ConnectException) {
+            completeExceptionally((ConnectException) e);
+          } else if (e instanceof IOException) {
+            completeExceptionally(translateExecuteException(httpResponse, (IOException) e));
+          } else {
+            completeExceptionally(new ConnectException("HttpClient Execute failed: " + e.getMessage(), e));
+          }
+        }
+
+        @Override
+        public void cancelled() {
+          response.finish();
+          completeExceptionally(new ConnectException("HttpClient Execute cancelled", PathResponseStatus.UPSTREAM_SERVICE_UNAVAILABLE));
+        }
+
+        private void completeExceptionally(ConnectException e) {
+          dispatch(() -> {
+            ConnectionMetrics.record(request, response);
+            upstream.completeExceptionally(e);
+          });
+        }
+
+        /**
+         * Leave the I/O dispatcher thread. Dependent stages of the request's futures run on the completing thread.
+         */
+        private void dispatch(Runnable runnable) {
+          try {
+            completionExecutor.execute(runnable);
+          } catch (RejectedExecutionException e) {
+            withContext(requestContext, session, runnable);
+          }
+        }
+      });
+      // Lets filters above cancel the upstream call, through any futures they derived from this one
+      Cancellation.register(request, execution);
+    } catch (ConnectException e) {
+      return Futures.failed(e);
+    } catch (RuntimeException | IOException | URISyntaxException e) {
+      return Futures.failed(new ConnectException("HttpClient Setup failed", e));
+    }
+
+    CompletableFuture<Void> result = upstream.thenCompose(ignored -> nextAsync(request, response));
+    // Cancelling the returned future aborts the upstream call (e.g. the losing attempt of a hedged request)
+    result.whenComplete((ignored, throwable) -> {
+      if (throwable instanceof CancellationException) {
+        execution.cancel(true);
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Run given runnable with the request's context made current. Dependent stages of the request's futures run
+   * synchronously on the completing thread, so they observe the same context. The completing thread's own context
+   * is restored afterwards.
+   */
+  static void withContext(RequestContext requestContext, Session session, Runnable runnable) {
+    RequestContext previousRequestContext = RequestContext.current();
+    Session previousSession = Session.current();
+
+    if (requestContext != null) {
+      requestContext.register();
+    }
+    Session.setCurrent(session);
+
+    try {
+      runnable.run();
+    } finally {
+      if (previousRequestContext != null) {
+        previousRequestContext.register();
+      } else {
+        RequestContext.clear();
+      }
+      Session.setCurrent(previousSession);
+    }
+  }
+}
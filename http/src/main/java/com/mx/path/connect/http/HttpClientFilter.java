@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.SocketTimeoutException;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -12,17 +14,19 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLHandshakeException;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.mx.path.connect.http.certificate.MutualAuthProvider;
-import com.mx.path.connect.http.certificate.MutualAuthProviderFactory;
 import com.mx.path.core.common.collection.MultiValueMap;
 import com.mx.path.core.common.collection.SingleValueMap;
+import com.mx.path.core.common.connect.CompressionSettings;
 import com.mx.path.core.common.connect.ConnectException;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.ConnectionSettings;
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilterBase;
 import com.mx.path.core.common.connect.Response;
@@ -34,27 +38,32 @@ import com.mx.path.core.common.serialization.OffsetDateTimeTypeAdapter;
 import com.mx.path.core.common.serialization.ZonedDateTimeTypeAdapter;
 import com.mx.path.gateway.connect.filter.HttpClientConnectException;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.NameValuePair;
 import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.CookieStore;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.HttpHostConnectException;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 
 /**
@@ -69,6 +78,8 @@ public class HttpClientFilter extends RequestFilterBase {
    */
   private static final List<String> RAW_BODY_CONTENT_TYPE_HINTS = Arrays.asList("image", "pdf", "msword");
   private static final int HTTP_STATUS_EXTERNAL_TIMEOUT = 531;
+  private static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+  private static final CompressionSettings DEFAULT_COMPRESSION_SETTINGS = new CompressionSettings();
 
   private static GsonBuilder gsonBuilder = new GsonBuilder();
   private static final Gson GSON = gsonBuilder
@@ -82,105 +93,49 @@ public class HttpClientFilter extends RequestFilterBase {
           OffsetDateTimeTypeAdapter.builder().build())
       .create();
 
-  @SuppressWarnings("PMD.CyclomaticComplexity")
   @Override
   public final void execute(Request request, Response response) {
     BasicCookieStore cookieStore = new BasicCookieStore();
-    HttpClientBuilder clientBuilder = HttpClients.custom()
-        .disableAutomaticRetries()
-        .disableRedirectHandling()
-        .setDefaultCookieStore(cookieStore);
-
     HttpRequest httpRequest = (HttpRequest) request;
     HttpResponse httpResponse = (HttpResponse) response;
-    applySkipHostNameVerifySetting(httpRequest, clientBuilder);
-
-    MutualAuthProvider mutualAuthProvider = MutualAuthProviderFactory.build(httpRequest.getConnectionSettings());
-    if (mutualAuthProvider != null) {
-      mutualAuthProvider.add(clientBuilder);
-    }
 
     try {
-      // NOTE: Good writeup on timeouts: https://www.baeldung.com/httpclient-timeout
-      RequestConfig requestConfig = RequestConfig
-          .custom()
-          .setConnectionRequestTimeout((int) httpRequest.getRequestTimeout().toMillis())
-          .setConnectTimeout((int) httpRequest.getConnectTimeout().toMillis())
-          .setSocketTimeout((int) httpRequest.getRequestTimeout().toMillis())
-          .setCookieSpec(CookieSpecs.STANDARD)
-          .build();
-
-      try (CloseableHttpClient client = clientBuilder.setDefaultRequestConfig(requestConfig).build()) {
-        RequestBuilder req = RequestBuilder.create(httpRequest.getMethod());
-
-        if (!httpRequest.getQueryStringParams().isEmpty()) {
-          List<NameValuePair> parameters = new ArrayList<>();
-          httpRequest.getQueryStringParams().forEach((name, value) -> {
-            parameters.add(new BasicNameValuePair(name, value));
-          });
-          req.setUri(new URIBuilder(httpRequest.getUri()).addParameters(parameters).build());
-        } else {
-          req.setUri(httpRequest.getUri());
-        }
+      // Client is shared by all requests with the same connection settings. It must not be closed here.
+      CloseableHttpClient client = HttpClientManager.get(httpRequest.getConnectionSettings()).getClient();
 
-        MultiValueMap<String, String> requestHeaders = httpRequest.getHeadersAsMultiValueMap();
-        requestHeaders.flatEntrySet().forEach((entry) -> req.addHeader(entry.getKey(), entry.getValue()));
+      HttpClientContext context = HttpClientContext.create();
+      context.setCookieStore(cookieStore);
 
-        HttpEntity entity = buildHttpEntity(httpRequest);
+      HttpUriRequest req = buildHttpUriRequest(httpRequest);
 
-        if (entity != null) {
-          req.setEntity(entity);
-        } else {
-          req.setHeader("Content-Length", "0");
-        }
-
-        // Create a custom response handler
-        ResponseHandler<HttpResponse> responseHandler = resp -> {
-          MultiValueMap<String, String> headers = new MultiValueMap<>();
-          MultiValueMap<String, String> cookies = new MultiValueMap<>();
+      HttpTimings timings = new HttpTimings();
+      httpResponse.setTimings(timings);
+      new HttpTimingsRecorder(timings).attach(context);
 
-          Arrays.stream(resp.getAllHeaders()).forEach(h -> headers.add(h.getName(), h.getValue()));
-          cookieStore.getCookies().forEach(cookie -> cookies.add(cookie.getName(), cookie.getValue()));
+      try {
+        request.start();
+        CloseableHttpResponse resp = null;
+        try {
+          resp = client.execute(req, context);
+          populateResponse(httpRequest, httpResponse, resp, cookieStore);
 
-          HttpEntity httpEntity = resp.getEntity();
-          if (httpEntity != null) {
-            setResponseBody(httpRequest, httpResponse, headers, httpEntity);
+          // Streamed bodies are left open. Closing the stream returns the connection to the pool.
+          if (httpResponse.getBodyStream() == null) {
+            EntityUtils.consume(resp.getEntity());
+            resp.close();
           }
-
-          httpResponse.withCookies(new SingleValueMap<>(cookies));
-          httpResponse.setStatus(HttpStatus.resolve(resp.getStatusLine().getStatusCode()));
-          httpResponse.setHeaders(new SingleValueMap<>(headers));
-
-          return httpResponse;
-        };
-
-        try {
-          request.start();
-          try {
-            client.execute(req.build(), responseHandler);
-          } finally {
-            response.finish();
+        } catch (IOException | RuntimeException e) {
+          if (resp != null) {
+            resp.close();
           }
-        } catch (ConnectTimeoutException e) {
-          httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
-          throw new ConnectException("Connection timeout: " + e.getMessage(), e);
-        } catch (SocketTimeoutException e) {
-          httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
-          throw new ConnectException("Read timeout: " + e.getMessage(), e);
-        } catch (NoHttpResponseException e) {
-          httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
-          throw new ConnectException("Target server failed to respond: " + e.getMessage(), e);
-        } catch (SSLHandshakeException e) {
-          throw new HttpClientConnectException("SSL handshake failed", e);
-        } catch (SSLException e) {
-          throw new HttpClientConnectException("SSL connection failed", e);
-        } catch (EOFException e) {
-          throw new HttpClientConnectException("Host closed connection", e);
-        } catch (HttpHostConnectException e) {
-          throw new HttpClientConnectException("Host connection failed", e);
-        } catch (IOException e) {
-          throw new ConnectException("HttpClient Execute failed: " + e.getMessage(), e);
+          throw e;
+        } finally {
+          response.finish();
         }
+      } catch (IOException e) {
+        throw translateExecuteException(httpResponse, e);
+      } finally {
+        ConnectionMetrics.record(request, response);
       }
     } catch (ConnectException e) {
       throw e;
@@ -191,6 +146,137 @@ public class HttpClientFilter extends RequestFilterBase {
     next(request, response);
   }
 
+  /**
+   * Build the Apache request for given request, including per-request timeouts.
+   *
+   * @param httpRequest request
+   * @return Apache request
+   * @throws URISyntaxException on invalid uri
+   * @throws UnsupportedEncodingException on invalid body encoding
+   */
+  final HttpUriRequest buildHttpUriRequest(HttpRequest httpRequest) throws URISyntaxException, UnsupportedEncodingException {
+    // NOTE: Good writeup on timeouts: https://www.baeldung.com/httpclient-timeout
+    RequestConfig requestConfig = RequestConfig
+        .custom()
+        .setConnectionRequestTimeout((int) httpRequest.getRequestTimeout().toMillis())
+        .setConnectTimeout((int) httpRequest.getConnectTimeout().toMillis())
+        .setSocketTimeout((int) httpRequest.getRequestTimeout().toMillis())
+        .setCookieSpec(CookieSpecs.STANDARD)
+        .setRedirectsEnabled(false)
+        .build();
+
+    RequestBuilder req = RequestBuilder.create(httpRequest.getMethod()).setConfig(requestConfig);
+
+    if (!httpRequest.getQueryStringParams().isEmpty()) {
+      List<NameValuePair> parameters = new ArrayList<>();
+      httpRequest.getQueryStringParams().forEach((name, value) -> {
+        parameters.add(new BasicNameValuePair(name, value));
+      });
+      req.setUri(new URIBuilder(httpRequest.getUri()).addParameters(parameters).build());
+    } else {
+      req.setUri(httpRequest.getUri());
+    }
+
+    MultiValueMap<String, String> requestHeaders = httpRequest.getHeadersAsMultiValueMap();
+    requestHeaders.flatEntrySet().forEach((entry) -> req.addHeader(entry.getKey(), entry.getValue()));
+
+    CompressionSettings compression = compressionSettings(httpRequest);
+    if (compression.decompressResponsesOrDefault() && req.getFirstHeader(HttpHeaders.ACCEPT_ENCODING) == null) {
+      req.addHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+    }
+
+    HttpEntity entity = buildHttpEntity(httpRequest);
+    if (entity != null && shouldCompressRequest(compression, entity)) {
+      entity = new GzipRequestEntity(entity);
+    }
+
+    if (entity != null) {
+      req.setEntity(entity);
+    } else {
+      req.setHeader("Content-Length", "0");
+    }
+
+    return req.build();
+  }
+
+  /**
+   * Copy status, headers, cookies and body of upstream response into response.
+   *
+   * @param httpRequest request
+   * @param httpResponse response
+   * @param resp upstream response
+   * @param cookieStore cookie store used by request
+   * @throws IOException on failure reading body
+   */
+  final void populateResponse(HttpRequest httpRequest, HttpResponse httpResponse, org.apache.http.HttpResponse resp, CookieStore cookieStore) throws IOException {
+    MultiValueMap<String, String> headers = new MultiValueMap<>();
+    MultiValueMap<String, String> cookies = new MultiValueMap<>();
+
+    HttpEntity httpEntity = resp.getEntity();
+    CountingEntity wireEntity = null;
+    CountingEntity decodedEntity = null;
+    if (httpEntity != null) {
+      wireEntity = new CountingEntity(httpEntity);
+      decodedEntity = wireEntity;
+
+      HttpEntity decoded = compressionSettings(httpRequest).decompressResponsesOrDefault() ? decodeContent(wireEntity) : wireEntity;
+      if (decoded != wireEntity) {
+        decodedEntity = new CountingEntity(decoded);
+        // These describe the encoded body, which the caller never sees
+        resp.removeHeaders(HTTP.CONTENT_LEN);
+        resp.removeHeaders(HTTP.CONTENT_ENCODING);
+        resp.removeHeaders("Content-MD5");
+      }
+    }
+
+    Arrays.stream(resp.getAllHeaders()).forEach(h -> headers.add(h.getName(), h.getValue()));
+    cookieStore.getCookies().forEach(cookie -> cookies.add(cookie.getName(), cookie.getValue()));
+
+    if (httpEntity != null) {
+      long bodyReadStart = System.nanoTime();
+      setResponseBody(httpRequest, httpResponse, headers, decodedEntity);
+      if (httpResponse.getTimings() != null && httpResponse.getBodyStream() == null) {
+        httpResponse.getTimings().setBodyRead(Duration.ofNanos(System.nanoTime() - bodyReadStart));
+      }
+      recordBodySizes(httpResponse, httpEntity, wireEntity, decodedEntity);
+    }
+
+    httpResponse.withCookies(new SingleValueMap<>(cookies));
+    httpResponse.setStatus(HttpStatus.resolve(resp.getStatusLine().getStatusCode()));
+    httpResponse.setHeaders(new SingleValueMap<>(headers));
+  }
+
+  /**
+   * Translate exception raised while executing upstream call.
+   *
+   * @param httpResponse response
+   * @param e exception
+   * @return exception to throw
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  final ConnectException translateExecuteException(HttpResponse httpResponse, IOException e) {
+    if (e instanceof ConnectTimeoutException) {
+      httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
+      return new ConnectException("Connection timeout: " + e.getMessage(), e);
+    } else if (e instanceof SocketTimeoutException) {
+      httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
+      return new ConnectException("Read timeout: " + e.getMessage(), e);
+    } else if (e instanceof NoHttpResponseException) {
+      httpResponse.setStatus(HttpStatus.valueOf(HTTP_STATUS_EXTERNAL_TIMEOUT));
+      return new ConnectException("Target server failed to respond: " + e.getMessage(), e);
+    } else if (e instanceof SSLHandshakeException) {
+      return new HttpClientConnectException("SSL handshake failed", e);
+    } else if (e instanceof SSLException) {
+      return new HttpClientConnectException("SSL connection failed", e);
+    } else if (e instanceof EOFException) {
+      return new HttpClientConnectException("Host closed connection", e);
+    } else if (e instanceof HttpHostConnectException) {
+      return new HttpClientConnectException("Host connection failed", e);
+    }
+
+    return new ConnectException("HttpClient Execute failed: " + e.getMessage(), e);
+  }
+
   /**
    * Looks at the Content-Type headers and decides whether the response should be returned as a block
    * of bytes, or whether we can convert the bytes into a String ahead of time.
@@ -237,8 +323,9 @@ public class HttpClientFilter extends RequestFilterBase {
         }
         break;
       case STRING_AND_RAW:
+        // Read the entity once and decode the string from the same bytes
         bodyData = getHttpEntityBodyAsBytes(httpEntity);
-        bodyString = getHttpEntityBodyAsString(httpEntity);
+        bodyString = decodeHttpEntityBody(bodyData, httpEntity);
         break;
       case RAW:
         bodyData = getHttpEntityBodyAsBytes(httpEntity);
@@ -246,6 +333,9 @@ public class HttpClientFilter extends RequestFilterBase {
       case STRING:
         bodyString = getHttpEntityBodyAsString(httpEntity);
         break;
+      case STREAM:
+        response.withBodyStream(httpEntity.getContent());
+        break;
       default:
         break;
     }
@@ -263,6 +353,28 @@ public class HttpClientFilter extends RequestFilterBase {
     return EntityUtils.toString(httpEntity);
   }
 
+  /**
+   * Decodes bytes read from the HttpEntity to a String, using the entity's charset. Falls back to the same defaults as
+   * {@link EntityUtils#toString(HttpEntity)}.
+   *
+   * @param bytes entity content
+   * @param httpEntity entity the bytes were read from
+   * @return decoded body
+   */
+  String decodeHttpEntityBody(byte[] bytes, HttpEntity httpEntity) {
+    Charset charset = null;
+    ContentType contentType = ContentType.get(httpEntity);
+    if (contentType != null) {
+      charset = contentType.getCharset();
+      if (charset == null) {
+        ContentType defaultContentType = ContentType.getByMimeType(contentType.getMimeType());
+        charset = defaultContentType != null ? defaultContentType.getCharset() : null;
+      }
+    }
+
+    return new String(bytes, charset != null ? charset : HTTP.DEF_CONTENT_CHARSET);
+  }
+
   /**
    * Converts the internal HttpEntity data to a byte array.
    *
@@ -274,10 +386,74 @@ public class HttpClientFilter extends RequestFilterBase {
     return EntityUtils.toByteArray(httpEntity);
   }
 
-  private void applySkipHostNameVerifySetting(HttpRequest request, HttpClientBuilder clientBuilder) {
-    if (request.getConnectionSettings() != null && request.getConnectionSettings().getSkipHostNameVerify()) {
-      clientBuilder.setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE);
+  /**
+   * Wrap entity with a decoder for its Content-Encoding.
+   *
+   * @param entity upstream entity
+   * @return decoding entity, or the given entity if it is not encoded or the encoding is not supported
+   */
+  private HttpEntity decodeContent(HttpEntity entity) {
+    Header contentEncoding = entity.getContentEncoding();
+    if (contentEncoding == null) {
+      return entity;
+    }
+
+    String codec = contentEncoding.getValue().trim().toLowerCase(Locale.ROOT);
+    switch (codec) {
+      case "gzip":
+      case "x-gzip":
+        return new GzipDecompressingEntity(entity);
+      case "deflate":
+        return new DeflateDecompressingEntity(entity);
+      default:
+        return entity;
+    }
+  }
+
+  /**
+   * Record wire and decoded body sizes on response. Streamed bodies have not been read yet, so only a known
+   * Content-Length is recorded for them.
+   */
+  private void recordBodySizes(HttpResponse response, HttpEntity httpEntity, CountingEntity wireEntity, CountingEntity decodedEntity) {
+    if (response.getBodyStream() != null) {
+      long contentLength = httpEntity.getContentLength();
+      if (contentLength >= 0) {
+        response.setWireBodySize(contentLength);
+        if (decodedEntity == wireEntity) {
+          response.setBodySize(contentLength);
+        }
+      }
+      return;
+    }
+
+    response.setWireBodySize(wireEntity.getCount());
+    response.setBodySize(decodedEntity.getCount());
+  }
+
+  private boolean shouldCompressRequest(CompressionSettings compression, HttpEntity entity) {
+    if (!compression.compressRequestsOrDefault() || entity.getContentEncoding() != null) {
+      return false;
+    }
+
+    long contentLength = entity.getContentLength();
+    return contentLength < 0 || contentLength >= compression.requestThresholdOrDefault();
+  }
+
+  private CompressionSettings compressionSettings(HttpRequest request) {
+    ConnectionSettings settings = request.getConnectionSettings();
+    if (settings != null && settings.getCompression() != null) {
+      return settings.getCompression();
     }
+
+    return DEFAULT_COMPRESSION_SETTINGS;
+  }
+
+  private ContentType buildJsonContentType(HttpRequest request) {
+    if (Strings.isBlank(request.getContentType())) {
+      return ContentType.APPLICATION_JSON;
+    }
+
+    return ContentType.parse(request.getContentType());
   }
 
   private HttpEntity buildHttpEntity(HttpRequest request) throws UnsupportedEncodingException {
@@ -293,7 +469,7 @@ public class HttpClientFilter extends RequestFilterBase {
         entity = new StringEntity(request.getBodyJson());
       } else {
         // todo: Need to look at content type to determine the payload format.
-        entity = new StringEntity(GSON.toJson(request.getBody()));
+        entity = new JsonEntity(GSON, request.getBody(), buildJsonContentType(request));
       }
     } else if (request.getFormBody() != null) {
       List<NameValuePair> form = new ArrayList<>();
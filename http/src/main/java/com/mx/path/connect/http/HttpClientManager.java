@@ -0,0 +1,377 @@
+package com.mx.path.connect.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+
+import lombok.EqualsAndHashCode;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mx.path.connect.http.certificate.MutualAuthIOSessionStrategy;
+import com.mx.path.connect.http.certificate.MutualAuthProvider;
+import com.mx.path.connect.http.certificate.MutualAuthProviderFactory;
+import com.mx.path.connect.http.certificate.MutualAuthSocketFactory;
+import com.mx.path.core.common.collection.ObjectArray;
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.connect.ConnectionMetrics;
+import com.mx.path.core.common.connect.ConnectionPoolSettings;
+import com.mx.path.core.common.connect.ConnectionSettings;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.ssl.SSLContexts;
+
+/**
+ * Manages long-lived, pooled http clients.
+ *
+ * <p>Building an http client per request throws away the TCP connection and TLS session with every call. Instead, one
+ * {@link PooledHttpClient} is kept per distinct set of connection settings (base url, timeouts, mutual auth,
+ * host name verification and pool settings) and shared by all requests made with those settings.
+ *
+ * <p>Request-specific state (cookies, timeouts) is provided with each execution and is never stored on the shared client.
+ *
+ * <p>Non-blocking clients, used by {@link HttpAsyncClientFilter}, are pooled the same way and are only built when
+ * a connection is first used asynchronously.
+ */
+public class HttpClientManager {
+  private static final Map<ClientKey, PooledHttpClient> CLIENTS = new ConcurrentHashMap<>();
+  private static final Map<ClientKey, PooledHttpAsyncClient> ASYNC_CLIENTS = new ConcurrentHashMap<>();
+  // Non-blocking clients have no built-in evictor. One thread evicts for all of them.
+  private static final ScheduledExecutorService ASYNC_EVICTOR = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-http-async-evictor").build());
+
+  static {
+    ConnectionMetrics.addSource("http", HttpClientManager::describe);
+  }
+
+  /**
+   * Get, or build, the pooled client for given settings.
+   *
+   * @param settings connection settings (nullable)
+   * @return pooled client
+   */
+  public static PooledHttpClient get(ConnectionSettings settings) {
+    return CLIENTS.computeIfAbsent(new ClientKey(settings), key -> build(settings));
+  }
+
+  /**
+   * Get, or build and start, the pooled non-blocking client for given settings.
+   *
+   * @param settings connection settings (nullable)
+   * @return pooled async client
+   */
+  public static PooledHttpAsyncClient getAsync(ConnectionSettings settings) {
+    return ASYNC_CLIENTS.computeIfAbsent(new ClientKey(settings), key -> buildAsync(settings));
+  }
+
+  /**
+   * Fill description with the pool statistics of every client, per route.
+   *
+   * @param description description
+   */
+  public static void describe(ObjectMap description) {
+    ObjectArray clients = description.createArray("clients");
+    CLIENTS.forEach((key, client) -> {
+      PoolingHttpClientConnectionManager connectionManager = client.getConnectionManager();
+      describePool(clients.createMap(), key, false, connectionManager, connectionManager.getRoutes());
+    });
+    ASYNC_CLIENTS.forEach((key, client) -> {
+      PoolingNHttpClientConnectionManager connectionManager = client.getConnectionManager();
+      describePool(clients.createMap(), key, true, connectionManager, connectionManager.getRoutes());
+    });
+  }
+
+  /**
+   * Close and remove all pooled clients.
+   */
+  static void reset() {
+    CLIENTS.values().forEach(HttpClientManager::closeQuietly);
+    CLIENTS.clear();
+    ASYNC_CLIENTS.values().forEach(HttpClientManager::closeQuietly);
+    ASYNC_CLIENTS.clear();
+  }
+
+  // Private
+
+  private static PooledHttpClient build(ConnectionSettings settings) {
+    ConnectionPoolSettings poolSettings = poolSettings(settings);
+
+    PoolingHttpClientConnectionManager connectionManager = new TimingConnectionManager(buildSocketFactoryRegistry(settings));
+    connectionManager.setMaxTotal(poolSettings.maxTotalOrDefault());
+    connectionManager.setDefaultMaxPerRoute(poolSettings.maxPerRouteOrDefault());
+    connectionManager.setValidateAfterInactivity((int) poolSettings.validateAfterInactivityOrDefault().toMillis());
+
+    CloseableHttpClient client = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .disableAutomaticRetries()
+        .disableRedirectHandling()
+        // Compression is negotiated and decoded by HttpClientFilter, per connection compression settings
+        .disableContentCompression()
+        // Connections authenticated with a client certificate carry the certificate principal as connection state,
+        // which would keep them from being reused by later requests. All requests on this client share the same
+        // identity, so the state is not needed.
+        .disableConnectionState()
+        .setKeepAliveStrategy(buildKeepAliveStrategy(poolSettings.keepAliveOrDefault()))
+        .evictExpiredConnections()
+        .evictIdleConnections(poolSettings.idleTimeoutOrDefault().toMillis(), TimeUnit.MILLISECONDS)
+        .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build())
+        // Last request interceptor runs right before a connection is requested from the pool
+        .addInterceptorLast(HttpClientManager::recordConnectionRequested)
+        .setRequestExecutor(new TimingRequestExecutor())
+        .build();
+
+    return new PooledHttpClient(client, connectionManager);
+  }
+
+  private static PooledHttpAsyncClient buildAsync(ConnectionSettings settings) {
+    ConnectionPoolSettings poolSettings = poolSettings(settings);
+
+    PoolingNHttpClientConnectionManager connectionManager;
+    try {
+      connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT), buildSessionStrategyRegistry(settings));
+    } catch (IOReactorException e) {
+      throw new RuntimeException("Unable to start I/O reactor", e);
+    }
+    connectionManager.setMaxTotal(poolSettings.maxTotalOrDefault());
+    connectionManager.setDefaultMaxPerRoute(poolSettings.maxPerRouteOrDefault());
+
+    CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+        .setConnectionManager(connectionManager)
+        // See build()
+        .disableConnectionState()
+        .setKeepAliveStrategy(buildKeepAliveStrategy(poolSettings.keepAliveOrDefault()))
+        .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).setRedirectsEnabled(false).build())
+        .build();
+    client.start();
+
+    return new PooledHttpAsyncClient(client, connectionManager, scheduleEviction(connectionManager, poolSettings.idleTimeoutOrDefault()));
+  }
+
+  /**
+   * Periodically close expired connections, and connections idle longer than given timeout, as the blocking client's
+   * evictor does.
+   */
+  private static ScheduledFuture<?> scheduleEviction(PoolingNHttpClientConnectionManager connectionManager, Duration idleTimeout) {
+    long idleTimeoutMillis = idleTimeout.toMillis();
+
+    return ASYNC_EVICTOR.scheduleWithFixedDelay(() -> {
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    }, idleTimeoutMillis, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private static void describePool(ObjectMap description, ClientKey key, boolean async, ConnPoolControl<HttpRoute> pool, Set<HttpRoute> routes) {
+    if (key.baseUrl != null) {
+      description.put("baseUrl", key.baseUrl);
+    }
+    description.put("async", async);
+    describePoolStats(description.createMap("total"), pool.getTotalStats());
+
+    ObjectMap routesDescription = description.createMap("routes");
+    routes.forEach(route -> describePoolStats(routesDescription.createMap(route.getTargetHost().toURI()), pool.getStats(route)));
+  }
+
+  private static void describePoolStats(ObjectMap description, PoolStats stats) {
+    description.put("leased", stats.getLeased());
+    description.put("available", stats.getAvailable());
+    description.put("pending", stats.getPending());
+    description.put("max", stats.getMax());
+  }
+
+  private static void closeQuietly(Closeable client) {
+    try {
+      client.close();
+    } catch (IOException ignored) {
+      // Shutting down, nothing to do
+    }
+  }
+
+  private static ConnectionKeepAliveStrategy buildKeepAliveStrategy(Duration maxKeepAlive) {
+    long maxKeepAliveMillis = maxKeepAlive.toMillis();
+
+    return (response, context) -> {
+      long upstreamKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      if (upstreamKeepAliveMillis > 0) {
+        return Math.min(upstreamKeepAliveMillis, maxKeepAliveMillis);
+      }
+
+      return maxKeepAliveMillis;
+    };
+  }
+
+  private static Registry<ConnectionSocketFactory> buildSocketFactoryRegistry(ConnectionSettings settings) {
+    LayeredConnectionSocketFactory sslSocketFactory;
+    HostnameVerifier hostnameVerifier = SSLConnectionSocketFactory.getDefaultHostnameVerifier();
+    if (settings != null && settings.getSkipHostNameVerify()) {
+      hostnameVerifier = NoopHostnameVerifier.INSTANCE;
+    }
+
+    MutualAuthProvider mutualAuthProvider = MutualAuthProviderFactory.build(settings);
+    if (mutualAuthProvider != null) {
+      sslSocketFactory = new MutualAuthSocketFactory(mutualAuthProvider, hostnameVerifier);
+    } else {
+      sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.createDefault(), hostnameVerifier);
+    }
+
+    return RegistryBuilder.<ConnectionSocketFactory>create()
+        .register("http", new TimingSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+        .register("https", new TimingSocketFactory.Layered(sslSocketFactory))
+        .build();
+  }
+
+  private static Registry<SchemeIOSessionStrategy> buildSessionStrategyRegistry(ConnectionSettings settings) {
+    SchemeIOSessionStrategy sslSessionStrategy;
+    HostnameVerifier hostnameVerifier = SSLIOSessionStrategy.getDefaultHostnameVerifier();
+    if (settings != null && settings.getSkipHostNameVerify()) {
+      hostnameVerifier = NoopHostnameVerifier.INSTANCE;
+    }
+
+    MutualAuthProvider mutualAuthProvider = MutualAuthProviderFactory.build(settings);
+    if (mutualAuthProvider != null) {
+      sslSessionStrategy = new MutualAuthIOSessionStrategy(mutualAuthProvider, hostnameVerifier);
+    } else {
+      sslSessionStrategy = new SSLIOSessionStrategy(SSLContexts.createDefault(), hostnameVerifier);
+    }
+
+    return RegistryBuilder.<SchemeIOSessionStrategy>create()
+        .register("http", NoopIOSessionStrategy.INSTANCE)
+        .register("https", sslSessionStrategy)
+        .build();
+  }
+
+  private static ConnectionPoolSettings poolSettings(ConnectionSettings settings) {
+    if (settings != null && settings.getConnectionPool() != null) {
+      return settings.getConnectionPool();
+    }
+
+    return new ConnectionPoolSettings();
+  }
+
+  private static void recordConnectionRequested(org.apache.http.HttpRequest request, HttpContext context) {
+    HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+    if (recorder != null) {
+      recorder.connectionRequested();
+    }
+  }
+
+  /**
+   * Connection manager that records connection open time with the request's {@link HttpTimingsRecorder}.
+   */
+  private static final class TimingConnectionManager extends PoolingHttpClientConnectionManager {
+    TimingConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+      super(socketFactoryRegistry);
+    }
+
+    @Override
+    public void connect(HttpClientConnection managedConn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+      HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+      if (recorder == null) {
+        super.connect(managedConn, route, connectTimeout, context);
+        return;
+      }
+
+      recorder.connectStarted();
+      try {
+        super.connect(managedConn, route, connectTimeout, context);
+      } finally {
+        recorder.connectFinished();
+      }
+    }
+  }
+
+  /**
+   * Request executor that records send and first byte times with the request's {@link HttpTimingsRecorder}.
+   */
+  private static final class TimingRequestExecutor extends HttpRequestExecutor {
+    @Override
+    protected org.apache.http.HttpResponse doSendRequest(org.apache.http.HttpRequest request, HttpClientConnection conn, HttpContext context) throws IOException, HttpException {
+      HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+      if (recorder != null) {
+        recorder.requestSending();
+      }
+
+      return super.doSendRequest(request, conn, context);
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse doReceiveResponse(org.apache.http.HttpRequest request, HttpClientConnection conn, HttpContext context) throws HttpException, IOException {
+      org.apache.http.HttpResponse response = super.doReceiveResponse(request, conn, context);
+
+      HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+      if (recorder != null) {
+        recorder.responseReceived();
+      }
+
+      return response;
+    }
+  }
+
+  /**
+   * Identity of a pooled client. Requests with equal keys share a client.
+   */
+  @EqualsAndHashCode
+  private static final class ClientKey {
+    private final String baseUrl;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final Integer mutualAuthProviderHashcode;
+    private final boolean skipHostNameVerify;
+    private final ConnectionPoolSettings connectionPool;
+
+    ClientKey(ConnectionSettings settings) {
+      if (settings == null) {
+        this.baseUrl = null;
+        this.connectTimeout = null;
+        this.requestTimeout = null;
+        this.mutualAuthProviderHashcode = null;
+        this.skipHostNameVerify = false;
+        this.connectionPool = null;
+        return;
+      }
+
+      this.baseUrl = settings.getBaseUrl();
+      this.connectTimeout = settings.getConnectTimeout();
+      this.requestTimeout = settings.getRequestTimeout();
+      this.mutualAuthProviderHashcode = MutualAuthProviderFactory.isMutualAuthEnabled(settings) ? settings.mutualAuthProviderHashcode() : null;
+      this.skipHostNameVerify = settings.getSkipHostNameVerify();
+      this.connectionPool = settings.getConnectionPool();
+    }
+  }
+}
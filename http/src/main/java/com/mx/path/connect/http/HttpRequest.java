@@ -1,7 +1,11 @@
 package com.mx.path.connect.http;
 
+import java.util.concurrent.Executor;
+
 import com.mx.path.core.common.connect.Request;
 import com.mx.path.core.common.connect.RequestFilter;
+import com.mx.path.core.context.RequestContext;
+import com.mx.path.core.context.Session;
 
 /**
  * Represents an HTTP request.
@@ -29,6 +33,21 @@ public class HttpRequest extends Request<HttpRequest, HttpResponse> {
     return new HttpResponse(this);
   }
 
+  /**
+   * Starts asynchronous retries, and completes asynchronous upstream calls (see {@link HttpAsyncClientFilter}), with the
+   * calling thread's {@link RequestContext} and {@link Session}.
+   *
+   * @return executor
+   */
+  @Override
+  protected Executor retryExecutor() {
+    RequestContext requestContext = RequestContext.current();
+    Session session = Session.current();
+    Executor executor = super.retryExecutor();
+
+    return runnable -> executor.execute(() -> HttpAsyncClientFilter.withContext(requestContext, session, runnable));
+  }
+
   /**
    * Execute request as a GET
    * @return HttpResponse
@@ -1,5 +1,8 @@
 package com.mx.path.connect.http;
 
+import lombok.Getter;
+import lombok.Setter;
+
 import com.mx.path.core.common.connect.Response;
 
 /**
@@ -7,6 +10,20 @@ import com.mx.path.core.common.connect.Response;
  */
 public class HttpResponse extends Response<HttpRequest, HttpResponse> {
 
+  /**
+   * -- GETTER --
+   * Return time spent in each phase of the upstream request.
+   *
+   * @return timings, null if request was not sent
+   * -- SETTER --
+   * Set timings.
+   *
+   * @param timings timings to set
+   */
+  @Getter
+  @Setter
+  private HttpTimings timings;
+
   /**
    * Default constructor for creating an empty {@link HttpResponse}.
    */
@@ -22,4 +39,17 @@ public class HttpResponse extends Response<HttpRequest, HttpResponse> {
     super();
     withRequest(request);
   }
+
+  /**
+   * Copy upstream result, including timings, of another response.
+   *
+   * @param source response to copy
+   */
+  @Override
+  public final void copyFrom(Response<?, ?> source) {
+    super.copyFrom(source);
+    if (source instanceof HttpResponse) {
+      this.timings = ((HttpResponse) source).timings;
+    }
+  }
 }
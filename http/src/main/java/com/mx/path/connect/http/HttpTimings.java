@@ -0,0 +1,113 @@
+package com.mx.path.connect.http;
+
+import java.time.Duration;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import com.mx.path.core.common.collection.ObjectMap;
+import com.mx.path.core.common.lang.Durations;
+
+/**
+ * Time spent in each phase of an upstream http request.
+ *
+ * <p>Phases that did not happen are null. For example, when a pooled connection is reused there is no name
+ * resolution, connect or TLS handshake.
+ *
+ * <p>The phase breakdown is recorded by the blocking client. Asynchronous requests only record {@link #getBodyRead()}.
+ */
+public class HttpTimings {
+
+  /**
+   * -- GETTER --
+   * Return time spent waiting to lease a connection from the pool.
+   *
+   * @return connection acquire time
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration connectionAcquire;
+
+  /**
+   * -- GETTER --
+   * Return true if a pooled connection was reused.
+   *
+   * @return true, if connection was reused
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private boolean connectionReused;
+
+  /**
+   * -- GETTER --
+   * Return time spent resolving the upstream host name. Measured as the time spent opening the connection that is
+   * not accounted for by connect and TLS.
+   *
+   * @return name resolution time
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration dns;
+
+  /**
+   * -- GETTER --
+   * Return time spent establishing the TCP connection.
+   *
+   * @return connect time
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration connect;
+
+  /**
+   * -- GETTER --
+   * Return time spent in the TLS handshake.
+   *
+   * @return TLS handshake time
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration tls;
+
+  /**
+   * -- GETTER --
+   * Return time from sending the request until the response headers were received.
+   *
+   * @return time to first byte
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration timeToFirstByte;
+
+  /**
+   * -- GETTER --
+   * Return time spent reading and decoding the response body. Null for streamed bodies.
+   *
+   * @return body read time
+   */
+  @Getter
+  @Setter(AccessLevel.PACKAGE)
+  private Duration bodyRead;
+
+  /**
+   * Fill description with recorded timings.
+   *
+   * @param description description
+   */
+  public final void describe(ObjectMap description) {
+    description.put("connectionReused", connectionReused);
+    putDuration(description, "connectionAcquire", connectionAcquire);
+    putDuration(description, "dns", dns);
+    putDuration(description, "connect", connect);
+    putDuration(description, "tls", tls);
+    putDuration(description, "timeToFirstByte", timeToFirstByte);
+    putDuration(description, "bodyRead", bodyRead);
+  }
+
+  private static void putDuration(ObjectMap description, String key, Duration duration) {
+    if (duration != null) {
+      description.put(key, Durations.toCompactString(duration));
+    }
+  }
+}
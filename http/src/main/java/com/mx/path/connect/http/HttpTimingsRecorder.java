@@ -0,0 +1,94 @@
+package com.mx.path.connect.http;
+
+import java.time.Duration;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Collects phase timestamps for one blocking request and fills in its {@link HttpTimings}.
+ *
+ * <p>Carried in the request's {@link HttpContext}, which is passed to the connection manager, socket factories and
+ * request executor of clients built by {@link HttpClientManager}. All calls happen on the executing thread.
+ */
+final class HttpTimingsRecorder {
+  private static final String CONTEXT_ATTRIBUTE = HttpTimingsRecorder.class.getName();
+
+  private final HttpTimings timings;
+  private long connectionRequested = System.nanoTime();
+  private boolean connectionOpened;
+  private long connectStarted;
+  private long socketConnectNanos;
+  private long tlsNanos;
+  private boolean requestSent;
+  private long sendStarted;
+
+  HttpTimingsRecorder(HttpTimings timings) {
+    this.timings = timings;
+  }
+
+  /**
+   * @param context request context
+   * @return recorder carried by context, or null
+   */
+  static HttpTimingsRecorder from(HttpContext context) {
+    if (context == null) {
+      return null;
+    }
+
+    Object recorder = context.getAttribute(CONTEXT_ATTRIBUTE);
+    return recorder instanceof HttpTimingsRecorder ? (HttpTimingsRecorder) recorder : null;
+  }
+
+  /**
+   * Attach this recorder to context.
+   *
+   * @param context request context
+   */
+  void attach(HttpContext context) {
+    context.setAttribute(CONTEXT_ATTRIBUTE, this);
+  }
+
+  /**
+   * Called right before a connection is requested from the pool, after the request (and its body) has been built.
+   * Connection acquire time is measured from here.
+   */
+  void connectionRequested() {
+    connectionRequested = System.nanoTime();
+  }
+
+  void connectStarted() {
+    connectionOpened = true;
+    connectStarted = System.nanoTime();
+    timings.setConnectionAcquire(Duration.ofNanos(connectStarted - connectionRequested));
+  }
+
+  void socketConnected(long nanos) {
+    socketConnectNanos = nanos;
+    timings.setConnect(Duration.ofNanos(nanos));
+  }
+
+  void tlsHandshakeCompleted(long nanos) {
+    tlsNanos = nanos;
+    timings.setTls(Duration.ofNanos(nanos));
+  }
+
+  void connectFinished() {
+    long total = System.nanoTime() - connectStarted;
+    timings.setDns(Duration.ofNanos(Math.max(0, total - socketConnectNanos - tlsNanos)));
+  }
+
+  void requestSending() {
+    requestSent = true;
+    sendStarted = System.nanoTime();
+    if (!connectionOpened) {
+      timings.setConnectionReused(true);
+      timings.setConnectionAcquire(Duration.ofNanos(sendStarted - connectionRequested));
+    }
+  }
+
+  void responseReceived() {
+    if (requestSent) {
+      timings.setTimeToFirstByte(Duration.ofNanos(System.nanoTime() - sendStarted));
+    }
+  }
+}
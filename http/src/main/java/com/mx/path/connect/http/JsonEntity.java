@@ -0,0 +1,195 @@
+package com.mx.path.connect.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.Args;
+
+/**
+ * Request entity that serializes an object to JSON while it is written, without materializing the JSON as a String.
+ *
+ * <p>Small bodies (up to the buffer limit) are serialized once into a buffer so they can be sent with a
+ * {@code Content-Length}. Larger bodies are written with a {@link JsonWriter} directly to the connection's output
+ * stream using chunked transfer encoding.
+ *
+ * <p>The body is encoded with the charset of the given content type, or UTF-8 if it does not specify one.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+
+  /**
+   * Bodies up to this size (in bytes) are sent with a content length.
+   */
+  public static final int DEFAULT_BUFFER_LIMIT = 64 * 1024;
+
+  private final Gson gson;
+  private final Object body;
+  private final Charset charset;
+  private final int bufferLimit;
+  private boolean bufferAttempted;
+  private byte[] buffer;
+
+  /**
+   * Build new {@link JsonEntity} with default buffer limit.
+   *
+   * @param gson serializer
+   * @param body object to serialize
+   * @param contentType content type
+   */
+  public JsonEntity(Gson gson, Object body, ContentType contentType) {
+    this(gson, body, contentType, DEFAULT_BUFFER_LIMIT);
+  }
+
+  /**
+   * Build new {@link JsonEntity}.
+   *
+   * @param gson serializer
+   * @param body object to serialize
+   * @param contentType content type
+   * @param bufferLimit largest body, in bytes, to buffer and send with a content length
+   */
+  public JsonEntity(Gson gson, Object body, ContentType contentType, int bufferLimit) {
+    this.gson = Args.notNull(gson, "Gson");
+    this.body = Args.notNull(body, "Body");
+    this.charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    this.bufferLimit = bufferLimit;
+    setContentType(contentType.toString());
+  }
+
+  @Override
+  public final boolean isRepeatable() {
+    return true;
+  }
+
+  /**
+   * @return length of serialized body, or -1 if body exceeds the buffer limit
+   */
+  @Override
+  public final long getContentLength() {
+    byte[] bytes = buffer();
+    return bytes != null ? bytes.length : -1;
+  }
+
+  @Override
+  public final InputStream getContent() throws IOException {
+    byte[] bytes = buffer();
+    if (bytes == null) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      serialize(out);
+      bytes = out.toByteArray();
+    }
+
+    return new ByteArrayInputStream(bytes);
+  }
+
+  @Override
+  public final void writeTo(OutputStream outStream) throws IOException {
+    Args.notNull(outStream, "Output stream");
+
+    byte[] bytes = buffer();
+    if (bytes != null) {
+      outStream.write(bytes);
+      outStream.flush();
+      return;
+    }
+
+    serialize(outStream);
+  }
+
+  @Override
+  public final boolean isStreaming() {
+    return false;
+  }
+
+  // Private
+
+  /**
+   * Serialize body into buffer, once. Gives up as soon as the buffer limit is exceeded.
+   *
+   * @return serialized body, or null if it exceeds the buffer limit
+   */
+  private synchronized byte[] buffer() {
+    if (!bufferAttempted) {
+      bufferAttempted = true;
+      LimitedOutputStream out = new LimitedOutputStream(bufferLimit);
+      try {
+        serialize(out);
+        buffer = out.toByteArray();
+      } catch (IOException e) {
+        if (!(e instanceof BufferLimitExceededException)) {
+          throw new JsonIOException(e);
+        }
+      }
+    }
+
+    return buffer;
+  }
+
+  /**
+   * Write body to given stream. The stream is flushed, but not closed.
+   */
+  private void serialize(OutputStream outStream) throws IOException {
+    JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(outStream, charset));
+    try {
+      gson.toJson(body, body.getClass(), writer);
+    } catch (JsonIOException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+    writer.flush();
+  }
+
+  /**
+   * Signals that the body is too large to buffer.
+   */
+  private static final class BufferLimitExceededException extends IOException {
+    private static final long serialVersionUID = 1L;
+  }
+
+  /**
+   * Byte buffer that refuses to grow beyond a limit.
+   */
+  private static final class LimitedOutputStream extends OutputStream {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final int limit;
+
+    LimitedOutputStream(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      ensureCapacity(1);
+      buffer.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      ensureCapacity(len);
+      buffer.write(b, off, len);
+    }
+
+    byte[] toByteArray() {
+      return buffer.toByteArray();
+    }
+
+    private void ensureCapacity(int len) throws BufferLimitExceededException {
+      if (buffer.size() + len > limit) {
+        throw new BufferLimitExceededException();
+      }
+    }
+  }
+}
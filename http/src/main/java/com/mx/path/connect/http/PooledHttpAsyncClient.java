@@ -0,0 +1,75 @@
+package com.mx.path.connect.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+import lombok.Getter;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+
+/**
+ * A long-lived, started {@link CloseableHttpAsyncClient} and the connection pool backing it.
+ *
+ * <p>Instances are shared by all requests made with equivalent connection settings and must not be closed by
+ * the requests using them. See {@link HttpClientManager}.
+ */
+public class PooledHttpAsyncClient implements Closeable {
+
+  /**
+   * -- GETTER --
+   * Return pooled client.
+   *
+   * @return pooled client
+   */
+  @Getter
+  private final CloseableHttpAsyncClient client;
+
+  /**
+   * -- GETTER --
+   * Return connection manager.
+   *
+   * @return connection manager
+   */
+  @Getter
+  private final PoolingNHttpClientConnectionManager connectionManager;
+
+  private final Future<?> evictor;
+
+  /**
+   * Build new {@link PooledHttpAsyncClient}.
+   *
+   * @param client started client
+   * @param connectionManager connection manager used by client
+   */
+  public PooledHttpAsyncClient(CloseableHttpAsyncClient client, PoolingNHttpClientConnectionManager connectionManager) {
+    this(client, connectionManager, null);
+  }
+
+  /**
+   * Build new {@link PooledHttpAsyncClient}.
+   *
+   * @param client started client
+   * @param connectionManager connection manager used by client
+   * @param evictor periodic task evicting idle and expired connections from the pool, cancelled on close (nullable)
+   */
+  public PooledHttpAsyncClient(CloseableHttpAsyncClient client, PoolingNHttpClientConnectionManager connectionManager, Future<?> evictor) {
+    this.client = client;
+    this.connectionManager = connectionManager;
+    this.evictor = evictor;
+  }
+
+  /**
+   * Close the client. Stops evicting connections and shuts down the connection pool and the I/O reactor.
+   *
+   * @throws IOException on failure
+   */
+  @Override
+  public final void close() throws IOException {
+    if (evictor != null) {
+      evictor.cancel(false);
+    }
+    client.close();
+  }
+}
@@ -0,0 +1,57 @@
+package com.mx.path.connect.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import lombok.Getter;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * A long-lived {@link CloseableHttpClient} and the connection pool backing it.
+ *
+ * <p>Instances are shared by all requests made with equivalent connection settings and must not be closed by
+ * the requests using them. See {@link HttpClientManager}.
+ */
+public class PooledHttpClient implements Closeable {
+
+  /**
+   * -- GETTER --
+   * Return pooled client.
+   *
+   * @return pooled client
+   */
+  @Getter
+  private final CloseableHttpClient client;
+
+  /**
+   * -- GETTER --
+   * Return connection manager.
+   *
+   * @return connection manager
+   */
+  @Getter
+  private final PoolingHttpClientConnectionManager connectionManager;
+
+  /**
+   * Build new {@link PooledHttpClient}.
+   *
+   * @param client client
+   * @param connectionManager connection manager used by client
+   */
+  public PooledHttpClient(CloseableHttpClient client, PoolingHttpClientConnectionManager connectionManager) {
+    this.client = client;
+    this.connectionManager = connectionManager;
+  }
+
+  /**
+   * Close the client. Shuts down the connection pool and the idle connection evictor.
+   *
+   * @throws IOException on failure
+   */
+  @Override
+  public final void close() throws IOException {
+    client.close();
+  }
+}
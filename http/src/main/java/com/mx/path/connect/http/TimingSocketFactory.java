@@ -0,0 +1,91 @@
+package com.mx.path.connect.http;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Socket factory that records TCP connect time with the request's {@link HttpTimingsRecorder}.
+ *
+ * <p>{@link Layered} separates the TLS handshake from the TCP connect. It connects a plain socket and then layers TLS
+ * over it with the wrapped factory, the same steps {@link org.apache.http.conn.ssl.SSLConnectionSocketFactory} takes.
+ */
+class TimingSocketFactory implements ConnectionSocketFactory {
+  private final ConnectionSocketFactory delegate;
+
+  TimingSocketFactory(ConnectionSocketFactory delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public final Socket createSocket(HttpContext context) throws IOException {
+    return delegate.createSocket(context);
+  }
+
+  @Override
+  public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+    long start = System.nanoTime();
+    Socket connected = delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+
+    HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+    if (recorder != null) {
+      recorder.socketConnected(System.nanoTime() - start);
+    }
+
+    return connected;
+  }
+
+  /**
+   * Timing wrapper for TLS socket factories.
+   */
+  static final class Layered extends TimingSocketFactory implements LayeredConnectionSocketFactory {
+    private final LayeredConnectionSocketFactory tlsDelegate;
+
+    Layered(LayeredConnectionSocketFactory delegate) {
+      super(delegate);
+      this.tlsDelegate = delegate;
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+      Socket sock = socket != null ? socket : createSocket(context);
+      // Bound the handshake by the connect timeout, as SSLConnectionSocketFactory does
+      if (connectTimeout > 0 && sock.getSoTimeout() == 0) {
+        sock.setSoTimeout(connectTimeout);
+      }
+
+      HttpTimingsRecorder recorder = HttpTimingsRecorder.from(context);
+      long start = System.nanoTime();
+      Socket connected = PlainConnectionSocketFactory.getSocketFactory().connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+      long handshakeStart = System.nanoTime();
+      if (recorder != null) {
+        recorder.socketConnected(handshakeStart - start);
+      }
+
+      Socket layered;
+      try {
+        layered = tlsDelegate.createLayeredSocket(connected, host.getHostName(), remoteAddress.getPort(), context);
+      } catch (IOException e) {
+        connected.close();
+        throw e;
+      }
+
+      if (recorder != null) {
+        recorder.tlsHandshakeCompleted(System.nanoTime() - handshakeStart);
+      }
+
+      return layered;
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+      return tlsDelegate.createLayeredSocket(socket, target, port, context);
+    }
+  }
+}
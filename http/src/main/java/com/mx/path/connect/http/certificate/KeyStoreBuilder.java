@@ -33,11 +33,12 @@ public class KeyStoreBuilder {
   }
 
   /**
-   * Return loaded keystore.
+   * Return loaded keystore. A new instance is returned if the keystore file has changed since it was last loaded.
    *
    * @return loaded keystore
    */
   public final LoadedKeystore getKeyStore() {
+    keyStore = LoadedKeystore.load(this.keystorePath, this.keystorePassword);
     return keyStore;
   }
 
@@ -1,5 +1,6 @@
 package com.mx.path.connect.http.certificate;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
@@ -11,16 +12,26 @@ import java.security.PublicKey;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.mx.path.core.common.lang.Strings;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Represents a keystore that has been loaded from a file and is ready for use.
  * This class encapsulates the keystore data and associated metadata.
+ *
+ * <p>Loaded keystores are cached by path. The keystore file is checked for changes at most once every
+ * {@link #FILE_CHECK_INTERVAL}, and is reloaded when it changes. Holders of a {@link LoadedKeystore} can detect a reload
+ * by comparing the instance returned by {@link #load(String, char[])} to the one they hold.
  */
 public final class LoadedKeystore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoadedKeystore.class);
 
   /**
    * Represents a pair of cryptographic keys consisting of a public key and a private key,
@@ -65,12 +76,20 @@ public final class LoadedKeystore {
     }
   }
 
-  private static Map<String, LoadedKeystore> loadedKeyStores = new HashMap<>();
+  /**
+   * Minimum time between checks of the keystore file for changes.
+   */
+  public static final Duration FILE_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+  private static Map<String, LoadedKeystore> loadedKeyStores = new ConcurrentHashMap<>();
 
   private String path;
   private KeyStore keyStore;
   private char[] password;
   private Map<String, KeyPair> keyPairs = new HashMap<>();
+  private final long fileLastModified;
+  private final long fileLength;
+  private long nextFileCheck;
 
   /**
    * Load {@link LoadedKeystore} from specified file path using provided password.
@@ -87,15 +106,16 @@ public final class LoadedKeystore {
     if (!loadedKeyStores.containsKey(path)) {
       synchronized (KeyStoreBuilder.class) {
         if (!loadedKeyStores.containsKey(path)) {
-          try {
-            KeyStore keyStore = KeyStore.getInstance("jks");
-            try (FileInputStream keyStoreFile = new FileInputStream(Paths.get(path).toFile())) {
-              keyStore.load(keyStoreFile, password);
-              loadedKeyStores.put(path, new LoadedKeystore(path, keyStore, password));
-            }
-          } catch (CertificateException | IOException | KeyStoreException | NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-          }
+          loadedKeyStores.put(path, read(path, password));
+        }
+      }
+    } else if (loadedKeyStores.get(path).isFileChanged()) {
+      synchronized (KeyStoreBuilder.class) {
+        try {
+          loadedKeyStores.put(path, read(path, password));
+        } catch (RuntimeException e) {
+          // File may be mid-write. Keep using the current key material and try again on the next check.
+          LOGGER.warn("Unable to reload changed keystore {}, using the current key material", path, e);
         }
       }
     }
@@ -103,6 +123,10 @@ public final class LoadedKeystore {
     return loadedKeyStores.get(path);
   }
 
+  static void reset() {
+    loadedKeyStores.clear();
+  }
+
   /**
    * Return key store path.
    *
@@ -121,10 +145,13 @@ public final class LoadedKeystore {
     return keyStore;
   }
 
-  private LoadedKeystore(String path, KeyStore keyStore, char[] password) {
+  private LoadedKeystore(String path, KeyStore keyStore, char[] password, File file) {
     this.path = path;
     this.keyStore = keyStore;
     this.password = password;
+    this.fileLastModified = file.lastModified();
+    this.fileLength = file.length();
+    this.nextFileCheck = System.currentTimeMillis() + FILE_CHECK_INTERVAL.toMillis();
   }
 
   /**
@@ -149,6 +176,36 @@ public final class LoadedKeystore {
     return keyPairs.get(alias);
   }
 
+  private static LoadedKeystore read(String path, char[] password) {
+    try {
+      File file = Paths.get(path).toFile();
+      KeyStore keyStore = KeyStore.getInstance("jks");
+      try (FileInputStream keyStoreFile = new FileInputStream(file)) {
+        keyStore.load(keyStoreFile, password);
+        return new LoadedKeystore(path, keyStore, password, file);
+      }
+    } catch (CertificateException | IOException | KeyStoreException | NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Check the keystore file for changes since it was loaded. Only touches the file system once per
+   * {@link #FILE_CHECK_INTERVAL}; returns false between checks.
+   *
+   * @return true if file was modified
+   */
+  private synchronized boolean isFileChanged() {
+    long now = System.currentTimeMillis();
+    if (now < nextFileCheck) {
+      return false;
+    }
+    nextFileCheck = now + FILE_CHECK_INTERVAL.toMillis();
+
+    File file = Paths.get(path).toFile();
+    return file.lastModified() != fileLastModified || file.length() != fileLength;
+  }
+
   private PrivateKey getPrivateKey(String certificateAlias) {
     try {
       return (PrivateKey) this.keyStore.getKey(certificateAlias, this.password);
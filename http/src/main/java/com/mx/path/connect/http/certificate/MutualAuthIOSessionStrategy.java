@@ -0,0 +1,118 @@
+package com.mx.path.connect.http.certificate;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.http.HttpHost;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking TLS session strategy backed by a {@link MutualAuthProvider}.
+ *
+ * <p>Asynchronous counterpart of {@link MutualAuthSocketFactory}. The wrapped {@link SSLIOSessionStrategy} is rebuilt
+ * only when the provider returns a new {@link SSLContext}.
+ *
+ * <p>Sessions are upgraded on the client's I/O dispatcher thread, which must not block. The provider, which may reload
+ * the keystore from disk, is asked for its context ahead of time and then on a background thread after each upgrade,
+ * so a changed keystore is used from the connection after the one that noticed the change.
+ */
+public class MutualAuthIOSessionStrategy implements SchemeIOSessionStrategy {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MutualAuthIOSessionStrategy.class);
+  private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("path-mutual-auth-refresh").build());
+
+  private final MutualAuthProvider mutualAuthProvider;
+  private final HostnameVerifier hostnameVerifier;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile CurrentStrategy current;
+
+  /**
+   * Build new {@link MutualAuthIOSessionStrategy}.
+   *
+   * @param mutualAuthProvider provider of ssl context
+   * @param hostnameVerifier host name verifier
+   */
+  public MutualAuthIOSessionStrategy(MutualAuthProvider mutualAuthProvider, HostnameVerifier hostnameVerifier) {
+    this.mutualAuthProvider = mutualAuthProvider;
+    this.hostnameVerifier = hostnameVerifier;
+
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      // Tried again, and reported, by the first upgrade
+      LOGGER.debug("Unable to load mutual auth key material ahead of first connection", e);
+    }
+  }
+
+  @Override
+  public final boolean isLayeringRequired() {
+    return true;
+  }
+
+  @Override
+  public final IOSession upgrade(HttpHost host, IOSession iosession) throws IOException {
+    CurrentStrategy strategy = current;
+    if (strategy == null) {
+      strategy = refresh();
+    } else {
+      refreshInBackground();
+    }
+
+    return strategy.sessionStrategy.upgrade(host, iosession);
+  }
+
+  // Private
+
+  private CurrentStrategy refresh() {
+    SSLContext sslContext = mutualAuthProvider.getSSLContext();
+    CurrentStrategy strategy = current;
+    if (strategy == null || strategy.sslContext != sslContext) {
+      strategy = new CurrentStrategy(sslContext, new SSLIOSessionStrategy(sslContext, hostnameVerifier));
+      current = strategy;
+    }
+
+    return strategy;
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      REFRESH_EXECUTOR.execute(() -> {
+        try {
+          refresh();
+        } catch (RuntimeException e) {
+          LOGGER.warn("Unable to refresh mutual auth key material, using the current key material", e);
+        } finally {
+          refreshing.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.set(false);
+    }
+  }
+
+  private static final class CurrentStrategy {
+    private final SSLContext sslContext;
+    private final SSLIOSessionStrategy sessionStrategy;
+
+    CurrentStrategy(SSLContext sslContext, SSLIOSessionStrategy sessionStrategy) {
+      this.sslContext = sslContext;
+      this.sessionStrategy = sessionStrategy;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.mx.path.connect.http.certificate;
 
+import javax.net.ssl.SSLContext;
+
 import org.apache.http.impl.client.HttpClientBuilder;
 
 /**
@@ -15,6 +17,23 @@ public interface MutualAuthProvider {
    */
   HttpClientBuilder add(HttpClientBuilder builder);
 
+  /**
+   * Return {@link SSLContext} loaded with the mutual authentication key material.
+   *
+   * <p>Called whenever a new upstream connection is opened. Implementations should cache the context and return a new
+   * instance only when the key material changes.
+   *
+   * <p>Required by pooled clients. The default implementation is only provided so that existing providers, which
+   * configure a client with {@link #add(HttpClientBuilder)}, still compile; connecting with such a provider fails.
+   *
+   * @return ssl context
+   * @throws UnsupportedOperationException if the provider does not expose its ssl context
+   */
+  default SSLContext getSSLContext() {
+    throw new UnsupportedOperationException(getClass().getName() + " does not provide an SSLContext. "
+        + "Pooled http clients require MutualAuthProvider.getSSLContext() to be implemented");
+  }
+
   /**
    * Validates mutual authentication settings.
    *
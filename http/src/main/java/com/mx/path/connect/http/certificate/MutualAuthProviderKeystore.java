@@ -7,6 +7,8 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.util.Map;
 
+import javax.net.ssl.SSLContext;
+
 import com.mx.path.core.common.connect.ConnectionSettings;
 
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -16,10 +18,17 @@ import org.apache.http.ssl.SSLContextBuilder;
 
 /**
  * Provides SslContext given a Java Keystore
+ *
+ * <p>The {@link SSLContext} is built once and reused until the keystore file changes on disk.
  */
 public class MutualAuthProviderKeystore implements MutualAuthProvider {
 
+  private static final int SESSION_CACHE_SIZE = 1000;
+  private static final int SESSION_TIMEOUT_SECONDS = 3600;
+
   private KeyStoreBuilder keyStoreBuilder;
+  private volatile SSLContext sslContext;
+  private volatile LoadedKeystore sslContextKeystore;
 
   // MutualAuthProvider
 
@@ -41,22 +50,53 @@ public class MutualAuthProviderKeystore implements MutualAuthProvider {
    */
   @Override
   public final HttpClientBuilder add(HttpClientBuilder builder) {
+    return builder.setSSLContext(getSSLContext());
+  }
+
+  /**
+   * Return {@link SSLContext} with the key material from the keystore. The context is cached and rebuilt only when
+   * the keystore is reloaded.
+   *
+   * @return ssl context
+   */
+  @Override
+  public final SSLContext getSSLContext() {
+    LoadedKeystore keystore = keyStoreBuilder.getKeyStore();
+    if (sslContext == null || sslContextKeystore != keystore) {
+      synchronized (this) {
+        if (sslContext == null || sslContextKeystore != keystore) {
+          sslContext = buildSSLContext(keystore);
+          sslContextKeystore = keystore;
+        }
+      }
+    }
+
+    return sslContext;
+  }
+
+  @Override
+  public final void validate() throws FieldSettingsValidationError {
+    keyStoreBuilder.validateSettings();
+  }
+
+  // Private
+
+  private SSLContext buildSSLContext(LoadedKeystore keystore) {
     try {
-      SSLContextBuilder context = SSLContextBuilder.create().loadKeyMaterial(keyStoreBuilder.getKeyStore().getKeyStore(), keyStoreBuilder.getKeystorePassword(), new PrivateKeyStrategy() {
+      SSLContext context = SSLContextBuilder.create().loadKeyMaterial(keystore.getKeyStore(), keyStoreBuilder.getKeystorePassword(), new PrivateKeyStrategy() {
         @Override
         public String chooseAlias(Map<String, PrivateKeyDetails> map, Socket socket) {
           return keyStoreBuilder.getCertificateAlias();
         }
-      });
+      }).build();
 
-      return builder.setSSLContext(context.build());
+      // Allow TLS sessions to be resumed by new connections to the same upstream
+      context.getClientSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+      context.getClientSessionContext().setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+
+      return context;
     } catch (UnrecoverableKeyException | NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
       throw new RuntimeException("Unable to load key with alias " + keyStoreBuilder.getCertificateAlias());
     }
   }
-
-  @Override
-  public final void validate() throws FieldSettingsValidationError {
-    keyStoreBuilder.validateSettings();
-  }
 }
@@ -0,0 +1,66 @@
+package com.mx.path.connect.http.certificate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * TLS socket factory backed by a {@link MutualAuthProvider}.
+ *
+ * <p>Wraps an {@link SSLConnectionSocketFactory} built from the provider's current {@link SSLContext}. The wrapped
+ * factory is rebuilt only when the provider returns a new context (i.e. the key material was reloaded), so long-lived
+ * pooled clients pick up keystore changes without being rebuilt.
+ */
+public class MutualAuthSocketFactory implements LayeredConnectionSocketFactory {
+
+  private final MutualAuthProvider mutualAuthProvider;
+  private final HostnameVerifier hostnameVerifier;
+  private SSLContext sslContext;
+  private SSLConnectionSocketFactory socketFactory;
+
+  /**
+   * Build new {@link MutualAuthSocketFactory}.
+   *
+   * @param mutualAuthProvider provider of ssl context
+   * @param hostnameVerifier host name verifier
+   */
+  public MutualAuthSocketFactory(MutualAuthProvider mutualAuthProvider, HostnameVerifier hostnameVerifier) {
+    this.mutualAuthProvider = mutualAuthProvider;
+    this.hostnameVerifier = hostnameVerifier;
+  }
+
+  @Override
+  public final Socket createSocket(HttpContext context) throws IOException {
+    return currentSocketFactory().createSocket(context);
+  }
+
+  @Override
+  public final Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+    return currentSocketFactory().connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+  }
+
+  @Override
+  public final Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+    return currentSocketFactory().createLayeredSocket(socket, target, port, context);
+  }
+
+  // Private
+
+  private synchronized SSLConnectionSocketFactory currentSocketFactory() {
+    SSLContext current = mutualAuthProvider.getSSLContext();
+    if (socketFactory == null || sslContext != current) {
+      socketFactory = new SSLConnectionSocketFactory(current, hostnameVerifier);
+      sslContext = current;
+    }
+
+    return socketFactory;
+  }
+}
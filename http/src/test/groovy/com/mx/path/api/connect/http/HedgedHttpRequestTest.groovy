@@ -0,0 +1,115 @@
+package com.mx.path.api.connect.http
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.mx.path.connect.http.HttpAsyncClientFilter
+import com.mx.path.connect.http.HttpClientManager
+import com.mx.path.connect.http.HttpRequest
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.ConcurrencyLimitSettings
+import com.mx.path.core.common.connect.HedgingSettings
+import com.mx.path.core.common.connect.LoadBalancerSettings
+import com.mx.path.core.common.connect.RateLimitSettings
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.gateway.connect.filter.ConcurrencyLimitingRequestFilter
+import com.mx.path.gateway.connect.filter.HedgingRequestFilter
+import com.mx.path.gateway.connect.filter.LoadBalancingRequestFilter
+import com.mx.path.gateway.connect.filter.RateLimitingRequestFilter
+import com.sun.net.httpserver.HttpServer
+
+import spock.lang.Specification
+
+class HedgedHttpRequestTest extends Specification {
+  HttpServer server
+  CountDownLatch releaseFirst
+  AtomicInteger received
+  ConcurrencyLimitingRequestFilter concurrencyLimiting
+  HedgingRequestFilter subject
+
+  def setup() {
+    releaseFirst = new CountDownLatch(1)
+    received = new AtomicInteger()
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.setExecutor(Executors.newCachedThreadPool())
+    server.createContext("/rates") { exchange ->
+      int attempt = received.incrementAndGet()
+      if (attempt == 1) {
+        releaseFirst.await(5, TimeUnit.SECONDS)
+      }
+      byte[] body = "{\"attempt\":${attempt}}".bytes
+      exchange.responseHeaders.add("Content-Type", "application/json")
+      exchange.sendResponseHeaders(200, body.length)
+      exchange.responseBody.write(body)
+      exchange.close()
+    }
+    server.start()
+
+    concurrencyLimiting = new ConcurrencyLimitingRequestFilter()
+    subject = new HedgingRequestFilter()
+    def rateLimiting = new RateLimitingRequestFilter()
+    def loadBalancing = new LoadBalancingRequestFilter()
+    subject.setNext(rateLimiting)
+    rateLimiting.setNext(concurrencyLimiting)
+    concurrencyLimiting.setNext(loadBalancing)
+    loadBalancing.setNext(new HttpAsyncClientFilter())
+  }
+
+  def cleanup() {
+    releaseFirst.countDown()
+    server.stop(0)
+    HttpClientManager.reset()
+  }
+
+  def "cancels the losing attempt's upstream call"() {
+    given:
+    def endpoint = "http://localhost:${server.address.port}".toString()
+    def settings = AccessorConnectionSettings.builder()
+        .baseUrl(endpoint)
+        .hedging(new HedgingSettings().tap {
+          enabled = true
+          delay = Duration.ofMillis(50)
+          budget = 1.0
+        })
+        .rateLimit(new RateLimitSettings().tap { rate = 1000 })
+        .concurrencyLimit(new ConcurrencyLimitSettings())
+        .loadBalancer(new LoadBalancerSettings().tap { endpoints = [endpoint] })
+        .build()
+    def request = new HttpRequest(subject).withConnectionSettings(settings).withBaseUrl(endpoint).withPath("/rates")
+    def response = request.newResponse()
+
+    when:
+    subject.executeAsync(request, response).get(2, TimeUnit.SECONDS)
+
+    then:
+    response.status == HttpStatus.OK
+    response.body == "{\"attempt\":2}"
+    request.getBaseUrl() == endpoint
+
+    and: "the first attempt releases its permit without waiting for the upstream"
+    waitForInFlight(0)
+    inFlight() == 0
+    releaseFirst.getCount() == 1
+  }
+
+  private int inFlight() {
+    def description = new ObjectMap()
+    concurrencyLimiting.describe(description)
+
+    int total = 0
+    description.values().each { total += ((ObjectMap) it).get("inFlight") as int }
+
+    return total
+  }
+
+  private void waitForInFlight(int count) {
+    def deadline = System.currentTimeMillis() + 1000
+    while (inFlight() != count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5)
+    }
+  }
+}
@@ -2,16 +2,40 @@ package com.mx.path.api.connect.http
 
 import static org.mockito.Mockito.doReturn
 import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.never
 import static org.mockito.Mockito.spy
+import static org.mockito.Mockito.verify
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import com.mx.path.connect.http.HttpAsyncClientFilter
 import com.mx.path.connect.http.HttpClientFilter
+import com.mx.path.connect.http.HttpClientManager
 import com.mx.path.connect.http.HttpRequest
 import com.mx.path.connect.http.HttpResponse
 import com.mx.path.core.common.collection.MultiValueMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.CompressionSettings
+import com.mx.path.core.common.connect.ConnectException
 import com.mx.path.core.common.connect.Request
 import com.mx.path.core.common.connect.RequestFilter
+import com.mx.path.core.common.connect.RequestFilterBase
+import com.mx.path.core.common.connect.Response
+import com.mx.path.core.common.http.HttpStatus
+import com.mx.path.core.common.lang.Futures
+import com.sun.net.httpserver.HttpServer
 
 import org.apache.http.HttpEntity
+import org.apache.http.HttpEntityEnclosingRequest
+import org.apache.http.HttpVersion
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.entity.ContentType
+import org.apache.http.entity.StringEntity
+import org.apache.http.impl.client.BasicCookieStore
+import org.apache.http.message.BasicHttpResponse
 
 import spock.lang.Specification
 import spock.lang.Unroll
@@ -86,6 +110,45 @@ class HttpClientFilterTest extends Specification {
     response.rawBody == rawBody
   }
 
+  def "hands the live body stream to the Response when streaming is preferred"() {
+    given:
+    def subject = new HttpClientFilter()
+    def request = new HttpRequest(filterChain).tap {
+      withPreferredResponseBodyType(Request.PreferredResponseBodyType.STREAM)
+    }
+    def response = new HttpResponse()
+    def httpEntity = mock(HttpEntity)
+    def stream = new ByteArrayInputStream("This is the response".bytes)
+    doReturn(stream).when(httpEntity).getContent()
+
+    when:
+    subject.setResponseBody(request, response, new MultiValueMap<>(), httpEntity)
+
+    then:
+    response.bodyStream === stream
+    response.bodyChannel != null
+    response.body == ""
+    response.rawBody.length == 0
+  }
+
+  def "decodes the String body from the raw bytes using the entity charset"() {
+    given:
+    def subject = spy(new HttpClientFilter())
+    def request = new HttpRequest(filterChain).tap {
+      withPreferredResponseBodyType(Request.PreferredResponseBodyType.STRING_AND_RAW)
+    }
+    def response = new HttpResponse()
+    def httpEntity = new StringEntity("Caf\u00e9 r\u00e9sum\u00e9", ContentType.create("text/plain", "UTF-8"))
+
+    when:
+    subject.setResponseBody(request, response, new MultiValueMap<>(), httpEntity)
+
+    then:
+    response.body == "Caf\u00e9 r\u00e9sum\u00e9"
+    response.rawBody == "Caf\u00e9 r\u00e9sum\u00e9".getBytes("UTF-8")
+    verify(subject, never()).getHttpEntityBodyAsString(httpEntity)
+  }
+
   @Unroll
   def "infers whether the #rawBodyShouldBeReturned based on the #contentTypeHeaders"() {
     given:
@@ -111,4 +174,148 @@ class HttpClientFilterTest extends Specification {
     false                   || makeContentTypeHeaders("application/xml")
     false                   || makeContentTypeHeaders()
   }
+
+  def "decodes gzip responses and records wire and decoded sizes"() {
+    given:
+    def subject = new HttpClientFilter()
+    def request = new HttpRequest(filterChain).withConnectionSettings(AccessorConnectionSettings.builder().build())
+    def response = new HttpResponse()
+    def body = "This is the response. " * 100
+    def gzipped = new ByteArrayOutputStream().with { out ->
+      new GZIPOutputStream(out).withCloseable { it.write(body.bytes) }
+      out.toByteArray()
+    }
+    def resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK").tap {
+      entity = new ByteArrayEntity(gzipped, ContentType.TEXT_PLAIN).tap { contentEncoding = "gzip" }
+      addHeader("Content-Encoding", "gzip")
+      addHeader("Content-Length", String.valueOf(gzipped.length))
+    }
+
+    when:
+    subject.populateResponse(request, response, resp, new BasicCookieStore())
+
+    then:
+    response.body == body
+    response.wireBodySize == gzipped.length
+    response.bodySize == body.bytes.length
+    response.headers.get("Content-Encoding") == null
+    response.headers.get("Content-Length") == null
+  }
+
+  def "leaves gzip responses encoded when decompression is disabled"() {
+    given:
+    def subject = new HttpClientFilter()
+    def settings = AccessorConnectionSettings.builder()
+        .compression(new CompressionSettings().tap { decompressResponses = false })
+        .build()
+    def request = new HttpRequest(filterChain)
+        .withPreferredResponseBodyType(Request.PreferredResponseBodyType.RAW)
+        .withConnectionSettings(settings)
+    def response = new HttpResponse()
+    def resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK").tap {
+      entity = new ByteArrayEntity([1, 2, 3] as byte[]).tap { contentEncoding = "gzip" }
+      addHeader("Content-Encoding", "gzip")
+    }
+
+    when:
+    subject.populateResponse(request, response, resp, new BasicCookieStore())
+
+    then:
+    response.rawBody == [1, 2, 3] as byte[]
+    response.wireBodySize == 3
+    response.bodySize == 3
+    response.headers.get("Content-Encoding") == "gzip"
+  }
+
+  @Unroll
+  def "gzips request bodies of #size bytes when threshold is #threshold: #compressed"() {
+    given:
+    def subject = new HttpClientFilter()
+    def settings = AccessorConnectionSettings.builder()
+        .compression(new CompressionSettings().tap {
+          compressRequests = true
+          requestThreshold = threshold
+        })
+        .build()
+    def request = new HttpRequest(filterChain)
+        .withBaseUrl("http://localhost")
+        .withPath("/accounts")
+        .withMethod("POST")
+        .withBody("a" * size)
+        .withConnectionSettings(settings)
+
+    when:
+    def req = subject.buildHttpUriRequest(request) as HttpEntityEnclosingRequest
+
+    then:
+    req.getFirstHeader("Accept-Encoding").value == "gzip, deflate"
+    (req.entity.contentEncoding?.value == "gzip") == compressed
+    !compressed || new GZIPInputStream(req.entity.content).text == "a" * size
+
+    where:
+    size | threshold || compressed
+    10   | 100       || false
+    100  | 100       || true
+    1000 | 100       || true
+  }
+
+  def "async reports setup failures through the future"() {
+    given:
+    def subject = new HttpAsyncClientFilter()
+    def request = new HttpRequest(filterChain)
+    def response = new HttpResponse()
+
+    when:
+    def future = subject.executeAsync(request, response)
+
+    then:
+    future.isCompletedExceptionally()
+
+    when:
+    Futures.join(future)
+
+    then:
+    def e = thrown(ConnectException)
+    e.message == "HttpClient Setup failed"
+  }
+
+  def "async runs the rest of the chain off the I/O dispatcher thread"() {
+    given:
+    def server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext("/rates") { exchange ->
+      exchange.sendResponseHeaders(200, -1)
+      exchange.close()
+    }
+    server.start()
+    def endpoint = "http://localhost:${server.address.port}".toString()
+    def threads = []
+    def subject = new HttpAsyncClientFilter()
+    subject.setNext(new RequestFilterBase() {
+          @Override
+          void execute(Request request, Response response) {
+          }
+
+          @Override
+          CompletableFuture<Void> executeAsync(Request request, Response response) {
+            threads.add(Thread.currentThread().getName())
+            return CompletableFuture.completedFuture(null)
+          }
+        })
+    def settings = AccessorConnectionSettings.builder().baseUrl(endpoint).build()
+    def request = new HttpRequest(subject).withConnectionSettings(settings).withBaseUrl(endpoint).withPath("/rates")
+    def response = request.newResponse()
+
+    when:
+    subject.executeAsync(request, response).get(2, TimeUnit.SECONDS)
+
+    then:
+    response.status == HttpStatus.OK
+    threads.size() == 1
+    !threads[0].startsWith("I/O dispatcher")
+    threads[0] != Thread.currentThread().getName()
+
+    cleanup:
+    server.stop(0)
+    HttpClientManager.reset()
+  }
 }
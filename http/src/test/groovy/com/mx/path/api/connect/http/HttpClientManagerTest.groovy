@@ -0,0 +1,137 @@
+package com.mx.path.api.connect.http
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+import com.mx.path.connect.http.HttpClientManager
+import com.mx.path.core.common.collection.ObjectMap
+import com.mx.path.core.common.connect.AccessorConnectionSettings
+import com.mx.path.core.common.connect.ConnectionPoolSettings
+import com.sun.net.httpserver.HttpServer
+
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager
+
+import spock.lang.Specification
+
+class HttpClientManagerTest extends Specification {
+
+  def cleanup() {
+    HttpClientManager.reset()
+  }
+
+  def "reuses client for equivalent settings"() {
+    given:
+    def settings1 = AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").build()
+    def settings2 = AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").build()
+
+    expect:
+    HttpClientManager.get(settings1) === HttpClientManager.get(settings2)
+  }
+
+  def "builds separate clients for different settings"() {
+    given:
+    def settings1 = AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").build()
+    def settings2 = AccessorConnectionSettings.builder().baseUrl("http://localhost:3002").build()
+    def settings3 = AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").skipHostNameVerify(true).build()
+
+    expect:
+    HttpClientManager.get(settings1) !== HttpClientManager.get(settings2)
+    HttpClientManager.get(settings1) !== HttpClientManager.get(settings3)
+  }
+
+  def "builds client without settings"() {
+    expect:
+    HttpClientManager.get(null) != null
+    HttpClientManager.get(null) === HttpClientManager.get(null)
+  }
+
+  def "applies default pool settings"() {
+    when:
+    def client = HttpClientManager.get(AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").build())
+
+    then:
+    client.connectionManager.maxTotal == ConnectionPoolSettings.DEFAULT_MAX_TOTAL
+    client.connectionManager.defaultMaxPerRoute == ConnectionPoolSettings.DEFAULT_MAX_PER_ROUTE
+    client.connectionManager.validateAfterInactivity == ConnectionPoolSettings.DEFAULT_VALIDATE_AFTER_INACTIVITY.toMillis()
+  }
+
+  def "applies configured pool settings"() {
+    given:
+    def settings = AccessorConnectionSettings.builder()
+        .baseUrl("http://localhost:3001")
+        .connectionPool(new ConnectionPoolSettings().tap {
+          setMaxTotal(20)
+          setMaxPerRoute(5)
+          setValidateAfterInactivity(Duration.ofSeconds(1))
+        })
+        .build()
+
+    when:
+    def client = HttpClientManager.get(settings)
+
+    then:
+    client.connectionManager.maxTotal == 20
+    client.connectionManager.defaultMaxPerRoute == 5
+    client.connectionManager.validateAfterInactivity == 1000
+  }
+
+  def "describes pool statistics of each client"() {
+    given:
+    HttpClientManager.get(AccessorConnectionSettings.builder().baseUrl("http://localhost:3001").build())
+    def description = new ObjectMap()
+
+    when:
+    HttpClientManager.describe(description)
+
+    then:
+    def client = description.getArray("clients").getMap(0)
+    client.getAsString("baseUrl") == "http://localhost:3001"
+    !client.getAsBoolean("async")
+    verifyAll(client.getMap("total")) {
+      getAsInteger("leased") == 0
+      getAsInteger("available") == 0
+      getAsInteger("pending") == 0
+      getAsInteger("max") == ConnectionPoolSettings.DEFAULT_MAX_TOTAL
+    }
+    client.getMap("routes").isEmpty()
+  }
+
+  def "evicts idle connections from async pool"() {
+    given:
+    def server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext("/ping") { exchange ->
+      exchange.sendResponseHeaders(200, -1)
+      exchange.close()
+    }
+    server.start()
+    def baseUrl = "http://localhost:" + server.getAddress().getPort()
+    def client = HttpClientManager.getAsync(AccessorConnectionSettings.builder()
+        .baseUrl(baseUrl)
+        .connectionPool(new ConnectionPoolSettings().tap {
+          setIdleTimeout(Duration.ofSeconds(1))
+        })
+        .build())
+
+    when:
+    client.client.execute(new HttpGet(baseUrl + "/ping"), null).get(5, TimeUnit.SECONDS)
+    def pooled = awaitAvailable(client.connectionManager, 1)
+    def evicted = awaitAvailable(client.connectionManager, 0)
+
+    then:
+    pooled
+    evicted
+
+    cleanup:
+    server.stop(0)
+  }
+
+  private static boolean awaitAvailable(PoolingNHttpClientConnectionManager connectionManager, int available) {
+    def deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+    while (connectionManager.totalStats.available != available && System.nanoTime() < deadline) {
+      Thread.sleep(20)
+    }
+
+    return connectionManager.totalStats.available == available
+  }
+}
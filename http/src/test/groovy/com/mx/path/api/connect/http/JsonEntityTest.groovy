@@ -0,0 +1,58 @@
+package com.mx.path.api.connect.http
+
+import java.nio.charset.StandardCharsets
+
+import com.google.gson.Gson
+import com.mx.path.connect.http.JsonEntity
+
+import org.apache.http.entity.ContentType
+
+import spock.lang.Specification
+
+class JsonEntityTest extends Specification {
+  Gson gson = new Gson()
+
+  def "buffers small bodies with a content length"() {
+    given:
+    def body = [name: "café", amount: 12]
+    def subject = new JsonEntity(gson, body, ContentType.APPLICATION_JSON)
+    def out = new ByteArrayOutputStream()
+
+    when:
+    subject.writeTo(out)
+
+    then:
+    subject.contentLength == gson.toJson(body).getBytes(StandardCharsets.UTF_8).length
+    !subject.chunked
+    new String(out.toByteArray(), StandardCharsets.UTF_8) == gson.toJson(body)
+  }
+
+  def "streams large bodies without a content length"() {
+    given:
+    def body = (1..100).collect { [id: it, description: "transaction " + it] }
+    def subject = new JsonEntity(gson, body, ContentType.APPLICATION_JSON, 64)
+    def out = new ByteArrayOutputStream()
+
+    when:
+    subject.writeTo(out)
+
+    then:
+    subject.contentLength == -1
+    new String(out.toByteArray(), StandardCharsets.UTF_8) == gson.toJson(body)
+    new String(subject.content.bytes, StandardCharsets.UTF_8) == gson.toJson(body)
+  }
+
+  def "encodes with the content type charset"() {
+    given:
+    def body = [name: "café"]
+    def subject = new JsonEntity(gson, body, ContentType.create("application/json", StandardCharsets.ISO_8859_1))
+    def out = new ByteArrayOutputStream()
+
+    when:
+    subject.writeTo(out)
+
+    then:
+    out.toByteArray() == gson.toJson(body).getBytes(StandardCharsets.ISO_8859_1)
+    subject.contentType.value == "application/json; charset=ISO-8859-1"
+  }
+}
@@ -1,5 +1,9 @@
 package com.mx.path.api.connect.http.certificate
 
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+
 import com.mx.path.connect.http.certificate.LoadedKeystore
 
 import spock.lang.Specification
@@ -29,4 +33,42 @@ class LoadedKeystoreTest extends Specification {
     keypair != null
     keypair == loadedKeystore.getKeyPair("test")
   }
-}
\ No newline at end of file
+
+  def "reloads the keystore when the file changes"() {
+    given:
+    def file = File.createTempFile("keystore", ".jks")
+    file.deleteOnExit()
+    Files.copy(Paths.get(path), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+    def loadedKeystore = LoadedKeystore.load(file.path, password)
+
+    when: "file is unchanged"
+    loadedKeystore.@nextFileCheck = 0
+
+    then:
+    LoadedKeystore.load(file.path, password) === loadedKeystore
+
+    when: "file is changed"
+    file.setLastModified(file.lastModified() + 10000)
+    loadedKeystore.@nextFileCheck = 0
+    def reloaded = LoadedKeystore.load(file.path, password)
+
+    then:
+    reloaded !== loadedKeystore
+    reloaded.getKeyPair("test") != null
+    LoadedKeystore.load(file.path, password) === reloaded
+  }
+
+  def "does not check the file between check intervals"() {
+    given:
+    def file = File.createTempFile("keystore", ".jks")
+    file.deleteOnExit()
+    Files.copy(Paths.get(path), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+    def loadedKeystore = LoadedKeystore.load(file.path, password)
+
+    when:
+    file.setLastModified(file.lastModified() + 10000)
+
+    then:
+    LoadedKeystore.load(file.path, password) === loadedKeystore
+  }
+}
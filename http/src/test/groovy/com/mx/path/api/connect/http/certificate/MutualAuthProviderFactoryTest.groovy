@@ -94,6 +94,22 @@ class MutualAuthProviderFactoryTest extends Specification {
     first === MutualAuthProviderFactory.build(settings)
   }
 
+  def "provider caches ssl context"() {
+    given:
+    settings.setKeystorePath("./src/test/resources/keystore.jks")
+    settings.setKeystorePassword("secret".toCharArray())
+    settings.setCertificateAlias("test")
+
+    when:
+    def provider = MutualAuthProviderFactory.build(settings)
+    def sslContext = provider.getSSLContext()
+
+    then:
+    sslContext != null
+    sslContext.clientSessionContext.sessionCacheSize > 0
+    provider.getSSLContext() === sslContext
+  }
+
   def "mutualAuthEnabledTrueWhenSettingsPresent"() {
     when:
     settings.setCertificateAlias("thisOne")